@@ -0,0 +1,259 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2016 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.io.font;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * A font program cache limited by the total size of the cached font programs.
+ * <p/>
+ * The size of a font program is estimated from the length of its font file and the number of its glyphs.
+ * When the limit is exceeded, the least recently used font programs are evicted. A font program
+ * which is larger than the limit itself is never cached. Optionally the font programs may be held by
+ * soft references, so that the garbage collector can reclaim them under memory pressure.
+ * <p/>
+ * The cache counts hits, misses and evictions, which helps to choose an appropriate size limit.
+ *
+ * @see FontCache#setFontProgramCache(IFontProgramCache)
+ */
+public class BoundedFontProgramCache implements IFontProgramCache {
+
+    private final long maxSize;
+    private final boolean softReferences;
+
+    // Access ordered, so the eldest entry is the least recently used one.
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final ReferenceQueue<FontProgram> collectedFontPrograms = new ReferenceQueue<>();
+
+    private long size;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+    private long collectedCount;
+
+    /**
+     * Creates a cache which holds the font programs by strong references.
+     *
+     * @param maxSize the maximum total size of the cached font programs in bytes
+     */
+    public BoundedFontProgramCache(long maxSize) {
+        this(maxSize, false);
+    }
+
+    /**
+     * Creates a cache.
+     *
+     * @param maxSize        the maximum total size of the cached font programs in bytes
+     * @param softReferences whether to hold the cached font programs by soft references
+     */
+    public BoundedFontProgramCache(long maxSize, boolean softReferences) {
+        this.maxSize = maxSize;
+        this.softReferences = softReferences;
+    }
+
+    @Override
+    public synchronized FontProgram get(String key) {
+        removeCollectedEntries();
+        Entry entry = entries.get(key);
+        FontProgram fontProgram = entry != null ? entry.getFontProgram() : null;
+        if (fontProgram != null) {
+            hitCount++;
+        } else {
+            if (entry != null) {
+                // Cleared by the garbage collector, but not yet enqueued.
+                removeEntry(entry);
+                collectedCount++;
+            }
+            missCount++;
+        }
+        return fontProgram;
+    }
+
+    @Override
+    public synchronized FontProgram put(String key, FontProgram fontProgram) {
+        removeCollectedEntries();
+        Entry previous = entries.get(key);
+        if (previous != null) {
+            FontProgram cached = previous.getFontProgram();
+            if (cached != null) {
+                return cached;
+            }
+            removeEntry(previous);
+            collectedCount++;
+        }
+        long fontProgramSize = fontProgram.estimateSize();
+        if (fontProgramSize > maxSize) {
+            return fontProgram;
+        }
+        Entry entry = new Entry(key, fontProgram, fontProgramSize, softReferences, collectedFontPrograms);
+        entries.put(key, entry);
+        size += fontProgramSize;
+
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (size > maxSize && iterator.hasNext()) {
+            Entry eldest = iterator.next();
+            iterator.remove();
+            eldest.removed = true;
+            size -= eldest.size;
+            evictionCount++;
+        }
+        return fontProgram;
+    }
+
+    @Override
+    public synchronized void clear() {
+        for (Entry entry : entries.values()) {
+            entry.removed = true;
+        }
+        entries.clear();
+        size = 0;
+    }
+
+    /**
+     * Gets the maximum total size of the cached font programs.
+     *
+     * @return the size limit in bytes
+     */
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Gets the current total size of the cached font programs.
+     *
+     * @return the estimated size in bytes
+     */
+    public synchronized long getSize() {
+        removeCollectedEntries();
+        return size;
+    }
+
+    /**
+     * Gets the number of cached font programs.
+     *
+     * @return the number of font programs
+     */
+    public synchronized int getCount() {
+        removeCollectedEntries();
+        return entries.size();
+    }
+
+    /**
+     * Gets the number of lookups which found a cached font program.
+     *
+     * @return the number of hits
+     */
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Gets the number of lookups which did not find a cached font program.
+     *
+     * @return the number of misses
+     */
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Gets the number of font programs evicted because the size limit was exceeded.
+     *
+     * @return the number of evictions
+     */
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * Gets the number of font programs reclaimed by the garbage collector. It is always zero
+     * if the font programs are held by strong references.
+     *
+     * @return the number of reclaimed font programs
+     */
+    public synchronized long getCollectedCount() {
+        removeCollectedEntries();
+        return collectedCount;
+    }
+
+    private void removeCollectedEntries() {
+        Reference<? extends FontProgram> reference;
+        while ((reference = collectedFontPrograms.poll()) != null) {
+            Entry entry = (Entry) reference;
+            if (!entry.removed) {
+                removeEntry(entry);
+                collectedCount++;
+            }
+        }
+    }
+
+    private void removeEntry(Entry entry) {
+        entries.remove(entry.key);
+        entry.removed = true;
+        size -= entry.size;
+    }
+
+    private static class Entry extends SoftReference<FontProgram> {
+        final String key;
+        final long size;
+        // Keeps the font program reachable if soft references are not used.
+        final FontProgram fontProgram;
+        boolean removed;
+
+        Entry(String key, FontProgram fontProgram, long size, boolean softReference, ReferenceQueue<FontProgram> queue) {
+            super(fontProgram, queue);
+            this.key = key;
+            this.size = size;
+            this.fontProgram = softReference ? null : fontProgram;
+        }
+
+        FontProgram getFontProgram() {
+            return fontProgram != null ? fontProgram : get();
+        }
+    }
+}
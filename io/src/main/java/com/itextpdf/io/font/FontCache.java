@@ -80,7 +80,13 @@ public class FontCache {
     private static final String W_PROP = "W";
     private static final String W2_PROP = "W2";
 
-    private static Map<String, FontProgram> fontCache = new ConcurrentHashMap<>();
+    private static volatile IFontProgramCache fontCache = new UnboundedFontProgramCache();
+
+    // Parsed CMaps are immutable for the outside world, so they are shared. The number of CMap resources is limited.
+    private static final ConcurrentHashMap<String, CMapCidUni> cid2UniCmaps = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, CMapUniCid> uni2CidCmaps = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, CMapByteCid> byte2CidCmaps = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, CMapCidByte> cid2ByteCmaps = new ConcurrentHashMap<>();
 
     static {
         try {
@@ -141,40 +147,102 @@ public class FontCache {
         return registryNames;
     }
 
+    /**
+     * Gets the CID to Unicode CMap. CMaps are parsed once and then shared, the returned instance must not be modified.
+     * @param uniMap the name of the CMap resource
+     * @return the parsed CMap
+     */
     public static CMapCidUni getCid2UniCmap(String uniMap) {
-        CMapCidUni cidUni = new CMapCidUni();
-        return parseCmap(uniMap, cidUni);
+        CMapCidUni cidUni = cid2UniCmaps.get(uniMap);
+        if (cidUni == null) {
+            cidUni = parseCmap(uniMap, new CMapCidUni());
+            CMapCidUni cached = cid2UniCmaps.putIfAbsent(uniMap, cidUni);
+            if (cached != null) {
+                cidUni = cached;
+            }
+        }
+        return cidUni;
     }
 
+    /**
+     * Gets the Unicode to CID CMap. CMaps are parsed once and then shared, the returned instance must not be modified.
+     * @param uniMap the name of the CMap resource
+     * @return the parsed CMap
+     */
     public static CMapUniCid getUni2CidCmap(String uniMap) {
-        CMapUniCid uniCid = new CMapUniCid();
-        return parseCmap(uniMap, uniCid);
+        CMapUniCid uniCid = uni2CidCmaps.get(uniMap);
+        if (uniCid == null) {
+            uniCid = parseCmap(uniMap, new CMapUniCid());
+            CMapUniCid cached = uni2CidCmaps.putIfAbsent(uniMap, uniCid);
+            if (cached != null) {
+                uniCid = cached;
+            }
+        }
+        return uniCid;
     }
 
+    /**
+     * Gets the byte sequence to CID CMap. CMaps are parsed once and then shared, the returned instance must not be modified.
+     * @param cmap the name of the CMap resource
+     * @return the parsed CMap
+     */
     public static CMapByteCid getByte2CidCmap(String cmap) {
-        CMapByteCid uniCid = new CMapByteCid();
-        return parseCmap(cmap, uniCid);
+        CMapByteCid byteCid = byte2CidCmaps.get(cmap);
+        if (byteCid == null) {
+            byteCid = parseCmap(cmap, new CMapByteCid());
+            CMapByteCid cached = byte2CidCmaps.putIfAbsent(cmap, byteCid);
+            if (cached != null) {
+                byteCid = cached;
+            }
+        }
+        return byteCid;
     }
 
+    /**
+     * Gets the CID to byte sequence CMap. CMaps are parsed once and then shared, the returned instance
+     * and the byte sequences it returns must not be modified.
+     * @param cmap the name of the CMap resource
+     * @return the parsed CMap
+     */
     public static CMapCidByte getCid2Byte(String cmap) {
-        CMapCidByte cidByte = new CMapCidByte();
-        return parseCmap(cmap, cidByte);
+        CMapCidByte cidByte = cid2ByteCmaps.get(cmap);
+        if (cidByte == null) {
+            cidByte = parseCmap(cmap, new CMapCidByte());
+            CMapCidByte cached = cid2ByteCmaps.putIfAbsent(cmap, cidByte);
+            if (cached != null) {
+                cidByte = cached;
+            }
+        }
+        return cidByte;
     }
 
     public static FontProgram getFont(String fontName) {
-        String key = getFontCacheKey(fontName);
-        FontProgram font = null;
-        return fontCache.get(key);
+        return fontCache.get(getFontCacheKey(fontName));
     }
 
     public static FontProgram saveFont(FontProgram font, String fontName) {
-        FontProgram fontFound = getFont(fontName);
-        if (fontFound != null) {
-            return fontFound;
-        }
-        String key = getFontCacheKey(fontName);
-        fontCache.put(key, font);
-        return font;
+        return fontCache.put(getFontCacheKey(fontName), font);
+    }
+
+    /**
+     * Sets the storage for the font programs cached by {@link FontProgramFactory}.
+     * By default the font programs are cached without any limits, which may be undesirable for
+     * long-running applications that load many different fonts. See {@link BoundedFontProgramCache}.
+     * Font programs cached so far are not transferred to the new cache.
+     *
+     * @param cache the font program cache, or {@code null} to restore the default unbounded cache
+     */
+    public static void setFontProgramCache(IFontProgramCache cache) {
+        fontCache = cache != null ? cache : new UnboundedFontProgramCache();
+    }
+
+    /**
+     * Gets the storage for the font programs cached by {@link FontProgramFactory}.
+     *
+     * @return the font program cache
+     */
+    public static IFontProgramCache getFontProgramCache() {
+        return fontCache;
     }
 
     private static void loadRegistry() throws java.io.IOException {
@@ -249,4 +317,24 @@ public class FontCache {
     private static String getFontCacheKey(String fontName) {
         return fontName;
     }
+
+    private static class UnboundedFontProgramCache implements IFontProgramCache {
+        private final ConcurrentHashMap<String, FontProgram> fontPrograms = new ConcurrentHashMap<>();
+
+        @Override
+        public FontProgram get(String key) {
+            return fontPrograms.get(key);
+        }
+
+        @Override
+        public FontProgram put(String key, FontProgram fontProgram) {
+            FontProgram cached = fontPrograms.putIfAbsent(key, fontProgram);
+            return cached != null ? cached : fontProgram;
+        }
+
+        @Override
+        public void clear() {
+            fontPrograms.clear();
+        }
+    }
 }
@@ -58,6 +58,9 @@ public abstract class FontProgram implements Serializable {
     public static final int DEFAULT_WIDTH = 1000;
     public static final int UNITS_NORMALIZATION = 1000;
 
+    // Approximate heap size of a glyph together with its map entry.
+    private static final int GLYPH_ENTRY_SIZE = 64;
+
     // In case Type1: char code to glyph.
     // In case TrueType: glyph index to glyph.
     protected Map<Integer, Glyph> codeToGlyph = new HashMap<>();
@@ -291,4 +294,12 @@ public abstract class FontProgram implements Serializable {
             codeToGlyph.put(space.getCode(), space);
         }
     }
+
+    /**
+     * Estimates the size of this font program. It is used to weight font programs in {@link BoundedFontProgramCache}.
+     * @return approximate size in bytes.
+     */
+    long estimateSize() {
+        return (long) (codeToGlyph.size() + unicodeToGlyph.size()) * GLYPH_ENTRY_SIZE;
+    }
 }
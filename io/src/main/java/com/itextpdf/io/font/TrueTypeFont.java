@@ -164,6 +164,19 @@ public class TrueTypeFont extends FontProgram {
         return fontStreamBytes;
     }
 
+    @Override
+    long estimateSize() {
+        long size = super.estimateSize();
+        try {
+            size += fontParser.raf.length();
+        } catch (java.io.IOException ignored) {
+        }
+        if (fontStreamBytes != null) {
+            size += fontStreamBytes.length;
+        }
+        return size;
+    }
+
     @Override
     public int getPdfFontFlags() {
         int flags = 0;
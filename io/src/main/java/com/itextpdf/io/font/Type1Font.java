@@ -174,6 +174,15 @@ public class Type1Font extends FontProgram {
         }
     }
 
+    @Override
+    long estimateSize() {
+        long size = super.estimateSize();
+        if (fontStreamBytes != null) {
+            size += fontStreamBytes.length;
+        }
+        return size;
+    }
+
     public byte[] getFontStreamBytes() {
         if (fontParser.isBuiltInFont())
             return null;
@@ -48,7 +48,7 @@ import java.io.Serializable;
 /**
  * A RandomAccessSource that is based on an underlying byte array
  */
-class ArrayRandomAccessSource implements IRandomAccessSource, Serializable {
+class ArrayRandomAccessSource implements IDirectRandomAccessSource, Serializable {
 
     private static final long serialVersionUID = 8497059230517630513L;
 
@@ -78,6 +78,15 @@ class ArrayRandomAccessSource implements IRandomAccessSource, Serializable {
         return len;
     }
 
+    public java.nio.ByteBuffer getDirectBuffer(long offset) {
+        if (array == null) throw new IllegalStateException("Already closed");
+
+        if (offset >= array.length)
+            return null;
+
+        return java.nio.ByteBuffer.wrap(array, (int) offset, array.length - (int) offset).slice().asReadOnlyBuffer();
+    }
+
     public long length() {
         return array.length;
     }
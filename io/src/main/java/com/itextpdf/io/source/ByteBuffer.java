@@ -102,6 +102,29 @@ public class ByteBuffer implements Serializable {
         return this;
     }
 
+    /**
+     * Appends bytes from the {@link java.nio.ByteBuffer}. The position of the source buffer is changed.
+     *
+     * @param b   source buffer
+     * @param off index of the first byte in the source buffer
+     * @param len number of bytes to append
+     * @return this {@code ByteBuffer}.
+     */
+    ByteBuffer append(java.nio.ByteBuffer b, int off, int len) {
+        if (len <= 0)
+            return this;
+        int newCount = count + len;
+        if (newCount > buffer.length) {
+            byte[] newBuffer = new byte[Math.max(buffer.length << 1, newCount)];
+            System.arraycopy(buffer, 0, newBuffer, 0, count);
+            buffer = newBuffer;
+        }
+        b.position(off);
+        b.get(buffer, count, len);
+        count = newCount;
+        return this;
+    }
+
     public ByteBuffer append(byte[] b) {
         return append(b, 0, b.length);
     }
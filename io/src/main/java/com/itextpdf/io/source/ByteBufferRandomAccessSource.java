@@ -46,28 +46,62 @@ package com.itextpdf.io.source;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Method;
 import java.nio.BufferUnderflowException;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 
 /**
  * A RandomAccessSource that is based on an underlying {@link java.nio.ByteBuffer}.  This class takes steps to ensure that the byte buffer
  * is completely freed from memory during {@link ByteBufferRandomAccessSource#close()}
  */
-class ByteBufferRandomAccessSource implements IRandomAccessSource {
+class ByteBufferRandomAccessSource implements IDirectRandomAccessSource {
 
     /**
      * Internal cache of memory mapped buffers
      */
     private final java.nio.ByteBuffer byteBuffer;
 
+    /**
+     * Views of the buffer given out by {@link #getDirectBuffer(long)}. The buffer is not cleaned explicitly
+     * while any of them is reachable, so that a view never points to unmapped memory.
+     */
+    private final List<WeakReference<java.nio.ByteBuffer>> directBuffers = new ArrayList<WeakReference<java.nio.ByteBuffer>>();
+
+    /**
+     * The number of views after which the views, which became unreachable, are removed from {@link #directBuffers}.
+     */
+    private int directBuffersPurgeThreshold = 16;
+
+    /**
+     * If true, the buffer is cleaned on close even if its views are reachable. The owner of the source
+     * guarantees that the views are not used after the source is closed.
+     */
+    private final boolean cleanWithViews;
+
+    private boolean closed = false;
+
     /**
      * Constructs a new {@link ByteBufferRandomAccessSource} based on the specified ByteBuffer
      * @param byteBuffer the buffer to use as the backing store
      */
     public ByteBufferRandomAccessSource(java.nio.ByteBuffer byteBuffer) {
+        this(byteBuffer, false);
+    }
+
+    /**
+     * Constructs a new {@link ByteBufferRandomAccessSource} based on the specified ByteBuffer
+     * @param byteBuffer the buffer to use as the backing store
+     * @param cleanWithViews if true, the buffer is cleaned on close even if the views given out by
+     *                       {@link #getDirectBuffer(long)} are reachable, i.e. they must not be used afterwards
+     */
+    ByteBufferRandomAccessSource(java.nio.ByteBuffer byteBuffer, boolean cleanWithViews) {
         this.byteBuffer = byteBuffer;
+        this.cleanWithViews = cleanWithViews;
     }
 
     /**
@@ -111,6 +145,30 @@ class ByteBufferRandomAccessSource implements IRandomAccessSource {
     }
 
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Note: Because ByteBuffers don't support long indexing, the position must be a valid positive int
+     * @param position the position to start the buffer from - must be less than Integer.MAX_VALUE
+     */
+    public synchronized java.nio.ByteBuffer getDirectBuffer(long position) {
+        if (position > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Position must be less than Integer.MAX_VALUE");
+
+        if (closed || position >= byteBuffer.limit())
+            return null;
+
+        java.nio.ByteBuffer view = byteBuffer.asReadOnlyBuffer();
+        view.position((int) position);
+        view = view.slice();
+        if (directBuffers.size() >= directBuffersPurgeThreshold) {
+            purgeDirectBuffers();
+            directBuffersPurgeThreshold = Math.max(16, 2 * directBuffers.size());
+        }
+        directBuffers.add(new WeakReference<java.nio.ByteBuffer>(view));
+        return view;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -120,10 +178,29 @@ class ByteBufferRandomAccessSource implements IRandomAccessSource {
 
     /**
      * @see java.io.RandomAccessFile#close()
-     * Cleans the mapped bytebuffers and closes the channel
+     * Cleans the mapped bytebuffers and closes the channel. If views of the buffer given out by
+     * {@link #getDirectBuffer(long)} may still be in use, the buffer is left to the garbage collector,
+     * which unmaps it once all the views are unreachable.
      */
     public void close() throws java.io.IOException {
-        clean(byteBuffer);
+        boolean viewsReachable;
+        synchronized (this) {
+            closed = true;
+            purgeDirectBuffers();
+            viewsReachable = !directBuffers.isEmpty();
+            directBuffers.clear();
+        }
+        if (cleanWithViews || !viewsReachable) {
+            clean(byteBuffer);
+        }
+    }
+
+    private void purgeDirectBuffers() {
+        for (Iterator<WeakReference<java.nio.ByteBuffer>> it = directBuffers.iterator(); it.hasNext(); ) {
+            if (it.next().get() == null) {
+                it.remove();
+            }
+        }
     }
 
     /**
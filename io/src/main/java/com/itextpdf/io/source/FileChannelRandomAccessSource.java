@@ -53,7 +53,7 @@ import org.slf4j.LoggerFactory;
  * A RandomAccessSource that is based on an underlying {@link java.nio.channels.FileChannel}.
  * The entire channel will be mapped into memory for efficient reads.
  */
-public class FileChannelRandomAccessSource implements IRandomAccessSource, Serializable {
+public class FileChannelRandomAccessSource implements IDirectRandomAccessSource, Serializable {
 
     private static final long serialVersionUID = -7550288945325499416L;
     /**
@@ -111,6 +111,13 @@ public class FileChannelRandomAccessSource implements IRandomAccessSource, Seria
         return source.get(position, bytes, off, len);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    public java.nio.ByteBuffer getDirectBuffer(long position) throws java.io.IOException {
+        return source.getDirectBuffer(position);
+    }
+
     /**
      * {@inheritDoc}
      */
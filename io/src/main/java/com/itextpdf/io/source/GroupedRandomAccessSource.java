@@ -51,7 +51,7 @@ import org.slf4j.LoggerFactory;
  * A RandomAccessSource that is based on a set of underlying sources,
  * treating the sources as if they were a contiguous block of data.
  */
-class GroupedRandomAccessSource implements IRandomAccessSource {
+class GroupedRandomAccessSource implements IDirectRandomAccessSource {
     /**
      * The underlying sources (along with some meta data to quickly determine where each source begins and ends)
      */
@@ -196,6 +196,19 @@ class GroupedRandomAccessSource implements IRandomAccessSource {
     }
 
 
+    /**
+     * {@inheritDoc}
+     * The returned buffer ends at the end of the underlying source, which contains the specified position.
+     */
+    public java.nio.ByteBuffer getDirectBuffer(long position) throws java.io.IOException {
+        SourceEntry entry = getSourceEntryForOffset(position);
+
+        if (entry == null || !(entry.source instanceof IDirectRandomAccessSource))
+            return null;
+
+        return ((IDirectRandomAccessSource) entry.source).getDirectBuffer(entry.offsetN(position));
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -47,7 +47,7 @@ package com.itextpdf.io.source;
  * A RandomAccessSource that is wraps another RandomAccessSource but does not propagate close().  This is useful when
  * passing a RandomAccessSource to a method that would normally close the source.
  */
-public class IndependentRandomAccessSource implements IRandomAccessSource {
+public class IndependentRandomAccessSource implements IDirectRandomAccessSource {
     /**
      * The source
      */
@@ -76,6 +76,15 @@ public class IndependentRandomAccessSource implements IRandomAccessSource {
         return source.get(position, bytes, off, len);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    public java.nio.ByteBuffer getDirectBuffer(long position) throws java.io.IOException {
+        if (source instanceof IDirectRandomAccessSource)
+            return ((IDirectRandomAccessSource) source).getDirectBuffer(position);
+        return null;
+    }
+
     /**
      * {@inheritDoc}
      */
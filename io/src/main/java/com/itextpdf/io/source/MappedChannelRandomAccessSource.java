@@ -51,7 +51,7 @@ import java.nio.channels.FileChannel;
  * This class is an internal implementation detail of the {@link FileChannelRandomAccessSource} class and
  * shouldn't be used by general iText users.
  */
-class MappedChannelRandomAccessSource implements IRandomAccessSource {
+class MappedChannelRandomAccessSource implements IDirectRandomAccessSource {
     /**
      * The underlying channel
      */
@@ -140,6 +140,15 @@ class MappedChannelRandomAccessSource implements IRandomAccessSource {
         return source.get(position, bytes, off, len);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    public java.nio.ByteBuffer getDirectBuffer(long position) throws java.io.IOException {
+        if (source == null)
+            throw new java.io.IOException("RandomAccessSource not opened");
+        return source.getDirectBuffer(position);
+    }
+
     /**
      * {@inheritDoc}
      */
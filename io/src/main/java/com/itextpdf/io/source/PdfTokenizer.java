@@ -47,6 +47,7 @@ import com.itextpdf.io.IOException;
 
 import java.io.Closeable;
 import java.io.Serializable;
+import java.nio.ByteOrder;
 import java.util.Arrays;
 
 public class PdfTokenizer implements Closeable, Serializable {
@@ -110,6 +111,11 @@ public class PdfTokenizer implements Closeable, Serializable {
     public static final byte[] True = ByteUtils.getIsoBytes("true");
     public static final byte[] False = ByteUtils.getIsoBytes("false");
 
+    private static final double[] POWERS_OF_TEN = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+    // mantissas with up to 15 digits are exact both in long and in double
+    private static final long MAX_EXACT_MANTISSA = 999999999999999L;
+
     protected TokenType type;
     protected int reference;
     protected int generation;
@@ -117,6 +123,13 @@ public class PdfTokenizer implements Closeable, Serializable {
     protected ByteBuffer outBuf;
 
     private final RandomAccessFileOrArray file;
+
+    /**
+     * Value of the current number token, parsed while the token was scanned.
+     * {@link Double#NaN} if the token isn't a number or it can't be converted exactly without {@link Double#parseDouble(String)}.
+     */
+    private transient double numberValue = Double.NaN;
+    private transient boolean integerNumber;
     /**
      * Streams are closed automatically.
      */
@@ -187,6 +200,43 @@ public class PdfTokenizer implements Closeable, Serializable {
         return decodeStringContent(outBuf.getInternalBuffer(), 0, outBuf.size() - 1, isHexString());
     }
 
+    /**
+     * Gets the length of the current token content without creating a copy of the content.
+     *
+     * @return the number of bytes in the token content.
+     */
+    public int getContentLength() {
+        return outBuf.size();
+    }
+
+    /**
+     * Gets a byte of the current token content without creating a copy of the content.
+     *
+     * @param index the index of the byte, less than {@link #getContentLength()}.
+     * @return the byte of the token content.
+     */
+    public byte getContentByte(int index) {
+        return outBuf.getInternalBuffer()[index];
+    }
+
+    /**
+     * Gets the value of the current number token. Numbers with up to 15 significant digits are converted
+     * while the token is scanned, without creating intermediate strings, which gives the same result
+     * as {@link Double#parseDouble(String)}.
+     *
+     * @return the value of the number, or {@link Double#NaN} if the token isn't a valid number.
+     */
+    public double getDoubleValue() {
+        if (!Double.isNaN(numberValue)) {
+            return numberValue;
+        }
+        try {
+            return Double.parseDouble(getStringValue());
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
     public boolean tokenValueEqualsTo(byte[] cmp) {
         if (cmp == null)
             return false;
@@ -262,6 +312,10 @@ public class PdfTokenizer implements Closeable, Serializable {
         int level = 0;
         byte[] n1 = null;
         byte[] n2 = null;
+        double n1Value = Double.NaN;
+        double n2Value = Double.NaN;
+        boolean n1Integer = false;
+        boolean n2Integer = false;
         long ptr = 0;
         while (nextToken()) {
             if (type == TokenType.Comment)
@@ -272,17 +326,20 @@ public class PdfTokenizer implements Closeable, Serializable {
                         return;
                     ptr = file.getPosition();
                     n1 = getByteContent();
+                    n1Value = numberValue;
+                    n1Integer = integerNumber;
                     ++level;
                     break;
                 }
                 case 1: {
                     if (type != TokenType.Number) {
                         file.seek(ptr);
-                        type = TokenType.Number;
-                        outBuf.reset().append(n1);
+                        restoreNumber(n1, n1Value, n1Integer);
                         return;
                     }
                     n2 = getByteContent();
+                    n2Value = numberValue;
+                    n2Integer = integerNumber;
                     ++level;
                     break;
                 }
@@ -291,28 +348,26 @@ public class PdfTokenizer implements Closeable, Serializable {
                         if (tokenValueEqualsTo(R)) {
                             assert n2 != null;
                             type = TokenType.Ref;
-                            reference = Integer.parseInt(new String(n1));
-                            generation = Integer.parseInt(new String(n2));
+                            reference = toInt(n1, n1Value, n1Integer);
+                            generation = toInt(n2, n2Value, n2Integer);
                             return;
                         } else if (tokenValueEqualsTo(Obj)) {
                             assert n2 != null;
                             type = TokenType.Obj;
-                            reference = Integer.parseInt(new String(n1));
-                            generation = Integer.parseInt(new String(n2));
+                            reference = toInt(n1, n1Value, n1Integer);
+                            generation = toInt(n2, n2Value, n2Integer);
                             return;
                         }
                     }
                     file.seek(ptr);
-                    type = TokenType.Number;
-                    outBuf.reset().append(n1);
+                    restoreNumber(n1, n1Value, n1Integer);
                     return;
                 }
             }
         }
 
         if (level == 1) { // if the level 1 check returns EOF, then we are still looking at a number - set the type back to Number
-            type = TokenType.Number;
-            outBuf.reset().append(n1);
+            restoreNumber(n1, n1Value, n1Integer);
         }
         // if we hit here, the file is either corrupt (stream ended unexpectedly),
         // or the last token ended exactly at the end of a stream.  This last
@@ -320,8 +375,9 @@ public class PdfTokenizer implements Closeable, Serializable {
     }
 
     public boolean nextToken() throws java.io.IOException {
-        int ch;
         outBuf.reset();
+        numberValue = Double.NaN;
+        int ch;
         do {
             ch = file.read();
         } while (ch != -1 && isWhitespace(ch));
@@ -340,6 +396,9 @@ public class PdfTokenizer implements Closeable, Serializable {
             }
             case '/': {
                 type = TokenType.Name;
+                if (scanDirectly(-1)) {
+                    break;
+                }
                 while (true) {
                     ch = file.read();
                     if (delims[ch + 1])
@@ -426,35 +485,15 @@ public class PdfTokenizer implements Closeable, Serializable {
             default: {
                 if (ch == '-' || ch == '+' || ch == '.' || (ch >= '0' && ch <= '9')) {
                     type = TokenType.Number;
-                    boolean isReal = false;
-                    int numberOfMinuses = 0;
-                    if (ch == '-') {
-                        // Take care of number like "--234". If Acrobat can read them so must we.
-                        do {
-                            ++numberOfMinuses;
-                            ch = file.read();
-                        } while (ch == '-');
-                        outBuf.append('-');
-                    } else {
-                        outBuf.append(ch);
-                        // We don't need to check if the number is real over here
-                        // as we need to know that fact only in case if there are any minuses.
-                        ch = file.read();
-                    }
-                    while (ch != -1 && ((ch >= '0' && ch <= '9') || ch == '.')) {
-                        if (ch == '.')
-                            isReal = true;
-                        outBuf.append(ch);
-                        ch = file.read();
-                    }
-                    if (numberOfMinuses > 1 && !isReal) {
-                        // Numbers of integer type and with more than one minus before them
-                        // are interpreted by Acrobat as zero.
-                        outBuf.reset();
-                        outBuf.append('0');
+                    if (scanNumberDirectly(ch)) {
+                        break;
                     }
+                    ch = readNumber(ch);
                 } else {
                     type = TokenType.Other;
+                    if (scanDirectly(ch)) {
+                        break;
+                    }
                     do {
                         outBuf.append(ch);
                         ch = file.read();
@@ -469,10 +508,16 @@ public class PdfTokenizer implements Closeable, Serializable {
     }
 
     public long getLongValue() {
+        if (integerNumber && !Double.isNaN(numberValue)) {
+            return (long) numberValue;
+        }
         return Long.parseLong(getStringValue());
     }
 
     public int getIntValue() {
+        if (integerNumber && numberValue >= Integer.MIN_VALUE && numberValue <= Integer.MAX_VALUE) {
+            return (int) numberValue;
+        }
         return Integer.parseInt(getStringValue());
     }
 
@@ -492,6 +537,243 @@ public class PdfTokenizer implements Closeable, Serializable {
         return file.createView();
     }
 
+    /**
+     * Reads the rest of a number token byte by byte and converts it to the value at the same time.
+     *
+     * @param ch the first byte of the number, which is already read
+     * @return the first byte after the number
+     * @throws java.io.IOException in case of any I/O error.
+     */
+    private int readNumber(int ch) throws java.io.IOException {
+        boolean isReal = false;
+        boolean negative = false;
+        int numberOfMinuses = 0;
+        long mantissa = 0;
+        int fractionDigits = -1;
+        boolean hasDigits = false;
+        boolean exact = true;
+        if (ch == '-') {
+            // Take care of number like "--234". If Acrobat can read them so must we.
+            do {
+                ++numberOfMinuses;
+                ch = file.read();
+            } while (ch == '-');
+            outBuf.append('-');
+            negative = true;
+        } else {
+            outBuf.append(ch);
+            // We don't need to check if the number is real over here
+            // as we need to know that fact only in case if there are any minuses.
+            if (ch == '.') {
+                fractionDigits = 0;
+            } else if (ch != '+') {
+                mantissa = ch - '0';
+                hasDigits = true;
+            }
+            ch = file.read();
+        }
+        while (ch != -1 && ((ch >= '0' && ch <= '9') || ch == '.')) {
+            if (ch == '.') {
+                isReal = true;
+                exact &= fractionDigits < 0;
+                fractionDigits = 0;
+            } else {
+                hasDigits = true;
+                if (mantissa <= MAX_EXACT_MANTISSA / 10) {
+                    mantissa = mantissa * 10 + ch - '0';
+                } else {
+                    exact = false;
+                }
+                if (fractionDigits >= 0) {
+                    fractionDigits++;
+                }
+            }
+            outBuf.append(ch);
+            ch = file.read();
+        }
+        if (numberOfMinuses > 1 && !isReal) {
+            // Numbers of integer type and with more than one minus before them
+            // are interpreted by Acrobat as zero.
+            outBuf.reset();
+            outBuf.append('0');
+            setNumberValue(false, 0, -1, true);
+        } else {
+            setNumberValue(negative, mantissa, fractionDigits, hasDigits && exact);
+        }
+        return ch;
+    }
+
+    /**
+     * Scans the rest of a name or other token directly in the buffer of the file,
+     * when the file gives direct access to its bytes (e.g. memory mapped file). Token bytes
+     * are copied to {@link #outBuf} at once, so the token never refers to the buffer of the file.
+     *
+     * @param firstByte the first byte of the token, which is already read, or -1 if the first byte
+     *                  of the token is at the current position
+     * @return true if the token is scanned, false if it shall be read byte by byte
+     * @throws java.io.IOException in case of any I/O error.
+     */
+    private boolean scanDirectly(int firstByte) throws java.io.IOException {
+        java.nio.ByteBuffer window = file.getWindow();
+        if (window == null)
+            return false;
+        long windowStart = file.getWindowStart();
+        int end = (int) (file.getPosition() - windowStart);
+        int start = end;
+        if (firstByte != -1) {
+            start--;
+            if (start < 0 || (window.get(start) & 0xff) != firstByte)
+                return false;
+        }
+        int limit = window.limit();
+        while (end < limit && !delims[(window.get(end) & 0xff) + 1])
+            end++;
+        // the token may continue after the end of the mapped page
+        if (end == limit && windowStart + limit < file.length())
+            return false;
+        outBuf.append(window, start, end - start);
+        file.seek(windowStart + end);
+        return true;
+    }
+
+    /**
+     * Scans the rest of a number token directly in the buffer of the file, like {@link #scanDirectly(int)},
+     * and converts it to the value at the same time. Runs of eight digits are converted at once
+     * within a single {@code long}.
+     *
+     * @param firstByte the first byte of the number, which is already read
+     * @return true if the number is scanned, false if it shall be read byte by byte
+     * @throws java.io.IOException in case of any I/O error.
+     */
+    private boolean scanNumberDirectly(int firstByte) throws java.io.IOException {
+        java.nio.ByteBuffer window = file.getWindow();
+        if (window == null)
+            return false;
+        long windowStart = file.getWindowStart();
+        int end = (int) (file.getPosition() - windowStart);
+        int start = end - 1;
+        int limit = window.limit();
+        if (start < 0 || (window.get(start) & 0xff) != firstByte)
+            return false;
+        boolean negative = firstByte == '-';
+        // numbers with several minuses are handled in the byte by byte mode
+        if (negative && (end == limit || window.get(end) == '-'))
+            return false;
+        long mantissa = 0;
+        int fractionDigits = -1;
+        boolean hasDigits = false;
+        boolean exact = true;
+        if (firstByte == '.') {
+            fractionDigits = 0;
+        } else if (firstByte >= '0') {
+            mantissa = firstByte - '0';
+            hasDigits = true;
+        }
+        boolean bigEndian = window.order() == ByteOrder.BIG_ENDIAN;
+        // eight digits at once are tried at the start of the integer and the fractional parts and after each success
+        boolean tryEightDigits = bigEndian;
+        while (end < limit) {
+            if (tryEightDigits) {
+                tryEightDigits = false;
+                if (end + 8 <= limit) {
+                    long chunk = window.getLong(end);
+                    if (isEightDigits(chunk)) {
+                        hasDigits = true;
+                        if (mantissa <= MAX_EXACT_MANTISSA / 100000000L) {
+                            mantissa = mantissa * 100000000L + parseEightDigits(chunk);
+                        } else {
+                            exact = false;
+                        }
+                        if (fractionDigits >= 0) {
+                            fractionDigits += 8;
+                        }
+                        end += 8;
+                        tryEightDigits = true;
+                        continue;
+                    }
+                }
+            }
+            int ch = window.get(end);
+            if (ch >= '0' && ch <= '9') {
+                hasDigits = true;
+                if (mantissa <= MAX_EXACT_MANTISSA / 10) {
+                    mantissa = mantissa * 10 + ch - '0';
+                } else {
+                    exact = false;
+                }
+                if (fractionDigits >= 0) {
+                    fractionDigits++;
+                }
+            } else if (ch == '.') {
+                exact &= fractionDigits < 0;
+                fractionDigits = 0;
+                tryEightDigits = bigEndian;
+            } else {
+                break;
+            }
+            end++;
+        }
+        // the token may continue after the end of the mapped page
+        if (end == limit && windowStart + limit < file.length())
+            return false;
+        outBuf.append(window, start, end - start);
+        file.seek(windowStart + end);
+        setNumberValue(negative, mantissa, fractionDigits, hasDigits && exact);
+        return true;
+    }
+
+    /**
+     * Sets the value of the current number token.
+     *
+     * @param negative       true if the number has a minus sign
+     * @param mantissa       all digits of the number as an integer
+     * @param fractionDigits the number of digits after the decimal point, or -1 if there is no decimal point
+     * @param exact          false if the number can't be converted from the mantissa, e.g. it has too many digits
+     */
+    private void setNumberValue(boolean negative, long mantissa, int fractionDigits, boolean exact) {
+        if (!exact || fractionDigits >= POWERS_OF_TEN.length) {
+            numberValue = Double.NaN;
+            return;
+        }
+        // both the mantissa and the power of ten are exact doubles, so the division is correctly rounded
+        double value = fractionDigits > 0 ? mantissa / POWERS_OF_TEN[fractionDigits] : mantissa;
+        numberValue = negative ? -value : value;
+        integerNumber = fractionDigits < 0;
+    }
+
+    private void restoreNumber(byte[] content, double value, boolean isInteger) {
+        type = TokenType.Number;
+        outBuf.reset().append(content);
+        numberValue = value;
+        integerNumber = isInteger;
+    }
+
+    private static int toInt(byte[] content, double value, boolean isInteger) {
+        if (isInteger && value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+            return (int) value;
+        }
+        return Integer.parseInt(new String(content));
+    }
+
+    /**
+     * Checks if all eight bytes of the big-endian chunk are ASCII digits.
+     */
+    private static boolean isEightDigits(long chunk) {
+        return (chunk & 0xF0F0F0F0F0F0F0F0L) == 0x3030303030303030L
+                && ((chunk + 0x0606060606060606L) & 0xF0F0F0F0F0F0F0F0L) == 0x3030303030303030L;
+    }
+
+    /**
+     * Converts eight ASCII digits of the big-endian chunk to their value, combining pairs of digits,
+     * then pairs of pairs and so on within the {@code long}.
+     */
+    private static long parseEightDigits(long chunk) {
+        long value = chunk - 0x3030303030303030L;
+        value = (value >>> 8 & 0x00FF00FF00FF00FFL) * 10 + (value & 0x00FF00FF00FF00FFL);
+        value = (value >>> 16 & 0x0000FFFF0000FFFFL) * 100 + (value & 0x0000FFFF0000FFFFL);
+        return (value >>> 32) * 10000 + (value & 0x00000000FFFFFFFFL);
+    }
+
     /**
      * Resolve escape symbols or hexadecimal symbols.
      * <p/>
@@ -81,6 +81,20 @@ public class RandomAccessFileOrArray implements DataInput, Serializable {
      */
     private boolean isBack = false;
 
+    /**
+     * The byte source, if it gives direct access to its bytes, e.g. memory mapped file. Otherwise null.
+     */
+    private transient IDirectRandomAccessSource directSource;
+
+    /**
+     * Direct buffer over the bytes of the source, starting at {@link #windowStart} (inclusive)
+     * and ending at {@link #windowEnd} (exclusive). Bytes inside the window are read without
+     * going through the chain of byte sources.
+     */
+    private transient java.nio.ByteBuffer window;
+    private transient long windowStart;
+    private transient long windowEnd;
+
     /**
      * Creates an independent view of this object (with it's own file pointer and push back queue).  Closing the new object will not close this object.
      * Closing this object will have adverse effect on the view.
@@ -109,6 +123,9 @@ public class RandomAccessFileOrArray implements DataInput, Serializable {
      */
     public RandomAccessFileOrArray(IRandomAccessSource byteSource){
         this.byteSource = byteSource;
+        if (byteSource instanceof IDirectRandomAccessSource) {
+            this.directSource = (IDirectRandomAccessSource) byteSource;
+        }
     }
 
     /**
@@ -133,7 +150,11 @@ public class RandomAccessFileOrArray implements DataInput, Serializable {
             return back & 0xff;
         }
 
-        return byteSource.get(byteSourcePosition++);
+        long position = byteSourcePosition++;
+        if (position >= windowStart && position < windowEnd || mapWindow(position)) {
+            return window.get((int) (position - windowStart)) & 0xff;
+        }
+        return byteSource.get(position);
     }
 
     /**
@@ -155,6 +176,15 @@ public class RandomAccessFileOrArray implements DataInput, Serializable {
             --len;
             count++;
         }
+        if (len > 0 && byteSourcePosition >= windowStart && byteSourcePosition < windowEnd) {
+            int windowCount = (int) Math.min(len, windowEnd - byteSourcePosition);
+            window.position((int) (byteSourcePosition - windowStart));
+            window.get(b, off, windowCount);
+            byteSourcePosition += windowCount;
+            count += windowCount;
+            off += windowCount;
+            len -= windowCount;
+        }
         if (len > 0){
             int byteSourceCount = byteSource.get(byteSourcePosition, b, off, len);
             if (byteSourceCount > 0) {
@@ -250,6 +280,8 @@ public class RandomAccessFileOrArray implements DataInput, Serializable {
      */
     public void close() throws java.io.IOException {
         isBack = false;
+        window = null;
+        windowStart = windowEnd = 0;
 
         byteSource.close();
     }
@@ -286,6 +318,58 @@ public class RandomAccessFileOrArray implements DataInput, Serializable {
         return byteSourcePosition - (isBack ? 1 : 0);
     }
 
+    /**
+     * Gets the direct buffer over the source bytes, which contains the current position.
+     * The index of the current position in the buffer is {@code getPosition() - getWindowStart()}.
+     * NOTE Only for internal use in {@link PdfTokenizer}!
+     *
+     * @return the buffer, or null if there is a pushed back byte or the source doesn't give direct access to its bytes.
+     * @throws java.io.IOException in case of any I/O error.
+     */
+    java.nio.ByteBuffer getWindow() throws java.io.IOException {
+        if (isBack) {
+            return null;
+        }
+        if (byteSourcePosition >= windowStart && byteSourcePosition < windowEnd || mapWindow(byteSourcePosition)) {
+            return window;
+        }
+        return null;
+    }
+
+    /**
+     * Gets the position in the source of the first byte of the buffer returned by {@link #getWindow()}.
+     *
+     * @return the position of the window start.
+     */
+    long getWindowStart() {
+        return windowStart;
+    }
+
+    /**
+     * Tries to move the direct buffer window to the specified position.
+     *
+     * @param position the position which shall be covered by the window
+     * @return true, if the window covers the position, otherwise false.
+     * @throws java.io.IOException in case of any I/O error.
+     */
+    private boolean mapWindow(long position) throws java.io.IOException {
+        if (directSource == null || position < 0) {
+            return false;
+        }
+        java.nio.ByteBuffer buffer = directSource.getDirectBuffer(position);
+        if (buffer == null || !buffer.hasRemaining()) {
+            if (position < directSource.length()) {
+                // the source can't give direct access to its bytes, don't try it once again
+                directSource = null;
+            }
+            return false;
+        }
+        window = buffer;
+        windowStart = position;
+        windowEnd = position + buffer.limit();
+        return true;
+    }
+
     /**
      * {@inheritDoc}
      */
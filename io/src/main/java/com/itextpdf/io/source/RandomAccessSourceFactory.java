@@ -225,6 +225,21 @@ public final class RandomAccessSourceFactory implements Serializable {
         }
     }
 
+    /**
+     * Creates a {@link IDirectRandomAccessSource} based on memory mapping a region of a file channel.
+     * The region is mapped at once and unmapped when the source is closed, without waiting for the garbage
+     * collector. The buffers obtained by {@link IDirectRandomAccessSource#getDirectBuffer(long)} must not be used
+     * after the source is closed.
+     * @param channel the file channel to map
+     * @param offset the offset of the region in the file
+     * @param length the length of the region, which must not exceed {@link Integer#MAX_VALUE}
+     * @return the newly created {@link IDirectRandomAccessSource}
+     * @throws java.io.IOException if the region can't be mapped
+     */
+    public IDirectRandomAccessSource createMappedSource(FileChannel channel, long offset, long length) throws java.io.IOException {
+        return new ByteBufferRandomAccessSource(channel.map(FileChannel.MapMode.READ_ONLY, offset, length), true);
+    }
+
     public IRandomAccessSource createRanged(IRandomAccessSource source, long[] ranges) throws java.io.IOException {
         IRandomAccessSource[] sources = new IRandomAccessSource[ranges.length/2];
         for(int i = 0; i < ranges.length; i+=2){
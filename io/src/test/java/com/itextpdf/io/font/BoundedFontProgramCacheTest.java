@@ -0,0 +1,73 @@
+package com.itextpdf.io.font;
+
+import com.itextpdf.test.annotations.type.UnitTest;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.io.IOException;
+
+@Category(UnitTest.class)
+public class BoundedFontProgramCacheTest {
+
+    @Test
+    public void leastRecentlyUsedEvictionTest() throws IOException {
+        FontProgram courier = FontProgramFactory.createFont(FontConstants.COURIER, false);
+        FontProgram helvetica = FontProgramFactory.createFont(FontConstants.HELVETICA, false);
+        FontProgram times = FontProgramFactory.createFont(FontConstants.TIMES_ROMAN, false);
+        long maxSize = courier.estimateSize() + helvetica.estimateSize() + times.estimateSize() - 1;
+
+        BoundedFontProgramCache cache = new BoundedFontProgramCache(maxSize);
+        Assert.assertSame(courier, cache.put("courier", courier));
+        Assert.assertSame(helvetica, cache.put("helvetica", helvetica));
+        Assert.assertSame(courier, cache.get("courier"));
+        Assert.assertSame(times, cache.put("times", times));
+
+        Assert.assertNull(cache.get("helvetica"));
+        Assert.assertSame(courier, cache.get("courier"));
+        Assert.assertSame(times, cache.get("times"));
+        Assert.assertEquals(2, cache.getCount());
+        Assert.assertEquals(courier.estimateSize() + times.estimateSize(), cache.getSize());
+        Assert.assertEquals(3, cache.getHitCount());
+        Assert.assertEquals(1, cache.getMissCount());
+        Assert.assertEquals(1, cache.getEvictionCount());
+    }
+
+    @Test
+    public void putReturnsCachedFontProgramTest() throws IOException {
+        FontProgram first = FontProgramFactory.createFont(FontConstants.HELVETICA, false);
+        FontProgram second = FontProgramFactory.createFont(FontConstants.HELVETICA, false);
+
+        BoundedFontProgramCache cache = new BoundedFontProgramCache(Long.MAX_VALUE);
+        Assert.assertSame(first, cache.put("helvetica", first));
+        Assert.assertSame(first, cache.put("helvetica", second));
+        Assert.assertEquals(first.estimateSize(), cache.getSize());
+    }
+
+    @Test
+    public void tooLargeFontProgramIsNotCachedTest() throws IOException {
+        FontProgram helvetica = FontProgramFactory.createFont(FontConstants.HELVETICA, false);
+
+        BoundedFontProgramCache cache = new BoundedFontProgramCache(helvetica.estimateSize() - 1);
+        Assert.assertSame(helvetica, cache.put("helvetica", helvetica));
+        Assert.assertNull(cache.get("helvetica"));
+        Assert.assertEquals(0, cache.getCount());
+        Assert.assertEquals(0, cache.getSize());
+    }
+
+    @Test
+    public void factoryUsesFontProgramCacheTest() throws IOException {
+        BoundedFontProgramCache cache = new BoundedFontProgramCache(Long.MAX_VALUE, true);
+        FontCache.setFontProgramCache(cache);
+        try {
+            FontProgram first = FontProgramFactory.createFont(FontConstants.HELVETICA_BOLD, true);
+            FontProgram second = FontProgramFactory.createFont(FontConstants.HELVETICA_BOLD, true);
+            Assert.assertSame(first, second);
+            Assert.assertEquals(1, cache.getCount());
+            Assert.assertEquals(1, cache.getHitCount());
+            Assert.assertEquals(1, cache.getMissCount());
+        } finally {
+            FontCache.setFontProgramCache(null);
+        }
+    }
+}
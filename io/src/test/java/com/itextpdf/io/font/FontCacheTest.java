@@ -0,0 +1,26 @@
+package com.itextpdf.io.font;
+
+import com.itextpdf.test.annotations.type.UnitTest;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(UnitTest.class)
+public class FontCacheTest {
+
+    @Test
+    public void cmapsAreParsedOnceTest() {
+        Assert.assertSame(FontCache.getUni2CidCmap("UniJIS-UCS2-H"), FontCache.getUni2CidCmap("UniJIS-UCS2-H"));
+        Assert.assertSame(FontCache.getCid2UniCmap("UniJIS-UCS2-H"), FontCache.getCid2UniCmap("UniJIS-UCS2-H"));
+        Assert.assertSame(FontCache.getByte2CidCmap("UniJIS-UCS2-H"), FontCache.getByte2CidCmap("UniJIS-UCS2-H"));
+        Assert.assertSame(FontCache.getCid2Byte("UniJIS-UCS2-H"), FontCache.getCid2Byte("UniJIS-UCS2-H"));
+        Assert.assertNotSame(FontCache.getUni2CidCmap("UniJIS-UCS2-H"), FontCache.getUni2CidCmap("UniJIS-UCS2-V"));
+    }
+
+    @Test
+    public void cachedCmapContentTest() {
+        int cid = FontCache.getUni2CidCmap("UniJIS-UCS2-H").lookup('A');
+        Assert.assertNotEquals(0, cid);
+        Assert.assertEquals('A', FontCache.getCid2UniCmap("UniJIS-UCS2-H").lookup(cid));
+    }
+}
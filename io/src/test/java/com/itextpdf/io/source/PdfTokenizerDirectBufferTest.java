@@ -0,0 +1,284 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2016 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.io.source;
+
+import com.itextpdf.test.annotations.type.UnitTest;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(UnitTest.class)
+public class PdfTokenizerDirectBufferTest {
+
+    private static final String CONTENT = "%PDF-1.7\n%âãÏÓ\n" +
+            "1 0 obj\n<</Type/Catalog/Pages 2 0 R/Names<</Dests 3 0 R>>>>\nendobj\n" +
+            "2 0 obj <</Type /Pages /Kids [4 0 R 5 12 R] /Count 2 /MediaBox [0 0 595.2756 -841.89]>> endobj\n" +
+            "3 0 obj\n(Hello \\(world\\)\\n\\101) <48656C6C6F> /A#20B /Empty/ % comment 12 0 R\n" +
+            "--234 --1.5 -.5 +17 .25 1234567890 12345678901234567890 true false null endobj\n" +
+            "0000012345 00000 n -12345678.87654321 123456781234567 12345678.5 0.12345678 endobj\n" +
+            "4 0 obj[1 2 3 R 6 7 Rx]endobj\r\n" +
+            "5 0 obj <</Long/AVeryLongNameWhichCrossesTheBoundaryOfTheMappedPages/N 98765>> stream\r\n" +
+            "q 1 0 0 1 100 200 cm BT /F1 12 Tf (text) Tj ET Q\r\nendstream endobj\n" +
+            "xref\n0 6\n0000000000 65535 f \ntrailer\n<</Size 6/Root 1 0 R>>\nstartxref\n12345\n%%EOF 42";
+
+    @Test
+    public void arraySourceTest() throws IOException {
+        byte[] bytes = CONTENT.getBytes(StandardCharsets.ISO_8859_1);
+        for (int i = 0; i < 2; i++) {
+            boolean validTokens = i == 1;
+            Assert.assertEquals(readTokens(createBytesSource(), validTokens),
+                    readTokens(new ArrayRandomAccessSource(bytes), validTokens));
+        }
+    }
+
+    @Test
+    public void mappedFileTest() throws IOException {
+        File file = createFile();
+        try {
+            for (int i = 0; i < 2; i++) {
+                boolean validTokens = i == 1;
+                IRandomAccessSource source = new RandomAccessSourceFactory().createBestSource(file.getAbsolutePath());
+                Assert.assertEquals(readTokens(createBytesSource(), validTokens), readTokens(source, validTokens));
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void mappedPagesTest() throws IOException {
+        File file = createFile();
+        try {
+            // use pages of different sizes, so that every kind of token crosses the page boundary
+            for (int pageSize = 1; pageSize <= 32; pageSize++) {
+                for (int i = 0; i < 2; i++) {
+                    boolean validTokens = i == 1;
+                    RandomAccessFile raf = new RandomAccessFile(file, "r");
+                    FileChannel channel = raf.getChannel();
+                    try {
+                        IRandomAccessSource source = new PagedChannelRandomAccessSource(channel, pageSize * 4, 4);
+                        Assert.assertEquals("Page size " + pageSize, readTokens(createBytesSource(), validTokens),
+                                readTokens(source, validTokens));
+                    } finally {
+                        raf.close();
+                    }
+                }
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void closedMappedFileTest() throws IOException {
+        File file = createFile();
+        try {
+            RandomAccessFileOrArray raf = new RandomAccessFileOrArray(new RandomAccessSourceFactory().createBestSource(file.getAbsolutePath()));
+            RandomAccessFileOrArray view = raf.createView();
+            Assert.assertEquals('%', view.read());
+            Assert.assertNotNull(view.getWindow());
+            PdfTokenizer tokenizer = new PdfTokenizer(raf.createView());
+            do {
+                Assert.assertTrue(tokenizer.nextToken());
+            } while (tokenizer.getTokenType() != PdfTokenizer.TokenType.Name);
+            raf.close();
+            // the buffer stays mapped while the window of the view is reachable, the token doesn't refer to it at all
+            Assert.assertEquals('P', view.read());
+            Assert.assertEquals("Type", tokenizer.getStringValue());
+            Assert.assertTrue(tokenizer.tokenValueEqualsTo(ByteUtils.getIsoBytes("Type")));
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void doubleValueTest() throws IOException {
+        String numbers = "0 -0 12 -3.25 .5 5. +17 0.000001 -0.1 123456789012345 1234567890123456 " +
+                "1234567890123456789 0.1234567890123456789 000000000000000000000000000.75 " +
+                "0.0000000000000000000001 0.00000000000000000000001 3.1415926535 -. . - 1.2.3 " +
+                "12345678 -87654321.12345678 0000012345 99999999 100000000 .00000001 1.1234567812345678 " +
+                "-2147483648 2147483647 2147483648 --7 --7.5 -+1 ";
+        byte[] bytes = numbers.getBytes(StandardCharsets.ISO_8859_1);
+        checkNumberValues(new ArrayRandomAccessSource(bytes));
+        checkNumberValues(new WindowRandomAccessSource(new ArrayRandomAccessSource(bytes), 0));
+    }
+
+    private static void checkNumberValues(IRandomAccessSource source) throws IOException {
+        PdfTokenizer tokenizer = new PdfTokenizer(new RandomAccessFileOrArray(source));
+        int count = 0;
+        while (tokenizer.nextToken()) {
+            if (tokenizer.getTokenType() != PdfTokenizer.TokenType.Number) {
+                continue;
+            }
+            // values are requested before the content, so that they are not calculated from the content
+            double value = tokenizer.getDoubleValue();
+            String intValue = getIntValue(tokenizer);
+            String longValue = getLongValue(tokenizer);
+            String content = tokenizer.getStringValue();
+            double expected;
+            try {
+                expected = Double.parseDouble(content);
+            } catch (NumberFormatException e) {
+                expected = Double.NaN;
+            }
+            Assert.assertEquals(content, Double.valueOf(expected), Double.valueOf(value));
+            Assert.assertEquals(content, parseInt(content), intValue);
+            Assert.assertEquals(content, parseLong(content), longValue);
+            count++;
+        }
+        tokenizer.close();
+        Assert.assertTrue(count > 30);
+    }
+
+    private static String parseInt(String content) {
+        try {
+            return String.valueOf(Integer.parseInt(content));
+        } catch (NumberFormatException e) {
+            return "invalid";
+        }
+    }
+
+    private static String parseLong(String content) {
+        try {
+            return String.valueOf(Long.parseLong(content));
+        } catch (NumberFormatException e) {
+            return "invalid";
+        }
+    }
+
+    private static String getIntValue(PdfTokenizer tokenizer) {
+        try {
+            return String.valueOf(tokenizer.getIntValue());
+        } catch (NumberFormatException e) {
+            return "invalid";
+        }
+    }
+
+    private static String getLongValue(PdfTokenizer tokenizer) {
+        try {
+            return String.valueOf(tokenizer.getLongValue());
+        } catch (NumberFormatException e) {
+            return "invalid";
+        }
+    }
+
+    /**
+     * Creates the source of the test content, which doesn't give direct access to its bytes.
+     */
+    private static IRandomAccessSource createBytesSource() {
+        IRandomAccessSource source = new WindowRandomAccessSource(
+                new ArrayRandomAccessSource(CONTENT.getBytes(StandardCharsets.ISO_8859_1)), 0);
+        Assert.assertFalse(source instanceof IDirectRandomAccessSource);
+        return source;
+    }
+
+    private static File createFile() throws IOException {
+        File file = File.createTempFile("tokenizer", ".pdf");
+        FileOutputStream fos = new FileOutputStream(file);
+        try {
+            fos.write(CONTENT.getBytes(StandardCharsets.ISO_8859_1));
+        } finally {
+            fos.close();
+        }
+        return file;
+    }
+
+    private static List<String> readTokens(IRandomAccessSource source, boolean validTokens) throws IOException {
+        PdfTokenizer tokenizer = new PdfTokenizer(new RandomAccessFileOrArray(source));
+        List<String> tokens = new ArrayList<>();
+        try {
+            while (true) {
+                if (validTokens) {
+                    tokenizer.nextValidToken();
+                } else if (!tokenizer.nextToken()) {
+                    break;
+                }
+                PdfTokenizer.TokenType type = tokenizer.getTokenType();
+                if (type == PdfTokenizer.TokenType.EndOfFile) {
+                    break;
+                }
+                StringBuilder token = new StringBuilder().append(type).append(' ');
+                switch (type) {
+                    case Number:
+                        String value = tokenizer.getStringValue();
+                        token.append(value);
+                        if (value.matches("\\d{1,9}")) {
+                            token.append(' ').append(tokenizer.getIntValue());
+                        }
+                        if (value.matches("\\d{1,18}")) {
+                            token.append(' ').append(tokenizer.getLongValue());
+                        }
+                        token.append(' ').append(tokenizer.getDoubleValue());
+                        break;
+                    case Ref:
+                        token.append(tokenizer.getObjNr()).append(' ').append(tokenizer.getGenNr());
+                        break;
+                    case String:
+                        token.append(tokenizer.isHexString()).append(' ')
+                                .append(new String(tokenizer.getDecodedStringContent(), StandardCharsets.ISO_8859_1));
+                        break;
+                    default:
+                        token.append(tokenizer.tokenValueEqualsTo(PdfTokenizer.Obj)).append(' ')
+                                .append(new String(tokenizer.getByteContent(), StandardCharsets.ISO_8859_1));
+                        break;
+                }
+                token.append(" @").append(tokenizer.getPosition());
+                tokens.add(token.toString());
+            }
+        } finally {
+            tokenizer.close();
+        }
+        return tokens;
+    }
+}
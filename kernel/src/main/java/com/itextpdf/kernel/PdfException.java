@@ -147,6 +147,7 @@ public class PdfException extends RuntimeException {
     @Deprecated
     public static final String DocumentMustBePreclosed = "Document must be preClosed.";
     public static final String DocumentMustBePreClosed = "Document must be preClosed.";
+    public static final String DocumentSigningFailed = "Document signing failed.";
     @Deprecated
     public static final String DocumentToCopyToCannotBeNull = "Document for copyTo cannot be null.";
     public static final String DocumentForCopyToCannotBeNull = "Document for copyTo cannot be null.";
@@ -246,6 +247,7 @@ public class PdfException extends RuntimeException {
     public static final String PdfFormXobjectHasInvalidBbox = "PdfFormXObject has invalid BBox.";
     public static final String PdfObjectStreamReachMaxSize = "PdfObjectStream reach max size.";
     public static final String PdfPageShallHaveContent = "PdfPage shall have content.";
+    public static final String PdfReaderHasBeenClosed = "The PdfReader of the stream has been closed.";
     public static final String PdfPagesTreeCouldBeGeneratedOnlyOnce = "PdfPages tree could be generated only once.";
     public static final String PdfStartxrefIsNotFollowedByANumber = "PDF startxref is not followed by a number.";
     public static final String PdfStartxrefNotFound = "PDF startxref not found.";
@@ -264,6 +266,7 @@ public class PdfException extends RuntimeException {
     public static final String ResourcesDoNotContainExtgstateEntryUnableToProcessOperator1 = "Resources do not contain ExtGState entry. Unable to process operator {0}.";
     public static final String RoleIsNotMappedWithAnyStandardRole = "Role is not mapped with any standard role.";
     public static final String ShadingTypeNotFound = "Shading type not found.";
+    public static final String SignatureVerificationFailed = "Signature verification failed.";
     public static final String SignatureWithName1IsNotTheLastItDoesntCoverWholeDocument = "Signature with name {0} is not the last. It doesn't cover the whole document.";
     public static final String StdcfNotFoundEncryption = "/StdCF not found (encryption)";
     public static final String StructParentIndexNotFoundInTaggedObject = "StructParent index not found in tagged object.";
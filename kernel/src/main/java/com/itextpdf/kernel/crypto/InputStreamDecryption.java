@@ -0,0 +1,133 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2016 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.crypto;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * An input stream that decrypts the bytes of the underlying stream on the fly with the given {@link IDecryptor}.
+ * Only a fixed-size chunk of the encrypted data is kept in memory at any time.
+ */
+public class InputStreamDecryption extends FilterInputStream {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private IDecryptor decryptor;
+    private byte[] encrypted = new byte[BUFFER_SIZE];
+    private byte[] decrypted;
+    private int decryptedPosition;
+    private boolean finished;
+    private byte[] sb = new byte[1];
+
+    /**
+     * Creates a new decrypting stream.
+     *
+     * @param in        the stream with encrypted bytes
+     * @param decryptor the decryptor initialized with the key of the object the stream belongs to
+     */
+    public InputStreamDecryption(InputStream in, IDecryptor decryptor) {
+        super(in);
+        this.decryptor = decryptor;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int n = read(sb, 0, 1);
+        return n == -1 ? -1 : sb[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        while (decrypted == null || decryptedPosition == decrypted.length) {
+            if (finished) {
+                return -1;
+            }
+            fill();
+        }
+        int n = Math.min(len, decrypted.length - decryptedPosition);
+        System.arraycopy(decrypted, decryptedPosition, b, off, n);
+        decryptedPosition += n;
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = 0;
+        byte[] buffer = new byte[(int) Math.min(BUFFER_SIZE, Math.max(n, 0))];
+        while (skipped < n) {
+            int read = read(buffer, 0, (int) Math.min(buffer.length, n - skipped));
+            if (read == -1) {
+                break;
+            }
+            skipped += read;
+        }
+        return skipped;
+    }
+
+    @Override
+    public int available() throws IOException {
+        return decrypted != null ? decrypted.length - decryptedPosition : 0;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    private void fill() throws IOException {
+        int n = in.read(encrypted, 0, encrypted.length);
+        if (n == -1) {
+            finished = true;
+            decrypted = decryptor.finish();
+        } else {
+            decrypted = decryptor.update(encrypted, 0, n);
+        }
+        decryptedPosition = 0;
+    }
+}
@@ -45,6 +45,7 @@ package com.itextpdf.kernel.crypto.securityhandler;
 
 import com.itextpdf.kernel.crypto.AesDecryptor;
 import com.itextpdf.kernel.crypto.IDecryptor;
+import com.itextpdf.kernel.crypto.ObjectEncryptionKey;
 import com.itextpdf.kernel.crypto.OutputStreamAesEncryption;
 import com.itextpdf.kernel.crypto.OutputStreamEncryption;
 import com.itextpdf.kernel.pdf.PdfArray;
@@ -81,20 +82,18 @@ public class PubSecHandlerUsingAes128 extends PubKeySecurityHandler {
     }
 
     @Override
-    public void setHashKeyForNextObject(int objNumber, int objGeneration) {
-        md5.reset(); // added by ujihara
-        extra[0] = (byte) objNumber;
-        extra[1] = (byte) (objNumber >> 8);
-        extra[2] = (byte) (objNumber >> 16);
-        extra[3] = (byte) objGeneration;
-        extra[4] = (byte) (objGeneration >> 8);
-        md5.update(mkey);
-        md5.update(extra);
-        md5.update(salt);
-        nextObjectKey = md5.digest();
-        nextObjectKeySize = mkey.length + 5;
-        if (nextObjectKeySize > 16)
-            nextObjectKeySize = 16;
+    public OutputStreamEncryption getEncryptionStream(OutputStream os, ObjectEncryptionKey objectKey) {
+        return new OutputStreamAesEncryption(os, objectKey.getKey(), 0, objectKey.getKeySize());
+    }
+
+    @Override
+    public IDecryptor getDecryptor(ObjectEncryptionKey objectKey) {
+        return new AesDecryptor(objectKey.getKey(), 0, objectKey.getKeySize());
+    }
+
+    @Override
+    public ObjectEncryptionKey computeObjectKey(int objNumber, int objGeneration) {
+        return computeObjectKey(objNumber, objGeneration, salt);
     }
 
     protected String getDigestAlgorithm() {
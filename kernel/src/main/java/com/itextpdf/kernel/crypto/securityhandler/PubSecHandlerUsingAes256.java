@@ -43,6 +43,7 @@
  */
 package com.itextpdf.kernel.crypto.securityhandler;
 
+import com.itextpdf.kernel.crypto.ObjectEncryptionKey;
 import com.itextpdf.kernel.pdf.PdfArray;
 import com.itextpdf.kernel.pdf.PdfBoolean;
 import com.itextpdf.kernel.pdf.PdfDictionary;
@@ -66,6 +67,12 @@ public class PubSecHandlerUsingAes256 extends PubSecHandlerUsingAes128 {
         // in AES256 we don't recalculate nextObjectKey
     }
 
+    @Override
+    public ObjectEncryptionKey computeObjectKey(int objNumber, int objGeneration) {
+        // in AES256 the same key is used for all objects
+        return new ObjectEncryptionKey(nextObjectKey, nextObjectKeySize);
+    }
+
     @Override
     protected String getDigestAlgorithm() {
         return "SHA-256";
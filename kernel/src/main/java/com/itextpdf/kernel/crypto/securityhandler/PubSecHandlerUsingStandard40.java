@@ -44,6 +44,7 @@
 package com.itextpdf.kernel.crypto.securityhandler;
 
 import com.itextpdf.kernel.crypto.IDecryptor;
+import com.itextpdf.kernel.crypto.ObjectEncryptionKey;
 import com.itextpdf.kernel.crypto.OutputStreamEncryption;
 import com.itextpdf.kernel.crypto.OutputStreamStandardEncryption;
 import com.itextpdf.kernel.crypto.StandardDecryptor;
@@ -78,6 +79,16 @@ public class PubSecHandlerUsingStandard40 extends PubKeySecurityHandler {
         return new StandardDecryptor(nextObjectKey, 0, nextObjectKeySize);
     }
 
+    @Override
+    public OutputStreamEncryption getEncryptionStream(OutputStream os, ObjectEncryptionKey objectKey) {
+        return new OutputStreamStandardEncryption(os, objectKey.getKey(), 0, objectKey.getKeySize());
+    }
+
+    @Override
+    public IDecryptor getDecryptor(ObjectEncryptionKey objectKey) {
+        return new StandardDecryptor(objectKey.getKey(), 0, objectKey.getKeySize());
+    }
+
     protected String getDigestAlgorithm() {
         return "SHA-1";
     }
@@ -45,8 +45,10 @@ package com.itextpdf.kernel.crypto.securityhandler;
 
 import com.itextpdf.kernel.PdfException;
 import com.itextpdf.kernel.crypto.IDecryptor;
+import com.itextpdf.kernel.crypto.ObjectEncryptionKey;
 import com.itextpdf.kernel.crypto.OutputStreamEncryption;
 import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 
 public abstract class SecurityHandler {
 
@@ -82,28 +84,112 @@ public abstract class SecurityHandler {
     }
 
     /**
-     * Note: For most of the supported security handlers algorithm to calculate encryption key for particular object
-     * is the same.
+     * Sets the key used by {@link #getEncryptionStream(java.io.OutputStream)} and {@link #getDecryptor()}.
+     * Note, that this method changes the state of the handler, so it shall not be used concurrently,
+     * use {@link #computeObjectKey(int, int)} instead.
      * @param objNumber
      * @param objGeneration
      */
     public void setHashKeyForNextObject(int objNumber, int objGeneration) {
-        md5.reset(); // added by ujihara
-        extra[0] = (byte) objNumber;
-        extra[1] = (byte) (objNumber >> 8);
-        extra[2] = (byte) (objNumber >> 16);
-        extra[3] = (byte) objGeneration;
-        extra[4] = (byte) (objGeneration >> 8);
-        md5.update(mkey);
-        md5.update(extra);
-        nextObjectKey = md5.digest();
-        nextObjectKeySize = mkey.length + 5;
-        if (nextObjectKeySize > 16) {
-            nextObjectKeySize = 16;
-        }
+        ObjectEncryptionKey objectKey = computeObjectKey(objNumber, objGeneration);
+        nextObjectKey = objectKey.getKey();
+        nextObjectKeySize = objectKey.getKeySize();
+    }
+
+    /**
+     * Calculates the encryption key for particular object without changing the state of the handler,
+     * so this method can be safely called from several threads.
+     * Note: For most of the supported security handlers algorithm to calculate encryption key for particular object
+     * is the same.
+     *
+     * @param objNumber     object number
+     * @param objGeneration object generation
+     * @return the key of the object
+     */
+    public ObjectEncryptionKey computeObjectKey(int objNumber, int objGeneration) {
+        return computeObjectKey(objNumber, objGeneration, null);
     }
 
     public abstract OutputStreamEncryption getEncryptionStream(java.io.OutputStream os);
 
     public abstract IDecryptor getDecryptor();
+
+    /**
+     * Gets the stream, which encrypts the bytes with the given key of the object.
+     * The default implementation temporarily sets the key as the key of the next object and delegates to
+     * {@link #getEncryptionStream(java.io.OutputStream)}, the key set by {@link #setHashKeyForNextObject(int, int)}
+     * is restored afterwards. The built-in handlers override it, so that it can be safely called from several threads.
+     *
+     * @param os        the stream to write the encrypted bytes to
+     * @param objectKey the key of the object, see {@link #computeObjectKey(int, int)}
+     * @return the encrypting stream
+     */
+    public OutputStreamEncryption getEncryptionStream(java.io.OutputStream os, ObjectEncryptionKey objectKey) {
+        synchronized (this) {
+            byte[] savedKey = nextObjectKey;
+            int savedKeySize = nextObjectKeySize;
+            nextObjectKey = objectKey.getKey();
+            nextObjectKeySize = objectKey.getKeySize();
+            try {
+                return getEncryptionStream(os);
+            } finally {
+                nextObjectKey = savedKey;
+                nextObjectKeySize = savedKeySize;
+            }
+        }
+    }
+
+    /**
+     * Gets the decryptor initialized with the given key of the object.
+     * The default implementation temporarily sets the key as the key of the next object and delegates to
+     * {@link #getDecryptor()}, the key set by {@link #setHashKeyForNextObject(int, int)} is restored afterwards.
+     * The built-in handlers override it, so that it can be safely called from several threads.
+     *
+     * @param objectKey the key of the object, see {@link #computeObjectKey(int, int)}
+     * @return the decryptor
+     */
+    public IDecryptor getDecryptor(ObjectEncryptionKey objectKey) {
+        synchronized (this) {
+            byte[] savedKey = nextObjectKey;
+            int savedKeySize = nextObjectKeySize;
+            nextObjectKey = objectKey.getKey();
+            nextObjectKeySize = objectKey.getKeySize();
+            try {
+                return getDecryptor();
+            } finally {
+                nextObjectKey = savedKey;
+                nextObjectKeySize = savedKeySize;
+            }
+        }
+    }
+
+    /**
+     * Calculates MD5 based encryption key for particular object.
+     *
+     * @param objNumber     object number
+     * @param objGeneration object generation
+     * @param salt          bytes to append to the hashed data, or {@code null}
+     * @return the key of the object
+     */
+    protected ObjectEncryptionKey computeObjectKey(int objNumber, int objGeneration, byte[] salt) {
+        byte[] objectId = new byte[5];
+        objectId[0] = (byte) objNumber;
+        objectId[1] = (byte) (objNumber >> 8);
+        objectId[2] = (byte) (objNumber >> 16);
+        objectId[3] = (byte) objGeneration;
+        objectId[4] = (byte) (objGeneration >> 8);
+        MessageDigest md;
+        try {
+            // The shared md5 instance can't be used concurrently
+            md = MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new PdfException(PdfException.PdfEncryption, e);
+        }
+        md.update(mkey);
+        md.update(objectId);
+        if (salt != null) {
+            md.update(salt);
+        }
+        return new ObjectEncryptionKey(md.digest(), Math.min(mkey.length + 5, 16));
+    }
 }
@@ -49,6 +49,7 @@ import com.itextpdf.kernel.crypto.AESCipherCBCnoPad;
 import com.itextpdf.kernel.crypto.AesDecryptor;
 import com.itextpdf.kernel.crypto.BadPasswordException;
 import com.itextpdf.kernel.crypto.IDecryptor;
+import com.itextpdf.kernel.crypto.ObjectEncryptionKey;
 import com.itextpdf.kernel.crypto.IVGenerator;
 import com.itextpdf.kernel.crypto.OutputStreamAesEncryption;
 import com.itextpdf.kernel.crypto.OutputStreamEncryption;
@@ -87,6 +88,12 @@ public class StandardHandlerUsingAes256 extends StandardSecurityHandler {
         // in AES256 we don't recalculate nextObjectKey
     }
 
+    @Override
+    public ObjectEncryptionKey computeObjectKey(int objNumber, int objGeneration) {
+        // in AES256 the same key is used for all objects
+        return new ObjectEncryptionKey(nextObjectKey, nextObjectKeySize);
+    }
+
     @Override
     public OutputStreamEncryption getEncryptionStream(OutputStream os) {
         return new OutputStreamAesEncryption(os, nextObjectKey, 0, nextObjectKeySize);
@@ -97,6 +104,16 @@ public class StandardHandlerUsingAes256 extends StandardSecurityHandler {
         return new AesDecryptor(nextObjectKey, 0, nextObjectKeySize);
     }
 
+    @Override
+    public OutputStreamEncryption getEncryptionStream(OutputStream os, ObjectEncryptionKey objectKey) {
+        return new OutputStreamAesEncryption(os, objectKey.getKey(), 0, objectKey.getKeySize());
+    }
+
+    @Override
+    public IDecryptor getDecryptor(ObjectEncryptionKey objectKey) {
+        return new AesDecryptor(objectKey.getKey(), 0, objectKey.getKeySize());
+    }
+
     private void initKeyAndFillDictionary(PdfDictionary encryptionDictionary, byte[] userPassword, byte[] ownerPassword,
                                           int permissions, boolean encryptMetadata, boolean embeddedFilesOnly) {
         ownerPassword = generateOwnerPasswordIfNullOrEmpty(ownerPassword);
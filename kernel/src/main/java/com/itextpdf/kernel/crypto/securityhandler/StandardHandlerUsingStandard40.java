@@ -47,6 +47,7 @@ import com.itextpdf.kernel.PdfException;
 import com.itextpdf.kernel.crypto.ARCFOUREncryption;
 import com.itextpdf.kernel.crypto.BadPasswordException;
 import com.itextpdf.kernel.crypto.IDecryptor;
+import com.itextpdf.kernel.crypto.ObjectEncryptionKey;
 import com.itextpdf.kernel.crypto.OutputStreamEncryption;
 import com.itextpdf.kernel.crypto.OutputStreamStandardEncryption;
 import com.itextpdf.kernel.crypto.StandardDecryptor;
@@ -91,6 +92,16 @@ public class StandardHandlerUsingStandard40 extends StandardSecurityHandler {
         return new StandardDecryptor(nextObjectKey, 0, nextObjectKeySize);
     }
 
+    @Override
+    public OutputStreamEncryption getEncryptionStream(OutputStream os, ObjectEncryptionKey objectKey) {
+        return new OutputStreamStandardEncryption(os, objectKey.getKey(), 0, objectKey.getKeySize());
+    }
+
+    @Override
+    public IDecryptor getDecryptor(ObjectEncryptionKey objectKey) {
+        return new StandardDecryptor(objectKey.getKey(), 0, objectKey.getKeySize());
+    }
+
     public byte[] computeUserPassword(byte[] ownerPassword, PdfDictionary encryptionDictionary) {
         byte[] ownerKey = getIsoBytes(encryptionDictionary.getAsString(PdfName.O));
         byte[] userPad = computeOwnerKey(ownerKey, padPassword(ownerPassword));
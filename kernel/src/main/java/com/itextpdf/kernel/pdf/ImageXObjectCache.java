@@ -0,0 +1,126 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2016 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf;
+
+import com.itextpdf.kernel.pdf.xobject.PdfImageXObject;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Document-level cache of image XObjects, keyed by the digest of the image stream content.
+ * <p/>
+ * When an image with the same content as an image already added to the document is added again,
+ * the existing image XObject is reused instead of writing another copy of the image stream.
+ * Only the digests and the image XObject wrappers are kept: the image bytes are owned by the document
+ * as usual and are released when the image stream is flushed.
+ * <p/>
+ * The cache is enabled by {@link WriterProperties#useImageDeduplication()}.
+ */
+public final class ImageXObjectCache {
+
+    private final PdfDocument document;
+    private final SmartModeObjectsHasher hasher = new SmartModeObjectsHasher();
+    private final Map<SmartModeObjectsHasher.ObjectDigest, PdfImageXObject> images = new HashMap<>();
+    private int hits;
+    private int misses;
+
+    ImageXObjectCache(PdfDocument document) {
+        this.document = document;
+    }
+
+    /**
+     * Gets the image XObject which shall be written to the document instead of the passed one.
+     * <p/>
+     * If an image with the same content was registered before, the registered image is returned.
+     * Otherwise the passed image is made indirect, registered and returned.
+     * Images which are already indirect objects are returned as is, they are reused by the caller.
+     *
+     * @param image the image XObject to look up
+     * @return the image XObject with the same content to be used in the document
+     */
+    public PdfImageXObject getOrAdd(PdfImageXObject image) {
+        PdfStream stream = image.getPdfObject();
+        if (stream.getIndirectReference() != null) {
+            return image;
+        }
+        SmartModeObjectsHasher.ObjectDigest digest = hasher.getDigest(stream);
+        PdfImageXObject cached = images.get(digest);
+        if (cached != null) {
+            hits++;
+            return cached;
+        }
+        misses++;
+        stream.makeIndirect(document);
+        images.put(digest, image);
+        return image;
+    }
+
+    /**
+     * Gets the number of images replaced by previously added images with the same content.
+     *
+     * @return the number of cache hits
+     */
+    public int getHitCount() {
+        return hits;
+    }
+
+    /**
+     * Gets the number of images with new content, which were added to the cache.
+     *
+     * @return the number of cache misses
+     */
+    public int getMissCount() {
+        return misses;
+    }
+
+    /**
+     * Gets the number of distinct images in the cache.
+     *
+     * @return the number of cached images
+     */
+    public int size() {
+        return images.size();
+    }
+}
@@ -441,9 +441,8 @@ public class PdfCatalog extends PdfObjectWrapper<PdfDictionary> {
             }
         } else if (dest.isString()) {
             PdfNameTree destsTree = getNameTree(PdfName.Dests);
-            Map<String, PdfObject> dests = destsTree.getNames();
             String name = ((PdfString) dest).toUnicodeString();
-            PdfArray array = (PdfArray) dests.get(name);
+            PdfArray array = (PdfArray) destsTree.getEntry(name);
             if (array != null) {
                 PdfObject pageObject = array.get(0);
                 for (PdfPage oldPage : page2page.keySet()) {
@@ -57,7 +57,7 @@ import java.util.*;
 public class PdfDictionary extends PdfObject {
 
     private static final long serialVersionUID = -1122075818690871644L;
-    private Map<PdfName, PdfObject> map = new TreeMap<>();
+    private PdfDictionaryMap map = new PdfDictionaryMap();
 
     /**
      * Creates a new PdfDictionary instance.
@@ -337,6 +337,7 @@ public class PdfDictionary extends PdfObject {
 
     /**
      * Returns all the keys of this PdfDictionary as a Set.
+     * Keys of the dictionaries with many entries are iterated in no particular order.
      *
      * @return Set of keys
      */
@@ -557,6 +558,21 @@ public class PdfDictionary extends PdfObject {
         }
     }
 
+    /**
+     * Gets the keys of this PdfDictionary in the order in which they are written to the document.
+     * Keys of the large dictionaries are stored in no particular order and are sorted on demand.
+     *
+     * @return the keys sorted by their values
+     */
+    Collection<PdfName> getSortedKeys() {
+        if (map.isSorted()) {
+            return map.keySet();
+        }
+        PdfName[] keys = map.keySet().toArray(new PdfName[map.size()]);
+        Arrays.sort(keys);
+        return Arrays.asList(keys);
+    }
+
     /**
      * This method merges different fields from two dictionaries into the current one
      * @param other a dictionary whose fields should be merged into the current dictionary.
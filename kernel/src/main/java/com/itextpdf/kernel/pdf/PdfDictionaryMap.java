@@ -0,0 +1,423 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2016 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf;
+
+import java.io.Serializable;
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Storage of the {@link PdfDictionary} entries, adapted to the size of the dictionary.
+ * <p/>
+ * Most of the dictionaries have only a few entries, so up to {@link #MAX_ARRAY_SIZE} entries are kept
+ * in flat arrays sorted by keys, which take much less memory than the nodes of a tree or a hash map.
+ * Keys are looked up by a linear scan of their hash codes. Larger dictionaries are moved to a {@link HashMap},
+ * their entries are iterated in no particular order, see {@link #isSorted()}.
+ */
+final class PdfDictionaryMap extends AbstractMap<PdfName, PdfObject> implements Serializable {
+
+    private static final long serialVersionUID = 4418958426412187434L;
+
+    static final int MAX_ARRAY_SIZE = 16;
+    private static final int INITIAL_CAPACITY = 4;
+
+    // Entries of the array storage, sorted by keys. The arrays are null until the first entry is added.
+    private PdfName[] keys;
+    private PdfObject[] values;
+    private int[] hashes;
+    private int size;
+    // Storage of the large dictionaries, null while the entries are kept in the arrays.
+    private HashMap<PdfName, PdfObject> hashMap;
+    private transient int modCount;
+
+    private transient Set<PdfName> keySet;
+    private transient Collection<PdfObject> valuesCollection;
+    private transient Set<Map.Entry<PdfName, PdfObject>> entrySet;
+
+    /**
+     * Checks if the entries are iterated in the order of the keys.
+     *
+     * @return true, if the keys are sorted, false if the entries are iterated in no particular order.
+     */
+    boolean isSorted() {
+        return hashMap == null;
+    }
+
+    @Override
+    public int size() {
+        return hashMap != null ? hashMap.size() : size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return hashMap != null ? hashMap.containsKey(key) : indexOf(key) >= 0;
+    }
+
+    @Override
+    public PdfObject get(Object key) {
+        if (hashMap != null) {
+            return hashMap.get(key);
+        }
+        int index = indexOf(key);
+        return index >= 0 ? values[index] : null;
+    }
+
+    @Override
+    public PdfObject put(PdfName key, PdfObject value) {
+        if (hashMap != null) {
+            return hashMap.put(key, value);
+        }
+        int hash = key.hashCode();
+        for (int i = 0; i < size; i++) {
+            if (hashes[i] == hash && key.equals(keys[i])) {
+                PdfObject previous = values[i];
+                values[i] = value;
+                return previous;
+            }
+        }
+        modCount++;
+        if (size == MAX_ARRAY_SIZE) {
+            hashMap = new HashMap<>(MAX_ARRAY_SIZE * 4);
+            for (int i = 0; i < size; i++) {
+                hashMap.put(keys[i], values[i]);
+            }
+            keys = null;
+            values = null;
+            hashes = null;
+            size = 0;
+            return hashMap.put(key, value);
+        }
+        if (keys == null || size == keys.length) {
+            grow();
+        }
+        int position = size;
+        while (position > 0 && keys[position - 1].compareTo(key) > 0) {
+            position--;
+        }
+        int moved = size - position;
+        if (moved > 0) {
+            System.arraycopy(keys, position, keys, position + 1, moved);
+            System.arraycopy(values, position, values, position + 1, moved);
+            System.arraycopy(hashes, position, hashes, position + 1, moved);
+        }
+        keys[position] = key;
+        values[position] = value;
+        hashes[position] = hash;
+        size++;
+        return null;
+    }
+
+    @Override
+    public PdfObject remove(Object key) {
+        if (hashMap != null) {
+            return hashMap.remove(key);
+        }
+        int index = indexOf(key);
+        if (index < 0) {
+            return null;
+        }
+        PdfObject previous = values[index];
+        removeAt(index);
+        return previous;
+    }
+
+    @Override
+    public void clear() {
+        modCount++;
+        hashMap = null;
+        keys = null;
+        values = null;
+        hashes = null;
+        size = 0;
+    }
+
+    @Override
+    public Set<PdfName> keySet() {
+        if (keySet == null) {
+            keySet = new KeySet();
+        }
+        return keySet;
+    }
+
+    @Override
+    public Collection<PdfObject> values() {
+        if (valuesCollection == null) {
+            valuesCollection = new Values();
+        }
+        return valuesCollection;
+    }
+
+    @Override
+    public Set<Map.Entry<PdfName, PdfObject>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new EntrySet();
+        }
+        return entrySet;
+    }
+
+    private int indexOf(Object key) {
+        if (!(key instanceof PdfName)) {
+            return -1;
+        }
+        int hash = key.hashCode();
+        for (int i = 0; i < size; i++) {
+            if (hashes[i] == hash && key.equals(keys[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void removeAt(int index) {
+        modCount++;
+        int moved = size - index - 1;
+        if (moved > 0) {
+            System.arraycopy(keys, index + 1, keys, index, moved);
+            System.arraycopy(values, index + 1, values, index, moved);
+            System.arraycopy(hashes, index + 1, hashes, index, moved);
+        }
+        size--;
+        keys[size] = null;
+        values[size] = null;
+    }
+
+    private void grow() {
+        int capacity = keys == null ? INITIAL_CAPACITY : Math.min(keys.length * 2, MAX_ARRAY_SIZE);
+        PdfName[] newKeys = new PdfName[capacity];
+        PdfObject[] newValues = new PdfObject[capacity];
+        int[] newHashes = new int[capacity];
+        if (keys != null) {
+            System.arraycopy(keys, 0, newKeys, 0, size);
+            System.arraycopy(values, 0, newValues, 0, size);
+            System.arraycopy(hashes, 0, newHashes, 0, size);
+        }
+        keys = newKeys;
+        values = newValues;
+        hashes = newHashes;
+    }
+
+    private abstract class ArrayIterator<T> implements Iterator<T> {
+        private int next;
+        private int last = -1;
+        private int expectedModCount = modCount;
+
+        @Override
+        public boolean hasNext() {
+            return next < size;
+        }
+
+        @Override
+        public T next() {
+            if (expectedModCount != modCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (next >= size) {
+                throw new NoSuchElementException();
+            }
+            last = next++;
+            return get(last);
+        }
+
+        @Override
+        public void remove() {
+            if (last < 0) {
+                throw new IllegalStateException();
+            }
+            if (expectedModCount != modCount) {
+                throw new ConcurrentModificationException();
+            }
+            removeAt(last);
+            next = last;
+            last = -1;
+            expectedModCount = modCount;
+        }
+
+        abstract T get(int index);
+    }
+
+    private final class KeySet extends AbstractSet<PdfName> {
+        @Override
+        public Iterator<PdfName> iterator() {
+            if (hashMap != null) {
+                return hashMap.keySet().iterator();
+            }
+            return new ArrayIterator<PdfName>() {
+                @Override
+                PdfName get(int index) {
+                    return keys[index];
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return PdfDictionaryMap.this.size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return containsKey(o);
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            int sizeBefore = size();
+            PdfDictionaryMap.this.remove(o);
+            return size() != sizeBefore;
+        }
+
+        @Override
+        public void clear() {
+            PdfDictionaryMap.this.clear();
+        }
+    }
+
+    private final class Values extends AbstractCollection<PdfObject> {
+        @Override
+        public Iterator<PdfObject> iterator() {
+            if (hashMap != null) {
+                return hashMap.values().iterator();
+            }
+            return new ArrayIterator<PdfObject>() {
+                @Override
+                PdfObject get(int index) {
+                    return values[index];
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return PdfDictionaryMap.this.size();
+        }
+
+        @Override
+        public void clear() {
+            PdfDictionaryMap.this.clear();
+        }
+    }
+
+    private final class EntrySet extends AbstractSet<Map.Entry<PdfName, PdfObject>> {
+        @Override
+        public Iterator<Map.Entry<PdfName, PdfObject>> iterator() {
+            if (hashMap != null) {
+                return hashMap.entrySet().iterator();
+            }
+            return new ArrayIterator<Map.Entry<PdfName, PdfObject>>() {
+                @Override
+                Map.Entry<PdfName, PdfObject> get(int index) {
+                    return new ArrayEntry(index);
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return PdfDictionaryMap.this.size();
+        }
+
+        @Override
+        public void clear() {
+            PdfDictionaryMap.this.clear();
+        }
+    }
+
+    private final class ArrayEntry implements Map.Entry<PdfName, PdfObject> {
+        private final PdfName key;
+        private PdfObject value;
+
+        ArrayEntry(int index) {
+            this.key = keys[index];
+            this.value = values[index];
+        }
+
+        @Override
+        public PdfName getKey() {
+            return key;
+        }
+
+        @Override
+        public PdfObject getValue() {
+            return value;
+        }
+
+        @Override
+        public PdfObject setValue(PdfObject value) {
+            PdfObject previous = this.value;
+            this.value = value;
+            // The entry is written through only while its key is still in the dictionary
+            if (containsKey(key)) {
+                put(key, value);
+            }
+            return previous;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry<?, ?> entry = (Map.Entry<?, ?>) o;
+            return key.equals(entry.getKey()) && (value == null ? entry.getValue() == null : value.equals(entry.getValue()));
+        }
+
+        @Override
+        public int hashCode() {
+            return key.hashCode() ^ (value == null ? 0 : value.hashCode());
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + value;
+        }
+    }
+}
@@ -177,7 +177,12 @@ public class PdfDocument implements IEventDispatcher, Closeable, Serializable {
      * Key - page from the source document, which contains this annotation.
      * Value - link annotation from the source document.
      */
-    private LinkedHashMap<PdfPage, List<PdfLinkAnnotation>> linkAnnotations = new LinkedHashMap<>();
+    private LinkedHashMap<PdfIndirectReference, List<PdfLinkAnnotation>> linkAnnotations = new LinkedHashMap<>();
+
+    /**
+     * Cache of the image XObjects added to the document, created on demand if image deduplication is enabled.
+     */
+    private transient ImageXObjectCache imageXObjectCache;
 
     /**
      * Open PDF document in reading mode.
@@ -619,6 +624,21 @@ public class PdfDocument implements IEventDispatcher, Closeable, Serializable {
         return reader;
     }
 
+    /**
+     * Gets the cache used to reuse image XObjects with the same content within the document.
+     * The cache is available only if image deduplication is enabled with
+     * {@link WriterProperties#useImageDeduplication()}.
+     *
+     * @return the image XObject cache, or {@code null} if image deduplication is not enabled.
+     */
+    public ImageXObjectCache getImageXObjectCache() {
+        checkClosingStatus();
+        if (imageXObjectCache == null && writer != null && writer.properties.imageDeduplication) {
+            imageXObjectCache = new ImageXObjectCache(this);
+        }
+        return imageXObjectCache;
+    }
+
     /**
      * Returns {@code true} if the document is opened in append mode, and {@code false} otherwise.
      *
@@ -695,12 +715,17 @@ public class PdfDocument implements IEventDispatcher, Closeable, Serializable {
                     if (catalog.isOCPropertiesMayHaveChanged() && catalog.getOCProperties(false).getPdfObject().isModified()) {
                         catalog.getOCProperties(false).flush();
                     }
+                    // only the modified nodes of the trees are written in append mode
                     if (catalog.pageLabels != null) {
-                        catalog.put(PdfName.PageLabels, catalog.pageLabels.buildTree());
+                        catalog.put(PdfName.PageLabels, catalog.pageLabels.updateTree());
                     }
 
                     PdfObject pageRoot = catalog.getPageTree().generateTree();
                     if (catalog.getPdfObject().isModified() || pageRoot.isModified()) {
+                        // the root of the page tree is replaced when the previous root is split
+                        if (catalog.getPdfObject().getAsDictionary(PdfName.Pages) != pageRoot) {
+                            catalog.getPdfObject().setModified();
+                        }
                         catalog.getPdfObject().put(PdfName.Pages, pageRoot);
                         catalog.getPdfObject().flush(false);
                     }
@@ -708,7 +733,7 @@ public class PdfDocument implements IEventDispatcher, Closeable, Serializable {
                     for (Map.Entry<PdfName, PdfNameTree> entry : catalog.nameTrees.entrySet()) {
                         PdfNameTree tree = entry.getValue();
                         if (tree.isModified()) {
-                            ensureTreeRootAddedToNames(tree.buildTree().makeIndirect(this), entry.getKey());
+                            ensureTreeRootAddedToNames(tree.updateTree().makeIndirect(this), entry.getKey());
                         }
                     }
 
@@ -762,6 +787,8 @@ public class PdfDocument implements IEventDispatcher, Closeable, Serializable {
                     }
 
                 }
+                // objects must be written before encryption is switched off for the encryption dictionary
+                writer.writePendingObjects(true);
                 byte[] originalFileID = null;
                 if (crypto == null && writer.crypto != null) {
                     originalFileID = writer.crypto.getDocumentId();
@@ -1036,7 +1063,7 @@ public class PdfDocument implements IEventDispatcher, Closeable, Serializable {
             lastCopiedPageNum = (int) pageNum;
         }
 
-        copyLinkAnnotations(toDocument, page2page);
+        copyLinkAnnotations(toDocument, page2page, copiedPages);
 
         // It's important to copy tag structure after link annotations were copied, because object content items in tag
         // structure are not copied in case if their's OBJ key is annotation and doesn't contain /P entry.
@@ -1417,10 +1444,12 @@ public class PdfDocument implements IEventDispatcher, Closeable, Serializable {
      * @param annotation {@link PdfLinkAnnotation} itself.
      */
     protected void storeLinkAnnotation(PdfPage page, PdfLinkAnnotation annotation) {
-        List<PdfLinkAnnotation> pageAnnotations = linkAnnotations.get(page);
+        // the page is referenced by its indirect reference, so that the page itself isn't kept
+        PdfIndirectReference pageReference = page.getPdfObject().getIndirectReference();
+        List<PdfLinkAnnotation> pageAnnotations = linkAnnotations.get(pageReference);
         if (pageAnnotations == null) {
             pageAnnotations = new ArrayList<>();
-            linkAnnotations.put(page, pageAnnotations);
+            linkAnnotations.put(pageReference, pageAnnotations);
         }
         pageAnnotations.add(annotation);
     }
@@ -1764,11 +1793,19 @@ public class PdfDocument implements IEventDispatcher, Closeable, Serializable {
         }
     }
 
-    private void copyLinkAnnotations(PdfDocument toDocument, Map<PdfPage, PdfPage> page2page) {
+    private void copyLinkAnnotations(PdfDocument toDocument, Map<PdfPage, PdfPage> page2page, List<PdfPage> copiedPages) {
         List<PdfName> excludedKeys = new ArrayList<>();
         excludedKeys.add(PdfName.Dest);
         excludedKeys.add(PdfName.A);
-        for (Map.Entry<PdfPage, List<PdfLinkAnnotation>> entry : linkAnnotations.entrySet()) {
+        Map<PdfIndirectReference, PdfPage> copiedPagesByReference = new HashMap<>();
+        for (PdfPage copiedPage : copiedPages) {
+            copiedPagesByReference.put(copiedPage.getPdfObject().getIndirectReference(), copiedPage);
+        }
+        for (Map.Entry<PdfIndirectReference, List<PdfLinkAnnotation>> entry : linkAnnotations.entrySet()) {
+            PdfPage page = copiedPagesByReference.get(entry.getKey());
+            if (page == null) {
+                page = toDocument.getPage((PdfDictionary) entry.getKey().getRefersTo());
+            }
             // We don't want to copy those link annotations, which reference to pages which weren't copied.
             for (PdfLinkAnnotation annot : entry.getValue()) {
                 boolean toCopyAnnot = true;
@@ -1810,7 +1847,7 @@ public class PdfDocument implements IEventDispatcher, Closeable, Serializable {
                     if (copiedAction != null) {
                         newAnnot.setAction(copiedAction);
                     }
-                    entry.getKey().addAnnotation(-1, newAnnot, false);
+                    page.addAnnotation(-1, newAnnot, false);
                 }
             }
         }
@@ -1869,16 +1906,16 @@ public class PdfDocument implements IEventDispatcher, Closeable, Serializable {
         if (null == oldParent) {
             return;
         }
-        Set<String> names = toDocument.getCatalog().getNameTree(PdfName.Dests).getNames().keySet();
-        Map<String, PdfObject> srcNamedDestinations = catalog.getNameTree(PdfName.Dests).getNames();
+        PdfNameTree destsTree = toDocument.getCatalog().getNameTree(PdfName.Dests);
+        PdfNameTree srcDestsTree = catalog.getNameTree(PdfName.Dests);
         for (PdfOutline outline : oldParent.getAllChildren()) {
             if (outlinesToCopy.contains(outline)) {
                 PdfDestination dest = outline.getDestination();
                 if (dest instanceof PdfStringDestination) {
                     String name = ((PdfString) dest.getPdfObject()).toUnicodeString();
-                    if (!names.contains(name)) {
+                    if (destsTree.getEntry(name) == null) {
                         PdfArray array = new PdfArray();
-                        array.addAll((PdfArray) srcNamedDestinations.get(name));
+                        array.addAll((PdfArray) srcDestsTree.getEntry(name));
                         PdfObject pageObject = array.get(0);
                         if (!pageObject.isNumber()) {
                             PdfPage oldPage = catalog.getPageTree().getPage((PdfDictionary) pageObject);
@@ -1966,7 +2003,7 @@ public class PdfDocument implements IEventDispatcher, Closeable, Serializable {
         return lastDocumentId.incrementAndGet();
     }
 
-    private long getDocumentId() {
+    long getDocumentId() {
         return documentId;
     }
 
@@ -46,6 +46,8 @@ package com.itextpdf.kernel.pdf;
 import com.itextpdf.io.util.SystemUtil;
 import com.itextpdf.kernel.PdfException;
 import com.itextpdf.kernel.crypto.IDecryptor;
+import com.itextpdf.kernel.crypto.InputStreamDecryption;
+import com.itextpdf.kernel.crypto.ObjectEncryptionKey;
 import com.itextpdf.kernel.crypto.OutputStreamEncryption;
 import com.itextpdf.kernel.crypto.securityhandler.PubKeySecurityHandler;
 import com.itextpdf.kernel.crypto.securityhandler.PubSecHandlerUsingAes128;
@@ -61,6 +63,7 @@ import com.itextpdf.kernel.crypto.securityhandler.StandardSecurityHandler;
 import com.itextpdf.kernel.security.IExternalDecryptionProcess;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
@@ -294,41 +297,89 @@ public class PdfEncryption extends PdfObjectWrapper<PdfDictionary> {
         return documentId;
     }
 
+    /**
+     * Sets the key of the object, which is used by the methods without an explicit {@link ObjectEncryptionKey}.
+     * This changes the state of the encryption, which is shared by all users of the document.
+     * Use {@link #computeObjectKey(int, int)} and the methods taking the key to encrypt or decrypt objects
+     * concurrently.
+     *
+     * @param objNumber     object number
+     * @param objGeneration object generation
+     */
     public void setHashKeyForNextObject(int objNumber, int objGeneration) {
         securityHandler.setHashKeyForNextObject(objNumber, objGeneration);
     }
 
+    /**
+     * Calculates the encryption key of the object. The state of the encryption is not changed, so this method
+     * and the methods taking the returned key can be used by several threads at once.
+     *
+     * @param objNumber     object number
+     * @param objGeneration object generation
+     * @return the key of the object
+     */
+    public ObjectEncryptionKey computeObjectKey(int objNumber, int objGeneration) {
+        return securityHandler.computeObjectKey(objNumber, objGeneration);
+    }
 
     public OutputStreamEncryption getEncryptionStream(OutputStream os) {
         return securityHandler.getEncryptionStream(os);
     }
 
+    /**
+     * Wraps a stream into a stream, which encrypts the written bytes with the key of an object.
+     *
+     * @param os        the stream for encrypted bytes
+     * @param objectKey the key of the object, see {@link #computeObjectKey(int, int)}
+     * @return the encrypting stream
+     */
+    public OutputStreamEncryption getEncryptionStream(OutputStream os, ObjectEncryptionKey objectKey) {
+        return securityHandler.getEncryptionStream(os, objectKey);
+    }
+
     public byte[] encryptByteArray(byte[] b) {
         ByteArrayOutputStream ba = new ByteArrayOutputStream();
-        OutputStreamEncryption ose = getEncryptionStream(ba);
-        try {
-            ose.write(b);
-        } catch (IOException e) {
-            throw new PdfException(PdfException.PdfEncryption, e);
-        }
-        ose.finish();
+        encrypt(b, getEncryptionStream(ba));
         return ba.toByteArray();
     }
 
+    /**
+     * Encrypts bytes with the key of an object.
+     *
+     * @param b         the bytes to encrypt
+     * @param objectKey the key of the object, see {@link #computeObjectKey(int, int)}
+     * @return encrypted bytes
+     */
+    public byte[] encryptByteArray(byte[] b, ObjectEncryptionKey objectKey) {
+        ByteArrayOutputStream ba = new ByteArrayOutputStream();
+        encrypt(b, getEncryptionStream(ba, objectKey));
+        return ba.toByteArray();
+    }
+
+    /**
+     * Wraps a stream with encrypted bytes of an object into a decrypting stream.
+     *
+     * @param is        the stream with encrypted bytes
+     * @param objectKey the key of the object, see {@link #computeObjectKey(int, int)}
+     * @return the stream with decrypted bytes
+     */
+    public InputStreamDecryption getDecryptionStream(InputStream is, ObjectEncryptionKey objectKey) {
+        return new InputStreamDecryption(is, securityHandler.getDecryptor(objectKey));
+    }
+
     public byte[] decryptByteArray(byte[] b) {
-        try {
-            ByteArrayOutputStream ba = new ByteArrayOutputStream();
-            IDecryptor dec = securityHandler.getDecryptor();
-            byte[] b2 = dec.update(b, 0, b.length);
-            if (b2 != null)
-                ba.write(b2);
-            b2 = dec.finish();
-            if (b2 != null)
-                ba.write(b2);
-            return ba.toByteArray();
-        } catch (IOException e) {
-            throw new PdfException(PdfException.PdfEncryption, e);
-        }
+        return decrypt(b, securityHandler.getDecryptor());
+    }
+
+    /**
+     * Decrypts bytes with the key of an object.
+     *
+     * @param b         the bytes to decrypt
+     * @param objectKey the key of the object, see {@link #computeObjectKey(int, int)}
+     * @return decrypted bytes
+     */
+    public byte[] decryptByteArray(byte[] b, ObjectEncryptionKey objectKey) {
+        return decrypt(b, securityHandler.getDecryptor(objectKey));
     }
 
     public boolean isOpenedWithFullPermission() {
@@ -524,4 +575,28 @@ public class PdfEncryption extends PdfObjectWrapper<PdfDictionary> {
         }
         return setCryptoMode(cryptoMode, length);
     }
+
+    private static void encrypt(byte[] b, OutputStreamEncryption ose) {
+        try {
+            ose.write(b);
+        } catch (IOException e) {
+            throw new PdfException(PdfException.PdfEncryption, e);
+        }
+        ose.finish();
+    }
+
+    private static byte[] decrypt(byte[] b, IDecryptor dec) {
+        try {
+            ByteArrayOutputStream ba = new ByteArrayOutputStream();
+            byte[] b2 = dec.update(b, 0, b.length);
+            if (b2 != null)
+                ba.write(b2);
+            b2 = dec.finish();
+            if (b2 != null)
+                ba.write(b2);
+            return ba.toByteArray();
+        } catch (IOException e) {
+            throw new PdfException(PdfException.PdfEncryption, e);
+        }
+    }
 }
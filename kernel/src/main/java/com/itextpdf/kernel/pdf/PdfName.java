@@ -852,6 +852,11 @@ public class PdfName extends PdfPrimitiveObject implements Comparable<PdfName> {
 
     protected String value = null;
 
+    /**
+     * Cached hash code of the name, zero if it isn't computed yet.
+     */
+    private transient int hash;
+
     /**
      * map strings to all known static names
      */
@@ -887,6 +892,15 @@ public class PdfName extends PdfPrimitiveObject implements Comparable<PdfName> {
         super(content);
     }
 
+    /**
+     * Creates a name with the given content, which may be shared by several objects of a document
+     * when {@code directOnly} is true, like the static names.
+     */
+    PdfName(byte[] content, boolean directOnly) {
+        super(directOnly);
+        this.content = content;
+    }
+
     private PdfName() {
         super();
     }
@@ -970,12 +984,36 @@ public class PdfName extends PdfPrimitiveObject implements Comparable<PdfName> {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         PdfName pdfName = (PdfName) o;
+        if (hash != 0 && pdfName.hash != 0 && hash != pdfName.hash) return false;
         return this.compareTo(pdfName) == 0;
     }
 
     @Override
     public int hashCode() {
-        return getValue().hashCode();
+        int h = hash;
+        if (h == 0) {
+            h = value == null ? contentHashCode() : value.hashCode();
+            hash = h;
+        }
+        return h;
+    }
+
+    /**
+     * Calculates the hash code of the value, which {@link #generateValue()} would produce, right from the content.
+     */
+    private int contentHashCode() {
+        int h = 0;
+        for (int k = 0; k < content.length; ++k) {
+            char c = (char) content[k];
+            if (c == '#') {
+                if (k + 2 >= content.length)
+                    break;
+                c = (char) ((ByteBuffer.getHex(content[k + 1]) << 4) + ByteBuffer.getHex(content[k + 2]));
+                k += 2;
+            }
+            h = 31 * h + c;
+        }
+        return h;
     }
 
     protected void generateValue() {
@@ -0,0 +1,192 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2016 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf;
+
+import com.itextpdf.io.source.PdfTokenizer;
+
+import java.util.Collection;
+
+/**
+ * Table of {@link PdfName} instances, which are looked up by the bytes of a name token
+ * right in the buffer of the {@link PdfTokenizer}, without creating intermediate strings or byte arrays.
+ * <p/>
+ * The table of the static names of {@link PdfName} is filled once and is only read afterwards,
+ * so it is shared by all readers. A table of a single document may also collect the custom names
+ * of the document, so that each distinct name is created only once, see {@link ReaderProperties#setNameInterning(boolean)}.
+ * Such a table isn't thread-safe, as the document itself.
+ */
+final class PdfNamePool {
+
+    /**
+     * Limits the number of custom names collected from a single document, e.g. a broken or a malicious one.
+     */
+    static final int MAX_SIZE = 8192;
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private static final PdfNamePool STATIC_NAMES = new PdfNamePool(PdfName.staticNames.values());
+
+    // Open addressing hash table. The capacity is always a power of two, at most a half of it is used.
+    private PdfName[] names;
+    private int[] hashes;
+    private int size;
+
+    PdfNamePool() {
+        names = new PdfName[INITIAL_CAPACITY];
+        hashes = new int[INITIAL_CAPACITY];
+    }
+
+    private PdfNamePool(Collection<PdfName> names) {
+        this();
+        for (PdfName name : names) {
+            add(name, hash(name.getInternalContent()));
+        }
+    }
+
+    /**
+     * Gets the static name of {@link PdfName} with the content of the current name token.
+     *
+     * @param tokens the tokenizer positioned right after a name token.
+     * @return the static name, or null if the name isn't a static one.
+     */
+    static PdfName getStaticName(PdfTokenizer tokens) {
+        return STATIC_NAMES.get(tokens, hash(tokens));
+    }
+
+    /**
+     * Gets the name with the content of the current name token, adding a new direct name to the table if needed.
+     * Static names of {@link PdfName} are returned as is.
+     *
+     * @param tokens the tokenizer positioned right after a name token.
+     * @return the name from the table, or a new name if the table is full.
+     */
+    PdfName intern(PdfTokenizer tokens) {
+        int hash = hash(tokens);
+        PdfName name = STATIC_NAMES.get(tokens, hash);
+        if (name == null) {
+            name = get(tokens, hash);
+        }
+        if (name == null) {
+            name = new PdfName(tokens.getByteContent(), size < MAX_SIZE);
+            if (size < MAX_SIZE) {
+                add(name, hash);
+            }
+        }
+        return name;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private PdfName get(PdfTokenizer tokens, int hash) {
+        int mask = names.length - 1;
+        for (int i = hash & mask; names[i] != null; i = (i + 1) & mask) {
+            if (hashes[i] == hash && contentEquals(names[i].getInternalContent(), tokens)) {
+                return names[i];
+            }
+        }
+        return null;
+    }
+
+    private void add(PdfName name, int hash) {
+        if ((size + 1) * 2 > names.length) {
+            PdfName[] oldNames = names;
+            int[] oldHashes = hashes;
+            names = new PdfName[oldNames.length * 2];
+            hashes = new int[oldNames.length * 2];
+            for (int i = 0; i < oldNames.length; i++) {
+                if (oldNames[i] != null) {
+                    insert(oldNames[i], oldHashes[i]);
+                }
+            }
+        }
+        insert(name, hash);
+        size++;
+    }
+
+    private void insert(PdfName name, int hash) {
+        int mask = names.length - 1;
+        int i = hash & mask;
+        while (names[i] != null) {
+            i = (i + 1) & mask;
+        }
+        names[i] = name;
+        hashes[i] = hash;
+    }
+
+    private static boolean contentEquals(byte[] content, PdfTokenizer tokens) {
+        if (content.length != tokens.getContentLength()) {
+            return false;
+        }
+        for (int i = 0; i < content.length; i++) {
+            if (content[i] != tokens.getContentByte(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int hash(byte[] content) {
+        int hash = 0;
+        for (byte b : content) {
+            hash = 31 * hash + b;
+        }
+        return spread(hash);
+    }
+
+    private static int hash(PdfTokenizer tokens) {
+        int hash = 0;
+        int length = tokens.getContentLength();
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + tokens.getContentByte(i);
+        }
+        return spread(hash);
+    }
+
+    // the low bits select the slot, so the high bits are mixed into them
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -43,6 +43,7 @@
  */
 package com.itextpdf.kernel.pdf;
 
+import com.itextpdf.io.font.PdfEncodings;
 import com.itextpdf.kernel.PdfException;
 
 import java.util.*;
@@ -51,13 +52,23 @@ public class PdfNameTree {
 
     private static final int NODE_SIZE = 40;
 
+    /* The names of a tree are ordered by the bytes of the strings, not by their unicode values */
+    private static final Comparator<String> NAME_ORDER = new Comparator<String>() {
+        @Override
+        public int compare(String name1, String name2) {
+            return compareBytes(getNameBytes(name1), getNameBytes(name2));
+        }
+    };
+
     private PdfCatalog catalog;
-    private Map<String, PdfObject> items = new HashMap<>();
+    private Map<String, PdfObject> items;
+    private Map<String, PdfObject> addedItems = new HashMap<>();
     private PdfName treeType;
     private boolean modified;
 
     /**
-     * Creates the NameTree of current Document
+     * Creates the NameTree of current Document. The tree is read lazily: either entirely by {@link #getNames()},
+     * or node by node by {@link #getEntry(String)}.
      *
      * @param catalog  Document catalog
      * @param treeType the type of tree. Dests Tree, AP Tree etc.
@@ -65,33 +76,30 @@ public class PdfNameTree {
     public PdfNameTree(PdfCatalog catalog, PdfName treeType) {
         this.treeType = treeType;
         this.catalog = catalog;
-        items = getNames();
     }
 
 
     public Map<String, PdfObject> getNames() {
-        if (items.size() > 0) {
+        if (items != null) {
             return items;
         }
 
-        PdfDictionary dictionary = catalog.getPdfObject().getAsDictionary(PdfName.Names);
+        items = new HashMap<>();
+        PdfDictionary dictionary = getTreeRoot();
         if (dictionary != null) {
-            dictionary = dictionary.getAsDictionary(treeType);
-            if (dictionary != null) {
-                items = readTree(dictionary);
-                //@TODO It's done for auto porting to itextsharp, cuz u cannot change collection which you iterate
-                // in for loop (even if you change only value of a Map entry) in .NET. Java doesn't have such a problem.
-                // We should find a better solution in the future.
-                Set<String> keys = new HashSet<>();
-                keys.addAll(items.keySet());
-                for (String key : keys) {
-                    PdfArray arr = getNameArray(items.get(key));
-                    if (arr != null) {
-                        items.put(key, arr);
-                    }
-                    else
-                        items.remove(key);
+            items = readTree(dictionary);
+            //@TODO It's done for auto porting to itextsharp, cuz u cannot change collection which you iterate
+            // in for loop (even if you change only value of a Map entry) in .NET. Java doesn't have such a problem.
+            // We should find a better solution in the future.
+            Set<String> keys = new HashSet<>();
+            keys.addAll(items.keySet());
+            for (String key : keys) {
+                PdfArray arr = getNameArray(items.get(key));
+                if (arr != null) {
+                    items.put(key, arr);
                 }
+                else
+                    items.remove(key);
             }
         }
 
@@ -109,30 +117,91 @@ public class PdfNameTree {
             }
         }
 
+        items.putAll(addedItems);
         return items;
     }
 
+    /**
+     * Gets the value of a name, the same as {@code getNames().get(key)}, without reading the whole tree.
+     * <p/>
+     * The tree is descended by the /Limits of its nodes with binary search, so only the nodes on the path
+     * to the name are read. The nodes without /Limits are searched one after another.
+     *
+     * @param key the name
+     * @return the value of the name, or null if the tree doesn't contain it
+     */
+    public PdfObject getEntry(String key) {
+        if (items != null) {
+            return items.get(key);
+        }
+        PdfObject value = addedItems.get(key);
+        if (value != null) {
+            return value;
+        }
+        if (treeType.equals(PdfName.Dests)) {
+            PdfDictionary destinations = catalog.getPdfObject().getAsDictionary(PdfName.Dests);
+            if (destinations != null) {
+                value = getNameArray(destinations.get(new PdfName(key)));
+                if (value != null) {
+                    return value;
+                }
+            }
+        }
+        PdfDictionary dictionary = getTreeRoot();
+        return dictionary != null ? getNameArray(findEntry(dictionary, key, getNameBytes(key))) : null;
+    }
+
     public void addEntry(String key, PdfObject value) {
-        if (items.keySet().contains(key)) {
+        if (getEntry(key) != null) {
             throw new PdfException(PdfException.NameAlreadyExistsInTheNameTree);
         }
         modified = true;
-        items.put(key, value);
+        addedItems.put(key, value);
+        if (items != null) {
+            items.put(key, value);
+        }
     }
 
     public boolean isModified() {
         return modified;
     }
 
+    /**
+     * Adds the entries, which were added by {@link #addEntry(String, PdfObject)} since the last update, to the existing
+     * tree of the document. Only the nodes on the paths to the new entries are read and modified: the entries are
+     * inserted into the leaves, the /Limits are extended, and a leaf, which grows too large, is split.
+     * The tree is built anew by {@link #buildTree()} if the document has no tree yet or its nodes have no /Limits.
+     *
+     * @return the root of the tree
+     */
+    public PdfDictionary updateTree() {
+        PdfDictionary root = getTreeRoot();
+        if (root == null) {
+            return buildTree();
+        }
+        String[] names = new String[addedItems.size()];
+        names = addedItems.keySet().toArray(names);
+        Arrays.sort(names, NAME_ORDER);
+        for (String name : names) {
+            if (!insertEntry(root, name, addedItems.get(name))) {
+                return buildTree();
+            }
+        }
+        addedItems.clear();
+        return root;
+    }
+
     public PdfDictionary buildTree() {
+        Map<String, PdfObject> items = getNames();
+        addedItems.clear();
         String[] names = new String[items.size()];
         names = items.keySet().toArray(names);
-        Arrays.sort(names);
+        Arrays.sort(names, NAME_ORDER);
         if (names.length <= NODE_SIZE) {
             PdfDictionary dic = new PdfDictionary();
             PdfArray ar = new PdfArray();
             for (String name : names) {
-                ar.add(new PdfString(name, null));
+                ar.add(createName(name));
                 ar.add(items.get(name));
             }
             dic.put(PdfName.Names, ar);
@@ -145,12 +214,12 @@ public class PdfNameTree {
             int end = Math.min(offset + NODE_SIZE, names.length);
             PdfDictionary dic = new PdfDictionary();
             PdfArray arr = new PdfArray();
-            arr.add(new PdfString(names[offset], null));
-            arr.add(new PdfString(names[end - 1], null));
+            arr.add(createName(names[offset]));
+            arr.add(createName(names[end - 1]));
             dic.put(PdfName.Limits, arr);
             arr = new PdfArray();
             for (; offset < end; ++offset) {
-                arr.add(new PdfString(names[offset], null));
+                arr.add(createName(names[offset]));
                 arr.add(items.get(names[offset]));
             }
             dic.put(PdfName.Names, arr);
@@ -174,8 +243,8 @@ public class PdfNameTree {
                 int end = Math.min(offset + NODE_SIZE, top);
                 PdfDictionary dic = new PdfDictionary().makeIndirect(catalog.getDocument());
                 PdfArray arr = new PdfArray();
-                arr.add(new PdfString(names[i * skip], null));
-                arr.add(new PdfString(names[Math.min((i + 1) * skip, names.length) - 1], null));
+                arr.add(createName(names[i * skip]));
+                arr.add(createName(names[Math.min((i + 1) * skip, names.length) - 1]));
                 dic.put(PdfName.Limits, arr);
                 arr = new PdfArray();
                 for (; offset < end; ++offset) {
@@ -188,6 +257,216 @@ public class PdfNameTree {
         }
     }
 
+    private PdfDictionary getTreeRoot() {
+        PdfDictionary dictionary = catalog.getPdfObject().getAsDictionary(PdfName.Names);
+        return dictionary != null ? dictionary.getAsDictionary(treeType) : null;
+    }
+
+    private static PdfObject findEntry(PdfDictionary node, String key, byte[] keyBytes) {
+        PdfArray names = node.getAsArray(PdfName.Names);
+        if (names != null) {
+            int index = findName(names, keyBytes);
+            if (index >= 0) {
+                return names.get(2 * index + 1);
+            }
+            // the names of a malformed leaf may be out of order or written in another encoding
+            for (int k = 0; k + 1 < names.size(); k += 2) {
+                PdfString name = names.getAsString(k);
+                if (name != null && name.toUnicodeString().equals(key)) {
+                    return names.get(k + 1);
+                }
+            }
+            return null;
+        }
+        PdfArray kids = node.getAsArray(PdfName.Kids);
+        if (kids == null) {
+            return null;
+        }
+        int low = 0;
+        int high = kids.size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            PdfDictionary kid = kids.getAsDictionary(mid);
+            PdfString min = getLimit(kid, 0);
+            PdfString max = getLimit(kid, 1);
+            if (min == null || max == null) {
+                for (int k = 0; k < kids.size(); k++) {
+                    kid = kids.getAsDictionary(k);
+                    PdfObject value = kid != null ? findEntry(kid, key, keyBytes) : null;
+                    if (value != null) {
+                        return value;
+                    }
+                }
+                return null;
+            }
+            if (compareBytes(keyBytes, min.getValueBytes()) < 0) {
+                high = mid - 1;
+            } else if (compareBytes(keyBytes, max.getValueBytes()) > 0) {
+                low = mid + 1;
+            } else {
+                return findEntry(kid, key, keyBytes);
+            }
+        }
+        return null;
+    }
+
+    /* Binary searches the name in the leaf, returns the index of the pair or -(insertion point) - 1 */
+    private static int findName(PdfArray names, byte[] keyBytes) {
+        int low = 0;
+        int high = names.size() / 2 - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            PdfString name = names.getAsString(2 * mid);
+            int cmp = name != null ? compareBytes(name.getValueBytes(), keyBytes) : -1;
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    /* The name is written in PDFDocEncoding if possible, otherwise in UTF-16BE, so that it is read back unchanged */
+    private static PdfString createName(String name) {
+        return new PdfString(name, PdfEncodings.UNICODE_BIG);
+    }
+
+    private static byte[] getNameBytes(String name) {
+        return createName(name).getValueBytes();
+    }
+
+    private static int compareBytes(byte[] bytes1, byte[] bytes2) {
+        int length = Math.min(bytes1.length, bytes2.length);
+        for (int k = 0; k < length; k++) {
+            int cmp = (bytes1[k] & 0xff) - (bytes2[k] & 0xff);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return bytes1.length - bytes2.length;
+    }
+
+    private static PdfString getLimit(PdfDictionary node, int index) {
+        PdfArray limits = node != null ? node.getAsArray(PdfName.Limits) : null;
+        return limits != null && limits.size() == 2 ? limits.getAsString(index) : null;
+    }
+
+    private boolean insertEntry(PdfDictionary root, String key, PdfObject value) {
+        byte[] keyBytes = getNameBytes(key);
+        List<PdfDictionary> path = new ArrayList<>();
+        PdfDictionary node = root;
+        PdfArray kids;
+        while (node.getAsArray(PdfName.Names) == null && (kids = node.getAsArray(PdfName.Kids)) != null) {
+            // the first kid whose upper limit isn't less than the key, or the last kid
+            int low = 0;
+            int high = kids.size() - 1;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                PdfString max = getLimit(kids.getAsDictionary(mid), 1);
+                if (max == null) {
+                    return false;
+                }
+                if (compareBytes(max.getValueBytes(), keyBytes) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            PdfDictionary kid = kids.getAsDictionary(low);
+            if (getLimit(kid, 0) == null || getLimit(kid, 1) == null) {
+                return false;
+            }
+            path.add(node);
+            node = kid;
+        }
+        PdfArray names = node.getAsArray(PdfName.Names);
+        if (names == null || names.size() % 2 != 0) {
+            return false;
+        }
+        int index = findName(names, keyBytes);
+        if (index >= 0) {
+            names.set(2 * index + 1, value);
+        } else {
+            index = -index - 1;
+            names.add(2 * index, createName(key));
+            names.add(2 * index + 1, value);
+        }
+        names.setModified();
+        node.setModified();
+
+        for (PdfDictionary ancestor : path) {
+            if (ancestor != root) {
+                extendLimits(ancestor, key, keyBytes);
+            }
+        }
+        if (node != root) {
+            extendLimits(node, key, keyBytes);
+        }
+        if (names.size() > 4 * NODE_SIZE) {
+            splitLeaf(node, path.isEmpty() ? null : path.get(path.size() - 1));
+        }
+        return true;
+    }
+
+    private static void extendLimits(PdfDictionary node, String key, byte[] keyBytes) {
+        PdfArray limits = node.getAsArray(PdfName.Limits);
+        if (compareBytes(keyBytes, limits.getAsString(0).getValueBytes()) < 0) {
+            limits.set(0, createName(key));
+        } else if (compareBytes(keyBytes, limits.getAsString(1).getValueBytes()) > 0) {
+            limits.set(1, createName(key));
+        } else {
+            return;
+        }
+        limits.setModified();
+        node.setModified();
+    }
+
+    /* Splits the leaf in two halves. A root leaf becomes the parent of the halves */
+    private void splitLeaf(PdfDictionary leaf, PdfDictionary parent) {
+        PdfArray names = leaf.getAsArray(PdfName.Names);
+        int half = names.size() / 4 * 2;
+        PdfArray upperNames = new PdfArray();
+        for (int k = half; k < names.size(); k++) {
+            upperNames.add(names.get(k, false));
+        }
+        PdfArray lowerNames = new PdfArray();
+        for (int k = 0; k < half; k++) {
+            lowerNames.add(names.get(k, false));
+        }
+        PdfDictionary upper = createLeaf(upperNames);
+        if (parent == null) {
+            PdfArray kids = new PdfArray();
+            kids.add(createLeaf(lowerNames));
+            kids.add(upper);
+            leaf.remove(PdfName.Names);
+            leaf.put(PdfName.Kids, kids);
+        } else {
+            leaf.put(PdfName.Names, lowerNames);
+            leaf.put(PdfName.Limits, new PdfArray(Arrays.asList(lowerNames.get(0), lowerNames.get(lowerNames.size() - 2))));
+            PdfArray kids = parent.getAsArray(PdfName.Kids);
+            for (int k = 0; k < kids.size(); k++) {
+                if (kids.getAsDictionary(k) == leaf) {
+                    kids.add(k + 1, upper);
+                    break;
+                }
+            }
+            kids.setModified();
+            parent.setModified();
+        }
+        leaf.setModified();
+    }
+
+    private PdfDictionary createLeaf(PdfArray names) {
+        PdfDictionary leaf = new PdfDictionary();
+        leaf.put(PdfName.Limits, new PdfArray(Arrays.asList(names.get(0), names.get(names.size() - 2))));
+        leaf.put(PdfName.Names, names);
+        leaf.makeIndirect(catalog.getDocument());
+        return leaf;
+    }
+
     private Map<String, PdfObject> readTree(PdfDictionary dictionary) {
         Map<String, PdfObject> items = new HashMap<String, PdfObject>();
         if (dictionary != null) {
@@ -54,10 +54,13 @@ public class PdfNumTree implements Serializable {
 
     private PdfCatalog catalog;
     private Map<Integer, PdfObject> items = new HashMap<>();
+    private Map<Integer, PdfObject> addedItems = new HashMap<>();
     private PdfName treeType;
+    private boolean itemsRead;
 
     /**
-     * Creates the NumberTree of current Document
+     * Creates the NumberTree of current Document. The tree is read lazily: either entirely by {@link #getNumbers()},
+     * or node by node by {@link #getEntry(int)}.
      *
      * @param catalog  Document catalog
      * @param treeType the type of tree. ParentTree or PageLabels.
@@ -70,32 +73,76 @@ public class PdfNumTree implements Serializable {
 
 
     public Map<Integer, PdfObject> getNumbers() {
-        if (items.size() > 0) {
+        if (itemsRead) {
             return items;
         }
 
-        PdfDictionary numbers = null;
-        if (treeType.equals(PdfName.PageLabels)) {
-            numbers = catalog.getPdfObject().getAsDictionary(PdfName.PageLabels);
-        } else if (treeType.equals(PdfName.ParentTree)) {
-            PdfDictionary structTreeRoot = catalog.getPdfObject().getAsDictionary(PdfName.StructTreeRoot);
-            if (structTreeRoot != null) {
-                numbers = structTreeRoot.getAsDictionary(PdfName.ParentTree);
-            }
-        }
-
+        PdfDictionary numbers = getTreeRoot();
         if (numbers != null) {
+            // the entries added before the tree is read replace the read ones
+            Map<Integer, PdfObject> entries = items;
+            items = new HashMap<>();
             readTree(numbers);
+            items.putAll(entries);
         }
+        itemsRead = true;
 
         return items;
     }
 
+    /**
+     * Gets the value of a number, the same as {@code getNumbers().get(key)}, without reading the whole tree.
+     * <p/>
+     * The tree is descended by the /Limits of its nodes with binary search, so only the nodes on the path
+     * to the number are read. The nodes without /Limits are searched one after another.
+     *
+     * @param key the number
+     * @return the value of the number, or null if the tree doesn't contain it
+     */
+    public PdfObject getEntry(int key) {
+        PdfObject value = items.get(key);
+        if (value != null || itemsRead) {
+            return value;
+        }
+        PdfDictionary numbers = getTreeRoot();
+        return numbers != null ? findEntry(numbers, key) : null;
+    }
+
     public void addEntry(Integer key, PdfObject value) {
         items.put(key, value);
+        addedItems.put(key, value);
+    }
+
+    /**
+     * Adds the entries, which were added by {@link #addEntry(Integer, PdfObject)} since the last update, to the existing
+     * tree of the document. Only the nodes on the paths to the new entries are read and modified: the entries are
+     * inserted into the leaves, the /Limits are extended, and a leaf, which grows too large, is split.
+     * The tree is built anew if the document has no tree yet or its nodes have no /Limits.
+     * <p/>
+     * Unlike {@link #buildTree()}, the entries of the existing tree are kept even if they weren't read.
+     *
+     * @return the root of the tree
+     */
+    public PdfDictionary updateTree() {
+        PdfDictionary root = getTreeRoot();
+        if (root == null) {
+            return buildTree();
+        }
+        Integer[] numbers = new Integer[addedItems.size()];
+        numbers = addedItems.keySet().toArray(numbers);
+        Arrays.sort(numbers);
+        for (Integer number : numbers) {
+            if (!insertEntry(root, (int) number, addedItems.get(number))) {
+                getNumbers();
+                return buildTree();
+            }
+        }
+        addedItems.clear();
+        return root;
     }
 
     public PdfDictionary buildTree() {
+        addedItems.clear();
         Integer[] numbers = new Integer[items.size()];
         numbers = items.keySet().toArray(numbers);
         Arrays.sort(numbers);
@@ -159,6 +206,201 @@ public class PdfNumTree implements Serializable {
         }
     }
 
+    private PdfDictionary getTreeRoot() {
+        if (treeType.equals(PdfName.PageLabels)) {
+            return catalog.getPdfObject().getAsDictionary(PdfName.PageLabels);
+        } else if (treeType.equals(PdfName.ParentTree)) {
+            PdfDictionary structTreeRoot = catalog.getPdfObject().getAsDictionary(PdfName.StructTreeRoot);
+            if (structTreeRoot != null) {
+                return structTreeRoot.getAsDictionary(PdfName.ParentTree);
+            }
+        }
+        return null;
+    }
+
+    private static PdfObject findEntry(PdfDictionary node, int key) {
+        PdfArray nums = node.getAsArray(PdfName.Nums);
+        if (nums != null) {
+            int index = findNumber(nums, key);
+            if (index >= 0) {
+                return nums.get(2 * index + 1);
+            }
+            // the numbers of a malformed leaf may be out of order
+            for (int k = 0; k + 1 < nums.size(); k += 2) {
+                PdfNumber number = nums.getAsNumber(k);
+                if (number != null && number.intValue() == key) {
+                    return nums.get(k + 1);
+                }
+            }
+            return null;
+        }
+        PdfArray kids = node.getAsArray(PdfName.Kids);
+        if (kids == null) {
+            return null;
+        }
+        int low = 0;
+        int high = kids.size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            PdfDictionary kid = kids.getAsDictionary(mid);
+            PdfNumber min = getLimit(kid, 0);
+            PdfNumber max = getLimit(kid, 1);
+            if (min == null || max == null) {
+                for (int k = 0; k < kids.size(); k++) {
+                    kid = kids.getAsDictionary(k);
+                    PdfObject value = kid != null ? findEntry(kid, key) : null;
+                    if (value != null) {
+                        return value;
+                    }
+                }
+                return null;
+            }
+            if (key < min.intValue()) {
+                high = mid - 1;
+            } else if (key > max.intValue()) {
+                low = mid + 1;
+            } else {
+                return findEntry(kid, key);
+            }
+        }
+        return null;
+    }
+
+    /* Binary searches the number in the leaf, returns the index of the pair or -(insertion point) - 1 */
+    private static int findNumber(PdfArray nums, int key) {
+        int low = 0;
+        int high = nums.size() / 2 - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            PdfNumber number = nums.getAsNumber(2 * mid);
+            if (number == null || number.intValue() < key) {
+                low = mid + 1;
+            } else if (number.intValue() > key) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private static PdfNumber getLimit(PdfDictionary node, int index) {
+        PdfArray limits = node != null ? node.getAsArray(PdfName.Limits) : null;
+        return limits != null && limits.size() == 2 ? limits.getAsNumber(index) : null;
+    }
+
+    private boolean insertEntry(PdfDictionary root, int key, PdfObject value) {
+        List<PdfDictionary> path = new ArrayList<>();
+        PdfDictionary node = root;
+        PdfArray kids;
+        while (node.getAsArray(PdfName.Nums) == null && (kids = node.getAsArray(PdfName.Kids)) != null) {
+            // the first kid whose upper limit isn't less than the key, or the last kid
+            int low = 0;
+            int high = kids.size() - 1;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                PdfNumber max = getLimit(kids.getAsDictionary(mid), 1);
+                if (max == null) {
+                    return false;
+                }
+                if (max.intValue() < key) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            PdfDictionary kid = kids.getAsDictionary(low);
+            if (getLimit(kid, 0) == null || getLimit(kid, 1) == null) {
+                return false;
+            }
+            path.add(node);
+            node = kid;
+        }
+        PdfArray nums = node.getAsArray(PdfName.Nums);
+        if (nums == null || nums.size() % 2 != 0) {
+            return false;
+        }
+        int index = findNumber(nums, key);
+        if (index >= 0) {
+            nums.set(2 * index + 1, value);
+        } else {
+            index = -index - 1;
+            nums.add(2 * index, new PdfNumber(key));
+            nums.add(2 * index + 1, value);
+        }
+        nums.setModified();
+        node.setModified();
+
+        for (PdfDictionary ancestor : path) {
+            if (ancestor != root) {
+                extendLimits(ancestor, key);
+            }
+        }
+        if (node != root) {
+            extendLimits(node, key);
+        }
+        if (nums.size() > 4 * NODE_SIZE) {
+            splitLeaf(node, path.isEmpty() ? null : path.get(path.size() - 1));
+        }
+        return true;
+    }
+
+    private static void extendLimits(PdfDictionary node, int key) {
+        PdfArray limits = node.getAsArray(PdfName.Limits);
+        if (key < limits.getAsNumber(0).intValue()) {
+            limits.set(0, new PdfNumber(key));
+        } else if (key > limits.getAsNumber(1).intValue()) {
+            limits.set(1, new PdfNumber(key));
+        } else {
+            return;
+        }
+        limits.setModified();
+        node.setModified();
+    }
+
+    /* Splits the leaf in two halves. A root leaf becomes the parent of the halves */
+    private void splitLeaf(PdfDictionary leaf, PdfDictionary parent) {
+        PdfArray nums = leaf.getAsArray(PdfName.Nums);
+        int half = nums.size() / 4 * 2;
+        PdfArray upperNums = new PdfArray();
+        for (int k = half; k < nums.size(); k++) {
+            upperNums.add(nums.get(k, false));
+        }
+        PdfArray lowerNums = new PdfArray();
+        for (int k = 0; k < half; k++) {
+            lowerNums.add(nums.get(k, false));
+        }
+        PdfDictionary upper = createLeaf(upperNums);
+        if (parent == null) {
+            PdfArray kids = new PdfArray();
+            kids.add(createLeaf(lowerNums));
+            kids.add(upper);
+            leaf.remove(PdfName.Nums);
+            leaf.put(PdfName.Kids, kids);
+        } else {
+            leaf.put(PdfName.Nums, lowerNums);
+            leaf.put(PdfName.Limits, new PdfArray(Arrays.asList(lowerNums.get(0), lowerNums.get(lowerNums.size() - 2))));
+            PdfArray kids = parent.getAsArray(PdfName.Kids);
+            for (int k = 0; k < kids.size(); k++) {
+                if (kids.getAsDictionary(k) == leaf) {
+                    kids.add(k + 1, upper);
+                    break;
+                }
+            }
+            kids.setModified();
+            parent.setModified();
+        }
+        leaf.setModified();
+    }
+
+    private PdfDictionary createLeaf(PdfArray nums) {
+        PdfDictionary leaf = new PdfDictionary();
+        leaf.put(PdfName.Limits, new PdfArray(Arrays.asList(nums.get(0), nums.get(nums.size() - 2))));
+        leaf.put(PdfName.Nums, nums);
+        leaf.makeIndirect(catalog.getDocument());
+        return leaf;
+    }
+
     private void readTree(PdfDictionary dictionary) {
         if (dictionary != null) {
             iterateItems(dictionary, null);
@@ -72,6 +72,18 @@ public class PdfNumber extends PdfPrimitiveObject {
         this.value = java.lang.Double.NaN;
     }
 
+    /**
+     * Creates a number with the original content and the value, which is already parsed from the content.
+     *
+     * @param content the content of the number as it's written in the document
+     * @param value   the value of the content, or {@link Double#NaN} if it shall be parsed on demand
+     */
+    PdfNumber(byte[] content, double value) {
+        super(content);
+        this.isDouble = true;
+        this.value = value;
+    }
+
     private PdfNumber() {
         super();
     }
@@ -49,6 +49,7 @@ import com.itextpdf.io.source.ByteUtils;
 import com.itextpdf.io.source.DeflaterOutputStream;
 import com.itextpdf.io.source.OutputStream;
 import com.itextpdf.kernel.PdfException;
+import com.itextpdf.kernel.crypto.ObjectEncryptionKey;
 import com.itextpdf.kernel.crypto.OutputStreamEncryption;
 import com.itextpdf.kernel.pdf.filters.FlateDecodeFilter;
 
@@ -83,6 +84,12 @@ public class PdfOutputStream extends OutputStream<PdfOutputStream> {
      */
     protected PdfEncryption crypto;
 
+    /**
+     * Encryption key of the indirect object which is being written. If it is not set,
+     * the current key of {@link #crypto} is used.
+     */
+    transient ObjectEncryptionKey objectKey;
+
     public PdfOutputStream(java.io.OutputStream outputStream) {
         super(outputStream);
     }
@@ -147,7 +154,7 @@ public class PdfOutputStream extends OutputStream<PdfOutputStream> {
 
     private void write(PdfDictionary pdfDictionary) {
         writeBytes(openDict);
-        for (PdfName key : pdfDictionary.keySet()) {
+        for (PdfName key : pdfDictionary.getSortedKeys()) {
             boolean isAlreadyWriteSpace = false;
             write(key);
             PdfObject value = pdfDictionary.get(key, false);
@@ -183,7 +190,8 @@ public class PdfOutputStream extends OutputStream<PdfOutputStream> {
         if (document != null && !indirectReference.getDocument().equals(document)) {
             throw new PdfException(PdfException.PdfIndirectObjectBelongsToOtherPdfDocument);
         }
-        if (indirectReference.getRefersTo() == null) {
+        // flushed objects may be released in streaming mode, the reference to them is still valid
+        if (indirectReference.getRefersTo() == null && !indirectReference.checkState(PdfObject.FLUSHED)) {
             write(PdfNull.PDF_NULL);
         } else if (indirectReference.getGenNumber() == 0) {
             writeInteger(indirectReference.getObjNumber()).
@@ -206,7 +214,7 @@ public class PdfOutputStream extends OutputStream<PdfOutputStream> {
     }
 
     private void write(PdfString pdfString) {
-        pdfString.encrypt(crypto);
+        pdfString.encrypt(crypto, objectKey);
         if (pdfString.isHexWriting()) {
             writeByte('<');
             writeBytes(pdfString.getInternalContent());
@@ -243,23 +251,19 @@ public class PdfOutputStream extends OutputStream<PdfOutputStream> {
     private void write(PdfStream pdfStream) {
         try {
             boolean userDefinedCompression = pdfStream.getCompressionLevel() != CompressionConstants.UNDEFINED_COMPRESSION;
+            boolean toCompress = isCompressionRequired(pdfStream);
             if (!userDefinedCompression) {
-                int defaultCompressionLevel = document != null ?
-                        document.getWriter().getCompressionLevel() :
-                        CompressionConstants.DEFAULT_COMPRESSION;
-                pdfStream.setCompressionLevel(defaultCompressionLevel);
+                pdfStream.setCompressionLevel(resolveCompressionLevel(pdfStream));
             }
-            boolean toCompress = pdfStream.getCompressionLevel() != CompressionConstants.NO_COMPRESSION;
-            boolean allowCompression = !pdfStream.containsKey(PdfName.Filter) && isNotMetadataPdfStream(pdfStream);
 
             if (pdfStream.getInputStream() != null) {
                 java.io.OutputStream fout = this;
                 DeflaterOutputStream def = null;
                 OutputStreamEncryption ose = null;
                 if (crypto != null && !crypto.isEmbeddedFilesOnly()) {
-                    fout = ose = crypto.getEncryptionStream(fout);
+                    fout = ose = getEncryptionStream(fout);
                 }
-                if (toCompress && (allowCompression || userDefinedCompression)) {
+                if (toCompress) {
                     updateCompressionFilter(pdfStream);
                     fout = def = new DeflaterOutputStream(fout, pdfStream.getCompressionLevel(), 0x8000);
                 }
@@ -299,19 +303,9 @@ public class PdfOutputStream extends OutputStream<PdfOutputStream> {
                 assert pdfStream.getOutputStream() != null : "PdfStream lost OutputStream";
                 ByteArrayOutputStream byteArrayStream;
                 try {
-                    if (toCompress && !containsFlateFilter(pdfStream) && (allowCompression || userDefinedCompression)) { // compress
+                    if (toCompress && !containsFlateFilter(pdfStream)) { // compress
                         updateCompressionFilter(pdfStream);
-                        byteArrayStream = new ByteArrayOutputStream();
-                        DeflaterOutputStream zip = new DeflaterOutputStream(byteArrayStream, pdfStream.getCompressionLevel());
-                        if (pdfStream instanceof PdfObjectStream) {
-                            PdfObjectStream objectStream = (PdfObjectStream) pdfStream;
-                            ((ByteArrayOutputStream) objectStream.getIndexStream().getOutputStream()).writeTo(zip);
-                            ((ByteArrayOutputStream) objectStream.getOutputStream().getOutputStream()).writeTo(zip);
-                        } else {
-                            assert pdfStream.getOutputStream() != null : "Error in outputStream";
-                            ((ByteArrayOutputStream) pdfStream.getOutputStream().getOutputStream()).writeTo(zip);
-                        }
-                        zip.finish();
+                        byteArrayStream = getCompressedContent(pdfStream);
                     } else {
                         if (pdfStream instanceof PdfObjectStream) {
                             PdfObjectStream objectStream = (PdfObjectStream) pdfStream;
@@ -324,11 +318,7 @@ public class PdfOutputStream extends OutputStream<PdfOutputStream> {
                         }
                     }
                     if (checkEncryption(pdfStream)) {
-                        ByteArrayOutputStream encodedStream = new ByteArrayOutputStream();
-                        OutputStreamEncryption ose = crypto.getEncryptionStream(encodedStream);
-                        byteArrayStream.writeTo(ose);
-                        ose.finish();
-                        byteArrayStream = encodedStream;
+                        byteArrayStream = encryptContent(pdfStream, byteArrayStream);
                     }
                 } catch (IOException ioe) {
                     throw new PdfException(PdfException.IoException, ioe);
@@ -346,6 +336,105 @@ public class PdfOutputStream extends OutputStream<PdfOutputStream> {
         }
     }
 
+    /**
+     * Deflates the content of the stream, which is kept in the stream's {@link ByteArrayOutputStream}.
+     *
+     * @param pdfStream the stream which content shall be compressed
+     * @return buffer with compressed bytes
+     * @throws IOException on compression error
+     */
+    ByteArrayOutputStream getCompressedContent(PdfStream pdfStream) throws IOException {
+        return compress(pdfStream, pdfStream.getCompressionLevel());
+    }
+
+    /**
+     * Checks if the content of the stream kept in memory will be compressed on writing.
+     * Unlike writing itself this method doesn't change the stream.
+     *
+     * @param pdfStream the stream to check
+     * @return true if {@link #getCompressedContent(PdfStream)} will be used for this stream, otherwise false.
+     */
+    boolean isContentToBeCompressed(PdfStream pdfStream) {
+        if (pdfStream.getInputStream() != null || pdfStream.getOutputStream() == null
+                || !(pdfStream.getOutputStream().getOutputStream() instanceof ByteArrayOutputStream)) {
+            return false;
+        }
+        return isCompressionRequired(pdfStream) && !containsFlateFilter(pdfStream);
+    }
+
+    /**
+     * Checks if the stream shall be compressed on writing, according to its compression level and filters.
+     * The check shall be done before the default compression level is assigned to the stream.
+     *
+     * @param pdfStream the stream to check
+     * @return true if the content of the stream shall be compressed, otherwise false.
+     */
+    private boolean isCompressionRequired(PdfStream pdfStream) {
+        boolean userDefinedCompression = pdfStream.getCompressionLevel() != CompressionConstants.UNDEFINED_COMPRESSION;
+        boolean allowCompression = !pdfStream.containsKey(PdfName.Filter) && isNotMetadataPdfStream(pdfStream);
+        return resolveCompressionLevel(pdfStream) != CompressionConstants.NO_COMPRESSION
+                && (allowCompression || userDefinedCompression);
+    }
+
+    /**
+     * Gets the compression level the stream will be written with.
+     *
+     * @param pdfStream the stream to check
+     * @return compression level of the stream if it is defined, otherwise the default one.
+     */
+    int resolveCompressionLevel(PdfStream pdfStream) {
+        if (pdfStream.getCompressionLevel() != CompressionConstants.UNDEFINED_COMPRESSION) {
+            return pdfStream.getCompressionLevel();
+        }
+        return document != null ?
+                document.getWriter().getCompressionLevel() :
+                CompressionConstants.DEFAULT_COMPRESSION;
+    }
+
+    /**
+     * Deflates the content of the stream, which is kept in memory. The stream itself is not changed,
+     * so this method can be called outside of the writing thread.
+     *
+     * @param pdfStream        the stream which content shall be compressed
+     * @param compressionLevel the level of compression
+     * @return buffer with compressed bytes
+     * @throws IOException on compression error
+     */
+    static ByteArrayOutputStream compress(PdfStream pdfStream, int compressionLevel) throws IOException {
+        ByteArrayOutputStream byteArrayStream = new ByteArrayOutputStream();
+        DeflaterOutputStream zip = new DeflaterOutputStream(byteArrayStream, compressionLevel);
+        if (pdfStream instanceof PdfObjectStream) {
+            PdfObjectStream objectStream = (PdfObjectStream) pdfStream;
+            ((ByteArrayOutputStream) objectStream.getIndexStream().getOutputStream()).writeTo(zip);
+            ((ByteArrayOutputStream) objectStream.getOutputStream().getOutputStream()).writeTo(zip);
+        } else {
+            assert pdfStream.getOutputStream() != null : "Error in outputStream";
+            ((ByteArrayOutputStream) pdfStream.getOutputStream().getOutputStream()).writeTo(zip);
+        }
+        zip.finish();
+        return byteArrayStream;
+    }
+
+    /**
+     * Encrypts the content of the stream, which is kept in memory.
+     *
+     * @param pdfStream the stream which content shall be encrypted
+     * @param content   the content to encrypt, possibly compressed
+     * @return buffer with encrypted bytes
+     * @throws IOException on error
+     */
+    ByteArrayOutputStream encryptContent(PdfStream pdfStream, ByteArrayOutputStream content) throws IOException {
+        ByteArrayOutputStream encodedStream = new ByteArrayOutputStream();
+        OutputStreamEncryption ose = getEncryptionStream(encodedStream);
+        content.writeTo(ose);
+        ose.finish();
+        return encodedStream;
+    }
+
+    private OutputStreamEncryption getEncryptionStream(java.io.OutputStream os) {
+        return objectKey != null ? crypto.getEncryptionStream(os, objectKey) : crypto.getEncryptionStream(os);
+    }
+
     protected boolean checkEncryption(PdfStream pdfStream) {
         if (crypto == null || crypto.isEmbeddedFilesOnly()) {
             return false;
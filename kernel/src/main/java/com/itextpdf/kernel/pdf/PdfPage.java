@@ -66,6 +66,7 @@ import java.io.IOException;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 public class PdfPage extends PdfObjectWrapper<PdfDictionary> {
@@ -75,7 +76,7 @@ public class PdfPage extends PdfObjectWrapper<PdfDictionary> {
     private int mcid = -1;
     private int structParents = -1;
     PdfPages parentPages;
-    private List<PdfName> excludedKeys = new ArrayList<>(Arrays.asList(
+    private static final List<PdfName> EXCLUDED_KEYS = Collections.unmodifiableList(Arrays.asList(
             PdfName.Parent,
             PdfName.Annots,
             PdfName.StructParents,
@@ -370,7 +371,7 @@ public class PdfPage extends PdfObjectWrapper<PdfDictionary> {
      * @return copied {@link PdfPage}.
      */
     public PdfPage copyTo(PdfDocument toDocument, IPdfPageExtraCopier copier) {
-        PdfDictionary dictionary = getPdfObject().copyTo(toDocument, excludedKeys, true);
+        PdfDictionary dictionary = getPdfObject().copyTo(toDocument, EXCLUDED_KEYS, true);
         PdfPage page = new PdfPage(dictionary);
         copyInheritedProperties(page, toDocument);
         for (PdfAnnotation annot : getAnnotations()) {
@@ -412,7 +413,7 @@ public class PdfPage extends PdfObjectWrapper<PdfDictionary> {
         List<PdfName> excludedKeys = new ArrayList<>(Arrays.asList(PdfName.MediaBox,
                 PdfName.CropBox,
                 PdfName.Contents));
-        excludedKeys.addAll(this.excludedKeys);
+        excludedKeys.addAll(EXCLUDED_KEYS);
         PdfDictionary dictionary = getPdfObject().copyTo(toDocument, excludedKeys, true);
 
         xObject.getPdfObject().getOutputStream().write(getContentBytes());
@@ -485,13 +486,23 @@ public class PdfPage extends PdfObjectWrapper<PdfDictionary> {
             flushContentStreams();
         }
         int contentStreamCount = getContentStreamCount();
+        PdfStream[] contentStreams = new PdfStream[contentStreamCount];
         for (int i = 0; i < contentStreamCount; i++) {
-            getContentStream(i).flush(false);
+            contentStreams[i] = getContentStream(i);
+            contentStreams[i].flush(false);
         }
 
         resources = null;
 
+        PdfDocument document = getDocument();
+        PdfWriter writer = document.getWriter();
+        boolean streamingMode = writer != null && writer.properties.streamingMode;
+        List<PdfDictionary> annotations = streamingMode ? getAnnotationsToRelease() : null;
         super.flush();
+
+        if (streamingMode) {
+            release(document, contentStreams, annotations);
+        }
     }
 
     /**
@@ -1076,6 +1087,68 @@ public class PdfPage extends PdfObjectWrapper<PdfDictionary> {
         obj.makeIndirect(getDocument()).flush();
     }
 
+    /*
+    * releasing of the flushed page in streaming mode, see WriterProperties#useStreamingMode()
+    */
+    private void release(PdfDocument document, PdfStream[] contentStreams, List<PdfDictionary> annotations) {
+        document.getCatalog().getPageTree().releasePage(this);
+        for (PdfStream contentStream : contentStreams) {
+            releaseFlushedObject(contentStream);
+        }
+        // annotations are written together with the page, otherwise they would be kept until the document is closed.
+        // Annotations become indirect objects when the page is written.
+        for (PdfDictionary annotation : annotations) {
+            if (annotation.getIndirectReference() != null) {
+                flushOwnedObject(annotation);
+            }
+        }
+    }
+
+    /**
+     * Gets the annotations of the page, which can be flushed together with the page in streaming mode.
+     * Widget annotations are kept, because they belong to the form fields, which are processed on closing.
+     */
+    private List<PdfDictionary> getAnnotationsToRelease() {
+        List<PdfDictionary> annotations = new ArrayList<>();
+        PdfArray annots = getPdfObject().getAsArray(PdfName.Annots);
+        if (annots != null) {
+            for (int i = 0; i < annots.size(); i++) {
+                PdfDictionary annot = annots.getAsDictionary(i);
+                if (annot != null && !annot.isFlushed() && !PdfName.Widget.equals(annot.getAsName(PdfName.Subtype))) {
+                    annotations.add(annot);
+                }
+            }
+        }
+        return annotations;
+    }
+
+    /**
+     * Flushes the object together with the objects, which were direct in it and became indirect while it was written,
+     * e.g. actions of annotations. Such objects aren't referenced from anywhere else.
+     */
+    private static void flushOwnedObject(PdfDictionary object) {
+        List<PdfDictionary> directValues = new ArrayList<>();
+        for (PdfObject value : object.values(false)) {
+            if (value.isDictionary() && value.getIndirectReference() == null) {
+                directValues.add((PdfDictionary) value);
+            }
+        }
+        object.flush();
+        releaseFlushedObject(object);
+        for (PdfDictionary value : directValues) {
+            if (value.getIndirectReference() != null && !value.isFlushed()) {
+                flushOwnedObject(value);
+            }
+        }
+    }
+
+    private static void releaseFlushedObject(PdfObject object) {
+        PdfIndirectReference reference = object.getIndirectReference();
+        if (reference != null && reference.checkState(PdfObject.FLUSHED)) {
+            reference.setRefersTo(null);
+        }
+    }
+
     /*
     * initialization <code>parentPages</code> if needed
     */
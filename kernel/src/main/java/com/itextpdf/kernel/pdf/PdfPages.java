@@ -43,37 +43,64 @@
  */
 package com.itextpdf.kernel.pdf;
 
+import com.itextpdf.kernel.PdfException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Node of the {@link PdfPagesTree}. The kids of a node are either pages, then the node is a leaf,
+ * or other nodes. Every node knows the number of pages in its subtree, so a page is found by its index
+ * by descending from the root.
+ */
 class PdfPages extends PdfObjectWrapper<PdfDictionary> {
-    
-	private static final long serialVersionUID = 404629033132277362L;
-	private int from;
+
+    private static final long serialVersionUID = 404629033132277362L;
+
+    /**
+     * Attributes of a node, which are inherited by the pages of the node.
+     */
+    private static final PdfName[] INHERITABLE_ATTRIBUTES = {PdfName.Resources, PdfName.MediaBox, PdfName.CropBox, PdfName.Rotate};
+
     private PdfNumber count;
     private final PdfArray kids;
-    private final PdfPages parent;
+    private PdfPages parent;
+    // false until the kids of the node read from the document are checked
+    private boolean loaded;
+    // wrappers of the kids of an intermediate node, in the same order as the kids
+    private List<PdfPages> nodes;
+    // wrappers of the pages of a leaf, null elements for the pages which weren't requested yet
+    private List<PdfPage> pages;
+    // number of pages before each of the nodes, valid only while the counts of the nodes don't change
+    private transient int[] offsets;
+    private transient boolean offsetsValid;
 
-    public PdfPages(int from, PdfDocument pdfDocument, PdfPages parent) {
+    public PdfPages(PdfDocument pdfDocument, PdfPages parent) {
         super(new PdfDictionary());
         if (pdfDocument.getWriter() != null) {
             getPdfObject().makeIndirect(pdfDocument);
         }
         setForbidRelease();
-        this.from = from;
         this.count = new PdfNumber(0);
         this.kids = new PdfArray();
         this.parent = parent;
+        this.loaded = true;
+        this.pages = new ArrayList<>();
         getPdfObject().put(PdfName.Type, PdfName.Pages);
         getPdfObject().put(PdfName.Kids, this.kids);
         getPdfObject().put(PdfName.Count, this.count);
+        if (parent != null) {
+            getPdfObject().put(PdfName.Parent, parent.getPdfObject());
+        }
     }
 
-    public PdfPages(int from, PdfDocument pdfDocument) {
-        this(from, pdfDocument, null);
+    public PdfPages(PdfDocument pdfDocument) {
+        this(pdfDocument, null);
     }
 
-    public PdfPages(int from, int maxCount, PdfDictionary pdfObject, PdfPages parent) {
+    public PdfPages(int maxCount, PdfDictionary pdfObject, PdfPages parent) {
         super(pdfObject);
         setForbidRelease();
-        this.from = from;
         this.count = pdfObject.getAsNumber(PdfName.Count);
         this.parent = parent;
         if (this.count == null) {
@@ -86,53 +113,396 @@ class PdfPages extends PdfObjectWrapper<PdfDictionary> {
         pdfObject.put(PdfName.Type, PdfName.Pages);
     }
 
-    public void addPage(PdfDictionary page) {
-        kids.add(page);
-        incrementCount();
-        page.put(PdfName.Parent, getPdfObject());
+    /**
+     * Checks the kids of the node read from the document and creates wrappers for the kids which are nodes.
+     * Every node shall contain either pages or other nodes, so the pages which are mixed with nodes
+     * are moved to new nodes.
+     *
+     * @param document the document of the tree
+     * @param pageNum  one-based number of the requested page, used in the exception message
+     */
+    public void load(PdfDocument document, int pageNum) {
+        if (loaded)
+            return;
+        if (kids == null) {
+            throw new PdfException(PdfException.InvalidPageStructure1).setMessageParams(pageNum);
+        }
+        boolean findPdfPages = false;
+        for (int i = 0; i < kids.size(); i++) {
+            PdfDictionary page = kids.getAsDictionary(i);
+            if (page == null) {                                             // null values not allowed in pages tree.
+                throw new PdfException(PdfException.InvalidPageStructure1).setMessageParams(pageNum);
+            }
+            PdfObject pageKids = page.get(PdfName.Kids);
+            if (pageKids != null) {
+                if (pageKids.getType() == PdfObject.ARRAY) {
+                    findPdfPages = true;
+                } else {                                                    // kids must be of type array
+                    throw new PdfException(PdfException.InvalidPageStructure1).setMessageParams(pageNum);
+                }
+            }
+        }
+        if (findPdfPages) {
+            nodes = new ArrayList<>(kids.size());
+            int kidsCount = getCount();
+            for (int i = 0; i < kids.size() && kidsCount > 0; i++) {
+                PdfDictionary kid = kids.getAsDictionary(i);
+                PdfPages node;
+                if (kid.getAsArray(PdfName.Kids) == null) {                 // a run of pages is moved to a new node
+                    node = new PdfPages(document, this);
+                    kids.set(i, node.getPdfObject());
+                    while (kidsCount > 0) {
+                        node.kids.add(kid);
+                        node.pages.add(null);
+                        node.count.increment();
+                        kid.put(PdfName.Parent, node.getPdfObject());
+                        kid.setModified();
+                        kidsCount--;
+                        if (i + 1 == kids.size() || kids.getAsDictionary(i + 1).getAsArray(PdfName.Kids) != null)
+                            break;
+                        kid = kids.getAsDictionary(i + 1);
+                        kids.remove(i + 1);
+                    }
+                    setModified();
+                } else {
+                    node = new PdfPages(kidsCount, kid, this);
+                    kidsCount -= node.getCount();
+                }
+                nodes.add(node);
+            }
+        } else {
+            pages = new ArrayList<>(getCount());
+            for (int i = 0; i < getCount(); i++) {
+                pages.add(null);
+            }
+        }
+        loaded = true;
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public boolean isLeaf() {
+        return nodes == null;
+    }
+
+    /**
+     * Gets the number of kids of the node, which are pages or nodes.
+     */
+    public int getKidsCount() {
+        return isLeaf() ? pages.size() : nodes.size();
+    }
+
+    /**
+     * Gets the page of the leaf, creating its wrapper if needed.
+     *
+     * @param index   zero-based index of the page in the leaf
+     * @param pageNum one-based number of the page in the document, used in the exception message
+     */
+    public PdfPage getPage(int index, int pageNum) {
+        PdfPage pdfPage = pages.get(index);
+        if (pdfPage == null) {
+            PdfDictionary pageDictionary = index < kids.size() ? kids.getAsDictionary(index) : null;
+            if (pageDictionary == null) {
+                throw new PdfException(PdfException.InvalidPageStructure1).setMessageParams(pageNum);
+            }
+            pdfPage = new PdfPage(pageDictionary);
+            pdfPage.parentPages = this;
+            // the wrapper of the released page isn't kept, it wraps just the flushed page dictionary
+            if (!isPageReleased(index)) {
+                pages.set(index, pdfPage);
+            }
+        }
+        return pdfPage;
     }
 
-    public boolean addPage(int index, PdfPage pdfPage) {
-        if (index < from || index > from + getCount())
+    /**
+     * Gets the dictionary of the page of the leaf without creating its wrapper.
+     */
+    public PdfDictionary getPageDictionary(int index) {
+        PdfPage pdfPage = pages.get(index);
+        if (pdfPage != null)
+            return pdfPage.getPdfObject();
+        return index < kids.size() ? kids.getAsDictionary(index) : null;
+    }
+
+    /**
+     * Releases the wrapper of the flushed page, so that the leaf keeps only the indirect reference of the page.
+     * The flushed page dictionary is still available by the reference.
+     */
+    public void releasePage(int index) {
+        kids.set(index, pages.get(index).getPdfObject().getIndirectReference());
+        pages.set(index, null);
+    }
+
+    /**
+     * Checks if the page of the leaf has been flushed and released, see {@link #releasePage(int)}.
+     */
+    public boolean isPageReleased(int index) {
+        if (pages.get(index) != null || index >= kids.size())
             return false;
-        kids.add(index - from, pdfPage.getPdfObject());
+        PdfObject kid = kids.get(index, false);
+        return kid.getType() == PdfObject.INDIRECT_REFERENCE && ((PdfIndirectReference) kid).checkState(PdfObject.FLUSHED);
+    }
+
+    public int indexOfPage(PdfPage pdfPage) {
+        for (int i = 0; i < pages.size(); i++) {
+            if (pages.get(i) == pdfPage)
+                return i;
+        }
+        if (pdfPage.isFlushed()) {
+            // the wrapper of the released page isn't kept, the page is found by its reference
+            PdfIndirectReference reference = pdfPage.getPdfObject().getIndirectReference();
+            for (int i = 0; i < pages.size(); i++) {
+                if (pages.get(i) == null && i < kids.size() && kids.get(i, false) == reference)
+                    return i;
+            }
+        }
+        return -1;
+    }
+
+    public void addPage(int index, PdfPage pdfPage) {
+        kids.add(index, pdfPage.getPdfObject());
+        pages.add(index, pdfPage);
         pdfPage.getPdfObject().put(PdfName.Parent, getPdfObject());
-        incrementCount();
-        setModified();
-        return true;
+        pdfPage.parentPages = this;
+        changeCount(1);
     }
 
-    public boolean removePage(int pageNum) {
-        if (pageNum < from || pageNum >= from + getCount())
-            return false;
-        decrementCount();
-        kids.remove(pageNum - from);
-        return true;
+    public void removePage(int index) {
+        kids.remove(index);
+        pages.remove(index);
+        changeCount(-1);
     }
 
-    public void addPages(PdfPages pdfPages) {
-        kids.add(pdfPages.getPdfObject());
-        count.setValue(count.intValue() + pdfPages.getCount());
-        pdfPages.getPdfObject().put(PdfName.Parent, getPdfObject());
-        setModified();
+    public PdfPages getNode(int index) {
+        return nodes.get(index);
+    }
+
+    public int indexOfNode(PdfPages node) {
+        return nodes == null ? -1 : nodes.indexOf(node);
+    }
+
+    public void addNode(int index, PdfPages node) {
+        kids.add(index, node.getPdfObject());
+        nodes.add(index, node);
+        node.parent = this;
+        node.getPdfObject().put(PdfName.Parent, getPdfObject());
+        node.setModified();
+        changeCount(node.getCount());
     }
 
-    // remove empty PdfPage.
+    /**
+     * Removes the empty node from its parent.
+     */
     public void removeFromParent() {
         if (parent != null) {
             assert getCount() == 0;
-            if (parent.kids.contains(getPdfObject().getIndirectReference())) {
-                parent.kids.remove(getPdfObject().getIndirectReference());
-            } else {
-                parent.kids.remove(getPdfObject());
+            int index = parent.nodes.indexOf(this);
+            parent.nodes.remove(index);
+            parent.kids.remove(index);
+            parent.offsetsValid = false;
+            parent.setModified();
+        }
+    }
+
+    /**
+     * Makes this node the new root above the previous root.
+     */
+    public void addRootNode(PdfPages previousRoot) {
+        nodes = new ArrayList<>();
+        pages = null;
+        kids.add(previousRoot.getPdfObject());
+        nodes.add(previousRoot);
+        count.setValue(previousRoot.getCount());
+        previousRoot.parent = this;
+        previousRoot.getPdfObject().put(PdfName.Parent, getPdfObject());
+        previousRoot.setModified();
+    }
+
+    /**
+     * Makes the only kid of the root node the new root. The node gets the inheritable attributes
+     * of the previous root, which it doesn't override, so that its pages keep their attributes.
+     */
+    public void makeRoot() {
+        for (PdfName attribute : INHERITABLE_ATTRIBUTES) {
+            PdfObject value = parent.getPdfObject().get(attribute, false);
+            if (value != null && !getPdfObject().containsKey(attribute)) {
+                getPdfObject().put(attribute, value);
             }
-            if (parent.getCount() == 0) {
-                parent.removeFromParent();
+        }
+        parent = null;
+        getPdfObject().remove(PdfName.Parent);
+        setModified();
+    }
+
+    /**
+     * Turns the empty root node into an empty leaf.
+     */
+    public void clear() {
+        assert getCount() == 0;
+        kids.clear();
+        nodes = null;
+        pages = new ArrayList<>();
+        setModified();
+    }
+
+    /**
+     * Checks if the kids in the given range may be moved to another node.
+     * Flushed pages can't be moved, as their /Parent entry can't be changed anymore.
+     *
+     * @param fromIndex index of the first kid, inclusive
+     * @param toIndex   index of the last kid, exclusive
+     */
+    public boolean canMoveKids(int fromIndex, int toIndex) {
+        for (int i = fromIndex; i < toIndex; i++) {
+            if (!canMoveKid(i))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Gets the index of the first kid, which can't be moved to another node, or the number of kids if all of them
+     * can be moved.
+     */
+    public int getFirstUnmovableKid() {
+        int kidsCount = getKidsCount();
+        for (int i = 0; i < kidsCount; i++) {
+            if (!canMoveKid(i))
+                return i;
+        }
+        return kidsCount;
+    }
+
+    /**
+     * Gets the index of the last kid, which can't be moved to another node, or -1 if all of them can be moved.
+     */
+    public int getLastUnmovableKid() {
+        for (int i = getKidsCount() - 1; i >= 0; i--) {
+            if (!canMoveKid(i))
+                return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Checks if the inheritable attributes of the nodes are the same, so that the kids of one node
+     * may be moved to the other one.
+     */
+    public boolean hasSameInheritableAttributes(PdfPages node) {
+        for (PdfName attribute : INHERITABLE_ATTRIBUTES) {
+            PdfObject value = getPdfObject().get(attribute, false);
+            PdfObject nodeValue = node.getPdfObject().get(attribute, false);
+            if (value == null ? nodeValue != null : !value.equals(nodeValue))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Copies the inheritable attributes of this node to the empty node, which isn't added to the tree yet,
+     * so that the kids moved to the node keep their attributes.
+     */
+    public void copyInheritableAttributes(PdfPages node) {
+        for (PdfName attribute : INHERITABLE_ATTRIBUTES) {
+            PdfObject value = getPdfObject().get(attribute, false);
+            if (value != null) {
+                node.getPdfObject().put(attribute, value);
             }
         }
     }
 
+    /**
+     * Moves the kids in the given range to another node of the same kind, inserting them at the given index.
+     * The nodes shall have the same inheritable attributes, see {@link #hasSameInheritableAttributes(PdfPages)}.
+     *
+     * @param fromIndex index of the first kid, inclusive
+     * @param toIndex   index of the last kid, exclusive
+     * @param node      the node, which gets the kids. An empty leaf, which isn't added to the tree yet,
+     *                  gets the kind of this node
+     * @param index     the index of the first moved kid in the node
+     */
+    public void moveKids(int fromIndex, int toIndex, PdfPages node, int index) {
+        int moved = 0;
+        if (isLeaf()) {
+            for (int i = fromIndex; i < toIndex; i++) {
+                PdfPage pdfPage = pages.remove(fromIndex);
+                PdfObject kid = kids.get(fromIndex, false);
+                kids.remove(fromIndex);
+                node.kids.add(index, kid);
+                node.pages.add(index++, pdfPage);
+                PdfDictionary pageDictionary = (PdfDictionary) (kid.getType() == PdfObject.INDIRECT_REFERENCE
+                        ? ((PdfIndirectReference) kid).getRefersTo() : kid);
+                pageDictionary.put(PdfName.Parent, node.getPdfObject());
+                pageDictionary.setModified();
+                if (pdfPage != null) {
+                    pdfPage.parentPages = node;
+                }
+                moved++;
+            }
+        } else {
+            if (node.isLeaf()) {
+                assert node.getKidsCount() == 0;
+                node.nodes = new ArrayList<>();
+                node.pages = null;
+            }
+            for (int i = fromIndex; i < toIndex; i++) {
+                PdfPages child = nodes.remove(fromIndex);
+                kids.remove(fromIndex);
+                node.kids.add(index, child.getPdfObject());
+                node.nodes.add(index++, child);
+                child.parent = node;
+                child.getPdfObject().put(PdfName.Parent, node.getPdfObject());
+                child.setModified();
+                moved += child.getCount();
+            }
+        }
+        changeCount(-moved);
+        node.changeCount(moved);
+    }
+
+    /**
+     * Finds the kid node, which contains the page.
+     *
+     * @param pageIndex zero-based index of the page within this node
+     * @return index of the kid node, or -1 if the counts of the kids are less than the count of this node
+     */
+    public int findNode(int pageIndex) {
+        int[] offsets = getOffsets();
+        int low = 0;
+        int high = nodes.size() - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (offsets[middle] > pageIndex) {
+                high = middle - 1;
+            } else if (offsets[middle] + nodes.get(middle).getCount() <= pageIndex) {
+                low = middle + 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Gets the number of pages of this node before the kid node.
+     */
+    public int getOffset(int nodeIndex) {
+        return getOffsets()[nodeIndex];
+    }
+
+    /**
+     * Gets zero-based index of the first page of this node in the document.
+     */
     public int getFrom() {
+        int from = 0;
+        PdfPages node = this;
+        while (node.parent != null) {
+            from += node.parent.getOffset(node.parent.nodes.indexOf(node));
+            node = node.parent;
+        }
         return from;
     }
 
@@ -140,10 +510,6 @@ class PdfPages extends PdfObjectWrapper<PdfDictionary> {
         return count.intValue();
     }
 
-    public void correctFrom(int correction){
-        from += correction;
-    }
-
     public PdfArray getKids() {
         return getPdfObject().getAsArray(PdfName.Kids);
     }
@@ -152,30 +518,46 @@ class PdfPages extends PdfObjectWrapper<PdfDictionary> {
         return parent;
     }
 
-    public void incrementCount(){
-        count.increment();
-        setModified();
-        if (parent != null)
-            parent.incrementCount();
+    /**
+     * Changes the count of this node and of all its ancestors.
+     */
+    public void changeCount(int delta) {
+        PdfPages node = this;
+        while (node != null) {
+            node.count.setValue(node.count.intValue() + delta);
+            node.offsetsValid = false;
+            node.setModified();
+            node = node.parent;
+        }
     }
 
-    public void decrementCount(){
-        count.decrement();
-        setModified();
-        if (parent != null)
-            parent.decrementCount();
+    @Override
+    protected boolean isWrappedObjectMustBeIndirect() {
+        return true;
     }
 
-    public int compareTo(int index) {
-        if (index < from)
-            return 1;
-        if (index >= from + getCount())
-            return -1;
-        return 0;
+    private boolean canMoveKid(int index) {
+        if (kids.size() != getKidsCount())
+            return false;
+        PdfObject kid = kids.get(index, false);
+        boolean flushed = kid.getType() == PdfObject.INDIRECT_REFERENCE
+                ? ((PdfIndirectReference) kid).checkState(PdfObject.FLUSHED)
+                : kid.isFlushed();
+        return !flushed;
     }
 
-    @Override
-    protected boolean isWrappedObjectMustBeIndirect() {
-        return true;
+    private int[] getOffsets() {
+        if (!offsetsValid || offsets == null || offsets.length < nodes.size()) {
+            if (offsets == null || offsets.length < nodes.size()) {
+                offsets = new int[Math.max(nodes.size(), 4)];
+            }
+            int offset = 0;
+            for (int i = 0; i < nodes.size(); i++) {
+                offsets[i] = offset;
+                offset += nodes.get(i).getCount();
+            }
+            offsetsValid = true;
+        }
+        return offsets;
     }
 }
@@ -53,21 +53,35 @@ import java.util.ArrayList;
 import java.util.List;
 
 /**
- * Algorithm for construction {@link PdfPages} tree
+ * Algorithm for construction {@link PdfPages} tree.
+ * <p/>
+ * The tree is kept balanced while pages are added and removed, like a B-tree: a full node is split in two,
+ * or gets an empty sibling when pages are appended to its end, and a node which becomes less than half full
+ * is merged with its sibling or borrows a kid from it. Each node knows the number of pages in its subtree,
+ * so pages are found, added and removed by their indexes in logarithmic time. Trees read from a document keep
+ * their structure and are loaded lazily.
+ * <p/>
+ * Flushed pages are never moved to another node, so a leaf, which has flushed pages on both sides of a page
+ * inserted in it, can't be split and exceeds the fan-out.
  */
 class PdfPagesTree implements Serializable {
 
     private static final long serialVersionUID = 4189501363348296036L;
 
-    private final int leafSize = 10;
+    static final int DEFAULT_LEAF_SIZE = 10;
+
+    private final int leafSize;
 
-    private List<PdfDictionary> pageRefs;
-    private List<PdfPages> parents;
-    private List<PdfPage> pages;
     private PdfDocument document;
     private boolean generated = false;
     private PdfPages root;
 
+    // the last found leaf and the index of its first page, to get subsequent pages without descending from the root
+    private transient PdfPages lastLeaf;
+    private transient int lastLeafFrom;
+    // the position of a new kid in the node returned by split()
+    private transient int insertPosition;
+
     /**
      * Create PdfPages tree.
      *
@@ -75,25 +89,17 @@ class PdfPagesTree implements Serializable {
      */
     public PdfPagesTree(PdfCatalog pdfCatalog) {
         this.document = pdfCatalog.getDocument();
-        this.pageRefs = new ArrayList<>();
-        this.parents = new ArrayList<>();
-        this.pages = new ArrayList<>();
+        PdfWriter writer = document.getWriter();
+        this.leafSize = writer != null ? writer.properties.pagesTreeLeafSize : DEFAULT_LEAF_SIZE;
         if (pdfCatalog.getPdfObject().containsKey(PdfName.Pages)) {
             PdfDictionary pages = pdfCatalog.getPdfObject().getAsDictionary(PdfName.Pages);
             if (pages == null)
                 throw new PdfException(PdfException.InvalidPageStructurePagesPagesMustBePdfDictionary);
-            this.root = new PdfPages(0, Integer.MAX_VALUE, pages, null);
-            parents.add(this.root);
-            for (int i = 0; i < this.root.getCount(); i++) {
-                this.pageRefs.add(null);
-                this.pages.add(null);
-            }
+            //in read mode the nodes of the tree are loaded on demand
+            this.root = new PdfPages(Integer.MAX_VALUE, pages, null);
         } else {
-            this.root = null;
-            this.parents.add(new PdfPages(0, this.document));
+            this.root = new PdfPages(this.document);
         }
-        //in read mode we will create PdfPages from 0 to Count
-        // and reserve null indexes for pageRefs and pages.
     }
 
     /**
@@ -103,17 +109,10 @@ class PdfPagesTree implements Serializable {
      * @return the {@see PdfPage} at the specified position in this list
      */
     public PdfPage getPage(int pageNum) {
-        --pageNum;
-        PdfPage pdfPage = pages.get(pageNum);
-        if (pdfPage == null) {
-            loadPage(pageNum);
-            pdfPage = new PdfPage(pageRefs.get(pageNum));
-            int parentIndex = findPageParent(pageNum);
-            PdfPages parentPages = parents.get(parentIndex);
-            pdfPage.parentPages = parentPages;
-            pages.set(pageNum, pdfPage);
-        }
-        return pdfPage;
+        if (pageNum < 1 || pageNum > getNumberOfPages())
+            throw new IndexOutOfBoundsException("pageNum");
+        PdfPages leaf = findLeaf(pageNum - 1);
+        return leaf.getPage(pageNum - 1 - lastLeafFrom, pageNum);
     }
 
     /**
@@ -137,7 +136,7 @@ class PdfPagesTree implements Serializable {
      * @return total number of pages
      */
     public int getNumberOfPages() {
-        return pageRefs.size();
+        return root.getCount();
     }
 
     /**
@@ -145,7 +144,11 @@ class PdfPagesTree implements Serializable {
      * in this tree, or 0 if this tree does not contain the page.
      */
     public int getPageNumber(PdfPage page) {
-        return pages.indexOf(page) + 1;
+        PdfPages leaf = page.parentPages;
+        if (leaf == null || !leaf.isLoaded() || !leaf.isLeaf() || !isInTree(leaf))
+            return 0;
+        int index = leaf.indexOfPage(page);
+        return index >= 0 ? leaf.getFrom() + index + 1 : 0;
     }
 
     /**
@@ -153,15 +156,14 @@ class PdfPagesTree implements Serializable {
      * specified by it's PdfDictionary, or 0 if this tree does not contain the page.
      */
     public int getPageNumber(PdfDictionary pageDictionary) {
-        int pageNum = pageRefs.indexOf(pageDictionary);
-        if (pageNum >= 0) {
-            return pageNum + 1;
-        }
-        for (int i = 0; i < pageRefs.size(); i++) {
-            if (pageRefs.get(i) == null) {
-                loadPage(i);
+        int numberOfPages = getNumberOfPages();
+        for (int i = 0; i < numberOfPages; i++) {
+            PdfPages leaf = findLeaf(i);
+            PdfDictionary page = leaf.getPageDictionary(i - lastLeafFrom);
+            if (page == null) {
+                throw new PdfException(PdfException.InvalidPageStructure1).setMessageParams(i + 1);
             }
-            if (pageRefs.get(i).equals(pageDictionary)) {
+            if (page.equals(pageDictionary)) {
                 return i + 1;
             }
         }
@@ -169,34 +171,28 @@ class PdfPagesTree implements Serializable {
         return 0;
     }
 
+    /**
+     * Releases the flushed page in streaming mode, so that the tree keeps only the indirect reference of the page.
+     *
+     * @param pdfPage flushed {@see PdfPage}
+     */
+    void releasePage(PdfPage pdfPage) {
+        PdfPages leaf = pdfPage.parentPages;
+        if (leaf == null || !leaf.isLoaded() || !leaf.isLeaf())
+            return;
+        int index = leaf.indexOfPage(pdfPage);
+        if (index >= 0) {
+            leaf.releasePage(index);
+        }
+    }
+
     /**
      * Appends the specified {@see PdfPage} to the end of this tree.
      *
      * @param pdfPage {@see PdfPage}
      */
     public void addPage(PdfPage pdfPage) {
-        PdfPages pdfPages;
-        if (root != null) { // in this case we save tree structure
-            if (pageRefs.size() == 0) {
-                pdfPages = root;
-            } else {
-                loadPage(pageRefs.size() - 1);
-                pdfPages = parents.get(parents.size() - 1);
-            }
-        } else {
-            pdfPages = parents.get(parents.size() - 1);
-            if (pdfPages.getCount() % leafSize == 0 && pageRefs.size() > 0) {
-                pdfPages = new PdfPages(pdfPages.getFrom() + pdfPages.getCount(), document);
-                parents.add(pdfPages);
-            }
-        }
-
-
-        pdfPage.makeIndirect(document);
-        pdfPages.addPage(pdfPage.getPdfObject());
-        pdfPage.parentPages = pdfPages;
-        pageRefs.add(pdfPage.getPdfObject());
-        pages.add(pdfPage);
+        addPage(getNumberOfPages() + 1, pdfPage);
     }
 
     /**
@@ -207,21 +203,29 @@ class PdfPagesTree implements Serializable {
      */
     public void addPage(int index, PdfPage pdfPage) {
         --index;
-        if (index > pageRefs.size())
+        int numberOfPages = getNumberOfPages();
+        if (index < 0 || index > numberOfPages)
             throw new IndexOutOfBoundsException("index");
-        if (index == pageRefs.size()) {
-            addPage(pdfPage);
-            return;
+        PdfPages leaf;
+        int position;
+        if (numberOfPages == 0) {
+            root.load(document, 1);
+            if (!root.isLeaf()) {
+                root.clear();
+            }
+            leaf = root;
+            position = 0;
+        } else if (index == numberOfPages) {
+            leaf = findLeaf(index - 1);
+            position = index - lastLeafFrom;
+        } else {
+            leaf = findLeaf(index);
+            position = index - lastLeafFrom;
         }
-        loadPage(index);
         pdfPage.makeIndirect(document);
-        int parentIndex = findPageParent(index);
-        PdfPages parentPages = parents.get(parentIndex);
-        parentPages.addPage(index, pdfPage);
-        pdfPage.parentPages = parentPages;
-        correctPdfPagesFromProperty(parentIndex + 1, +1);
-        pageRefs.add(index, pdfPage.getPdfObject());
-        pages.add(index, pdfPage);
+        leaf = split(leaf, position);
+        leaf.addPage(insertPosition, pdfPage);
+        lastLeaf = null;
     }
 
     /**
@@ -252,46 +256,29 @@ class PdfPagesTree implements Serializable {
      * @throws PdfException in case empty document
      */
     protected PdfObject generateTree() {
-        if (pageRefs.size() == 0)
+        if (getNumberOfPages() == 0)
             throw new PdfException(PdfException.DocumentHasNoPages);
         if (generated)
             throw new PdfException(PdfException.PdfPagesTreeCouldBeGeneratedOnlyOnce);
 
-        if (root == null) {
-            while (parents.size() != 1) {
-                List<PdfPages> nextParents = new ArrayList<>();
-                //dynamicLeafSize helps to avoid PdfPages leaf with only one page
-                int dynamicLeafSize = leafSize;
-                PdfPages current = null;
-                for (int i = 0; i < parents.size(); i++) {
-                    PdfPages pages = parents.get(i);
-                    int pageCount = pages.getCount();
-                    if (i % dynamicLeafSize == 0) {
-                        if (pageCount <= 1) {
-                            dynamicLeafSize++;
-                        } else {
-                            current = new PdfPages(-1, document);
-                            nextParents.add(current);
-                            dynamicLeafSize = leafSize;
-                        }
-                    }
-                    assert current != null;
-                    current.addPages(pages);
-                }
-                parents = nextParents;
-            }
-            root = parents.get(0);
-        }
         generated = true;
         return root.getPdfObject();
     }
 
     protected void clearPageRefs() {
-        pageRefs = null;
-        pages = null;
+        root = null;
+        lastLeaf = null;
     }
 
+    /**
+     * Gets the loaded leaves of the tree in the order of their pages. Nodes which are not loaded yet
+     * are returned as well, as they contain all their pages.
+     *
+     * @return list of the {@link PdfPages} which contain the pages.
+     */
     protected List<PdfPages> getParents() {
+        List<PdfPages> parents = new ArrayList<>();
+        collectLeaves(root, parents);
         return parents;
     }
 
@@ -300,129 +287,194 @@ class PdfPagesTree implements Serializable {
     }
 
     protected PdfPages findPageParent(PdfPage pdfPage) {
-        int pageNum = getPageNumber(pdfPage) - 1;
-        int parentIndex = findPageParent(pageNum);
-        return parents.get(parentIndex);
+        int pageNum = getPageNumber(pdfPage);
+        if (pageNum == 0) {
+            pageNum = getPageNumber(pdfPage.getPdfObject());
+        }
+        if (pageNum == 0) {
+            return null;
+        }
+        return findLeaf(pageNum - 1);
     }
 
-    private void loadPage(int pageNum) {
-        PdfDictionary targetPage = pageRefs.get(pageNum);
-        if (targetPage != null)
-            return;
-        //if we go here, we have to split PdfPages that contains pageNum
-        int parentIndex = findPageParent(pageNum);
-        PdfPages parent = parents.get(parentIndex);
-        PdfArray kids = parent.getKids();
-        if (kids == null) {
-            throw new PdfException(PdfException.InvalidPageStructure1).setMessageParams(pageNum + 1);
+    /**
+     * Finds the leaf, which contains the page. The index of the first page of the leaf is stored in {@link #lastLeafFrom}.
+     *
+     * @param pageIndex zero-based index of the page
+     * @return the leaf of the tree.
+     */
+    private PdfPages findLeaf(int pageIndex) {
+        if (lastLeaf != null && pageIndex >= lastLeafFrom && pageIndex < lastLeafFrom + lastLeaf.getCount()) {
+            return lastLeaf;
         }
-        int kidsCount = parent.getCount();
-        // we should handle separated pages, it means every PdfArray kids must contain either PdfPage or PdfPages,
-        // mix of PdfPage and PdfPages not allowed.
-        boolean findPdfPages = false;
-        // NOTE optimization? when we already found needed index
-        for (int i = 0; i < kids.size(); i++) {
-            PdfDictionary page = kids.getAsDictionary(i);
-            if (page == null) {                                             // null values not allowed in pages tree.
-                throw new PdfException(PdfException.InvalidPageStructure1).setMessageParams(pageNum + 1);
-            }
-            PdfObject pageKids = page.get(PdfName.Kids);
-            if (pageKids != null) {
-                if (pageKids.getType() == PdfObject.ARRAY) {
-                    findPdfPages = true;
-                } else {                                                    // kids must be of type array
-                    throw new PdfException(PdfException.InvalidPageStructure1).setMessageParams(pageNum + 1);
-                }
+        PdfPages node = root;
+        int from = 0;
+        node.load(document, pageIndex + 1);
+        while (!node.isLeaf()) {
+            int nodeIndex = node.findNode(pageIndex - from);
+            if (nodeIndex < 0) {
+                throw new PdfException(PdfException.InvalidPageStructure1).setMessageParams(pageIndex + 1);
             }
+            from += node.getOffset(nodeIndex);
+            node = node.getNode(nodeIndex);
+            node.load(document, pageIndex + 1);
         }
-        if (findPdfPages) {
-            // handle mix of PdfPage and PdfPages.
-            // handle count property!
-            List<PdfPages> newParents = new ArrayList<>(kids.size());
-            PdfPages lastPdfPages = null;
-            for (int i = 0; i < kids.size() && kidsCount > 0; i++) {
-                PdfDictionary pdfPagesObject = kids.getAsDictionary(i);
-                if (pdfPagesObject.getAsArray(PdfName.Kids) == null) {      // pdfPagesObject is PdfPage
-                    if (lastPdfPages == null) {                             // possible if only first kid is PdfPage
-                        lastPdfPages = new PdfPages(parent.getFrom(), document, parent);
-                        kids.set(i, lastPdfPages.getPdfObject());
-                        newParents.add(lastPdfPages);
+        lastLeaf = node;
+        lastLeafFrom = from;
+        return node;
+    }
+
+    /**
+     * Makes room for a new kid of the full node by moving a part of its kids to a new sibling. The kids are split
+     * in the middle, or as close to the middle as the flushed pages of the node allow. If there are flushed pages
+     * on both sides of the position, the node isn't split and exceeds the fan-out.
+     *
+     * @param node     the node, which gets the new kid
+     * @param position the position of the new kid in the node
+     * @return the node, which shall get the new kid. The position of the kid in that node is stored
+     * in {@link #insertPosition}.
+     */
+    private PdfPages split(PdfPages node, int position) {
+        int kidsCount = node.getKidsCount();
+        PdfPages target = node;
+        if (kidsCount >= leafSize) {
+            int half = leafSize / 2;
+            int splitIndex = Math.max(half, node.getLastUnmovableKid() + 1);
+            if (position == kidsCount) {
+                // pages are appended, the next pages will fill the new node
+                target = addSibling(node, position, kidsCount);
+                position = 0;
+            } else if (splitIndex < kidsCount) {
+                PdfPages sibling = addSibling(node, splitIndex, kidsCount);
+                if (position > splitIndex) {
+                    target = sibling;
+                    position -= splitIndex;
+                }
+            } else {
+                splitIndex = Math.min(half, node.getFirstUnmovableKid());
+                if (splitIndex > 0) {
+                    PdfPages sibling = addSibling(node, 0, splitIndex);
+                    if (position <= splitIndex) {
+                        target = sibling;
+                    } else {
+                        position -= splitIndex;
                     }
-                    lastPdfPages.addPage(pdfPagesObject);
-                    kids.remove(i);
-                    i--;
-                    kidsCount--;
-                } else {                                                    // pdfPagesObject is PdfPages
-                    int from = lastPdfPages == null
-                            ? parent.getFrom()
-                            : lastPdfPages.getFrom() + lastPdfPages.getCount();
-                    lastPdfPages = new PdfPages(from, kidsCount, pdfPagesObject, parent);
-                    newParents.add(lastPdfPages);
-                    kidsCount -= lastPdfPages.getCount();
                 }
             }
-            parents.remove(parentIndex);
-            for (int i = newParents.size() - 1; i >= 0; i--) {
-                parents.add(parentIndex, newParents.get(i));
-            }
-            // recursive call, to load needed pageRef.
-            // NOTE optimization? add to loadPage startParentIndex.
-            loadPage(pageNum);
-        } else {
-            int from = parent.getFrom();
-            // Possible exception in case kids.getSize() < parent.getCount().
-            // In any case parent.getCount() has higher priority.
-            // NOTE optimization? when we already found needed index
-            for (int i = 0; i < parent.getCount(); i++) {
-                pageRefs.set(from + i, kids.getAsDictionary(i));
-            }
         }
+        insertPosition = position;
+        return target;
+    }
+
+    /**
+     * Adds a new node next to the given one and moves the kids of the node in the given range to the new node.
+     * The new node is added right after the node, if the range ends with the last kid of the node,
+     * otherwise the range shall start with the first kid, and the new node is added before the node.
+     * The parent of the node is split in its turn if it is full, and a new root is added above the root
+     * if the root is split.
+     *
+     * @return the new node.
+     */
+    private PdfPages addSibling(PdfPages node, int fromIndex, int toIndex) {
+        boolean after = toIndex == node.getKidsCount();
+        PdfPages sibling = new PdfPages(document);
+        node.copyInheritableAttributes(sibling);
+        node.moveKids(fromIndex, toIndex, sibling, 0);
+        PdfPages parent = node.getParent();
+        if (parent == null) {
+            parent = new PdfPages(document);
+            parent.addRootNode(node);
+            root = parent;
+        }
+        int position = parent.indexOfNode(node) + (after ? 1 : 0);
+        parent = split(parent, position);
+        parent.addNode(insertPosition, sibling);
+        return sibling;
     }
 
     // zero-based index
     private boolean internalRemovePage(int pageNum) {
-        int parentIndex = findPageParent(pageNum);
-        PdfPages pdfPages = parents.get(parentIndex);
-        if (pdfPages.removePage(pageNum)) {
-            if (pdfPages.getCount() == 0) {
-                parents.remove(parentIndex);
-                pdfPages.removeFromParent();
-                --parentIndex;
-            }
-            if (parents.size() == 0) {
-                root = null;
-                parents.add(new PdfPages(0, document));
-            } else {
-                correctPdfPagesFromProperty(parentIndex + 1, -1);
+        PdfPages leaf = findLeaf(pageNum);
+        leaf.removePage(pageNum - lastLeafFrom);
+        lastLeaf = null;
+        PdfPages node = leaf;
+        while (node != root && node.getKidsCount() < leafSize / 2) {
+            PdfPages parent = node.getParent();
+            if (node.getKidsCount() == 0) {
+                node.removeFromParent();
+            } else if (!merge(node)) {
+                break;
             }
-            pageRefs.remove(pageNum);
-            pages.remove(pageNum);
-            return true;
-        } else {
-            return false;
+            node = parent;
+        }
+        while (!root.isLeaf() && root.getKidsCount() == 1) {
+            PdfPages kid = root.getNode(0);
+            kid.makeRoot();
+            root = kid;
         }
+        if (root.getCount() == 0) {
+            root.clear();
+        }
+        return true;
     }
 
-    // zero-based index
-    private int findPageParent(int pageNum) {
-        int low = 0;
-        int high = parents.size() - 1;
-        while (low != high) {
-            int middle = (low + high + 1) / 2;
-            if (parents.get(middle).compareTo(pageNum) > 0) {
-                high = middle - 1;
+    /**
+     * Merges the node, which is less than half full, with its sibling, or moves a kid of the sibling to the node,
+     * if the kids of both nodes don't fit in one node. The previous sibling is tried first.
+     *
+     * @return true if the node has been merged with the sibling, so that their parent has one kid less.
+     */
+    private boolean merge(PdfPages node) {
+        PdfPages parent = node.getParent();
+        int index = parent.indexOfNode(node);
+        for (int siblingIndex = index - 1; siblingIndex <= index + 1; siblingIndex += 2) {
+            if (siblingIndex < 0 || siblingIndex >= parent.getKidsCount())
+                continue;
+            PdfPages sibling = parent.getNode(siblingIndex);
+            sibling.load(document, parent.getFrom() + parent.getOffset(siblingIndex) + 1);
+            if (sibling.isLeaf() != node.isLeaf() || !node.hasSameInheritableAttributes(sibling))
+                continue;
+            boolean previous = siblingIndex < index;
+            int kidsCount = node.getKidsCount();
+            int siblingKidsCount = sibling.getKidsCount();
+            if (kidsCount + siblingKidsCount <= leafSize) {
+                if (node.canMoveKids(0, kidsCount)) {
+                    node.moveKids(0, kidsCount, sibling, previous ? siblingKidsCount : 0);
+                    node.removeFromParent();
+                    return true;
+                }
+                if (sibling.canMoveKids(0, siblingKidsCount)) {
+                    sibling.moveKids(0, siblingKidsCount, node, previous ? 0 : kidsCount);
+                    sibling.removeFromParent();
+                    return true;
+                }
             } else {
-                low = middle;
+                int kidIndex = previous ? siblingKidsCount - 1 : 0;
+                if (sibling.canMoveKids(kidIndex, kidIndex + 1)) {
+                    sibling.moveKids(kidIndex, kidIndex + 1, node, previous ? 0 : kidsCount);
+                    return false;
+                }
             }
         }
-        return low;
+        return false;
     }
 
-    private void correctPdfPagesFromProperty(int index, int correction) {
-        for (int i = index; i < parents.size(); i++) {
-            if (parents.get(i) != null) {
-                parents.get(i).correctFrom(correction);
+    private boolean isInTree(PdfPages node) {
+        while (node.getParent() != null) {
+            if (node.getParent().indexOfNode(node) < 0)
+                return false;
+            node = node.getParent();
+        }
+        return node == root;
+    }
+
+    private static void collectLeaves(PdfPages node, List<PdfPages> leaves) {
+        if (node.isLoaded() && !node.isLeaf()) {
+            for (int i = 0; i < node.getKidsCount(); i++) {
+                collectLeaves(node.getNode(i), leaves);
             }
+        } else {
+            leaves.add(node);
         }
     }
 }
@@ -51,17 +51,25 @@ import com.itextpdf.io.source.PdfTokenizer;
 import com.itextpdf.io.source.RandomAccessFileOrArray;
 import com.itextpdf.io.source.RandomAccessSourceFactory;
 import com.itextpdf.io.source.WindowRandomAccessSource;
+import com.itextpdf.io.util.StreamUtil;
 import com.itextpdf.kernel.PdfException;
 import com.itextpdf.kernel.pdf.filters.FilterHandlers;
 import com.itextpdf.kernel.pdf.filters.IFilterHandler;
+import com.itextpdf.kernel.pdf.filters.IStreamFilterHandler;
 
 import java.io.ByteArrayInputStream;
 import java.io.Closeable;
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Serializable;
 import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -110,6 +118,16 @@ public class PdfReader implements Closeable, Serializable {
     protected boolean fixedXref = false;
     protected boolean xrefStm = false;
 
+    /**
+     * Custom names of the document read so far, used if name interning is enabled in the properties.
+     */
+    private transient PdfNamePool namePool;
+
+    /**
+     * Streams returned by {@link #readStream(PdfStream, boolean)}, which still read their content from the document.
+     */
+    private transient Set<StreamContentInputStream> openedStreams;
+
     /**
      * Constructs a new PdfReader.
      *
@@ -173,11 +191,21 @@ public class PdfReader implements Closeable, Serializable {
     }
 
     /**
-     * Close {@link PdfTokenizer}.
+     * Close {@link PdfTokenizer}. The streams returned by {@link #readStream(PdfStream, boolean)}, which are
+     * not closed yet, are invalidated: reading them afterwards throws {@link IOException}.
      *
      * @throws IOException on error.
      */
     public void close() throws IOException {
+        if (openedStreams != null) {
+            List<StreamContentInputStream> streams;
+            synchronized (openedStreams) {
+                streams = new ArrayList<>(openedStreams);
+            }
+            for (StreamContentInputStream stream : streams) {
+                stream.invalidate();
+            }
+        }
         tokens.close();
     }
 
@@ -296,27 +324,9 @@ public class PdfReader implements Closeable, Serializable {
             file.seek(stream.getOffset());
             bytes = new byte[length];
             file.readFully(bytes);
-            if (decrypt != null) {
-                PdfObject filter = stream.get(PdfName.Filter, true);
-                boolean skip = false;
-                if (filter != null) {
-                    if (PdfName.Crypt.equals(filter)) {
-                        skip = true;
-                    } else if (filter.getType() == PdfObject.ARRAY) {
-                        PdfArray filters = (PdfArray) filter;
-                        for (int k = 0; k < filters.size(); k++) {
-                            if (!filters.isEmpty() && PdfName.Crypt.equals(filters.get(k, true))) {
-                                skip = true;
-                                break;
-                            }
-                        }
-                    }
-                    filter.release();
-                }
-                if (!skip) {
-                    decrypt.setHashKeyForNextObject(stream.getIndirectReference().getObjNumber(), stream.getIndirectReference().getGenNumber());
-                    bytes = decrypt.decryptByteArray(bytes);
-                }
+            if (decrypt != null && !isCryptFilterPresent(stream)) {
+                bytes = decrypt.decryptByteArray(bytes, decrypt.computeObjectKey(stream.getIndirectReference().getObjNumber(),
+                        stream.getIndirectReference().getGenNumber()));
             }
         } finally {
             try {
@@ -327,8 +337,33 @@ public class PdfReader implements Closeable, Serializable {
         return bytes;
     }
 
+    private static boolean isCryptFilterPresent(PdfStream stream) {
+        PdfObject filter = stream.get(PdfName.Filter, true);
+        boolean present = false;
+        if (filter != null) {
+            if (PdfName.Crypt.equals(filter)) {
+                present = true;
+            } else if (filter.getType() == PdfObject.ARRAY) {
+                PdfArray filters = (PdfArray) filter;
+                for (int k = 0; k < filters.size(); k++) {
+                    if (!filters.isEmpty() && PdfName.Crypt.equals(filters.get(k, true))) {
+                        present = true;
+                        break;
+                    }
+                }
+            }
+            filter.release();
+        }
+        return present;
+    }
+
     /**
-     * Reads, decrypt and optionally decode stream bytes into {@link ByteArrayInputStream}.
+     * Reads, decrypt and optionally decode stream bytes into an {@link InputStream}.
+     * Stream bytes are read from the document lazily, and decrypted and decoded chunk by chunk, so even
+     * huge streams can be copied or processed in constant memory. Filters whose handlers don't
+     * implement {@link IStreamFilterHandler} are applied to the whole data at once.
+     * The returned stream shall be read before the reader is closed, reading it after {@link #close()}
+     * throws {@link IOException}.
      * User is responsible for closing returned stream.
      *
      * @param decode true if to get decoded stream, false if to leave it originally encoded.
@@ -336,8 +371,24 @@ public class PdfReader implements Closeable, Serializable {
      * @throws IOException on error.
      */
     public InputStream readStream(PdfStream stream, boolean decode) throws IOException {
-        byte[] bytes = readStreamBytes(stream, decode);
-        return bytes != null ? new ByteArrayInputStream(bytes) : null;
+        PdfName type = stream.getAsName(PdfName.Type);
+        if (!PdfName.XRefStm.equals(type) && !PdfName.ObjStm.equals(type))
+            checkPdfStreamLength(stream);
+        long offset = stream.getOffset();
+        if (offset <= 0)
+            return null;
+        int length = stream.getLength();
+        if (length <= 0)
+            return new ByteArrayInputStream(new byte[0]);
+        if (openedStreams == null) {
+            openedStreams = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<StreamContentInputStream, Boolean>()));
+        }
+        InputStream in = new StreamContentInputStream(tokens.getSafeFile(), offset, length, openedStreams);
+        if (decrypt != null && !isCryptFilterPresent(stream)) {
+            in = decrypt.getDecryptionStream(in, decrypt.computeObjectKey(stream.getIndirectReference().getObjNumber(),
+                    stream.getIndirectReference().getGenNumber()));
+        }
+        return decode ? decodeStream(in, stream) : in;
     }
 
     /**
@@ -352,6 +403,69 @@ public class PdfReader implements Closeable, Serializable {
         return decodeBytes(b, streamDictionary, FilterHandlers.getDefaultFilterHandlers());
     }
 
+    /**
+     * Wraps a stream into a stream that applies the filters specified in the provided dictionary
+     * using default filter handlers.
+     *
+     * @param in               the stream with encoded bytes
+     * @param streamDictionary the dictionary that contains filter information
+     * @return the stream with decoded bytes
+     * @throws IOException  on error.
+     * @throws PdfException if there are any problems decoding the bytes
+     * @see #readStream(PdfStream, boolean)
+     */
+    public static InputStream decodeStream(InputStream in, PdfDictionary streamDictionary) throws IOException {
+        return decodeStream(in, streamDictionary, FilterHandlers.getDefaultFilterHandlers());
+    }
+
+    /**
+     * Wraps a stream into a stream that applies the filters specified in the provided dictionary
+     * using the provided filter handlers. Handlers implementing {@link IStreamFilterHandler} decode
+     * the data incrementally, other handlers get the whole data at once. If the decoding can't be set up,
+     * the passed stream is closed.
+     *
+     * @param in               the stream with encoded bytes
+     * @param streamDictionary the dictionary that contains filter information
+     * @param filterHandlers   the map used to look up a handler for each type of filter
+     * @return the stream with decoded bytes
+     * @throws IOException  on error.
+     * @throws PdfException if there are any problems decoding the bytes
+     */
+    public static InputStream decodeStream(InputStream in, PdfDictionary streamDictionary, Map<PdfName, IFilterHandler> filterHandlers) throws IOException {
+        if (in == null) {
+            return null;
+        }
+        boolean success = false;
+        try {
+            PdfArray filters = getFilters(streamDictionary);
+            PdfArray dp = getDecodeParams(streamDictionary);
+            for (int j = 0; j < filters.size(); ++j) {
+                PdfName filterName = (PdfName) filters.get(j);
+                IFilterHandler filterHandler = filterHandlers.get(filterName);
+                if (filterHandler == null)
+                    throw new PdfException(PdfException.Filter1IsNotSupported).setMessageParams(filterName);
+                PdfDictionary decodeParams = getDecodeParams(dp, j);
+                if (filterHandler instanceof IStreamFilterHandler) {
+                    in = ((IStreamFilterHandler) filterHandler).decode(in, filterName, decodeParams, streamDictionary);
+                } else {
+                    byte[] b;
+                    try {
+                        b = StreamUtil.inputStreamToArray(in);
+                    } finally {
+                        in.close();
+                    }
+                    in = new ByteArrayInputStream(filterHandler.decode(b, filterName, decodeParams, streamDictionary));
+                }
+            }
+            success = true;
+            return in;
+        } finally {
+            if (!success) {
+                in.close();
+            }
+        }
+    }
+
     /**
      * Decode a byte[] applying the filters specified in the provided dictionary using the provided filter handlers.
      *
@@ -365,6 +479,21 @@ public class PdfReader implements Closeable, Serializable {
         if (b == null) {
             return null;
         }
+        PdfArray filters = getFilters(streamDictionary);
+        PdfArray dp = getDecodeParams(streamDictionary);
+        for (int j = 0; j < filters.size(); ++j) {
+            PdfName filterName = (PdfName) filters.get(j);
+            IFilterHandler filterHandler = filterHandlers.get(filterName);
+            if (filterHandler == null)
+                throw new PdfException(PdfException.Filter1IsNotSupported).setMessageParams(filterName);
+
+            PdfDictionary decodeParams = getDecodeParams(dp, j);
+            b = filterHandler.decode(b, filterName, decodeParams, streamDictionary);
+        }
+        return b;
+    }
+
+    private static PdfArray getFilters(PdfDictionary streamDictionary) {
         PdfObject filter = streamDictionary.get(PdfName.Filter);
         PdfArray filters = new PdfArray();
         if (filter != null) {
@@ -374,6 +503,10 @@ public class PdfReader implements Closeable, Serializable {
                 filters = ((PdfArray) filter);
             }
         }
+        return filters;
+    }
+
+    private static PdfArray getDecodeParams(PdfDictionary streamDictionary) {
         PdfArray dp = new PdfArray();
         PdfObject dpo = streamDictionary.get(PdfName.DecodeParms);
         if (dpo == null || (dpo.getType() != PdfObject.DICTIONARY && dpo.getType() != PdfObject.ARRAY)) {
@@ -388,28 +521,21 @@ public class PdfReader implements Closeable, Serializable {
             }
             dpo.release();
         }
-        for (int j = 0; j < filters.size(); ++j) {
-            PdfName filterName = (PdfName) filters.get(j);
-            IFilterHandler filterHandler = filterHandlers.get(filterName);
-            if (filterHandler == null)
-                throw new PdfException(PdfException.Filter1IsNotSupported).setMessageParams(filterName);
+        return dp;
+    }
 
-            PdfDictionary decodeParams;
-            if (j < dp.size()) {
-                PdfObject dpEntry = dp.get(j, true);
-                if (dpEntry == null || dpEntry.getType() == PdfObject.NULL) {
-                    decodeParams = null;
-                } else if (dpEntry.getType() == PdfObject.DICTIONARY) {
-                    decodeParams = (PdfDictionary) dpEntry;
-                } else {
-                    throw new PdfException(PdfException.DecodeParameterType1IsNotSupported).setMessageParams(dpEntry.getClass().toString());
-                }
-            } else {
-                decodeParams = null;
-            }
-            b = filterHandler.decode(b, filterName, decodeParams, streamDictionary);
+    private static PdfDictionary getDecodeParams(PdfArray dp, int index) {
+        if (index >= dp.size()) {
+            return null;
+        }
+        PdfObject dpEntry = dp.get(index, true);
+        if (dpEntry == null || dpEntry.getType() == PdfObject.NULL) {
+            return null;
+        } else if (dpEntry.getType() == PdfObject.DICTIONARY) {
+            return (PdfDictionary) dpEntry;
+        } else {
+            throw new PdfException(PdfException.DecodeParameterType1IsNotSupported).setMessageParams(dpEntry.getClass().toString());
         }
-        return b;
     }
 
     /**
@@ -568,7 +694,7 @@ public class PdfReader implements Closeable, Serializable {
                 tokens.nextToken();
                 PdfObject obj;
                 if (tokens.getTokenType() == PdfTokenizer.TokenType.Number) {
-                    obj = new PdfNumber(tokens.getByteContent());
+                    obj = new PdfNumber(tokens.getByteContent(), tokens.getDoubleValue());
                 } else {
                     tokens.seek(address[k]);
                     obj = readObject(false, true);
@@ -626,7 +752,7 @@ public class PdfReader implements Closeable, Serializable {
             case StartArray:
                 return readArray(objStm);
             case Number:
-                return new PdfNumber(tokens.getByteContent());
+                return new PdfNumber(tokens.getByteContent(), tokens.getDoubleValue());
             case String: {
                 PdfString pdfString = new PdfString(tokens.getByteContent(), tokens.isHexString());
                 if (currentIndirectReference != null) {
@@ -687,7 +813,12 @@ public class PdfReader implements Closeable, Serializable {
 
     protected PdfName readPdfName(boolean readAsDirect) {
         if (readAsDirect) {
-            PdfName cachedName = PdfName.staticNames.get(tokens.getStringValue());
+            if (properties.nameInterning) {
+                if (namePool == null)
+                    namePool = new PdfNamePool();
+                return namePool.intern(tokens);
+            }
+            PdfName cachedName = PdfNamePool.getStaticName(tokens);
             if (cachedName != null)
                 return cachedName;
         }
@@ -818,8 +949,16 @@ public class PdfReader implements Closeable, Serializable {
                     end--;
                     continue;
                 }
+                if (xref.hasLazyEntry(num)) {
+                    // the entry is already defined by a newer cross-reference section
+                    continue;
+                }
                 PdfIndirectReference reference = xref.get(num);
                 if (reference == null) {
+                    if (properties.lazyXref && pos > 0 && tokens.tokenValueEqualsTo(PdfTokenizer.N)) {
+                        xref.addLazyEntry(pdfDocument, num, gen, pos, 0);
+                        continue;
+                    }
                     reference = new PdfIndirectReference(pdfDocument, num, gen, pos);
                 } else if (reference.checkState(PdfObject.READING) && reference.getGenNumber() == gen) {
                     reference.setOffset(pos);
@@ -934,7 +1073,19 @@ public class PdfReader implements Closeable, Serializable {
                 for (int k = 0; k < wc[2]; ++k) {
                     field3 = (field3 << 8) + (b[bptr++] & 0xff);
                 }
-                int base = start;
+                int base = start++;
+                if (xref.hasLazyEntry(base)) {
+                    // the entry is already defined by a newer cross-reference section
+                    continue;
+                }
+                if (properties.lazyXref && (type == 1 || type == 2) && xref.get(base) == null) {
+                    if (type == 1) {
+                        xref.addLazyEntry(pdfDocument, base, field3, field2, 0);
+                    } else {
+                        xref.addLazyEntry(pdfDocument, base, 0, field3, (int) field2);
+                    }
+                    continue;
+                }
                 PdfIndirectReference newReference;
                 switch (type) {
                     case 0:
@@ -967,7 +1118,6 @@ public class PdfReader implements Closeable, Serializable {
                     reference.setObjStreamNumber(newReference.getObjStreamNumber());
                     reference.clearState(PdfObject.READING);
                 }
-                ++start;
             }
         }
         return prev == -1 || readXrefStream(prev);
@@ -1205,6 +1355,113 @@ public class PdfReader implements Closeable, Serializable {
         }
     }
 
+    /**
+     * Reads the content of a stream from the document lazily, from a file view starting from the given offset.
+     * The view is closed together with the stream, or by {@link #invalidate()} when the reader is closed.
+     */
+    private static class StreamContentInputStream extends InputStream {
+
+        private RandomAccessFileOrArray file;
+        private long remaining;
+        private boolean invalid;
+        private Set<StreamContentInputStream> openedStreams;
+
+        StreamContentInputStream(RandomAccessFileOrArray file, long offset, long length, Set<StreamContentInputStream> openedStreams) throws IOException {
+            this.file = file;
+            this.remaining = length;
+            try {
+                file.seek(offset);
+            } catch (IOException e) {
+                close();
+                throw e;
+            }
+            this.openedStreams = openedStreams;
+            openedStreams.add(this);
+        }
+
+        @Override
+        public synchronized int read() throws IOException {
+            checkValid();
+            if (remaining <= 0) {
+                return -1;
+            }
+            int b = file.read();
+            if (b == -1) {
+                throw new EOFException();
+            }
+            remaining--;
+            return b;
+        }
+
+        @Override
+        public synchronized int read(byte[] b, int off, int len) throws IOException {
+            checkValid();
+            if (len == 0) {
+                return 0;
+            }
+            if (remaining <= 0) {
+                return -1;
+            }
+            int n = file.read(b, off, (int) Math.min(len, remaining));
+            if (n <= 0) {
+                throw new EOFException();
+            }
+            remaining -= n;
+            return n;
+        }
+
+        @Override
+        public synchronized long skip(long n) throws IOException {
+            checkValid();
+            if (file == null) {
+                return 0;
+            }
+            long skipped = file.skip(Math.min(Math.max(n, 0), remaining));
+            remaining -= skipped;
+            return skipped;
+        }
+
+        @Override
+        public synchronized int available() throws IOException {
+            checkValid();
+            return (int) Math.min(remaining, Integer.MAX_VALUE);
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            if (openedStreams != null) {
+                openedStreams.remove(this);
+                openedStreams = null;
+            }
+            if (file != null) {
+                try {
+                    file.close();
+                } finally {
+                    file = null;
+                    remaining = 0;
+                }
+            }
+        }
+
+        /**
+         * Closes the stream, so that reading it afterwards fails instead of reading from the closed document.
+         *
+         * @throws IOException on error.
+         */
+        synchronized void invalidate() throws IOException {
+            if (file != null) {
+                invalid = true;
+                close();
+            }
+        }
+
+        private void checkValid() throws IOException {
+            if (invalid) {
+                throw new IOException(PdfException.PdfReaderHasBeenClosed);
+            }
+        }
+    }
+
     protected static class ReusableRandomAccessSource implements IRandomAccessSource {
         private ByteBuffer buffer;
 
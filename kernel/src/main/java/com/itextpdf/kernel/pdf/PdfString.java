@@ -47,6 +47,7 @@ import com.itextpdf.io.font.PdfEncodings;
 import com.itextpdf.io.source.ByteBuffer;
 import com.itextpdf.io.source.PdfTokenizer;
 import com.itextpdf.io.util.StreamUtil;
+import com.itextpdf.kernel.crypto.ObjectEncryptionKey;
 
 /**
  * A {@code PdfString}-class is the PDF-equivalent of a
@@ -303,8 +304,8 @@ public class PdfString extends PdfPrimitiveObject {
             assert content != null : "No byte content to decrypt value";
             byte[] decodedContent = PdfTokenizer.decodeStringContent(content, hexWriting);
             content = null;
-            decrypt.setHashKeyForNextObject(decryptInfoNum, decryptInfoGen);
-            value = PdfEncodings.convertToString(decrypt.decryptByteArray(decodedContent), null);
+            value = PdfEncodings.convertToString(decrypt.decryptByteArray(decodedContent,
+                    decrypt.computeObjectKey(decryptInfoNum, decryptInfoGen)), null);
         }
         return this;
     }
@@ -317,8 +318,19 @@ public class PdfString extends PdfPrimitiveObject {
      * @return true if value was encrypted, otherwise false.
      */
     protected boolean encrypt(PdfEncryption encrypt) {
+        return encrypt(encrypt, null);
+    }
+
+    /**
+     * Encrypt content of {@code value} with the key of the object the string belongs to.
+     *
+     * @param encrypt   @see PdfEncryption
+     * @param objectKey the key of the object, or {@code null} to use the current key of {@code encrypt}.
+     * @return true if value was encrypted, otherwise false.
+     */
+    boolean encrypt(PdfEncryption encrypt, ObjectEncryptionKey objectKey) {
         if (encrypt != null && !encrypt.isEmbeddedFilesOnly()) {
-            byte[] b = encrypt.encryptByteArray(getValueBytes());
+            byte[] b = objectKey != null ? encrypt.encryptByteArray(getValueBytes(), objectKey) : encrypt.encryptByteArray(getValueBytes());
             content = encodeBytes(b);
             return true;
         }
@@ -47,6 +47,7 @@ import com.itextpdf.io.LogMessageConstant;
 import com.itextpdf.io.source.ByteArrayOutputStream;
 import com.itextpdf.io.util.FileUtil;
 import com.itextpdf.kernel.PdfException;
+import com.itextpdf.kernel.crypto.ObjectEncryptionKey;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -55,8 +56,6 @@ import java.io.IOException;
 import java.io.NotSerializableException;
 import java.io.OutputStream;
 import java.io.Serializable;
-import java.security.MessageDigest;
-import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -88,10 +87,16 @@ public class PdfWriter extends PdfOutputStream implements Serializable {
     private Map<PdfDocument.IndirectRefDescription, PdfIndirectReference> copiedObjects = new HashMap<>();
 
     /**
-     * Is used in smart mode to store serialized objects content.
+     * Is used in smart mode to find previously copied objects with the same content.
      */
-    private HashMap<SerializedPdfObject, PdfIndirectReference> serializedContentToObjectRef = new HashMap<>();
-    private HashMap<PdfDocument.IndirectRefDescription, byte[]> objectRefToSerializedContent = new HashMap<>();
+    private transient SmartModeObjectsHasher smartModeObjectsHasher;
+    private transient HashMap<SmartModeObjectsHasher.ObjectDigest, PdfIndirectReference> objectDigestToObjectRef;
+
+    /**
+     * Is used in parallel compression mode to keep flushed objects until their streams are compressed.
+     */
+    private transient StreamCompressionQueue compressionQueue;
+    private transient StreamCompressionQueue.PendingObject writtenPendingObject;
 
     //forewarned is forearmed
     protected boolean isUserWarnedAboutAcroFormCopying;
@@ -168,6 +173,16 @@ public class PdfWriter extends PdfOutputStream implements Serializable {
         return this;
     }
 
+    /**
+     * Indicates if streams are compressed in parallel.
+     * See {@link WriterProperties#useParallelCompression(int)}.
+     *
+     * @return true if parallel compression is enabled, false otherwise.
+     */
+    public boolean isParallelCompression() {
+        return properties.compressionThreadsCount > 0;
+    }
+
     @Override
     public void write(int b) throws java.io.IOException {
         super.write(b);
@@ -194,6 +209,10 @@ public class PdfWriter extends PdfOutputStream implements Serializable {
 
     @Override
     public void close() throws IOException {
+        if (compressionQueue != null) {
+            compressionQueue.shutdown();
+            compressionQueue = null;
+        }
         try {
             super.close();
         } finally {
@@ -221,7 +240,9 @@ public class PdfWriter extends PdfOutputStream implements Serializable {
             objectStream = new PdfObjectStream(document);
         } else if (objectStream.getSize() == PdfObjectStream.MAX_OBJ_STREAM_SIZE) {
             objectStream.flush();
-            objectStream = new PdfObjectStream(objectStream);
+            // In parallel compression mode the buffers of the flushed object stream can't be reused,
+            // because they are still being compressed.
+            objectStream = isParallelCompression() ? new PdfObjectStream(document) : new PdfObjectStream(objectStream);
         }
         return objectStream;
     }
@@ -238,11 +259,104 @@ public class PdfWriter extends PdfOutputStream implements Serializable {
         if (isFullCompression() && canBeInObjStm) {
             PdfObjectStream objectStream = getObjectStream();
             objectStream.addObject(pdfObject);
+        } else if (isParallelCompression()) {
+            boolean toCompress = pdfObject.isStream() && isContentToBeCompressed((PdfStream) pdfObject);
+            if (toCompress || compressionQueue != null && !compressionQueue.isEmpty()) {
+                // The object content is released only after it is actually written.
+                ObjectEncryptionKey objectKey = null;
+                // Encryption is done by the worker thread too, unless the filters of the stream need to be examined
+                if (toCompress && crypto != null && !((PdfStream) pdfObject).containsKey(PdfName.Filter)
+                        && checkEncryption((PdfStream) pdfObject)) {
+                    objectKey = crypto.computeObjectKey(indirectReference.getObjNumber(), indirectReference.getGenNumber());
+                }
+                getCompressionQueue().add(pdfObject, toCompress ?
+                        resolveCompressionLevel((PdfStream) pdfObject) : CompressionConstants.UNDEFINED_COMPRESSION, crypto, objectKey);
+                indirectReference.setState(PdfObject.FLUSHED).clearState(PdfObject.MUST_BE_FLUSHED);
+                markContentToFlush(pdfObject);
+                writePendingObjects(false);
+                return;
+            }
+            indirectReference.setOffset(getCurrentPos());
+            writeToBody(pdfObject);
         } else {
             indirectReference.setOffset(getCurrentPos());
             writeToBody(pdfObject);
         }
         indirectReference.setState(PdfObject.FLUSHED).clearState(PdfObject.MUST_BE_FLUSHED);
+        releaseFlushedObject(pdfObject);
+    }
+
+    /**
+     * Writes the objects which are waiting for the compression of their streams in parallel compression mode.
+     *
+     * @param waitForCompression if true, all pending objects are written, otherwise only the objects, which
+     *                           are ready to be written without blocking, unless the queue is full.
+     * @throws IOException on error.
+     */
+    void writePendingObjects(boolean waitForCompression) throws IOException {
+        if (compressionQueue == null) {
+            return;
+        }
+        StreamCompressionQueue.PendingObject pendingObject;
+        while ((pendingObject = compressionQueue.poll(waitForCompression)) != null) {
+            PdfObject pdfObject = pendingObject.object;
+            writtenPendingObject = pendingObject;
+            try {
+                pdfObject.getIndirectReference().setOffset(getCurrentPos());
+                writeToBody(pdfObject);
+            } finally {
+                writtenPendingObject = null;
+            }
+            releaseFlushedObject(pdfObject);
+        }
+    }
+
+    @Override
+    ByteArrayOutputStream getCompressedContent(PdfStream pdfStream) throws IOException {
+        if (writtenPendingObject != null && writtenPendingObject.object == pdfStream) {
+            ByteArrayOutputStream compressedContent = writtenPendingObject.getCompressedContent();
+            if (compressedContent != null) {
+                return compressedContent;
+            }
+        }
+        return super.getCompressedContent(pdfStream);
+    }
+
+    @Override
+    ByteArrayOutputStream encryptContent(PdfStream pdfStream, ByteArrayOutputStream content) throws IOException {
+        if (writtenPendingObject != null && writtenPendingObject.object == pdfStream && writtenPendingObject.isContentEncrypted()
+                && writtenPendingObject.getCompressedContent() == content) {
+            return content;
+        }
+        return super.encryptContent(pdfStream, content);
+    }
+
+    private StreamCompressionQueue getCompressionQueue() {
+        if (compressionQueue == null) {
+            compressionQueue = createCompressionQueue(properties.compressionThreadsCount);
+        }
+        return compressionQueue;
+    }
+
+    StreamCompressionQueue createCompressionQueue(int threadsCount) {
+        return new StreamCompressionQueue(threadsCount);
+    }
+
+    private void markContentToFlush(PdfObject pdfObject) {
+        switch (pdfObject.getType()) {
+            case PdfObject.ARRAY:
+                markArrayContentToFlush((PdfArray) pdfObject);
+                break;
+            case PdfObject.STREAM:
+            case PdfObject.DICTIONARY:
+                markDictionaryContentToFlush((PdfDictionary) pdfObject);
+                break;
+            case PdfObject.INDIRECT_REFERENCE:
+                markObjectToFlush(((PdfIndirectReference) pdfObject).getRefersTo(false));
+        }
+    }
+
+    private void releaseFlushedObject(PdfObject pdfObject) {
         switch (pdfObject.getType()) {
             case PdfObject.BOOLEAN:
             case PdfObject.NAME:
@@ -289,7 +403,7 @@ public class PdfWriter extends PdfOutputStream implements Serializable {
 
             PdfIndirectReference copiedIndirectReference = copiedObjects.get(copiedObjectKey);
             if (copiedIndirectReference != null)
-                return copiedIndirectReference.getRefersTo();
+                return getCopiedObject(copiedIndirectReference);
         }
 
         if (obj.isDictionary()) {
@@ -304,7 +418,7 @@ public class PdfWriter extends PdfOutputStream implements Serializable {
             if (copiedObjectRef != null) {
                 PdfIndirectReference copiedIndirectReference = copiedObjects.get(new PdfDocument.IndirectRefDescription(copiedObjectRef));
                 copiedObjects.put(copiedObjectKey, copiedIndirectReference);
-                return copiedIndirectReference.getRefersTo();
+                return getCopiedObject(copiedIndirectReference);
             }
         }
 
@@ -320,6 +434,15 @@ public class PdfWriter extends PdfOutputStream implements Serializable {
         return newObject;
     }
 
+    private static PdfObject getCopiedObject(PdfIndirectReference copiedIndirectReference) {
+        PdfObject copiedObject = copiedIndirectReference.getRefersTo();
+        // flushed objects may be released in streaming mode, the reference to them is still valid
+        if (copiedObject == null && copiedIndirectReference.checkState(PdfObject.FLUSHED)) {
+            return copiedIndirectReference;
+        }
+        return copiedObject;
+    }
+
     /**
      * Writes object to body of PDF document.
      *
@@ -328,7 +451,7 @@ public class PdfWriter extends PdfOutputStream implements Serializable {
      */
     protected void writeToBody(PdfObject pdfObj) throws IOException {
         if (crypto != null) {
-            crypto.setHashKeyForNextObject(pdfObj.getIndirectReference().getObjNumber(), pdfObj.getIndirectReference().getGenNumber());
+            objectKey = crypto.computeObjectKey(pdfObj.getIndirectReference().getObjNumber(), pdfObj.getIndirectReference().getGenNumber());
         }
         writeInteger(pdfObj.getIndirectReference().getObjNumber()).
                 writeSpace().
@@ -365,11 +488,17 @@ public class PdfWriter extends PdfOutputStream implements Serializable {
                     }
                 }
             }
+            if (!needFlush && compressionQueue != null && !compressionQueue.isEmpty()) {
+                // writing of pending objects can make some of their direct values indirect
+                writePendingObjectsQuietly();
+                needFlush = true;
+            }
         }
         if (objectStream != null && objectStream.getSize() > 0) {
             objectStream.flush();
             objectStream = null;
         }
+        writePendingObjectsQuietly();
     }
 
     /**
@@ -390,6 +519,7 @@ public class PdfWriter extends PdfOutputStream implements Serializable {
             objectStream.flush();
             objectStream = null;
         }
+        writePendingObjectsQuietly();
     }
 
     /**
@@ -420,26 +550,37 @@ public class PdfWriter extends PdfOutputStream implements Serializable {
 
     /**
      * Used in the smart mode.
-     * It serializes given object content and tries to find previously copied object with the same content.
-     * If already copied object is not found, it saves current object serialized content into the map.
+     * It calculates the digest of given object content and tries to find previously copied object with the same content.
+     * If already copied object is not found, it saves current object digest into the map.
      *
      * @param object an object to check if some other object with the same content was already copied.
      * @return indirect reference of the object with the same content, which already has a copy in the new document.
      */
     private PdfIndirectReference tryToFindPreviouslyCopiedEqualObject(PdfObject object) {
-        SerializedPdfObject objectKey;
         if (object.isStream() || object.isDictionary()) {
-            objectKey = new SerializedPdfObject(object, objectRefToSerializedContent);
-            PdfIndirectReference objectRef = serializedContentToObjectRef.get(objectKey);
+            if (smartModeObjectsHasher == null) {
+                smartModeObjectsHasher = new SmartModeObjectsHasher();
+                objectDigestToObjectRef = new HashMap<>();
+            }
+            SmartModeObjectsHasher.ObjectDigest objectKey = smartModeObjectsHasher.getDigest(object);
+            PdfIndirectReference objectRef = objectDigestToObjectRef.get(objectKey);
             if (objectRef != null) {
                 return objectRef;
             }
-            serializedContentToObjectRef.put(objectKey, object.getIndirectReference());
+            objectDigestToObjectRef.put(objectKey, object.getIndirectReference());
         }
 
         return null;
     }
 
+    private void writePendingObjectsQuietly() {
+        try {
+            writePendingObjects(true);
+        } catch (IOException e) {
+            throw new PdfException(PdfException.CannotFlushObject, e);
+        }
+    }
+
     private void markArrayContentToFlush(PdfArray array) {
         for (int i = 0; i < array.size(); i++) {
             markObjectToFlush(array.get(i, false));
@@ -513,124 +654,4 @@ public class PdfWriter extends PdfOutputStream implements Serializable {
         out.defaultWriteObject();
         outputStream = tempOutputStream;
     }
-
-    static class SerializedPdfObject {
-        private final byte[] serializedContent;
-        private final int hash;
-
-        private MessageDigest md5;
-        private HashMap<PdfDocument.IndirectRefDescription, byte[]> objToSerializedContent;
-
-        SerializedPdfObject(PdfObject obj, HashMap<PdfDocument.IndirectRefDescription, byte[]> objToSerializedContent) {
-            assert obj.isDictionary() || obj.isStream();
-
-            this.objToSerializedContent = objToSerializedContent;
-            try {
-                md5 = MessageDigest.getInstance("MD5");
-            } catch (Exception e) {
-                throw new PdfException(e);
-            }
-            ByteBufferOutputStream bb = new ByteBufferOutputStream();
-            int level = 100;
-            serObject(obj, level, bb);
-            this.serializedContent = bb.toByteArray();
-            hash = calculateHash(this.serializedContent);
-            md5 = null;
-        }
-
-        // TODO 2: object is not checked if it was already serialized on start, double work could be done
-        // TODO 3: indirect objects often stored multiple times as parts of the other objects
-        private void serObject(PdfObject obj, int level, ByteBufferOutputStream bb) {
-            if (level <= 0)
-                return;
-            if (obj == null) {
-                bb.append("$Lnull");
-                return;
-            }
-            PdfIndirectReference reference = null;
-            ByteBufferOutputStream savedBb = null;
-            PdfDocument.IndirectRefDescription indRefKey = null;
-
-            if (obj.isIndirectReference()) {
-                reference = (PdfIndirectReference) obj;
-                indRefKey = new PdfDocument.IndirectRefDescription(reference);
-                byte[] cached = objToSerializedContent.get(indRefKey);
-                if (cached != null) {
-                    bb.append(cached);
-                    return;
-                } else {
-                    savedBb = bb;
-                    bb = new ByteBufferOutputStream();
-                    obj = reference.getRefersTo();
-                }
-            }
-
-            if (obj.isStream()) {
-                bb.append("$B");
-                serDic((PdfDictionary) obj, level - 1, bb);
-                if (level > 0) {
-                    md5.reset();
-                    bb.append(md5.digest(((PdfStream) obj).getBytes(false)));
-                }
-            } else if (obj.isDictionary()) {
-                serDic((PdfDictionary) obj, level - 1, bb);
-            } else if (obj.isArray()) {
-                serArray((PdfArray) obj, level - 1, bb);
-            } else if (obj.isString()) {
-                bb.append("$S").append(obj.toString());
-            } else if (obj.isName()) {
-                bb.append("$N").append(obj.toString());
-            } else
-                bb.append("$L").append(obj.toString()); // PdfNull case is also here
-
-            if (savedBb != null) {
-                objToSerializedContent.put(indRefKey, bb.getBuffer());
-                savedBb.append(bb);
-            }
-        }
-
-        private void serDic(PdfDictionary dic, int level, ByteBufferOutputStream bb) {
-            bb.append("$D");
-            if (level <= 0)
-                return;
-            PdfName[] keys = new PdfName[dic.keySet().size()];
-            keys = dic.keySet().toArray(keys);
-            Arrays.sort(keys);
-            for (Object key : keys) {
-                if (key.equals(PdfName.P) && (dic.get((PdfName) key).isIndirectReference() || dic.get((PdfName) key).isDictionary()) || key.equals(PdfName.Parent)) // ignore recursive call
-                    continue;
-                serObject((PdfObject) key, level, bb);
-                serObject(dic.get((PdfName) key, false), level, bb);
-
-            }
-        }
-
-        private void serArray(PdfArray array, int level, ByteBufferOutputStream bb) {
-            bb.append("$A");
-            if (level <= 0)
-                return;
-            for (int k = 0; k < array.size(); ++k) {
-                serObject(array.get(k, false), level, bb);
-            }
-        }
-
-        private static int calculateHash(byte[] b) {
-            int hash = 0;
-            int len = b.length;
-            for (int k = 0; k < len; ++k) {
-                hash = hash * 31 + (b[k] & 0xff);
-            }
-            return hash;
-        }
-
-        @Override
-        public boolean equals(Object obj) {
-            return obj instanceof SerializedPdfObject && hashCode() == obj.hashCode() && Arrays.equals(serializedContent, ((SerializedPdfObject) obj).serializedContent);
-        }
-
-        @Override
-        public int hashCode() {
-            return hash;
-        }
-    }
 }
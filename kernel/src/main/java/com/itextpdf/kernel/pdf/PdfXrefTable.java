@@ -65,9 +65,23 @@ class PdfXrefTable implements Serializable {
     private static final byte[] freeXRefEntry = ByteUtils.getIsoBytes("f \n");
     private static final byte[] inUseXRefEntry = ByteUtils.getIsoBytes("n \n");
 
+    private static final byte LAZY_IN_USE_ENTRY = 1;
+    private static final byte LAZY_COMPRESSED_ENTRY = 2;
+
     private PdfIndirectReference[] xref;
     private int count = 0;
 
+    /**
+     * Compact index of the cross-reference entries, for which no {@link PdfIndirectReference} is created yet.
+     * For each object number it stores the entry type, the offset or the index in the object stream,
+     * and the generation or the object stream number. Used only if the document is read with lazy xref,
+     * see {@link ReaderProperties#setLazyXref(boolean)}.
+     */
+    private byte[] lazyTypes;
+    private long[] lazyOffsets;
+    private int[] lazyNumbers;
+    private PdfDocument lazyDocument;
+
     private final TreeSet<Integer> freeReferences;
 
     public PdfXrefTable() {
@@ -96,6 +110,9 @@ class PdfXrefTable implements Serializable {
         this.count = Math.max(this.count, objNr);
         ensureCount(objNr);
         xref[objNr] = reference;
+        if (hasLazyEntry(objNr)) {
+            lazyTypes[objNr] = 0;
+        }
         return reference;
     }
 
@@ -107,7 +124,48 @@ class PdfXrefTable implements Serializable {
         if (index > count) {
             return null;
         }
-        return xref[index];
+        PdfIndirectReference reference = xref[index];
+        if (reference == null && hasLazyEntry(index)) {
+            reference = createLazyReference(index);
+        }
+        return reference;
+    }
+
+    /**
+     * Adds an in-use cross-reference entry without creating indirect reference for it.
+     * The reference is created on the first {@link #get(int)} call.
+     *
+     * @param document          the document the entry belongs to.
+     * @param objNr             object number.
+     * @param genNr             object generation, 0 for objects in object streams.
+     * @param offsetOrIndex     offset of the object in the document or its index in the object stream.
+     * @param objStreamNumber   number of the object stream containing the object or 0.
+     */
+    void addLazyEntry(PdfDocument document, int objNr, int genNr, long offsetOrIndex, int objStreamNumber) {
+        this.lazyDocument = document;
+        this.count = Math.max(this.count, objNr);
+        ensureCount(objNr);
+        if (lazyTypes == null || objNr >= lazyTypes.length) {
+            extendLazyEntries(Math.max(objNr + 1, xref.length));
+        }
+        if (objStreamNumber > 0) {
+            lazyTypes[objNr] = LAZY_COMPRESSED_ENTRY;
+            lazyNumbers[objNr] = objStreamNumber;
+        } else {
+            lazyTypes[objNr] = LAZY_IN_USE_ENTRY;
+            lazyNumbers[objNr] = genNr;
+        }
+        lazyOffsets[objNr] = offsetOrIndex;
+    }
+
+    /**
+     * Checks if there is an entry for the object number, for which indirect reference isn't created yet.
+     *
+     * @param objNr object number.
+     * @return true if the entry is in the lazy index, false otherwise.
+     */
+    boolean hasLazyEntry(int objNr) {
+        return lazyTypes != null && objNr < lazyTypes.length && lazyTypes[objNr] != 0;
     }
 
     /**
@@ -236,6 +294,7 @@ class PdfXrefTable implements Serializable {
             return;
         }
 
+        writer.writePendingObjects(true);
         long startxref = writer.getCurrentPos();
         if (writer.isFullCompression()) {
             PdfStream xrefStream = new PdfStream().makeIndirect(document);
@@ -288,6 +347,7 @@ class PdfXrefTable implements Serializable {
                 }
             }
             xrefStream.flush();
+            writer.writePendingObjects(true);
         } else {
             writer.writeString("xref\n");
             PdfXrefTable xrefTable = document.getXref();
@@ -341,6 +401,9 @@ class PdfXrefTable implements Serializable {
             }
             xref[i] = null;
         }
+        lazyTypes = null;
+        lazyOffsets = null;
+        lazyNumbers = null;
         count = 1;
     }
 
@@ -366,6 +429,33 @@ class PdfXrefTable implements Serializable {
         xref = newXref;
     }
 
+    private void extendLazyEntries(int capacity) {
+        byte[] newTypes = new byte[capacity];
+        long[] newOffsets = new long[capacity];
+        int[] newNumbers = new int[capacity];
+        if (lazyTypes != null) {
+            System.arraycopy(lazyTypes, 0, newTypes, 0, lazyTypes.length);
+            System.arraycopy(lazyOffsets, 0, newOffsets, 0, lazyOffsets.length);
+            System.arraycopy(lazyNumbers, 0, newNumbers, 0, lazyNumbers.length);
+        }
+        lazyTypes = newTypes;
+        lazyOffsets = newOffsets;
+        lazyNumbers = newNumbers;
+    }
+
+    private PdfIndirectReference createLazyReference(int objNr) {
+        PdfIndirectReference reference;
+        if (lazyTypes[objNr] == LAZY_COMPRESSED_ENTRY) {
+            reference = new PdfIndirectReference(lazyDocument, objNr, 0, lazyOffsets[objNr]);
+            reference.setObjStreamNumber(lazyNumbers[objNr]);
+        } else {
+            reference = new PdfIndirectReference(lazyDocument, objNr, lazyNumbers[objNr], lazyOffsets[objNr]);
+        }
+        lazyTypes[objNr] = 0;
+        xref[objNr] = reference;
+        return reference;
+    }
+
     private static byte[] shortToBytes(int n) {
         return new byte[]{(byte) ((n >> 8) & 0xFF), (byte) (n & 0xFF)};
     }
@@ -59,6 +59,16 @@ public class ReaderProperties implements Serializable {
     protected String certificateKeyProvider; //added by Aiken Sam for certificate decryption
     protected IExternalDecryptionProcess externalDecryptionProcess;
 
+    /**
+     * Indicates if cross-reference entries are kept in a compact index and indirect references are created on demand.
+     */
+    protected boolean lazyXref;
+
+    /**
+     * Indicates if each distinct custom name of the document is read into a single shared {@link PdfName} instance.
+     */
+    protected boolean nameInterning;
+
     /**
      * Defines the password which will be used if the document is encrypted with standard encryption.
      * This could be either user or owner password.
@@ -94,6 +104,37 @@ public class ReaderProperties implements Serializable {
         return this;
     }
 
+    /**
+     * Enables lazy reading of the cross-reference table.
+     * <p/>
+     * In this mode the offsets of the objects are kept in a compact index, and {@link PdfIndirectReference}
+     * instances are created only when the objects are requested for the first time. It reduces time and memory
+     * needed to open big documents, when only a few of their objects are read, e.g. a single page.
+     *
+     * @param lazyXref true to read cross-reference table lazily, false otherwise.
+     * @return this {@code ReaderProperties} instance
+     */
+    public ReaderProperties setLazyXref(boolean lazyXref) {
+        this.lazyXref = lazyXref;
+        return this;
+    }
+
+    /**
+     * Enables interning of the custom names of the document.
+     * <p/>
+     * Static names of {@link PdfName} are always reused by the reader. In this mode the reader also keeps
+     * a table of the other direct names it has read, so that each distinct name is created only once. It reduces
+     * memory needed for documents which repeat many custom names, e.g. tagged documents with large role maps.
+     * The shared names are direct-only objects, as the static names are.
+     *
+     * @param nameInterning true to intern custom names, false otherwise.
+     * @return this {@code ReaderProperties} instance
+     */
+    public ReaderProperties setNameInterning(boolean nameInterning) {
+        this.nameInterning = nameInterning;
+        return this;
+    }
+
     private void clearEncryptionParams() {
         this.password = null;
         this.certificate = null;
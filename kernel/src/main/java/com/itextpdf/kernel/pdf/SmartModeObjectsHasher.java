@@ -0,0 +1,304 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2016 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf;
+
+import com.itextpdf.kernel.PdfException;
+
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Calculates digests of the objects copied in the smart mode of {@link PdfWriter}.
+ * Objects with equal digests are considered to have the same content.
+ * <p/>
+ * The digest is calculated incrementally while walking the object structure, the object is never serialized.
+ * An indirect object is represented in the digest of the object which refers to it by its own digest.
+ * Digests of indirect objects are calculated once and remembered, so objects shared by many other objects,
+ * like fonts, images and resources, are processed only once.
+ */
+class SmartModeObjectsHasher {
+
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+    private static final int MAX_LEVEL = 100;
+
+    private static final byte NULL = 0;
+    private static final byte STREAM = 1;
+    private static final byte DICTIONARY = 2;
+    private static final byte ARRAY = 3;
+    private static final byte STRING = 4;
+    private static final byte NAME = 5;
+    private static final byte NUMBER = 6;
+    private static final byte LITERAL = 7;
+    private static final byte REFERENCE = 8;
+    private static final byte CYCLIC_REFERENCE = 9;
+    private static final byte TRUNCATED = 10;
+    private static final byte FLUSHED_REFERENCE = 11;
+
+    private final Map<PdfDocument.IndirectRefDescription, byte[]> indirectObjectDigests = new HashMap<>();
+    // Indirect objects whose digests are being calculated, mapped to their nesting depth.
+    private final Map<PdfDocument.IndirectRefDescription, Integer> indirectObjectsInProgress = new HashMap<>();
+    // Digests for the nested indirect objects, indexed by the nesting depth.
+    private final List<MessageDigest> messageDigests = new ArrayList<>();
+    private byte[] buffer = new byte[64];
+    // Indicates that the digest being calculated depends on the path by which the object was reached,
+    // either because of the level limit or because of a cyclic reference. Such digests are not remembered.
+    private boolean incomplete;
+
+    /**
+     * Calculates the digest of a dictionary or a stream.
+     *
+     * @param object the object to calculate the digest for
+     * @return the digest of the object content
+     */
+    ObjectDigest getDigest(PdfObject object) {
+        assert object.isDictionary() || object.isStream();
+
+        incomplete = false;
+        indirectObjectsInProgress.clear();
+        PdfIndirectReference reference = object.getIndirectReference();
+        byte[] digest;
+        if (reference != null) {
+            digest = getIndirectObjectDigest(new PdfDocument.IndirectRefDescription(reference), object, MAX_LEVEL, 0);
+        } else {
+            MessageDigest messageDigest = getMessageDigest(0);
+            updateObject(object, MAX_LEVEL, 0, messageDigest);
+            digest = messageDigest.digest();
+        }
+        return new ObjectDigest(digest);
+    }
+
+    /**
+     * Gets the remembered digest of an indirect object or calculates it.
+     *
+     * @return the digest, or null if the object is being calculated, i.e. it is referred to by a cyclic reference
+     */
+    private byte[] getIndirectObjectDigest(PdfDocument.IndirectRefDescription key, PdfObject object, int level, int depth) {
+        byte[] digest = indirectObjectDigests.get(key);
+        if (digest != null) {
+            return digest;
+        }
+        if (indirectObjectsInProgress.containsKey(key)) {
+            incomplete = true;
+            return null;
+        }
+        indirectObjectsInProgress.put(key, depth);
+        boolean outerIncomplete = incomplete;
+        incomplete = false;
+
+        MessageDigest messageDigest = getMessageDigest(depth);
+        updateContent(object, level, depth, messageDigest);
+        digest = messageDigest.digest();
+
+        indirectObjectsInProgress.remove(key);
+        if (!incomplete) {
+            indirectObjectDigests.put(key, digest);
+        }
+        incomplete |= outerIncomplete;
+        return digest;
+    }
+
+    private void updateObject(PdfObject obj, int level, int depth, MessageDigest messageDigest) {
+        if (obj != null && !obj.isIndirectReference() && obj.getIndirectReference() != null) {
+            // indirect object put into the container by value is still represented by its own digest
+            obj = obj.getIndirectReference();
+        }
+        updateContent(obj, level, depth, messageDigest);
+    }
+
+    private void updateContent(PdfObject obj, int level, int depth, MessageDigest messageDigest) {
+        if (obj == null) {
+            messageDigest.update(NULL);
+            return;
+        }
+        if (level <= 0) {
+            incomplete = true;
+            messageDigest.update(TRUNCATED);
+            return;
+        }
+        switch (obj.getType()) {
+            case PdfObject.INDIRECT_REFERENCE:
+                PdfIndirectReference reference = (PdfIndirectReference) obj;
+                PdfObject refersTo = reference.getRefersTo();
+                if (refersTo == null || refersTo.isFlushed()) {
+                    // content of the flushed object isn't available anymore, only its identity can be compared
+                    messageDigest.update(FLUSHED_REFERENCE);
+                    long documentId = reference.getDocument().getDocumentId();
+                    updateInt((int) (documentId >> 32), messageDigest);
+                    updateInt((int) documentId, messageDigest);
+                    updateInt(reference.getObjNumber(), messageDigest);
+                    updateInt(reference.getGenNumber(), messageDigest);
+                    break;
+                }
+                PdfDocument.IndirectRefDescription key = new PdfDocument.IndirectRefDescription(reference);
+                byte[] digest = getIndirectObjectDigest(key, refersTo, level, depth + 1);
+                if (digest != null) {
+                    messageDigest.update(REFERENCE);
+                    messageDigest.update(digest);
+                } else {
+                    // the distance to the referenced ancestor tells cycles of different shapes apart
+                    messageDigest.update(CYCLIC_REFERENCE);
+                    updateInt(depth + 1 - indirectObjectsInProgress.get(key), messageDigest);
+                }
+                break;
+            case PdfObject.STREAM:
+                messageDigest.update(STREAM);
+                updateDictionary((PdfDictionary) obj, level - 1, depth, messageDigest);
+                byte[] bytes = ((PdfStream) obj).getBytes(false);
+                if (bytes != null) {
+                    updateInt(bytes.length, messageDigest);
+                    messageDigest.update(bytes);
+                } else {
+                    updateInt(-1, messageDigest);
+                }
+                break;
+            case PdfObject.DICTIONARY:
+                updateDictionary((PdfDictionary) obj, level - 1, depth, messageDigest);
+                break;
+            case PdfObject.ARRAY:
+                PdfArray array = (PdfArray) obj;
+                messageDigest.update(ARRAY);
+                updateInt(array.size(), messageDigest);
+                for (int i = 0; i < array.size(); i++) {
+                    updateObject(array.get(i, false), level - 1, depth, messageDigest);
+                }
+                break;
+            case PdfObject.STRING:
+                messageDigest.update(STRING);
+                updateString(obj.toString(), messageDigest);
+                break;
+            case PdfObject.NAME:
+                messageDigest.update(NAME);
+                updateString(((PdfName) obj).getValue(), messageDigest);
+                break;
+            case PdfObject.NUMBER:
+                byte[] content = ((PdfNumber) obj).getInternalContent();
+                messageDigest.update(NUMBER);
+                updateInt(content.length, messageDigest);
+                messageDigest.update(content);
+                break;
+            default:
+                // PdfBoolean, PdfNull and PdfLiteral
+                messageDigest.update(LITERAL);
+                updateString(obj.toString(), messageDigest);
+                break;
+        }
+    }
+
+    private void updateDictionary(PdfDictionary dictionary, int level, int depth, MessageDigest messageDigest) {
+        messageDigest.update(DICTIONARY);
+        PdfName[] keys = new PdfName[dictionary.size()];
+        keys = dictionary.keySet().toArray(keys);
+        Arrays.sort(keys);
+        for (PdfName key : keys) {
+            PdfObject value = dictionary.get(key, false);
+            // ignore back references to the parent objects
+            if (key.equals(PdfName.Parent) || key.equals(PdfName.P) && (value.isIndirectReference() || value.isDictionary())) {
+                continue;
+            }
+            updateObject(key, level, depth, messageDigest);
+            updateObject(value, level, depth, messageDigest);
+        }
+    }
+
+    private void updateString(String value, MessageDigest messageDigest) {
+        int length = value.length();
+        updateInt(length, messageDigest);
+        if (buffer.length < length * 2) {
+            buffer = new byte[length * 2];
+        }
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            buffer[2 * i] = (byte) (c >> 8);
+            buffer[2 * i + 1] = (byte) c;
+        }
+        messageDigest.update(buffer, 0, length * 2);
+    }
+
+    private void updateInt(int value, MessageDigest messageDigest) {
+        messageDigest.update((byte) (value >> 24));
+        messageDigest.update((byte) (value >> 16));
+        messageDigest.update((byte) (value >> 8));
+        messageDigest.update((byte) value);
+    }
+
+    private MessageDigest getMessageDigest(int depth) {
+        while (messageDigests.size() <= depth) {
+            try {
+                messageDigests.add(MessageDigest.getInstance(DIGEST_ALGORITHM));
+            } catch (Exception e) {
+                throw new PdfException(e);
+            }
+        }
+        MessageDigest messageDigest = messageDigests.get(depth);
+        messageDigest.reset();
+        return messageDigest;
+    }
+
+    /**
+     * Digest of the object content, suitable for use as a map key.
+     */
+    static class ObjectDigest {
+        private final byte[] digest;
+        private final int hash;
+
+        ObjectDigest(byte[] digest) {
+            this.digest = digest;
+            this.hash = Arrays.hashCode(digest);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof ObjectDigest && hash == ((ObjectDigest) obj).hash && Arrays.equals(digest, ((ObjectDigest) obj).digest);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
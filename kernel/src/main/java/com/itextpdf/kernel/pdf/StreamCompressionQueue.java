@@ -0,0 +1,240 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2016 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf;
+
+import com.itextpdf.io.source.ByteArrayOutputStream;
+import com.itextpdf.kernel.PdfException;
+import com.itextpdf.kernel.crypto.ObjectEncryptionKey;
+import com.itextpdf.kernel.crypto.OutputStreamEncryption;
+
+import java.io.IOException;
+import java.util.LinkedList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps objects flushed in parallel compression mode until the content of their streams is compressed,
+ * and if possible encrypted, by the worker threads. Objects leave the queue in the order they were added, so they are written
+ * to the document body in the same order as in the single threaded mode.
+ * NOTE Only for internal use in PdfWriter!
+ */
+class StreamCompressionQueue {
+
+    /**
+     * Number of streams per worker thread, which can wait for compression before flushing blocks the writer.
+     */
+    private static final int PENDING_STREAMS_PER_THREAD = 4;
+
+    private static final AtomicInteger poolNumber = new AtomicInteger();
+
+    private final ThreadPoolExecutor executor;
+    private final int maxPendingStreams;
+    private final LinkedList<PendingObject> pendingObjects = new LinkedList<>();
+    private int pendingStreams = 0;
+    private final AtomicInteger compressedStreams = new AtomicInteger();
+
+    StreamCompressionQueue(int threadsCount) {
+        executor = new ThreadPoolExecutor(threadsCount, threadsCount, 1, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new CompressionThreadFactory());
+        executor.allowCoreThreadTimeOut(true);
+        maxPendingStreams = threadsCount * PENDING_STREAMS_PER_THREAD;
+    }
+
+    /**
+     * Adds the object to the end of the queue.
+     *
+     * @param object           flushed object
+     * @param compressionLevel compression level for the stream content, or {@link CompressionConstants#UNDEFINED_COMPRESSION}
+     *                         if the object shall be written as is.
+     * @param crypto           encryption of the document
+     * @param objectKey        the key to encrypt the compressed content with, or null if it shall not be encrypted
+     *                         by the worker thread.
+     */
+    void add(PdfObject object, int compressionLevel, PdfEncryption crypto, ObjectEncryptionKey objectKey) {
+        Future<ByteArrayOutputStream> compressedContent = null;
+        boolean encrypted = false;
+        if (compressionLevel != CompressionConstants.UNDEFINED_COMPRESSION) {
+            encrypted = objectKey != null;
+            compressedContent = executor.submit(new CompressionTask((PdfStream) object, compressionLevel,
+                    encrypted ? crypto : null, objectKey, compressedStreams));
+            pendingStreams++;
+        }
+        pendingObjects.addLast(new PendingObject(object, compressedContent, encrypted));
+    }
+
+    boolean isEmpty() {
+        return pendingObjects.isEmpty();
+    }
+
+    /**
+     * Removes the oldest object from the queue if it can be written.
+     *
+     * @param waitForCompression if true, the oldest object is returned even if its stream is still being compressed.
+     * @return the oldest object, or null if the queue is empty or the oldest stream is still being compressed
+     * while the queue is not full.
+     */
+    PendingObject poll(boolean waitForCompression) {
+        PendingObject first = pendingObjects.peekFirst();
+        if (first == null || !(waitForCompression || first.isReady() || pendingStreams > maxPendingStreams)) {
+            return null;
+        }
+        pendingObjects.removeFirst();
+        if (first.compressedContent != null) {
+            pendingStreams--;
+        }
+        return first;
+    }
+
+    /**
+     * Gets the number of streams, which were compressed by the worker threads.
+     *
+     * @return number of compressed streams
+     */
+    int getCompressedStreamsCount() {
+        return compressedStreams.get();
+    }
+
+    void shutdown() {
+        executor.shutdownNow();
+        pendingObjects.clear();
+        pendingStreams = 0;
+    }
+
+    static class PendingObject {
+        final PdfObject object;
+        private final Future<ByteArrayOutputStream> compressedContent;
+        private final boolean encrypted;
+
+        PendingObject(PdfObject object, Future<ByteArrayOutputStream> compressedContent, boolean encrypted) {
+            this.object = object;
+            this.compressedContent = compressedContent;
+            this.encrypted = encrypted;
+        }
+
+        /**
+         * Checks if the content returned by {@link #getCompressedContent()} is already encrypted.
+         *
+         * @return true if the content was encrypted by the worker thread, otherwise false.
+         */
+        boolean isContentEncrypted() {
+            return encrypted;
+        }
+
+        boolean isReady() {
+            return compressedContent == null || compressedContent.isDone();
+        }
+
+        /**
+         * Gets compressed stream content, waiting for the compression if needed.
+         *
+         * @return compressed content of the stream, or null if the object is not compressed in parallel
+         * @throws IOException if compression failed
+         */
+        ByteArrayOutputStream getCompressedContent() throws IOException {
+            if (compressedContent == null) {
+                return null;
+            }
+            try {
+                return compressedContent.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new PdfException(PdfException.CannotWriteToPdfStream, e, object);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException) {
+                    throw (IOException) e.getCause();
+                }
+                throw new PdfException(PdfException.CannotWriteToPdfStream, e.getCause(), object);
+            }
+        }
+    }
+
+    private static class CompressionTask implements Callable<ByteArrayOutputStream> {
+        private final PdfStream pdfStream;
+        private final int compressionLevel;
+        private final PdfEncryption crypto;
+        private final ObjectEncryptionKey objectKey;
+        private final AtomicInteger compressedStreams;
+
+        CompressionTask(PdfStream pdfStream, int compressionLevel, PdfEncryption crypto, ObjectEncryptionKey objectKey,
+                        AtomicInteger compressedStreams) {
+            this.pdfStream = pdfStream;
+            this.compressionLevel = compressionLevel;
+            this.crypto = crypto;
+            this.objectKey = objectKey;
+            this.compressedStreams = compressedStreams;
+        }
+
+        @Override
+        public ByteArrayOutputStream call() throws IOException {
+            ByteArrayOutputStream compressed = PdfOutputStream.compress(pdfStream, compressionLevel);
+            compressedStreams.incrementAndGet();
+            if (objectKey == null) {
+                return compressed;
+            }
+            ByteArrayOutputStream encrypted = new ByteArrayOutputStream(compressed.size() + 32);
+            OutputStreamEncryption ose = crypto.getEncryptionStream(encrypted, objectKey);
+            compressed.writeTo(ose);
+            ose.finish();
+            return encrypted;
+        }
+    }
+
+    private static class CompressionThreadFactory implements ThreadFactory {
+        private final String namePrefix = "itext-stream-compression-" + poolNumber.incrementAndGet() + "-";
+        private final AtomicInteger threadNumber = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, namePrefix + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
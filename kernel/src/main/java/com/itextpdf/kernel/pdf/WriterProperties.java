@@ -67,12 +67,34 @@ public class WriterProperties implements Serializable {
     protected PdfVersion pdfVersion;
     protected EncryptionProperties encryptionProperties;
 
+    /**
+     * Number of worker threads used to compress streams in parallel. Zero means that streams are compressed
+     * in the writing thread.
+     */
+    protected int compressionThreadsCount;
+
+    /**
+     * Indicates if images added to the document shall be deduplicated by their content.
+     */
+    protected boolean imageDeduplication;
+
+    /**
+     * Maximum number of kids of a node of the page tree.
+     */
+    protected int pagesTreeLeafSize;
+
+    /**
+     * Indicates if pages are released by the document as soon as they are flushed.
+     */
+    protected boolean streamingMode;
+
     public WriterProperties() {
         smartMode = false;
         debugMode = false;
         compressionLevel = CompressionConstants.DEFAULT_COMPRESSION;
         isFullCompression = null;
         encryptionProperties = new EncryptionProperties();
+        pagesTreeLeafSize = PdfPagesTree.DEFAULT_LEAF_SIZE;
     }
 
     /**
@@ -101,6 +123,53 @@ public class WriterProperties implements Serializable {
         return this;
     }
 
+    /**
+     * Enables deduplication of images added to the document.
+     * <p/>
+     * When an image is added to a canvas, the digest of its content is looked up in a document-level cache
+     * and the image XObject with the same content, which was added before, is reused. E.g. a logo added
+     * to every page of a document is written only once. Only the digests are kept in the cache,
+     * see {@link PdfDocument#getImageXObjectCache()}.
+     *
+     * @return this {@code WriterProperties} instance
+     */
+    public WriterProperties useImageDeduplication() {
+        this.imageDeduplication = true;
+        return this;
+    }
+
+    /**
+     * Enables streaming mode.
+     * <p/>
+     * In streaming mode a page is released by the document as soon as it is flushed: the page tree keeps
+     * only the indirect reference of the page, and neither the {@link PdfPage} wrapper nor its content streams
+     * are reachable from the document anymore. Annotations of the page, except widgets which belong to form fields,
+     * are flushed and released together with the page. The memory used by the document hardly grows with the number
+     * of flushed pages, so it pays off when very large documents are generated page by page.
+     * {@link PdfDocument#getPage(int)} returns a new wrapper of the flushed page dictionary for a released page
+     * each time it is called. Fonts are still subsetted when the document is closed.
+     *
+     * @return this {@code WriterProperties} instance
+     */
+    public WriterProperties useStreamingMode() {
+        this.streamingMode = true;
+        return this;
+    }
+
+    /**
+     * Defines the fan-out of the page tree, i.e. the maximum number of kids of its nodes. Default value is 10.
+     * <p/>
+     * The page tree is kept balanced while pages are added, inserted and removed, so its depth grows
+     * logarithmically with the number of pages. A larger fan-out gives a flatter tree with fewer nodes.
+     *
+     * @param leafSize the maximum number of kids of a node, at least 2.
+     * @return this {@code WriterProperties} instance
+     */
+    public WriterProperties setPagesTreeLeafSize(int leafSize) {
+        this.pagesTreeLeafSize = Math.max(leafSize, 2);
+        return this;
+    }
+
     /**
      * If true, default XMPMetadata based on {@link PdfDocumentInfo} will be added.
      * @return this {@code WriterProperties} instance
@@ -121,6 +190,22 @@ public class WriterProperties implements Serializable {
         return this;
     }
 
+    /**
+     * Enables parallel compression of streams.
+     * <p/>
+     * Stream content is deflated by a bounded pool of worker threads while the writer keeps serializing
+     * other objects. Objects are still written to the document in the order they were flushed,
+     * so the cross-reference table stays consistent. This mode pays off for documents with many
+     * or large streams, e.g. multi-thousand page reports.
+     *
+     * @param threadsCount number of worker threads. Zero disables parallel compression.
+     * @return this {@code WriterProperties} instance
+     */
+    public WriterProperties useParallelCompression(int threadsCount) {
+        this.compressionThreadsCount = Math.max(threadsCount, 0);
+        return this;
+    }
+
     /**
      * Defines if full compression mode is enabled. If enabled, not only the content of the pdf document will be
      * compressed, but also the pdf document inner structure.
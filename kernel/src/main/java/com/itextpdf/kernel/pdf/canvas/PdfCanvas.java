@@ -57,6 +57,7 @@ import com.itextpdf.kernel.color.PatternColor;
 import com.itextpdf.kernel.font.PdfFont;
 import com.itextpdf.kernel.geom.AffineTransform;
 import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.kernel.pdf.ImageXObjectCache;
 import com.itextpdf.kernel.pdf.IsoKey;
 import com.itextpdf.kernel.pdf.PdfArray;
 import com.itextpdf.kernel.pdf.PdfDictionary;
@@ -1845,6 +1846,7 @@ public class PdfCanvas {
                 addInlineImage(imageXObject, a, b, c, d, e, f);
                 return null;
             } else {
+                imageXObject = getCachedImage(imageXObject);
                 addImage(imageXObject, a, b, c, d, e, f);
                 return imageXObject;
             }
@@ -1884,6 +1886,7 @@ public class PdfCanvas {
                 addInlineImage(imageXObject, image.getWidth(), 0, 0, image.getHeight(), x, y);
                 return null;
             } else {
+                imageXObject = getCachedImage(imageXObject);
                 addImage(imageXObject, image.getWidth(), 0, 0, image.getHeight(), x, y);
                 return imageXObject;
             }
@@ -1913,6 +1916,7 @@ public class PdfCanvas {
                 addInlineImage(imageXObject, width, 0, 0, width / image.getWidth() * image.getHeight(), x, y);
                 return null;
             } else {
+                imageXObject = getCachedImage(imageXObject);
                 addImage(imageXObject, width, 0, 0, width / image.getWidth() * image.getHeight(), x, y);
                 return imageXObject;
             }
@@ -2303,6 +2307,7 @@ public class PdfCanvas {
      * @return canvas a reference to this object.
      */
     private PdfCanvas addImage(PdfImageXObject image, float a, float b, float c, float d, float e, float f) {
+        image = getCachedImage(image);
         saveState();
         concatMatrix(a, b, c, d, e, f);
         PdfName name = resources.addImage(image);
@@ -2311,6 +2316,18 @@ public class PdfCanvas {
         return this;
     }
 
+    /**
+     * Gets the image XObject which shall be drawn instead of the passed one,
+     * if image deduplication is enabled for the document.
+     *
+     * @param image the {@code PdfImageXObject} object
+     * @return the image with the same content registered in the document, or the passed image.
+     */
+    private PdfImageXObject getCachedImage(PdfImageXObject image) {
+        ImageXObjectCache imageCache = document.getImageXObjectCache();
+        return imageCache != null ? imageCache.getOrAdd(image) : image;
+    }
+
     private PdfCanvas addImage(PdfXObject xObject, float a, float b, float c, float d, float e, float f) {
         saveState();
         concatMatrix(a, b, c, d, e, f);
@@ -0,0 +1,270 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2016 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf.canvas.parser;
+
+import com.itextpdf.io.source.IRandomAccessSource;
+import com.itextpdf.io.source.IndependentRandomAccessSource;
+import com.itextpdf.kernel.PdfException;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.ReaderProperties;
+import com.itextpdf.kernel.pdf.canvas.parser.listener.ITextExtractionStrategy;
+import com.itextpdf.kernel.pdf.canvas.parser.listener.LocationTextExtractionStrategy;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Extracts text from the pages of a document using several threads.
+ * <p/>
+ * The requested pages are split into ranges, which are processed by the tasks of a {@link ForkJoinPool}.
+ * Each task opens its own {@link PdfDocument}, so the only thing shared between the threads is the source
+ * of the document bytes. The text of the pages is returned in the page order.
+ */
+public class ParallelTextExtractor {
+
+    private static final int TASKS_PER_THREAD = 4;
+
+    private final IRandomAccessSource source;
+    private final String filename;
+    private ReaderProperties readerProperties;
+    private ITextExtractionStrategyFactory strategyFactory;
+    private int parallelism;
+    private int pagesPerTask;
+
+    /**
+     * Creates a new instance of ParallelTextExtractor.
+     * <p/>
+     * The source is read by several threads at the same time, so it shall support concurrent calls
+     * of its {@code get} methods. The sources, which are created by
+     * {@link com.itextpdf.io.source.RandomAccessSourceFactory} from byte arrays or input streams, do.
+     * The source isn't closed by the extractor.
+     *
+     * @param source the source of the document bytes.
+     */
+    public ParallelTextExtractor(IRandomAccessSource source) {
+        this(source, null);
+    }
+
+    /**
+     * Creates a new instance of ParallelTextExtractor. The file is opened separately by each task.
+     *
+     * @param filename the file name of the document.
+     */
+    public ParallelTextExtractor(String filename) {
+        this(null, filename);
+    }
+
+    private ParallelTextExtractor(IRandomAccessSource source, String filename) {
+        this.source = source;
+        this.filename = filename;
+        this.readerProperties = new ReaderProperties().setLazyXref(true);
+        this.strategyFactory = new ITextExtractionStrategyFactory() {
+            @Override
+            public ITextExtractionStrategy createStrategy() {
+                return new LocationTextExtractionStrategy();
+            }
+        };
+        this.parallelism = Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Sets the properties of the readers, which are created for the document. The properties are shared
+     * by all the readers, so they shall not be changed during the extraction.
+     * By default the cross-reference table is read lazily, see {@link ReaderProperties#setLazyXref(boolean)}.
+     *
+     * @param readerProperties properties of the readers.
+     * @return this {@code ParallelTextExtractor} instance
+     */
+    public ParallelTextExtractor setReaderProperties(ReaderProperties readerProperties) {
+        this.readerProperties = readerProperties;
+        return this;
+    }
+
+    /**
+     * Sets the factory of the extraction strategies. A new strategy is created for every page.
+     * By default {@link LocationTextExtractionStrategy} is used.
+     *
+     * @param strategyFactory the factory of the extraction strategies.
+     * @return this {@code ParallelTextExtractor} instance
+     */
+    public ParallelTextExtractor setStrategyFactory(ITextExtractionStrategyFactory strategyFactory) {
+        this.strategyFactory = strategyFactory;
+        return this;
+    }
+
+    /**
+     * Sets the number of threads used for the extraction. By default it is the number of available processors.
+     *
+     * @param parallelism the number of threads.
+     * @return this {@code ParallelTextExtractor} instance
+     */
+    public ParallelTextExtractor setParallelism(int parallelism) {
+        this.parallelism = Math.max(parallelism, 1);
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of pages processed by a single task. Every task opens the document once,
+     * so too small ranges increase the overhead. By default the pages are split into four ranges per thread.
+     *
+     * @param pagesPerTask the maximum number of pages in a task, or 0 to use the default.
+     * @return this {@code ParallelTextExtractor} instance
+     */
+    public ParallelTextExtractor setPagesPerTask(int pagesPerTask) {
+        this.pagesPerTask = Math.max(pagesPerTask, 0);
+        return this;
+    }
+
+    /**
+     * Extracts text from all the pages of the document.
+     *
+     * @return the text of the pages in the page order.
+     */
+    public List<String> extractText() {
+        int numberOfPages;
+        PdfDocument document = openDocument();
+        try {
+            numberOfPages = document.getNumberOfPages();
+        } finally {
+            document.close();
+        }
+        return extractText(1, numberOfPages);
+    }
+
+    /**
+     * Extracts text from the range of the pages of the document.
+     *
+     * @param fromPage the first page of the range, starting from 1.
+     * @param toPage   the last page of the range, inclusive.
+     * @return the text of the pages in the page order.
+     */
+    public List<String> extractText(int fromPage, int toPage) {
+        if (toPage < fromPage) {
+            return Collections.<String>emptyList();
+        }
+        int numberOfPages = toPage - fromPage + 1;
+        int maxPages = pagesPerTask;
+        if (maxPages == 0) {
+            int tasksCount = parallelism * TASKS_PER_THREAD;
+            maxPages = (numberOfPages + tasksCount - 1) / tasksCount;
+        }
+        String[] text = new String[numberOfPages];
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new ExtractionTask(fromPage, toPage, maxPages, fromPage, text));
+        } finally {
+            pool.shutdown();
+        }
+        return Arrays.asList(text);
+    }
+
+    private PdfDocument openDocument() {
+        try {
+            PdfReader reader;
+            if (filename != null) {
+                reader = new PdfReader(filename, readerProperties);
+            } else {
+                reader = new PdfReader(new IndependentRandomAccessSource(source), readerProperties);
+            }
+            return new PdfDocument(reader);
+        } catch (IOException e) {
+            throw new PdfException(PdfException.IoException, e);
+        }
+    }
+
+    /**
+     * Creates the text extraction strategies for the pages processed by {@link ParallelTextExtractor}.
+     */
+    public interface ITextExtractionStrategyFactory {
+
+        /**
+         * Creates a new strategy. The method is called from several threads at the same time.
+         *
+         * @return the new strategy.
+         */
+        ITextExtractionStrategy createStrategy();
+    }
+
+    private class ExtractionTask extends RecursiveAction {
+
+        private static final long serialVersionUID = -2585733307307254137L;
+
+        private final int fromPage;
+        private final int toPage;
+        private final int maxPages;
+        private final int firstPage;
+        private final String[] text;
+
+        ExtractionTask(int fromPage, int toPage, int maxPages, int firstPage, String[] text) {
+            this.fromPage = fromPage;
+            this.toPage = toPage;
+            this.maxPages = maxPages;
+            this.firstPage = firstPage;
+            this.text = text;
+        }
+
+        @Override
+        protected void compute() {
+            if (toPage - fromPage < maxPages) {
+                PdfDocument document = openDocument();
+                try {
+                    for (int i = fromPage; i <= toPage; i++) {
+                        text[i - firstPage] = PdfTextExtractor.getTextFromPage(document.getPage(i), strategyFactory.createStrategy());
+                    }
+                } finally {
+                    document.close();
+                }
+            } else {
+                int middle = (fromPage + toPage) >>> 1;
+                invokeAll(new ExtractionTask(fromPage, middle, maxPages, firstPage, text),
+                        new ExtractionTask(middle + 1, toPage, maxPages, firstPage, text));
+            }
+        }
+    }
+}
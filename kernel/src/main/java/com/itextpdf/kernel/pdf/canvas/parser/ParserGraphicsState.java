@@ -56,8 +56,10 @@ import com.itextpdf.kernel.pdf.canvas.parser.clipper.IClipper;
 import com.itextpdf.kernel.pdf.canvas.parser.clipper.ClipperBridge;
 import com.itextpdf.kernel.pdf.canvas.parser.clipper.DefaultClipper;
 import com.itextpdf.kernel.pdf.canvas.parser.clipper.PolyTree;
+import com.itextpdf.kernel.pdf.canvas.parser.data.ClippingPathInfo;
 import com.itextpdf.kernel.pdf.canvas.CanvasGraphicsState;
 import com.itextpdf.kernel.pdf.canvas.PdfCanvasConstants;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -66,8 +68,14 @@ import java.util.List;
  * clipping path state and changes.
  */
 public class ParserGraphicsState extends CanvasGraphicsState {
+    /**
+     * Maximum number of clipping path steps, which may wait for computation. Content without
+     * q/Q operators can't grow the chain of the steps infinitely.
+     */
+    private static final int MAX_PENDING_CLIPPING_STEPS = 1024;
+
     // NOTE: From the spec default value of this field should be the boundary of the entire imageable portion of the output page.
-    private Path clippingPath;
+    private ClippingPathStep clippingPath;
 
     /**
      * Internal empty & default constructor.
@@ -83,9 +91,8 @@ public class ParserGraphicsState extends CanvasGraphicsState {
     ParserGraphicsState(ParserGraphicsState source) {
         super(source);
 
-        if (source.clippingPath != null) {
-            clippingPath = new Path(source.clippingPath);
-        }
+        // the steps are immutable, so the copy can share them
+        clippingPath = source.clippingPath;
     }
 
     /**
@@ -98,7 +105,7 @@ public class ParserGraphicsState extends CanvasGraphicsState {
     public void setClippingPath(Path clippingPath) {
         Path pathCopy = new Path(clippingPath);
         pathCopy.closeAllSubpaths();
-        this.clippingPath = pathCopy;
+        this.clippingPath = new ClippingPathStep(pathCopy);
     }
 
     @Override
@@ -106,7 +113,7 @@ public class ParserGraphicsState extends CanvasGraphicsState {
         super.updateCtm(newCtm);
 
         if (clippingPath != null) {
-            transformClippingPath(newCtm);
+            clippingPath = new ClippingPathStep(clippingPath, null, 0, newCtm);
         }
     }
 
@@ -115,27 +122,22 @@ public class ParserGraphicsState extends CanvasGraphicsState {
      * <br/>
      * <strong>Note:</strong> Coordinates of the given path should be in
      * the transformed user space.
+     * <br/>
+     * The intersection is computed only when the clipping path is requested,
+     * see {@link #getClippingPath()}.
      * @param path The path to be intersected with the current clipping path.
      * @param fillingRule The filling rule which should be applied to the given path.
      *                    It should be either {@link PdfCanvasConstants.FillingRule#EVEN_ODD} or
      *                    {@link PdfCanvasConstants.FillingRule#NONZERO_WINDING}
      */
     public void clip(Path path, int fillingRule) {
-        if (clippingPath == null || clippingPath.isEmpty()) {
+        if (clippingPath == null) {
             return;
         }
 
         Path pathCopy = new Path(path);
         pathCopy.closeAllSubpaths();
-
-        IClipper clipper = new DefaultClipper();
-        ClipperBridge.addPath(clipper, clippingPath, IClipper.PolyType.SUBJECT);
-        ClipperBridge.addPath(clipper, pathCopy, IClipper.PolyType.CLIP);
-
-        PolyTree resultTree = new PolyTree();
-        clipper.execute(IClipper.ClipType.INTERSECTION, resultTree, IClipper.PolyFillType.NON_ZERO, ClipperBridge.getFillType(fillingRule));
-
-        clippingPath = ClipperBridge.convertToPath(resultTree);
+        clippingPath = new ClippingPathStep(clippingPath, pathCopy, fillingRule, null);
     }
 
     /**
@@ -143,13 +145,22 @@ public class ParserGraphicsState extends CanvasGraphicsState {
      * <br/>
      * <strong>Note:</strong> The returned clipping path is in the transformed user space, so
      * if you want to get it in default user space, apply transformation matrix ({@link CanvasGraphicsState#getCtm()}).
+     * The path is shared with the copies of this graphics state, so it shall not be modified.
      * @return The current clipping path.
      */
     public Path getClippingPath() {
-        return clippingPath;
+        return clippingPath != null ? clippingPath.getPath() : null;
     }
 
-    private void transformClippingPath(Matrix newCtm) {
+    /**
+     * Creates the data of {@link EventType#CLIP_PATH_CHANGED} event for the current clipping path.
+     * The path is computed only when it is requested from the event data.
+     */
+    ClippingPathInfo createClippingPathInfo() {
+        return new LazyClippingPathInfo(clippingPath, getCtm());
+    }
+
+    private static Path transformPath(Path clippingPath, Matrix newCtm) {
         Path path = new Path();
 
         for (Subpath subpath : clippingPath.getSubpaths()) {
@@ -157,22 +168,38 @@ public class ParserGraphicsState extends CanvasGraphicsState {
             path.addSubpath(transformedSubpath);
         }
 
-        clippingPath = path;
+        return path;
     }
 
-    private Subpath transformSubpath(Subpath subpath, Matrix newCtm) {
+    private static Path intersectPaths(Path clippingPath, Path path, int fillingRule) {
+        if (clippingPath.isEmpty()) {
+            return clippingPath;
+        }
+
+        IClipper clipper = new DefaultClipper();
+        ClipperBridge.addPath(clipper, clippingPath, IClipper.PolyType.SUBJECT);
+        ClipperBridge.addPath(clipper, path, IClipper.PolyType.CLIP);
+
+        PolyTree resultTree = new PolyTree();
+        clipper.execute(IClipper.ClipType.INTERSECTION, resultTree, IClipper.PolyFillType.NON_ZERO, ClipperBridge.getFillType(fillingRule));
+
+        return ClipperBridge.convertToPath(resultTree);
+    }
+
+    private static Subpath transformSubpath(Subpath subpath, Matrix newCtm) {
         Subpath newSubpath = new Subpath();
-        newSubpath.setClosed(subpath.isClosed());
 
         for (IShape segment : subpath.getSegments()) {
             IShape transformedSegment = transformSegment(segment, newCtm);
             newSubpath.addSegment(transformedSegment);
         }
+        // segments can't be added to a closed subpath
+        newSubpath.setClosed(subpath.isClosed());
 
         return newSubpath;
     }
 
-    private IShape transformSegment(IShape segment, Matrix newCtm) {
+    private static IShape transformSegment(IShape segment, Matrix newCtm) {
         IShape newSegment;
         List<Point> segBasePts = segment.getBasePoints();
         Point[] transformedPoints = transformPoints(newCtm, segBasePts.toArray(new Point[segBasePts.size()]));
@@ -186,7 +213,7 @@ public class ParserGraphicsState extends CanvasGraphicsState {
         return newSegment;
     }
 
-    private Point[] transformPoints(Matrix transformationMatrix, Point... points) {
+    private static Point[] transformPoints(Matrix transformationMatrix, Point... points) {
         try {
 
             AffineTransform t = new AffineTransform(
@@ -204,4 +231,78 @@ public class ParserGraphicsState extends CanvasGraphicsState {
             throw new RuntimeException(e.getMessage(), e);
         }
     }
+
+    /**
+     * A step of the clipping path changes: the initial path, an intersection with a path,
+     * or a transformation. The path of a step is computed from the path of the previous step
+     * only when it is requested, and then the previous steps are released.
+     */
+    private static class ClippingPathStep {
+        private ClippingPathStep previous;
+        private Path path;
+        private final int fillingRule;
+        private Matrix newCtm;
+        private final int pendingSteps;
+        private Path result;
+
+        ClippingPathStep(Path initialPath) {
+            this.fillingRule = 0;
+            this.pendingSteps = 0;
+            this.result = initialPath;
+        }
+
+        ClippingPathStep(ClippingPathStep previous, Path path, int fillingRule, Matrix newCtm) {
+            this.previous = previous;
+            this.path = path;
+            this.fillingRule = fillingRule;
+            this.newCtm = newCtm;
+            this.pendingSteps = previous.result != null ? 1 : previous.pendingSteps + 1;
+            if (pendingSteps > MAX_PENDING_CLIPPING_STEPS) {
+                getPath();
+            }
+        }
+
+        Path getPath() {
+            if (result == null) {
+                // compute the pending steps starting from the earliest one, without recursion
+                List<ClippingPathStep> pending = new ArrayList<>();
+                ClippingPathStep step = this;
+                while (step.result == null) {
+                    pending.add(step);
+                    step = step.previous;
+                }
+                Path current = step.result;
+                for (int i = pending.size() - 1; i >= 0; i--) {
+                    current = pending.get(i).compute(current);
+                }
+            }
+            return result;
+        }
+
+        private Path compute(Path previousPath) {
+            if (newCtm != null) {
+                result = transformPath(previousPath, newCtm);
+            } else {
+                result = intersectPaths(previousPath, path, fillingRule);
+            }
+            previous = null;
+            path = null;
+            newCtm = null;
+            return result;
+        }
+    }
+
+    private static class LazyClippingPathInfo extends ClippingPathInfo {
+        private final ClippingPathStep clippingPath;
+
+        LazyClippingPathInfo(ClippingPathStep clippingPath, Matrix ctm) {
+            super(null, ctm);
+            this.clippingPath = clippingPath;
+        }
+
+        @Override
+        public Path getClippingPath() {
+            return clippingPath != null ? clippingPath.getPath() : null;
+        }
+    }
 }
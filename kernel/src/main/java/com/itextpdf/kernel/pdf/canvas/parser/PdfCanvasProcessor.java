@@ -64,7 +64,6 @@ import com.itextpdf.kernel.font.PdfFontFactory;
 import com.itextpdf.kernel.geom.Matrix;
 import com.itextpdf.kernel.geom.Path;
 import com.itextpdf.kernel.pdf.canvas.CanvasTag;
-import com.itextpdf.kernel.pdf.canvas.parser.data.ClippingPathInfo;
 import com.itextpdf.kernel.pdf.canvas.parser.data.IEventData;
 import com.itextpdf.kernel.pdf.canvas.parser.data.ImageRenderInfo;
 import com.itextpdf.kernel.pdf.canvas.parser.data.PathRenderInfo;
@@ -93,6 +92,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -134,6 +134,16 @@ public class PdfCanvasProcessor {
      */
     private Map<String, IContentOperator> operators;
 
+    /**
+     * Operators of the currently processed content stream by their interned {@link PdfLiteral}s.
+     * Used only in the operands reuse mode, see {@link #setReuseOperands(boolean)}.
+     */
+    private Map<PdfLiteral, IContentOperator> operatorsByLiteral;
+
+    private boolean reuseOperands;
+
+    private boolean skipUnusedClippingPath;
+
     /**
      * Resources for the content stream.
      * Current resources are always at the top of the stack.
@@ -174,6 +184,8 @@ public class PdfCanvasProcessor {
     public PdfCanvasProcessor(IEventListener eventListener) {
         this.eventListener = eventListener;
         this.supportedEvents = eventListener.getSupportedEvents();
+        // subclasses may keep the operands in an overridden invokeOperator, so they have to enable the mode explicitly
+        this.reuseOperands = getClass() == PdfCanvasProcessor.class;
         operators = new HashMap<>();
         populateOperators();
         xobjectDoHandlers = new HashMap<>();
@@ -222,9 +234,40 @@ public class PdfCanvasProcessor {
      * @return the existing registered operator, if any
      */
     public IContentOperator registerContentOperator(String operatorString, IContentOperator operator) {
+        if (operatorsByLiteral != null) {
+            operatorsByLiteral.clear();
+        }
         return operators.put(operatorString, operator);
     }
 
+    /**
+     * Sets whether the clipping path shall be tracked when the event listener doesn't support
+     * {@link EventType#CLIP_PATH_CHANGED} events. The clipping path is computed only when it is requested anyway,
+     * but skipping the tracking also saves recording of the clipping operations. If the tracking is skipped,
+     * the clipping path isn't initialized from the page and isn't changed by the content, so
+     * {@link ParserGraphicsState#getClippingPath()} shall not be used. By default the clipping path is tracked.
+     *
+     * @param skipUnusedClippingPath true to skip the tracking of the clipping path if the listener doesn't need it
+     */
+    public void setSkipUnusedClippingPath(boolean skipUnusedClippingPath) {
+        this.skipUnusedClippingPath = skipUnusedClippingPath;
+    }
+
+    /**
+     * Sets the operands reuse mode, in which the content is parsed without creating new objects for the operators
+     * and the numeric operands (see {@link PdfCanvasParser#setReuseOperands(boolean)}). The built-in operators
+     * don't keep their operands, while the custom operators registered with
+     * {@link #registerContentOperator(String, IContentOperator)} get new objects for the numeric operands as usual.
+     * <br>
+     * The mode is enabled by default, unless the processor is a subclass of {@link PdfCanvasProcessor}: such a
+     * subclass may only enable it if it doesn't keep the operands passed to {@link #invokeOperator(PdfLiteral, List)}.
+     *
+     * @param reuseOperands true to reuse the operators and the numeric operands
+     */
+    public void setReuseOperands(boolean reuseOperands) {
+        this.reuseOperands = reuseOperands;
+    }
+
     /**
      * Gets the {@link java.util.Collection} containing all the registered operators strings.
      *
@@ -270,7 +313,11 @@ public class PdfCanvasProcessor {
         this.resourcesStack.push(resources);
         PdfTokenizer tokeniser = new PdfTokenizer(new RandomAccessFileOrArray(new RandomAccessSourceFactory().createSource(contentBytes)));
         PdfCanvasParser ps = new PdfCanvasParser(tokeniser, resources);
+        ps.setReuseOperands(reuseOperands);
         List<PdfObject> operands = new ArrayList<>();
+        // the interned operators are specific to the parser, nested content streams (e.g. form XObjects) have their own
+        Map<PdfLiteral, IContentOperator> parentOperatorsByLiteral = operatorsByLiteral;
+        operatorsByLiteral = reuseOperands ? new IdentityHashMap<PdfLiteral, IContentOperator>() : null;
         try {
             while (ps.parse(operands).size() > 0) {
                 PdfLiteral operator = (PdfLiteral) operands.get(operands.size() - 1);
@@ -278,6 +325,8 @@ public class PdfCanvasProcessor {
             }
         } catch (IOException e) {
             throw new PdfException(PdfException.CannotParseContentStream, e);
+        } finally {
+            operatorsByLiteral = parentOperatorsByLiteral;
         }
 
         this.resourcesStack.pop();
@@ -292,9 +341,10 @@ public class PdfCanvasProcessor {
      * @param page the page to process
      */
     public void processPageContent(PdfPage page) {
-        initClippingPath(page);
-        ParserGraphicsState gs = getGraphicsState();
-        eventOccurred(new ClippingPathInfo(gs.getClippingPath(), gs.getCtm()), EventType.CLIP_PATH_CHANGED);
+        if (isClippingPathTracked()) {
+            initClippingPath(page);
+            clippingPathChanged();
+        }
         processContent(page.getContentBytes(), page.getResources());
     }
 
@@ -427,9 +477,10 @@ public class PdfCanvasProcessor {
 
         if (isClip) {
             isClip = false;
-            ParserGraphicsState gs = getGraphicsState();
-            gs.clip(currentPath, clippingRule);
-            eventOccurred(new ClippingPathInfo(gs.getClippingPath(), gs.getCtm()), EventType.CLIP_PATH_CHANGED);
+            if (isClippingPathTracked()) {
+                getGraphicsState().clip(currentPath, clippingRule);
+                clippingPathChanged();
+            }
         }
 
         currentPath = new Path();
@@ -442,9 +493,17 @@ public class PdfCanvasProcessor {
      * @param operands a list with operands
      */
     protected void invokeOperator(PdfLiteral operator, List<PdfObject> operands) {
-        IContentOperator op = operators.get(operator.toString());
-        if (op == null)
-            op = operators.get(DEFAULT_OPERATOR);
+        IContentOperator op = operatorsByLiteral != null ? operatorsByLiteral.get(operator) : null;
+        if (op == null) {
+            op = operators.get(operator.toString());
+            if (op == null)
+                op = operators.get(DEFAULT_OPERATOR);
+            if (operatorsByLiteral != null)
+                operatorsByLiteral.put(operator, op);
+        }
+        if (operatorsByLiteral != null && !(op instanceof IOperandsReleasingOperator)) {
+            operands = copyReusedOperands(operands);
+        }
         op.invoke(this, operator, operands);
     }
 
@@ -526,6 +585,19 @@ public class PdfCanvasProcessor {
         }
     }
 
+    /**
+     * Notifies the listener about the current clipping path. The path is computed only if the listener requests it.
+     */
+    private void clippingPathChanged() {
+        if (supportedEvents == null || supportedEvents.contains(EventType.CLIP_PATH_CHANGED)) {
+            eventListener.eventOccurred(getGraphicsState().createClippingPathInfo(), EventType.CLIP_PATH_CHANGED);
+        }
+    }
+
+    private boolean isClippingPathTracked() {
+        return !skipUnusedClippingPath || supportedEvents == null || supportedEvents.contains(EventType.CLIP_PATH_CHANGED);
+    }
+
     /**
      * Displays text.
      *
@@ -577,10 +649,34 @@ public class PdfCanvasProcessor {
         getGraphicsState().setClippingPath(clippingPath);
     }
 
+    /**
+     * Replaces the reused numeric operands with new objects, so that they can be kept by the operator.
+     */
+    private static List<PdfObject> copyReusedOperands(List<PdfObject> operands) {
+        List<PdfObject> copy = new ArrayList<>(operands.size());
+        for (PdfObject operand : operands) {
+            copy.add(operand.isNumber() ? copyNumber((PdfNumber) operand) : operand);
+        }
+        return copy;
+    }
+
+    private static PdfNumber copyNumber(PdfNumber number) {
+        double value = number.getValue();
+        // invalid numbers aren't reused, and NaN can't be stored in a PdfNumber without its original bytes
+        return Double.isNaN(value) ? number : new PdfNumber(value);
+    }
+
+    /**
+     * Marks the built-in operators, which don't keep their operands after the invocation,
+     * so that they can get the reused operands in the operands reuse mode.
+     */
+    private interface IOperandsReleasingOperator extends IContentOperator {
+    }
+
     /**
      * A handler that implements operator (unregistered).
      */
-    private static class IgnoreOperator implements IContentOperator {
+    private static class IgnoreOperator implements IOperandsReleasingOperator {
         /**
          * {@inheritDoc}
          */
@@ -592,7 +688,7 @@ public class PdfCanvasProcessor {
     /**
      * A handler that implements operator (TJ). For more information see Table 51 ISO-32000-1
      */
-    private static class ShowTextArrayOperator implements IContentOperator {
+    private static class ShowTextArrayOperator implements IOperandsReleasingOperator {
         /**
          * {@inheritDoc}
          */
@@ -614,7 +710,7 @@ public class PdfCanvasProcessor {
     /**
      * A handler that implements operator ("). For more information see Table 51 ISO-32000-1
      */
-    private static class MoveNextLineAndShowTextWithSpacingOperator implements IContentOperator {
+    private static class MoveNextLineAndShowTextWithSpacingOperator implements IOperandsReleasingOperator {
         private final SetTextWordSpacingOperator setTextWordSpacing;
         private final SetTextCharacterSpacingOperator setTextCharacterSpacing;
         private final MoveNextLineAndShowTextOperator moveNextLineAndShowText;
@@ -657,7 +753,7 @@ public class PdfCanvasProcessor {
     /**
      * A handler that implements operator ('). For more information see Table 51 ISO-32000-1
      */
-    private static class MoveNextLineAndShowTextOperator implements IContentOperator {
+    private static class MoveNextLineAndShowTextOperator implements IOperandsReleasingOperator {
         private final TextMoveNextLineOperator textMoveNextLine;
         private final ShowTextOperator showText;
 
@@ -684,7 +780,7 @@ public class PdfCanvasProcessor {
     /**
      * A handler that implements operator (Tj). For more information see Table 51 ISO-32000-1
      */
-    private static class ShowTextOperator implements IContentOperator {
+    private static class ShowTextOperator implements IOperandsReleasingOperator {
         /**
          * {@inheritDoc}
          */
@@ -699,7 +795,7 @@ public class PdfCanvasProcessor {
     /**
      * A handler that implements operator (T*). For more information see Table 51 ISO-32000-1
      */
-    private static class TextMoveNextLineOperator implements IContentOperator {
+    private static class TextMoveNextLineOperator implements IOperandsReleasingOperator {
         private final TextMoveStartNextLineOperator moveStartNextLine;
 
         public TextMoveNextLineOperator(TextMoveStartNextLineOperator moveStartNextLine) {
@@ -720,7 +816,7 @@ public class PdfCanvasProcessor {
     /**
      * A handler that implements operator (Tm). For more information see Table 51 ISO-32000-1
      */
-    private static class TextSetTextMatrixOperator implements IContentOperator {
+    private static class TextSetTextMatrixOperator implements IOperandsReleasingOperator {
         /**
          * {@inheritDoc}
          */
@@ -740,7 +836,7 @@ public class PdfCanvasProcessor {
     /**
      * A handler that implements operator (TD). For more information see Table 51 ISO-32000-1
      */
-    private static class TextMoveStartNextLineWithLeadingOperator implements IContentOperator {
+    private static class TextMoveStartNextLineWithLeadingOperator implements IOperandsReleasingOperator {
         private final TextMoveStartNextLineOperator moveStartNextLine;
         private final SetTextLeadingOperator setTextLeading;
 
@@ -765,7 +861,7 @@ public class PdfCanvasProcessor {
     /**
      * A handler that implements operator (Td). For more information see Table 51 ISO-32000-1
      */
-    private static class TextMoveStartNextLineOperator implements IContentOperator {
+    private static class TextMoveStartNextLineOperator implements IOperandsReleasingOperator {
         /**
          * {@inheritDoc}
          */
@@ -782,7 +878,7 @@ public class PdfCanvasProcessor {
     /**
      * A handler that implements operator (Tf). For more information see Table 51 ISO-32000-1
      */
-    private static class SetTextFontOperator implements IContentOperator {
+    private static class SetTextFontOperator implements IOperandsReleasingOperator {
         /**
          * {@inheritDoc}
          */
@@ -804,7 +900,7 @@ public class PdfCanvasProcessor {
     /**
      * A handler that implements operator (Tr). For more information see Table 51 ISO-32000-1
      */
-    private static class SetTextRenderModeOperator implements IContentOperator {
+    private static class SetTextRenderModeOperator implements IOperandsReleasingOperator {
         /**
          * {@inheritDoc}
          */
@@ -817,7 +913,7 @@ public class PdfCanvasProcessor {
     /**
      * A handler that implements operator (Ts). For more information see Table 51 ISO-32000-1
      */
-    private static class SetTextRiseOperator implements IContentOperator {
+    private static class SetTextRiseOperator implements IOperandsReleasingOperator {
         /**
          * {@inheritDoc}
          */
@@ -830,7 +926,7 @@ public class PdfCanvasProcessor {
     /**
      * A handler that implements operator (TL). For more information see Table 51 ISO-32000-1
      */
-    private static class SetTextLeadingOperator implements IContentOperator {
+    private static class SetTextLeadingOperator implements IOperandsReleasingOperator {
         /**
          * {@inheritDoc}
          */
@@ -843,7 +939,7 @@ public class PdfCanvasProcessor {
     /**
      * A handler that implements operator (Tz). For more information see Table 51 ISO-32000-1
      */
-    private static class SetTextHorizontalScalingOperator implements IContentOperator {
+    private static class SetTextHorizontalScalingOperator implements IOperandsReleasingOperator {
         /**
          * {@inheritDoc}
          */
@@ -856,7 +952,7 @@ public class PdfCanvasProcessor {
     /**
      * A handler that implements operator (Tc). For more information see Table 51 ISO-32000-1
      */
-    private static class SetTextCharacterSpacingOperator implements IContentOperator {
+    private static class SetTextCharacterSpacingOperator implements IOperandsReleasingOperator {
         /**
          * {@inheritDoc}
          */
@@ -869,7 +965,7 @@ public class PdfCanvasProcessor {
     /**
      * A handler that implements operator (Tw). For more information see Table 51 ISO-32000-1
      */
-    private static class SetTextWordSpacingOperator implements IContentOperator {
+    private static class SetTextWordSpacingOperator implements IOperandsReleasingOperator {
         /**
          * {@inheritDoc}
          */
@@ -882,7 +978,7 @@ public class PdfCanvasProcessor {
     /**
      * A handler that implements operator (gs). For more information see Table 51 ISO-32000-1
      */
-    private static class ProcessGraphicsStateResourceOperator implements IContentOperator {
+    private static class ProcessGraphicsStateResourceOperator implements IOperandsReleasingOperator {
         /**
          * {@inheritDoc}
          */
@@ -910,7 +1006,7 @@ public class PdfCanvasProcessor {
     /**
      * A handler that implements operator (q). For more information see Table 51 ISO-32000-1
      */
-    private static class PushGraphicsStateOperator implements IContentOperator {
+    private static class PushGraphicsStateOperator implements IOperandsReleasingOperator {
         /**
          * {@inheritDoc}
          */
@@ -924,7 +1020,7 @@ public class PdfCanvasProcessor {
     /**
      * A handler that implements operator (cm). For more information see Table 51 ISO-32000-1
      */
-    private static class ModifyCurrentTransformationMatrixOperator implements IContentOperator {
+    private static class ModifyCurrentTransformationMatrixOperator implements IOperandsReleasingOperator {
         /**
          * {@inheritDoc}
          */
@@ -1021,21 +1117,20 @@ public class PdfCanvasProcessor {
     /**
      * A handler that implements operator (Q). For more information see Table 51 ISO-32000-1
      */
-    protected static class PopGraphicsStateOperator implements IContentOperator {
+    protected static class PopGraphicsStateOperator implements IOperandsReleasingOperator {
         /**
          * {@inheritDoc}
          */
         public void invoke(PdfCanvasProcessor processor, PdfLiteral operator, List<PdfObject> operands) {
             processor.gsStack.pop();
-            ParserGraphicsState gs = processor.getGraphicsState();
-            processor.eventOccurred(new ClippingPathInfo(gs.getClippingPath(), gs.getCtm()), EventType.CLIP_PATH_CHANGED);
+            processor.clippingPathChanged();
         }
     }
 
     /**
      * A handler that implements operator (g). For more information see Table 51 ISO-32000-1
      */
-    private static class SetGrayFillOperator implements IContentOperator {
+    private static class SetGrayFillOperator implements IOperandsReleasingOperator {
         /**
          * {@inheritDoc}
          */
@@ -1047,7 +1142,7 @@ public class PdfCanvasProcessor {
     /**
      * A handler that implements operator (G). For more information see Table 51 ISO-32000-1
      */
-    private static class SetGrayStrokeOperator implements IContentOperator {
+    private static class SetGrayStrokeOperator implements IOperandsReleasingOperator {
         /**
          * {@inheritDoc}
          */
@@ -1059,7 +1154,7 @@ public class PdfCanvasProcessor {
     /**
      * A handler that implements operator (rg). For more information see Table 51 ISO-32000-1
      */
-    private static class SetRGBFillOperator implements IContentOperator {
+    private static class SetRGBFillOperator implements IOperandsReleasingOperator {
         /**
          * {@inheritDoc}
          */
@@ -1071,7 +1166,7 @@ public class PdfCanvasProcessor {
     /**
      * A handler that implements operator (RG). For more information see Table 51 ISO-32000-1
      */
-    private static class SetRGBStrokeOperator implements IContentOperator {
+    private static class SetRGBStrokeOperator implements IOperandsReleasingOperator {
         /**
          * {@inheritDoc}
          */
@@ -1083,7 +1178,7 @@ public class PdfCanvasProcessor {
     /**
      * A handler that implements operator (k). For more information see Table 51 ISO-32000-1
      */
-    private static class SetCMYKFillOperator implements IContentOperator {
+    private static class SetCMYKFillOperator implements IOperandsReleasingOperator {
         /**
          * {@inheritDoc}
          */
@@ -1095,7 +1190,7 @@ public class PdfCanvasProcessor {
     /**
      * A handler that implements operator (K). For more information see Table 51 ISO-32000-1
      */
-    private static class SetCMYKStrokeOperator implements IContentOperator {
+    private static class SetCMYKStrokeOperator implements IOperandsReleasingOperator {
         /**
          * {@inheritDoc}
          */
@@ -1108,7 +1203,7 @@ public class PdfCanvasProcessor {
      * A handler that implements operator (CS). For more information see Table 51 ISO-32000-1
      *
      */
-    private static class SetColorSpaceFillOperator implements IContentOperator {
+    private static class SetColorSpaceFillOperator implements IOperandsReleasingOperator {
         /**
          * {@inheritDoc}
          */
@@ -1136,7 +1231,7 @@ public class PdfCanvasProcessor {
      * A handler that implements operator (cs). For more information see Table 51 ISO-32000-1
      *
      */
-    private static class SetColorSpaceStrokeOperator implements IContentOperator {
+    private static class SetColorSpaceStrokeOperator implements IOperandsReleasingOperator {
         /**
          * {@inheritDoc}
          */
@@ -1149,7 +1244,7 @@ public class PdfCanvasProcessor {
     /**
      * A handler that implements operator (sc / scn). For more information see Table 51 ISO-32000-1
      */
-    private static class SetColorFillOperator implements IContentOperator {
+    private static class SetColorFillOperator implements IOperandsReleasingOperator {
         /**
          * {@inheritDoc}
          */
@@ -1161,7 +1256,7 @@ public class PdfCanvasProcessor {
     /**
      * A handler that implements operator (SC / SCN). For more information see Table 51 ISO-32000-1
      */
-    private static class SetColorStrokeOperator implements IContentOperator {
+    private static class SetColorStrokeOperator implements IOperandsReleasingOperator {
         /**
          * {@inheritDoc}
          */
@@ -1173,7 +1268,7 @@ public class PdfCanvasProcessor {
     /**
      * A handler that implements operator (BT). For more information see Table 51 ISO-32000-1
      */
-    private static class BeginTextOperator implements IContentOperator {
+    private static class BeginTextOperator implements IOperandsReleasingOperator {
         /**
          * {@inheritDoc}
          */
@@ -1187,7 +1282,7 @@ public class PdfCanvasProcessor {
     /**
      * A handler that implements operator (ET). For more information see Table 51 ISO-32000-1
      */
-    private static class EndTextOperator implements IContentOperator {
+    private static class EndTextOperator implements IOperandsReleasingOperator {
         /**
          * {@inheritDoc}
          */
@@ -1201,7 +1296,7 @@ public class PdfCanvasProcessor {
     /**
      * A handler that implements operator (BMC). For more information see Table 51 ISO-32000-1
      */
-    private static class BeginMarkedContentOperator implements IContentOperator {
+    private static class BeginMarkedContentOperator implements IOperandsReleasingOperator {
         /**
          * {@inheritDoc}
          */
@@ -1215,7 +1310,7 @@ public class PdfCanvasProcessor {
     /**
      * A handler that implements operator (BDC). For more information see Table 51 ISO-32000-1
      */
-    private static class BeginMarkedContentDictionaryOperator implements IContentOperator {
+    private static class BeginMarkedContentDictionaryOperator implements IOperandsReleasingOperator {
         /**
          * {@inheritDoc}
          */
@@ -1239,7 +1334,7 @@ public class PdfCanvasProcessor {
     /**
      * A handler that implements operator (EMC). For more information see Table 51 ISO-32000-1
      */
-    private static class EndMarkedContentOperator implements IContentOperator {
+    private static class EndMarkedContentOperator implements IOperandsReleasingOperator {
         /**
          * {@inheritDoc}
          */
@@ -1252,7 +1347,7 @@ public class PdfCanvasProcessor {
     /**
      * A handler that implements operator (Do). For more information see Table 51 ISO-32000-1
      */
-    private static class DoOperator implements IContentOperator {
+    private static class DoOperator implements IOperandsReleasingOperator {
         /**
          * {@inheritDoc}
          */
@@ -1268,7 +1363,7 @@ public class PdfCanvasProcessor {
      * This not a usual operator, it will have a single operand, which will be a PdfStream object which
      * encapsulates inline image dictionary and bytes
      */
-    private static class EndImageOperator implements IContentOperator {
+    private static class EndImageOperator implements IOperandsReleasingOperator {
         /**
          * {@inheritDoc}
          */
@@ -1281,7 +1376,7 @@ public class PdfCanvasProcessor {
     /**
      * A handler that implements operator (w). For more information see Table 51 ISO-32000-1
      */
-    private static class SetLineWidthOperator implements IContentOperator {
+    private static class SetLineWidthOperator implements IOperandsReleasingOperator {
         /**
          * {@inheritDoc}
          */
@@ -1294,7 +1389,7 @@ public class PdfCanvasProcessor {
     /**
      * A handler that implements operator (J). For more information see Table 51 ISO-32000-1
      */
-    private class SetLineCapOperator implements IContentOperator {
+    private class SetLineCapOperator implements IOperandsReleasingOperator {
 
         /**
          * {@inheritDoc}
@@ -1308,7 +1403,7 @@ public class PdfCanvasProcessor {
     /**
      * A handler that implements operator (j). For more information see Table 51 ISO-32000-1
      */
-    private class SetLineJoinOperator implements IContentOperator {
+    private class SetLineJoinOperator implements IOperandsReleasingOperator {
 
         /**
          * {@inheritDoc}
@@ -1322,7 +1417,7 @@ public class PdfCanvasProcessor {
     /**
      * A handler that implements operator (M). For more information see Table 51 ISO-32000-1
      */
-    private class SetMiterLimitOperator implements IContentOperator {
+    private class SetMiterLimitOperator implements IOperandsReleasingOperator {
 
         /**
          * {@inheritDoc}
@@ -1336,13 +1431,13 @@ public class PdfCanvasProcessor {
     /**
      * A handler that implements operator (d). For more information see Table 51 ISO-32000-1
      */
-    private class SetLineDashPatternOperator implements IContentOperator {
+    private class SetLineDashPatternOperator implements IOperandsReleasingOperator {
 
         /**
          * {@inheritDoc}
          */
         public void invoke(PdfCanvasProcessor processor, PdfLiteral oper, List<PdfObject> operands) {
-            processor.getGraphicsState().setDashPattern(new PdfArray(Arrays.asList(operands.get(0), operands.get(1))));
+            processor.getGraphicsState().setDashPattern(new PdfArray(Arrays.asList(operands.get(0), (PdfObject) copyNumber((PdfNumber) operands.get(1)))));
         }
     }
 
@@ -1410,7 +1505,7 @@ public class PdfCanvasProcessor {
     /**
      * A handler that implements operator (m). For more information see Table 51 ISO-32000-1
      */
-    private static class MoveToOperator implements IContentOperator {
+    private static class MoveToOperator implements IOperandsReleasingOperator {
 
         /**
          * {@inheritDoc}
@@ -1425,7 +1520,7 @@ public class PdfCanvasProcessor {
     /**
      * A handler that implements operator (l). For more information see Table 51 ISO-32000-1
      */
-    private static class LineToOperator implements IContentOperator {
+    private static class LineToOperator implements IOperandsReleasingOperator {
 
         /**
          * {@inheritDoc}
@@ -1440,7 +1535,7 @@ public class PdfCanvasProcessor {
     /**
      * A handler that implements operator (c). For more information see Table 51 ISO-32000-1
      */
-    private static class CurveOperator implements IContentOperator {
+    private static class CurveOperator implements IOperandsReleasingOperator {
 
         /**
          * {@inheritDoc}
@@ -1459,7 +1554,7 @@ public class PdfCanvasProcessor {
     /**
      * A handler that implements operator (v). For more information see Table 51 ISO-32000-1
      */
-    private static class CurveFirstPointDuplicatedOperator implements IContentOperator {
+    private static class CurveFirstPointDuplicatedOperator implements IOperandsReleasingOperator {
 
         /**
          * {@inheritDoc}
@@ -1476,7 +1571,7 @@ public class PdfCanvasProcessor {
     /**
      * A handler that implements operator (y). For more information see Table 51 ISO-32000-1
      */
-    private static class CurveFourhPointDuplicatedOperator implements IContentOperator {
+    private static class CurveFourhPointDuplicatedOperator implements IOperandsReleasingOperator {
 
         /**
          * {@inheritDoc}
@@ -1493,7 +1588,7 @@ public class PdfCanvasProcessor {
     /**
      * A handler that implements operator (h). For more information see Table 51 ISO-32000-1
      */
-    private static class CloseSubpathOperator implements IContentOperator {
+    private static class CloseSubpathOperator implements IOperandsReleasingOperator {
 
         /**
          * {@inheritDoc}
@@ -1506,7 +1601,7 @@ public class PdfCanvasProcessor {
     /**
      * A handler that implements operator (re). For more information see Table 51 ISO-32000-1
      */
-    private static class RectangleOperator implements IContentOperator {
+    private static class RectangleOperator implements IOperandsReleasingOperator {
 
         /**
          * {@inheritDoc}
@@ -1523,7 +1618,7 @@ public class PdfCanvasProcessor {
     /**
      * A handler that implements operator (S, s, f, F, f*, B, B*, b, b*). For more information see Table 51 ISO-32000-1
      */
-    private static class PaintPathOperator implements IContentOperator {
+    private static class PaintPathOperator implements IOperandsReleasingOperator {
 
         private int operation;
         private int rule;
@@ -1560,7 +1655,7 @@ public class PdfCanvasProcessor {
     /**
      * A handler that implements operator (W, W*). For more information see Table 51 ISO-32000-1
      */
-    private static class ClipPathOperator implements IContentOperator {
+    private static class ClipPathOperator implements IOperandsReleasingOperator {
 
         private int rule;
 
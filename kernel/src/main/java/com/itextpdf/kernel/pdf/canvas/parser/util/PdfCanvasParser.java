@@ -44,6 +44,7 @@
 package com.itextpdf.kernel.pdf.canvas.parser.util;
 
 import com.itextpdf.kernel.PdfException;
+import com.itextpdf.io.source.ByteUtils;
 import com.itextpdf.io.source.PdfTokenizer;
 import com.itextpdf.kernel.pdf.PdfArray;
 import com.itextpdf.kernel.pdf.PdfDictionary;
@@ -65,6 +66,14 @@ import java.util.List;
  */
 public class PdfCanvasParser {
 
+    private static final byte[] BI = ByteUtils.getIsoBytes("BI");
+
+    /**
+     * Maximum number of different operators, which are interned in the operands reuse mode. The standard operators
+     * are far less, the limit only protects from malformed content with lots of garbage tokens.
+     */
+    private static final int MAX_INTERNED_OPERATORS = 256;
+
     /**
      * Holds value of property tokeniser.
      */
@@ -72,6 +81,21 @@ public class PdfCanvasParser {
 
     private PdfResources currentResources;
 
+    private boolean reuseOperands;
+
+    /**
+     * Numbers returned as operands by {@link #parse(List)} in the operands reuse mode.
+     */
+    private PdfNumber[] reusedNumbers = new PdfNumber[8];
+
+    /**
+     * Open addressing table of the operators returned by {@link #parse(List)} in the operands reuse mode.
+     * Its length is a power of two, at least twice as big as the number of operators.
+     */
+    private PdfLiteral[] internedOperators = new PdfLiteral[64];
+    private byte[][] internedOperatorBytes = new byte[64][];
+    private int internedOperatorsCount;
+
     /**
      * Creates a new instance of PdfContentParser
      * @param tokeniser the tokeniser with the content
@@ -92,6 +116,20 @@ public class PdfCanvasParser {
         this.currentResources = currentResources;
     }
 
+    /**
+     * Sets the operands reuse mode. In this mode {@link #parse(List)} returns the same {@link PdfLiteral} instance
+     * for every occurrence of an operator, so that the operators can be compared by identity, and numeric operands
+     * of the command are represented by {@link PdfNumber} instances, which are reused by the next command.
+     * The objects nested in the operands, e.g. the elements of an array, are not reused.
+     * <br>
+     * The mode avoids allocations for typical content, but the numeric operands shall not be kept or modified
+     * after the next call of {@link #parse(List)}.
+     * @param reuseOperands true to reuse the operators and the numeric operands
+     */
+    public void setReuseOperands(boolean reuseOperands) {
+        this.reuseOperands = reuseOperands;
+    }
+
     /**
      * Parses a single command from the content. Each command is output as an array of arguments
      * having the command itself as the last element. The returned array will be empty if the
@@ -111,18 +149,25 @@ public class PdfCanvasParser {
             ls = new ArrayList<>();
         else
             ls.clear();
-        PdfObject ob = null;
-        while ((ob = readObject()) != null) {
-            ls.add(ob);
-            if (tokeniser.getTokenType() == PdfTokenizer.TokenType.Other) {
-                if (ob.toString().equals("BI")) {
+        int reusedNumbersCount = 0;
+        while (nextValidToken()) {
+            PdfTokenizer.TokenType type = tokeniser.getTokenType();
+            if (type == PdfTokenizer.TokenType.Other) {
+                if (tokeniser.tokenValueEqualsTo(BI)) {
                     PdfStream inlineImageAsStream = InlineImageParsingUtils.parse(this, currentResources.getResource(PdfName.ColorSpace));
                     ls.clear();
                     ls.add(inlineImageAsStream);
                     ls.add(new PdfLiteral("EI"));
+                } else {
+                    ls.add(reuseOperands ? readInternedOperator() : readCurrentObject());
                 }
                 break;
             }
+            if (reuseOperands && type == PdfTokenizer.TokenType.Number) {
+                ls.add(readReusedNumber(reusedNumbersCount++));
+            } else {
+                ls.add(readCurrentObject());
+            }
         }
         return ls;
     }
@@ -190,6 +235,15 @@ public class PdfCanvasParser {
     public PdfObject readObject() throws IOException {
         if (!nextValidToken())
             return null;
+        return readCurrentObject();
+    }
+
+    /**
+     * Reads the pdf object, which starts with the current token.
+     * @return the pdf object
+     * @throws IOException on error
+     */
+    private PdfObject readCurrentObject() throws IOException {
         final PdfTokenizer.TokenType type = tokeniser.getTokenType();
         switch (type) {
             case StartDic: {
@@ -224,4 +278,73 @@ public class PdfCanvasParser {
         }
         return false;
     }
+
+    private PdfObject readReusedNumber(int index) {
+        double value = tokeniser.getDoubleValue();
+        if (Double.isNaN(value)) {
+            // keep the original bytes of an invalid number, like PdfNumber(byte[]) does
+            return new PdfNumber(tokeniser.getByteContent());
+        }
+        if (index == reusedNumbers.length) {
+            PdfNumber[] numbers = new PdfNumber[index * 2];
+            System.arraycopy(reusedNumbers, 0, numbers, 0, index);
+            reusedNumbers = numbers;
+        }
+        PdfNumber number = reusedNumbers[index];
+        if (number == null) {
+            number = reusedNumbers[index] = new PdfNumber(value);
+        } else {
+            number.setValue(value);
+        }
+        return number;
+    }
+
+    private PdfLiteral readInternedOperator() {
+        int length = tokeniser.getContentLength();
+        int hash = length;
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + tokeniser.getContentByte(i);
+        }
+        int mask = internedOperators.length - 1;
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        while (internedOperators[slot] != null) {
+            if (tokeniser.tokenValueEqualsTo(internedOperatorBytes[slot])) {
+                return internedOperators[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        byte[] content = tokeniser.getByteContent();
+        PdfLiteral operator = new PdfLiteral(content);
+        if (internedOperatorsCount < MAX_INTERNED_OPERATORS) {
+            internedOperators[slot] = operator;
+            internedOperatorBytes[slot] = content;
+            if (++internedOperatorsCount * 2 > internedOperators.length) {
+                rehashInternedOperators();
+            }
+        }
+        return operator;
+    }
+
+    private void rehashInternedOperators() {
+        PdfLiteral[] operators = internedOperators;
+        byte[][] operatorBytes = internedOperatorBytes;
+        internedOperators = new PdfLiteral[operators.length * 2];
+        internedOperatorBytes = new byte[operators.length * 2][];
+        int mask = internedOperators.length - 1;
+        for (int i = 0; i < operators.length; i++) {
+            if (operators[i] != null) {
+                byte[] content = operatorBytes[i];
+                int hash = content.length;
+                for (byte b : content) {
+                    hash = 31 * hash + b;
+                }
+                int slot = (hash ^ (hash >>> 16)) & mask;
+                while (internedOperators[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                internedOperators[slot] = operators[i];
+                internedOperatorBytes[slot] = content;
+            }
+        }
+    }
 }
@@ -0,0 +1,184 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2016 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf.filters;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Base class for the streams returned by the default {@link IStreamFilterHandler}s.
+ * Encoded bytes are read from the underlying stream in chunks and decoded into a fixed-size output buffer
+ * by small steps, so memory consumption doesn't depend on the length of the stream.
+ */
+abstract class DecodingInputStream extends FilterInputStream {
+
+    private static final int BUFFER_SIZE = 4096;
+
+    /**
+     * The maximum number of bytes a single {@link #decodeNext()} call may write.
+     */
+    private static final int MAX_STEP_OUTPUT = 256;
+
+    private byte[] encoded = new byte[BUFFER_SIZE];
+    private int encodedPosition;
+    private int encodedLength;
+    private boolean endOfEncoded;
+
+    private byte[] decoded = new byte[BUFFER_SIZE];
+    private int decodedPosition;
+    private int decodedLength;
+
+    private boolean endOfData;
+
+    protected DecodingInputStream(InputStream in) {
+        super(in);
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (decodedPosition == decodedLength && !fill()) {
+            return -1;
+        }
+        return decoded[decodedPosition++] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (decodedPosition == decodedLength && !fill()) {
+            return -1;
+        }
+        int n = Math.min(len, decodedLength - decodedPosition);
+        System.arraycopy(decoded, decodedPosition, b, off, n);
+        decodedPosition += n;
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = 0;
+        while (skipped < n) {
+            if (decodedPosition == decodedLength && !fill()) {
+                break;
+            }
+            int step = (int) Math.min(n - skipped, decodedLength - decodedPosition);
+            decodedPosition += step;
+            skipped += step;
+        }
+        return skipped;
+    }
+
+    @Override
+    public int available() throws IOException {
+        return decodedLength - decodedPosition;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public synchronized void mark(int readlimit) {
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+        throw new IOException("mark/reset not supported");
+    }
+
+    /**
+     * Decodes the next portion of the data, passing the result to {@link #write(int)}.
+     * No more than 256 bytes may be written by a single call.
+     *
+     * @return {@code false} if the end of the encoded data is reached, {@code true} otherwise
+     * @throws IOException on error.
+     */
+    protected abstract boolean decodeNext() throws IOException;
+
+    /**
+     * Reads the next byte of the encoded data.
+     *
+     * @return the next byte or -1 if the end of the underlying stream is reached
+     * @throws IOException on error.
+     */
+    protected int readEncoded() throws IOException {
+        if (encodedPosition == encodedLength) {
+            if (endOfEncoded) {
+                return -1;
+            }
+            int n = in.read(encoded, 0, encoded.length);
+            if (n <= 0) {
+                endOfEncoded = true;
+                return -1;
+            }
+            encodedPosition = 0;
+            encodedLength = n;
+        }
+        return encoded[encodedPosition++] & 0xff;
+    }
+
+    /**
+     * Appends a byte to the decoded data.
+     *
+     * @param b the byte to append
+     */
+    protected void write(int b) {
+        decoded[decodedLength++] = (byte) b;
+    }
+
+    private boolean fill() throws IOException {
+        decodedPosition = 0;
+        decodedLength = 0;
+        while (!endOfData && decodedLength <= decoded.length - MAX_STEP_OUTPUT) {
+            if (!decodeNext()) {
+                endOfData = true;
+            }
+        }
+        return decodedLength > 0;
+    }
+}
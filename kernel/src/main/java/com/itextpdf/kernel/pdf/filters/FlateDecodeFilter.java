@@ -52,13 +52,17 @@ import com.itextpdf.kernel.pdf.PdfObject;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
+import java.io.EOFException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.Inflater;
 import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipException;
 
 /**
  * Handles FlateDecode filter.
  */
-public class FlateDecodeFilter implements IFilterHandler {
+public class FlateDecodeFilter implements IStreamFilterHandler {
 
     @Override
     public byte[] decode(byte[] b, PdfName filterName, PdfObject decodeParams, PdfDictionary streamDictionary) {
@@ -69,6 +73,17 @@ public class FlateDecodeFilter implements IFilterHandler {
         return b;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * Like {@link #flateDecode(byte[], boolean)} in non-strict mode, the returned stream doesn't fail
+     * on corrupted data: it ends at the point where the data can't be inflated any more.
+     */
+    @Override
+    public InputStream decode(InputStream in, PdfName filterName, PdfObject decodeParams, PdfDictionary streamDictionary) {
+        return PredictorInputStream.create(new LenientInflaterInputStream(in), decodeParams);
+    }
+
     /**
      * A helper to flateDecode.
      *
@@ -156,58 +171,7 @@ public class FlateDecodeFilter implements IFilterHandler {
                 return fout.toByteArray();
             }
 
-            switch (filter) {
-                case 0: //PNG_FILTER_NONE
-                    break;
-                case 1: //PNG_FILTER_SUB
-                    for (int i = bytesPerPixel; i < bytesPerRow; i++) {
-                        curr[i] += curr[i - bytesPerPixel];
-                    }
-                    break;
-                case 2: //PNG_FILTER_UP
-                    for (int i = 0; i < bytesPerRow; i++) {
-                        curr[i] += prior[i];
-                    }
-                    break;
-                case 3: //PNG_FILTER_AVERAGE
-                    for (int i = 0; i < bytesPerPixel; i++) {
-                        curr[i] += (byte) (prior[i] / 2);
-                    }
-                    for (int i = bytesPerPixel; i < bytesPerRow; i++) {
-                        curr[i] += (byte) (((curr[i - bytesPerPixel] & 0xff) + (prior[i] & 0xff))/2);
-                    }
-                    break;
-                case 4: //PNG_FILTER_PAETH
-                    for (int i = 0; i < bytesPerPixel; i++) {
-                        curr[i] += prior[i];
-                    }
-
-                    for (int i = bytesPerPixel; i < bytesPerRow; i++) {
-                        int a = curr[i - bytesPerPixel] & 0xff;
-                        int b = prior[i] & 0xff;
-                        int c = prior[i - bytesPerPixel] & 0xff;
-
-                        int p = a + b - c;
-                        int pa = Math.abs(p - a);
-                        int pb = Math.abs(p - b);
-                        int pc = Math.abs(p - c);
-
-                        int ret;
-
-                        if (pa <= pb && pa <= pc) {
-                            ret = a;
-                        } else if (pb <= pc) {
-                            ret = b;
-                        } else {
-                            ret = c;
-                        }
-                        curr[i] += (byte)ret;
-                    }
-                    break;
-                default:
-                    // Error -- unknown filter type
-                    throw new PdfException(PdfException.PngFilterUnknown);
-            }
+            decodePngRow(filter, curr, prior, bytesPerPixel);
             try {
                 fout.write(curr);
             }
@@ -222,4 +186,109 @@ public class FlateDecodeFilter implements IFilterHandler {
             curr = tmp;
         }
     }
+
+    /**
+     * Reverts the PNG prediction of a single row.
+     *
+     * @param filter the PNG filter type of the row
+     * @param curr the row to decode in place
+     * @param prior the previously decoded row, filled with zeroes for the first row
+     * @param bytesPerPixel the number of bytes per complete pixel
+     */
+    static void decodePngRow(int filter, byte[] curr, byte[] prior, int bytesPerPixel) {
+        int bytesPerRow = curr.length;
+        switch (filter) {
+            case 0: //PNG_FILTER_NONE
+                break;
+            case 1: //PNG_FILTER_SUB
+                for (int i = bytesPerPixel; i < bytesPerRow; i++) {
+                    curr[i] += curr[i - bytesPerPixel];
+                }
+                break;
+            case 2: //PNG_FILTER_UP
+                for (int i = 0; i < bytesPerRow; i++) {
+                    curr[i] += prior[i];
+                }
+                break;
+            case 3: //PNG_FILTER_AVERAGE
+                for (int i = 0; i < bytesPerPixel; i++) {
+                    curr[i] += (byte) (prior[i] / 2);
+                }
+                for (int i = bytesPerPixel; i < bytesPerRow; i++) {
+                    curr[i] += (byte) (((curr[i - bytesPerPixel] & 0xff) + (prior[i] & 0xff))/2);
+                }
+                break;
+            case 4: //PNG_FILTER_PAETH
+                for (int i = 0; i < bytesPerPixel; i++) {
+                    curr[i] += prior[i];
+                }
+
+                for (int i = bytesPerPixel; i < bytesPerRow; i++) {
+                    int a = curr[i - bytesPerPixel] & 0xff;
+                    int b = prior[i] & 0xff;
+                    int c = prior[i - bytesPerPixel] & 0xff;
+
+                    int p = a + b - c;
+                    int pa = Math.abs(p - a);
+                    int pb = Math.abs(p - b);
+                    int pc = Math.abs(p - c);
+
+                    int ret;
+
+                    if (pa <= pb && pa <= pc) {
+                        ret = a;
+                    } else if (pb <= pc) {
+                        ret = b;
+                    } else {
+                        ret = c;
+                    }
+                    curr[i] += (byte)ret;
+                }
+                break;
+            default:
+                // Error -- unknown filter type
+                throw new PdfException(PdfException.PngFilterUnknown);
+        }
+    }
+
+    private static class LenientInflaterInputStream extends InflaterInputStream {
+
+        private static final int BUFFER_SIZE = 4096;
+
+        private boolean corrupted;
+
+        LenientInflaterInputStream(InputStream in) {
+            super(in, new Inflater(), BUFFER_SIZE);
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (corrupted) {
+                return -1;
+            }
+            try {
+                return super.read(b, off, len);
+            } catch (ZipException e) {
+                corrupted = true;
+            } catch (EOFException e) {
+                // Truncated data
+                corrupted = true;
+            }
+            return -1;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return corrupted ? 0 : super.available();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                inf.end();
+            }
+        }
+    }
 }
@@ -0,0 +1,70 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2016 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf.filters;
+
+import com.itextpdf.kernel.pdf.PdfDictionary;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfObject;
+
+import java.io.InputStream;
+
+/**
+ * A {@link IFilterHandler} which is also able to decode data incrementally, without holding the whole
+ * encoded or decoded content in memory. Handlers that implement this interface are chained as streams by
+ * {@link com.itextpdf.kernel.pdf.PdfReader#readStream(com.itextpdf.kernel.pdf.PdfStream, boolean)}.
+ */
+public interface IStreamFilterHandler extends IFilterHandler {
+
+    /**
+     * Wraps the stream with encoded data into a stream that returns the decoded data.
+     * Closing the returned stream closes the wrapped one.
+     *
+     * @param in the stream with the data that need to be decoded
+     * @param filterName PdfName of the filter
+     * @param decodeParams decode parameters
+     * @param streamDictionary the dictionary of the stream. Can contain additional information needed to decode the data.
+     * @return the stream with decoded data
+     */
+    InputStream decode(InputStream in, PdfName filterName, PdfObject decodeParams, PdfDictionary streamDictionary);
+}
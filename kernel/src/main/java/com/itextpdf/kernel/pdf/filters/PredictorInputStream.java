@@ -0,0 +1,221 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2016 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf.filters;
+
+import com.itextpdf.kernel.pdf.PdfDictionary;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfNumber;
+import com.itextpdf.kernel.pdf.PdfObject;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Streaming counterpart of {@link FlateDecodeFilter#decodePredictor(byte[], PdfObject)}.
+ * Keeps only the current and the previous rows in memory.
+ */
+class PredictorInputStream extends FilterInputStream {
+
+    private final boolean png;
+    private final int bytesPerPixel;
+    private byte[] curr;
+    private byte[] prior;
+    private int rowPosition;
+    private int rowLength;
+    private boolean endOfData;
+
+    private PredictorInputStream(InputStream in, boolean png, int bytesPerPixel, int bytesPerRow) {
+        super(in);
+        this.png = png;
+        this.bytesPerPixel = bytesPerPixel;
+        this.curr = new byte[bytesPerRow];
+        this.prior = new byte[bytesPerRow];
+    }
+
+    /**
+     * Wraps the stream into a stream reverting the prediction described by the decode parameters.
+     *
+     * @param in the stream to wrap
+     * @param decodeParams decode parameters of the filter
+     * @return the stream with decoded data or {@code in} itself if there is no prediction to revert
+     */
+    static InputStream create(InputStream in, PdfObject decodeParams) {
+        if (decodeParams == null || decodeParams.getType() != PdfObject.DICTIONARY)
+            return in;
+        PdfDictionary dic = (PdfDictionary) decodeParams;
+        PdfObject obj = dic.get(PdfName.Predictor);
+        if (obj == null || obj.getType() != PdfObject.NUMBER)
+            return in;
+        int predictor = ((PdfNumber) obj).intValue();
+        if (predictor < 10 && predictor != 2)
+            return in;
+        int width = 1;
+        obj = dic.get(PdfName.Columns);
+        if (obj != null && obj.getType() == PdfObject.NUMBER)
+            width = ((PdfNumber) obj).intValue();
+        int colors = 1;
+        obj = dic.get(PdfName.Colors);
+        if (obj != null && obj.getType() == PdfObject.NUMBER)
+            colors = ((PdfNumber) obj).intValue();
+        int bpc = 8;
+        obj = dic.get(PdfName.BitsPerComponent);
+        if (obj != null && obj.getType() == PdfObject.NUMBER)
+            bpc = ((PdfNumber) obj).intValue();
+        int bytesPerPixel = colors * bpc / 8;
+        int bytesPerRow = (colors * width * bpc + 7) / 8;
+        if (predictor == 2 && (bpc != 8 || bytesPerRow <= 0))
+            return in;
+        return new PredictorInputStream(in, predictor != 2, bytesPerPixel, bytesPerRow);
+    }
+
+    @Override
+    public int read() throws IOException {
+        while (rowPosition == rowLength) {
+            if (!nextRow()) {
+                return -1;
+            }
+        }
+        return curr[rowPosition++] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        while (rowPosition == rowLength) {
+            if (!nextRow()) {
+                return -1;
+            }
+        }
+        int n = Math.min(len, rowLength - rowPosition);
+        System.arraycopy(curr, rowPosition, b, off, n);
+        rowPosition += n;
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = 0;
+        while (skipped < n) {
+            if (rowPosition == rowLength && !nextRow()) {
+                break;
+            }
+            int step = (int) Math.min(n - skipped, rowLength - rowPosition);
+            rowPosition += step;
+            skipped += step;
+        }
+        return skipped;
+    }
+
+    @Override
+    public int available() throws IOException {
+        return rowLength - rowPosition;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public synchronized void mark(int readlimit) {
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+        throw new IOException("mark/reset not supported");
+    }
+
+    private boolean nextRow() throws IOException {
+        if (endOfData) {
+            return false;
+        }
+        rowPosition = 0;
+        rowLength = 0;
+        if (png) {
+            // The previously returned row becomes the prior one
+            byte[] tmp = prior;
+            prior = curr;
+            curr = tmp;
+            int filter = in.read();
+            if (filter < 0 || readRow() < curr.length) {
+                // An incomplete row is dropped
+                endOfData = true;
+                return false;
+            }
+            FlateDecodeFilter.decodePngRow(filter, curr, prior, bytesPerPixel);
+        } else {
+            int n = readRow();
+            if (n < curr.length) {
+                // An incomplete row is left as is
+                endOfData = true;
+                if (n <= 0) {
+                    return false;
+                }
+            } else {
+                for (int col = bytesPerPixel; col < curr.length; col++) {
+                    curr[col] = (byte) (curr[col] + curr[col - bytesPerPixel]);
+                }
+            }
+            rowLength = n;
+            return true;
+        }
+        rowLength = curr.length;
+        return true;
+    }
+
+    private int readRow() throws IOException {
+        int n = 0;
+        while (n < curr.length) {
+            int read = in.read(curr, n, curr.length - n);
+            if (read < 0) {
+                break;
+            }
+            n += read;
+        }
+        return n;
+    }
+}
@@ -48,11 +48,13 @@ import com.itextpdf.kernel.pdf.PdfName;
 import com.itextpdf.kernel.pdf.PdfObject;
 
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
 
 /**
  * Handles RunLengthDecode filter.
  */
-public class RunLengthDecodeFilter implements IFilterHandler {
+public class RunLengthDecodeFilter implements IStreamFilterHandler {
 
     @Override
     public byte[] decode(byte[] b, PdfName filterName, PdfObject decodeParams, PdfDictionary streamDictionary) {
@@ -64,11 +66,13 @@ public class RunLengthDecodeFilter implements IFilterHandler {
                 break;
             }
             if (dupCount >= 0) {
-                int bytesToCopy = dupCount + 1;
-                baos.write(b, i, bytesToCopy);
+                int bytesToCopy = Math.min(dupCount + 1, b.length - i - 1);
+                baos.write(b, i + 1, bytesToCopy);
                 i += bytesToCopy;
             } else {                // make dupcount copies of the next byte
-                i++;
+                if (++i == b.length) {
+                    break;
+                }
                 for (int j = 0; j < 1 - (int) (dupCount); j++) {
                     baos.write(b[i]);
                 }
@@ -76,4 +80,42 @@ public class RunLengthDecodeFilter implements IFilterHandler {
         }
         return baos.toByteArray();
     }
+
+    @Override
+    public InputStream decode(InputStream in, PdfName filterName, PdfObject decodeParams, PdfDictionary streamDictionary) {
+        return new RunLengthDecodeInputStream(in);
+    }
+
+    private static class RunLengthDecodeInputStream extends DecodingInputStream {
+
+        RunLengthDecodeInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        protected boolean decodeNext() throws IOException {
+            int dupCount = readEncoded();
+            if (dupCount == -1 || dupCount == 0x80) { // 0x80 is implicit end of data
+                return false;
+            }
+            if (dupCount < 0x80) {
+                for (int j = 0; j <= dupCount; j++) {
+                    int b = readEncoded();
+                    if (b == -1) {
+                        return false;
+                    }
+                    write(b);
+                }
+            } else {                // make dupcount copies of the next byte
+                int b = readEncoded();
+                if (b == -1) {
+                    return false;
+                }
+                for (int j = 0; j < 257 - dupCount; j++) {
+                    write(b);
+                }
+            }
+            return true;
+        }
+    }
 }
@@ -43,18 +43,48 @@
  */
 package com.itextpdf.kernel.utils;
 
+import com.itextpdf.kernel.PdfException;
+import com.itextpdf.kernel.pdf.PdfArray;
+import com.itextpdf.kernel.pdf.PdfDictionary;
 import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfObject;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.ReaderProperties;
 
+import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 
 public class PdfMerger {
 
+    /**
+     * Number of source documents per reading thread, which can be opened ahead of the one being merged.
+     */
+    private static final int PREFETCHED_DOCUMENTS_PER_THREAD = 2;
+
+    private static final AtomicInteger poolNumber = new AtomicInteger();
+
     private PdfDocument pdfDocument;
     private boolean closeSrcDocuments;
     private boolean mergeTags;
     private boolean mergeOutlines;
+    private ReaderProperties readerProperties = new ReaderProperties();
+    private int readingThreadsCount = Runtime.getRuntime().availableProcessors();
 
     /**
      * This class is used to merge a number of existing documents into one. By default, if source document
@@ -93,6 +123,78 @@ public class PdfMerger {
         return this;
     }
 
+    /**
+     * Sets the properties of the readers, which are created for the source files passed to {@link #mergeFiles(List)}.
+     * The properties are shared by all the readers, so they shall not be changed during the merge.
+     * @param readerProperties properties of the readers.
+     * @return this {@code PdfMerger} instance.
+     */
+    public PdfMerger setReaderProperties(ReaderProperties readerProperties) {
+        this.readerProperties = readerProperties;
+        return this;
+    }
+
+    /**
+     * Sets the number of threads, which open and parse the source files passed to {@link #mergeFiles(List)}.
+     * By default it is the number of available processors.
+     * @param readingThreadsCount the number of reading threads.
+     * @return this {@code PdfMerger} instance.
+     */
+    public PdfMerger setReadingThreadsCount(int readingThreadsCount) {
+        this.readingThreadsCount = Math.max(readingThreadsCount, 1);
+        return this;
+    }
+
+    /**
+     * This method merges all pages of the source files to the current document, in the order of the list.
+     * <br/><br/>
+     * The upcoming files are opened and their pages are parsed by background threads (see
+     * {@link #setReadingThreadsCount(int)}), while the pages of the current file are copied in the calling thread.
+     * Only two documents per reading thread are opened ahead, so the memory usage doesn't depend on the number
+     * of the files. The source documents are always closed after their pages are merged.
+     * @param sourceFiles - names of the files, from which pages will be copied.
+     * @return this {@code PdfMerger} instance.
+     */
+    public PdfMerger mergeFiles(List<String> sourceFiles) {
+        ExecutorService executor = Executors.newFixedThreadPool(readingThreadsCount, new ReadingThreadFactory());
+        int maxPrefetchedDocuments = readingThreadsCount * PREFETCHED_DOCUMENTS_PER_THREAD;
+        Deque<Future<PdfDocument>> prefetchedDocuments = new ArrayDeque<>(maxPrefetchedDocuments);
+        AtomicBoolean aborted = new AtomicBoolean();
+        int nextFile = 0;
+        try {
+            while (nextFile < sourceFiles.size() || !prefetchedDocuments.isEmpty()) {
+                while (nextFile < sourceFiles.size() && prefetchedDocuments.size() < maxPrefetchedDocuments) {
+                    prefetchedDocuments.addLast(executor.submit(new ReadingTask(sourceFiles.get(nextFile++), aborted)));
+                }
+                PdfDocument from = getPrefetchedDocument(prefetchedDocuments.removeFirst());
+                try {
+                    List<Integer> pages = new ArrayList<>(from.getNumberOfPages());
+                    for (int pageNum = 1; pageNum <= from.getNumberOfPages(); pageNum++) {
+                        pages.add(pageNum);
+                    }
+                    merge(from, pages, false);
+                } finally {
+                    from.close();
+                }
+            }
+        } finally {
+            // Documents are left in the queue only if merging failed. The tasks, which haven't started yet,
+            // skip reading, the others have to be waited for to close their documents.
+            aborted.set(true);
+            executor.shutdown();
+            for (Future<PdfDocument> document : prefetchedDocuments) {
+                try {
+                    PdfDocument from = getPrefetchedDocument(document);
+                    if (from != null) {
+                        from.close();
+                    }
+                } catch (RuntimeException ignored) {
+                }
+            }
+        }
+        return this;
+    }
+
     /**
      * This method merges pages from the source document to the current one.
      * <br/><br/>
@@ -121,6 +223,10 @@ public class PdfMerger {
      * @return this {@code PdfMerger} instance.
      */
     public PdfMerger merge(PdfDocument from, List<Integer> pages) {
+        return merge(from, pages, closeSrcDocuments);
+    }
+
+    private PdfMerger merge(PdfDocument from, List<Integer> pages, boolean closeFrom) {
         if (mergeTags && from.isTagged()) {
             pdfDocument.setTagged();
         }
@@ -129,7 +235,7 @@ public class PdfMerger {
         }
 
         from.copyPagesTo(pages, pdfDocument);
-        if (closeSrcDocuments) {
+        if (closeFrom) {
             from.close();
         }
         return this;
@@ -143,4 +249,92 @@ public class PdfMerger {
     public void close() {
         pdfDocument.close();
     }
+
+    private static PdfDocument getPrefetchedDocument(Future<PdfDocument> document) {
+        try {
+            return document.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PdfException(PdfException.IoException, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new PdfException(PdfException.IoException, e.getCause());
+        }
+    }
+
+    /**
+     * Reads the objects, which are referenced by the pages of the document, so that copying of the pages
+     * doesn't have to parse them. The parent page tree nodes aren't followed.
+     */
+    private static void readPageObjects(PdfDocument document) {
+        Set<PdfObject> visited = Collections.newSetFromMap(new IdentityHashMap<PdfObject, Boolean>());
+        Deque<PdfObject> stack = new ArrayDeque<>();
+        for (int pageNum = 1; pageNum <= document.getNumberOfPages(); pageNum++) {
+            stack.push(document.getPage(pageNum).getPdfObject());
+            while (!stack.isEmpty()) {
+                PdfObject object = stack.pop();
+                if (object.getIndirectReference() != null && !visited.add(object)) {
+                    continue;
+                }
+                if (object.isDictionary() || object.isStream()) {
+                    PdfDictionary dictionary = (PdfDictionary) object;
+                    for (PdfName key : dictionary.keySet()) {
+                        if (!PdfName.Parent.equals(key) && !PdfName.P.equals(key)) {
+                            pushValue(stack, dictionary.get(key));
+                        }
+                    }
+                } else if (object.isArray()) {
+                    PdfArray array = (PdfArray) object;
+                    for (int i = 0; i < array.size(); i++) {
+                        pushValue(stack, array.get(i));
+                    }
+                }
+            }
+        }
+    }
+
+    private static void pushValue(Deque<PdfObject> stack, PdfObject value) {
+        if (value != null && (value.isDictionary() || value.isStream() || value.isArray())) {
+            stack.push(value);
+        }
+    }
+
+    private class ReadingTask implements Callable<PdfDocument> {
+        private final String filename;
+        private final AtomicBoolean aborted;
+
+        ReadingTask(String filename, AtomicBoolean aborted) {
+            this.filename = filename;
+            this.aborted = aborted;
+        }
+
+        @Override
+        public PdfDocument call() throws IOException {
+            if (aborted.get()) {
+                return null;
+            }
+            PdfDocument document = new PdfDocument(new PdfReader(filename, readerProperties));
+            try {
+                readPageObjects(document);
+            } catch (RuntimeException e) {
+                document.close();
+                throw e;
+            }
+            return document;
+        }
+    }
+
+    private static class ReadingThreadFactory implements ThreadFactory {
+        private final String namePrefix = "itext-merger-reading-" + poolNumber.incrementAndGet() + "-";
+        private final AtomicInteger threadNumber = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, namePrefix + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
 }
@@ -1,7 +1,13 @@
 package com.itextpdf.kernel.pdf;
 
 import com.itextpdf.io.LogMessageConstant;
+import com.itextpdf.io.font.FontConstants;
+import com.itextpdf.io.source.ByteArrayOutputStream;
 import com.itextpdf.io.source.ByteUtils;
+import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
+import com.itextpdf.kernel.pdf.xobject.PdfFormXObject;
 import com.itextpdf.kernel.utils.CompareTool;
 import com.itextpdf.test.ExtendedITextTest;
 import com.itextpdf.test.annotations.LogMessage;
@@ -12,6 +18,7 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.util.Arrays;
 
@@ -195,4 +202,94 @@ public class PdfCopyTest extends ExtendedITextTest {
         assertNull(new CompareTool().compareByContent(destinationFolder + "copySamePageWithAnnotationsSeveralTimes.pdf", sourceFolder + "cmp_copySamePageWithAnnotationsSeveralTimes.pdf", destinationFolder, "diff_"));
     }
 
+    @Test
+    public void smartModeCopyTest() throws IOException {
+        String outFileName = destinationFolder + "smartModeCopyTest.pdf";
+        PdfWriter writer = new PdfWriter(outFileName);
+        writer.setSmartMode(true);
+        PdfDocument pdfDoc = new PdfDocument(writer);
+        for (int i = 0; i < 4; i++) {
+            PdfDocument srcDoc = new PdfDocument(new PdfReader(new ByteArrayInputStream(createSmartModeSource(i % 2))));
+            srcDoc.copyPagesTo(1, 1, pdfDoc);
+            srcDoc.close();
+        }
+        pdfDoc.close();
+
+        PdfDocument resultDoc = new PdfDocument(new PdfReader(outFileName));
+        PdfIndirectReference[] contents = new PdfIndirectReference[4];
+        PdfIndirectReference[] fonts = new PdfIndirectReference[4];
+        PdfIndirectReference[] forms = new PdfIndirectReference[4];
+        PdfIndirectReference[] chains = new PdfIndirectReference[4];
+        for (int i = 0; i < 4; i++) {
+            PdfDictionary page = resultDoc.getPage(i + 1).getPdfObject();
+            PdfDictionary resources = page.getAsDictionary(PdfName.Resources);
+            contents[i] = (PdfIndirectReference) page.get(PdfName.Contents, false);
+            fonts[i] = (PdfIndirectReference) resources.getAsDictionary(PdfName.Font).get(new PdfName("F1"), false);
+            forms[i] = (PdfIndirectReference) resources.getAsDictionary(PdfName.XObject).get(new PdfName("Fm1"), false);
+            chains[i] = (PdfIndirectReference) page.get(new PdfName("Chain"), false);
+        }
+        resultDoc.close();
+
+        for (int i = 1; i < 4; i++) {
+            Assert.assertNotNull(contents[i]);
+            assertEquals(contents[0], contents[i]);
+            assertEquals(fonts[0], fonts[i]);
+            assertEquals(chains[0], chains[i]);
+        }
+        assertEquals(forms[0], forms[2]);
+        assertEquals(forms[1], forms[3]);
+        Assert.assertNotEquals(forms[0], forms[1]);
+    }
+
+    @Test
+    public void smartModeCyclicReferencesTest() {
+        PdfDocument pdfDoc = new PdfDocument(new PdfWriter(new ByteArrayOutputStream()));
+        pdfDoc.addNewPage();
+        // X1 = <</K [Y1]>>, Y1 = <</A X1>>
+        PdfDictionary x1 = createCycle(pdfDoc, false);
+        // X2 = <</K [Y2]>>, Y2 = <</A Y2>>
+        PdfDictionary x2 = createCycle(pdfDoc, true);
+        PdfDictionary x3 = createCycle(pdfDoc, false);
+
+        SmartModeObjectsHasher hasher = new SmartModeObjectsHasher();
+        SmartModeObjectsHasher.ObjectDigest digest1 = hasher.getDigest(x1);
+        Assert.assertNotEquals(digest1, hasher.getDigest(x2));
+        assertEquals(digest1, hasher.getDigest(x3));
+        pdfDoc.close();
+    }
+
+    private static PdfDictionary createCycle(PdfDocument pdfDoc, boolean selfReference) {
+        PdfDictionary x = new PdfDictionary();
+        PdfDictionary y = new PdfDictionary();
+        x.makeIndirect(pdfDoc);
+        y.makeIndirect(pdfDoc);
+        x.put(new PdfName("K"), new PdfArray(y));
+        y.put(new PdfName("A"), selfReference ? y : x);
+        return x;
+    }
+
+    private static byte[] createSmartModeSource(int formVariant) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfDocument pdfDoc = new PdfDocument(new PdfWriter(baos));
+        PdfPage page = pdfDoc.addNewPage();
+
+        PdfFormXObject form = new PdfFormXObject(new Rectangle(100, 100));
+        new PdfCanvas(form, pdfDoc).rectangle(10, 10, 10 + formVariant * 10, 50).fill();
+        new PdfCanvas(page)
+                .beginText().setFontAndSize(PdfFontFactory.createFont(FontConstants.HELVETICA), 12)
+                .moveText(36, 700).showText("Hello").endText()
+                .addXObject(form, 36, 500);
+
+        // objects referring to each other
+        PdfDictionary first = new PdfDictionary();
+        PdfDictionary second = new PdfDictionary();
+        first.makeIndirect(pdfDoc);
+        second.makeIndirect(pdfDoc);
+        first.put(new PdfName("Next"), second);
+        second.put(new PdfName("Prev"), first);
+        page.getPdfObject().put(new PdfName("Chain"), first);
+
+        pdfDoc.close();
+        return baos.toByteArray();
+    }
 }
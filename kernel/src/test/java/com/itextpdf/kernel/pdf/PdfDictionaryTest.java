@@ -4,10 +4,14 @@ import com.itextpdf.io.source.ByteArrayOutputStream;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
 
 public class PdfDictionaryTest {
 
@@ -420,4 +424,61 @@ public class PdfDictionaryTest {
         Assert.assertEquals(0, dict.values().size());
         Assert.assertEquals(0, dict.size());
     }
+
+    @Test
+    public void testLargeDictionary() {
+        PdfDictionary dict = new PdfDictionary();
+        Map<PdfName, PdfObject> expected = new TreeMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 2000; i++) {
+            PdfName key = new PdfName("Key" + random.nextInt(40));
+            if (random.nextInt(3) == 0) {
+                Assert.assertEquals(expected.remove(key), dict.remove(key));
+            } else {
+                PdfNumber value = new PdfNumber(i);
+                Assert.assertEquals(expected.put(key, value), dict.put(key, value));
+            }
+            Assert.assertEquals(expected.size(), dict.size());
+            Assert.assertEquals(expected.containsKey(key), dict.containsKey(key));
+            Assert.assertEquals(expected.get(key), dict.get(key));
+        }
+        Assert.assertEquals(expected.keySet(), dict.keySet());
+        Assert.assertEquals(new ArrayList<>(expected.keySet()), new ArrayList<>(dict.getSortedKeys()));
+    }
+
+    @Test
+    public void testKeySetIteratorRemove() {
+        for (int size : new int[] {6, 30}) {
+            PdfDictionary dict = new PdfDictionary();
+            for (int i = 0; i < size; i++) {
+                dict.put(new PdfName("Key" + i), new PdfNumber(i));
+            }
+            Iterator<PdfName> iterator = dict.keySet().iterator();
+            while (iterator.hasNext()) {
+                if (dict.getAsNumber(iterator.next()).intValue() % 2 == 0) {
+                    iterator.remove();
+                }
+            }
+            Assert.assertEquals(size / 2, dict.size());
+            for (int i = 0; i < size; i++) {
+                Assert.assertEquals(i % 2 != 0, dict.containsKey(new PdfName("Key" + i)));
+            }
+        }
+    }
+
+    @Test
+    public void testLargeDictionaryIsWrittenSorted() {
+        PdfDictionary dict = new PdfDictionary();
+        StringBuilder expected = new StringBuilder("<<");
+        for (int i = 30; i > 0; i--) {
+            dict.put(new PdfName(String.format("K%02d", i)), new PdfNumber(i));
+        }
+        for (int i = 1; i <= 30; i++) {
+            expected.append(String.format("/K%02d %d", i, i));
+        }
+        expected.append(">>");
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        new PdfOutputStream(baos).write(dict);
+        Assert.assertEquals(expected.toString(), new String(baos.toByteArray(), StandardCharsets.ISO_8859_1));
+    }
 }
@@ -4,6 +4,12 @@ import com.itextpdf.io.font.FontConstants;
 import com.itextpdf.kernel.crypto.CryptoUtil;
 import com.itextpdf.kernel.PdfException;
 import com.itextpdf.kernel.crypto.BadPasswordException;
+import com.itextpdf.kernel.crypto.IDecryptor;
+import com.itextpdf.kernel.crypto.ObjectEncryptionKey;
+import com.itextpdf.kernel.crypto.OutputStreamEncryption;
+import com.itextpdf.kernel.crypto.OutputStreamStandardEncryption;
+import com.itextpdf.kernel.crypto.StandardDecryptor;
+import com.itextpdf.kernel.crypto.securityhandler.SecurityHandler;
 import com.itextpdf.kernel.font.PdfFontFactory;
 import com.itextpdf.kernel.utils.CompareTool;
 import com.itextpdf.kernel.xmp.XMPException;
@@ -18,14 +24,24 @@ import org.junit.Test;
 import org.junit.experimental.categories.Category;
 import org.junit.rules.ExpectedException;
 
+import java.io.ByteArrayOutputStream;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 import java.security.GeneralSecurityException;
 import java.security.PrivateKey;
 import java.security.Security;
 import java.security.cert.Certificate;
 import java.security.cert.CertificateException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.junit.Assert.fail;
 
@@ -275,6 +291,94 @@ public class PdfEncryptionTest extends ExtendedITextTest{
         doc.close();
     }
 
+    @Test
+    public void objectKeyMatchesHashKeyForNextObject() {
+        int[] encryptionTypes = {EncryptionConstants.STANDARD_ENCRYPTION_40, EncryptionConstants.STANDARD_ENCRYPTION_128,
+                EncryptionConstants.ENCRYPTION_AES_128, EncryptionConstants.ENCRYPTION_AES_256};
+        byte[] data = "Object content".getBytes(StandardCharsets.ISO_8859_1);
+        for (int encryptionType : encryptionTypes) {
+            PdfEncryption encryption = new PdfEncryption(USER, OWNER, EncryptionConstants.ALLOW_PRINTING, encryptionType,
+                    PdfEncryption.generateNewDocumentId());
+            for (int objNumber = 1; objNumber < 20; objNumber++) {
+                ObjectEncryptionKey objectKey = encryption.computeObjectKey(objNumber, objNumber % 2);
+                encryption.setHashKeyForNextObject(objNumber, objNumber % 2);
+                byte[] encrypted = encryption.encryptByteArray(data);
+                Assert.assertArrayEquals(data, encryption.decryptByteArray(encrypted, objectKey));
+                Assert.assertArrayEquals(data, encryption.decryptByteArray(encryption.encryptByteArray(data, objectKey)));
+                if (encryptionType == EncryptionConstants.STANDARD_ENCRYPTION_40 || encryptionType == EncryptionConstants.STANDARD_ENCRYPTION_128) {
+                    // RC4 doesn't use a random initialization vector
+                    Assert.assertArrayEquals(encrypted, encryption.encryptByteArray(data, objectKey));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void objectKeyWithHandlerWithoutKeyedMethods() throws IOException {
+        // a handler, which implements only the methods using the key of the next object
+        SecurityHandler handler = new SecurityHandler() {
+            {
+                mkey = "Global key".getBytes(StandardCharsets.ISO_8859_1);
+            }
+
+            @Override
+            public OutputStreamEncryption getEncryptionStream(OutputStream os) {
+                return new OutputStreamStandardEncryption(os, nextObjectKey, 0, nextObjectKeySize);
+            }
+
+            @Override
+            public IDecryptor getDecryptor() {
+                return new StandardDecryptor(nextObjectKey, 0, nextObjectKeySize);
+            }
+        };
+        byte[] data = "Object content".getBytes(StandardCharsets.ISO_8859_1);
+        ByteArrayOutputStream encrypted = new ByteArrayOutputStream();
+        OutputStreamEncryption encryptionStream = handler.getEncryptionStream(encrypted, handler.computeObjectKey(5, 0));
+        encryptionStream.write(data);
+        encryptionStream.finish();
+
+        handler.setHashKeyForNextObject(5, 0);
+        // the keyed methods don't change the key of the next object set by the caller
+        handler.getDecryptor(handler.computeObjectKey(6, 0));
+        handler.getEncryptionStream(new ByteArrayOutputStream(), handler.computeObjectKey(7, 0));
+        IDecryptor decryptor = handler.getDecryptor();
+        Assert.assertArrayEquals(data, decryptor.update(encrypted.toByteArray(), 0, encrypted.size()));
+        Assert.assertArrayEquals(data, handler.getDecryptor(handler.computeObjectKey(5, 0)).update(encrypted.toByteArray(), 0, encrypted.size()));
+    }
+
+    @Test
+    public void concurrentObjectEncryption() throws InterruptedException, ExecutionException {
+        final PdfEncryption encryption = new PdfEncryption(USER, OWNER, EncryptionConstants.ALLOW_PRINTING,
+                EncryptionConstants.ENCRYPTION_AES_128, PdfEncryption.generateNewDocumentId());
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                final int firstObject = i * 100 + 1;
+                results.add(executor.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() {
+                        for (int objNumber = firstObject; objNumber < firstObject + 100; objNumber++) {
+                            byte[] data = ("Object " + objNumber).getBytes(StandardCharsets.ISO_8859_1);
+                            byte[] encrypted = encryption.encryptByteArray(data, encryption.computeObjectKey(objNumber, 0));
+                            // Changes of the shared state shall not affect the keyed calls
+                            encryption.setHashKeyForNextObject(objNumber + 1, 0);
+                            if (!Arrays.equals(data, encryption.decryptByteArray(encrypted, encryption.computeObjectKey(objNumber, 0)))) {
+                                return false;
+                            }
+                        }
+                        return true;
+                    }
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                Assert.assertTrue(result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
     public void encryptWithPassword(String filename, int encryptionType, int compression) throws XMPException, IOException, InterruptedException {
         String outFileName = destinationFolder + filename;
         int permissions = EncryptionConstants.ALLOW_SCREENREADERS;
@@ -20,4 +20,18 @@ public class PdfNameTest extends ITextTest {
         Assert.assertEquals(str2, createStringByEscaped(name2.getInternalContent()));
     }
 
+    @Test
+    public void hashCodeTest() {
+        String[] values = {"Type", "A B", "Name#With/Special()", "\u00e9t\u00e9", ""};
+        for (String value : values) {
+            PdfName name = new PdfName(value);
+            PdfName nameFromContent = new PdfName(new PdfName(value).getInternalContent());
+            Assert.assertEquals(value.hashCode(), nameFromContent.hashCode());
+            Assert.assertEquals(name.hashCode(), nameFromContent.hashCode());
+            Assert.assertEquals(name, nameFromContent);
+            Assert.assertEquals(value, nameFromContent.getValue());
+        }
+        Assert.assertNotEquals(new PdfName("A"), new PdfName("B"));
+    }
+
 }
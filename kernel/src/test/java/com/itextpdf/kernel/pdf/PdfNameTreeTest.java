@@ -0,0 +1,176 @@
+package com.itextpdf.kernel.pdf;
+
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.type.IntegrationTest;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.io.IOException;
+import java.util.Map;
+
+@Category(IntegrationTest.class)
+public class PdfNameTreeTest extends ExtendedITextTest {
+    public static final String destinationFolder = "./target/test/com/itextpdf/kernel/pdf/PdfNameTreeTest/";
+
+    private static final int NAMES_COUNT = 1000;
+
+    @BeforeClass
+    public static void setup() {
+        createDestinationFolder(destinationFolder);
+    }
+
+    @Test
+    public void lazyNameLookupTest() throws IOException {
+        String filename = destinationFolder + "lazyNameLookupTest.pdf";
+        createDocumentWithNamedDestinations(filename);
+
+        PdfDocument pdfDoc = new PdfDocument(new PdfReader(filename));
+        PdfNameTree destsTree = pdfDoc.getCatalog().getNameTree(PdfName.Dests);
+        PdfArray dest = (PdfArray) destsTree.getEntry(getName(500));
+        Assert.assertNotNull(dest);
+        Assert.assertEquals(500 % 10 + 1, pdfDoc.getPageNumber(dest.getAsDictionary(0)));
+        Assert.assertNull(destsTree.getEntry("missing"));
+        Assert.assertNull(destsTree.getEntry(getName(500) + "a"));
+
+        // only the kids probed by the binary search over /Limits are read
+        PdfArray leaves = pdfDoc.getCatalog().getPdfObject().getAsDictionary(PdfName.Names).getAsDictionary(PdfName.Dests).getAsArray(PdfName.Kids);
+        int readLeaves = 0;
+        for (int i = 0; i < leaves.size(); i++) {
+            if (((PdfIndirectReference) leaves.get(i, false)).refersTo != null) {
+                readLeaves++;
+            }
+        }
+        Assert.assertTrue(leaves.size() > 10);
+        Assert.assertTrue(readLeaves < leaves.size() / 2);
+
+        Map<String, PdfObject> names = destsTree.getNames();
+        Assert.assertEquals(NAMES_COUNT, names.size());
+        Assert.assertSame(dest, names.get(getName(500)));
+        pdfDoc.close();
+    }
+
+    @Test
+    public void appendNamedDestinationsTest() throws IOException {
+        String src = destinationFolder + "appendNamedDestinationsTestSrc.pdf";
+        String filename = destinationFolder + "appendNamedDestinationsTest.pdf";
+        createDocumentWithNamedDestinations(src);
+
+        PdfDocument pdfDoc = new PdfDocument(new PdfReader(src), new PdfWriter(filename), new StampingProperties().useAppendMode());
+        for (int i = -1; i < NAMES_COUNT; i += 5) {
+            pdfDoc.addNamedDestination(getName(i) + "a", createDestination(pdfDoc, pdfDoc.getPage(1)));
+        }
+        pdfDoc.addNamedDestination("zzz", createDestination(pdfDoc, pdfDoc.getPage(2)));
+        pdfDoc.close();
+
+        pdfDoc = new PdfDocument(new PdfReader(filename));
+        PdfNameTree destsTree = pdfDoc.getCatalog().getNameTree(PdfName.Dests);
+        for (int i = -1; i < NAMES_COUNT; i++) {
+            if (i >= 0) {
+                Assert.assertNotNull(getName(i), destsTree.getEntry(getName(i)));
+            }
+            if ((i + 1) % 5 == 0) {
+                Assert.assertNotNull(getName(i) + "a", destsTree.getEntry(getName(i) + "a"));
+            }
+        }
+        Assert.assertNotNull(destsTree.getEntry("zzz"));
+        Assert.assertEquals(NAMES_COUNT + NAMES_COUNT / 5 + 2, destsTree.getNames().size());
+        pdfDoc.close();
+    }
+
+    @Test
+    public void nonAsciiNameLookupTest() throws IOException {
+        String src = destinationFolder + "nonAsciiNameLookupTestSrc.pdf";
+        String filename = destinationFolder + "nonAsciiNameLookupTest.pdf";
+        // in PDFDocEncoding the bullet is 0x80, so it precedes the e with acute accent, unlike in unicode;
+        // the chinese character isn't in PDFDocEncoding and is written in UTF-16BE
+        String[] suffixes = {"", "\u00e9", "\u2022", "\u4e2d"};
+
+        PdfDocument pdfDoc = new PdfDocument(new PdfWriter(src));
+        pdfDoc.addNewPage();
+        for (int i = 0; i < 100; i++) {
+            pdfDoc.addNamedDestination(getName(i) + suffixes[i % 4], createDestination(pdfDoc, pdfDoc.getPage(1)));
+        }
+        pdfDoc.close();
+
+        pdfDoc = new PdfDocument(new PdfReader(src), new PdfWriter(filename), new StampingProperties().useAppendMode());
+        for (int i = 0; i < 100; i++) {
+            pdfDoc.addNamedDestination(getName(i) + suffixes[(i + 1) % 4], createDestination(pdfDoc, pdfDoc.getPage(1)));
+        }
+        pdfDoc.close();
+
+        pdfDoc = new PdfDocument(new PdfReader(filename));
+        PdfNameTree destsTree = pdfDoc.getCatalog().getNameTree(PdfName.Dests);
+        for (int i = 0; i < 100; i++) {
+            Assert.assertNotNull(getName(i) + suffixes[i % 4], destsTree.getEntry(getName(i) + suffixes[i % 4]));
+            Assert.assertNotNull(getName(i) + suffixes[(i + 1) % 4], destsTree.getEntry(getName(i) + suffixes[(i + 1) % 4]));
+            Assert.assertNull(destsTree.getEntry(getName(i) + suffixes[(i + 2) % 4]));
+        }
+
+        // the kids are ordered by the bytes of their limits
+        PdfArray kids = pdfDoc.getCatalog().getPdfObject().getAsDictionary(PdfName.Names).getAsDictionary(PdfName.Dests).getAsArray(PdfName.Kids);
+        Assert.assertTrue(kids.size() > 1);
+        for (int i = 1; i < kids.size(); i++) {
+            String previousMax = new String(kids.getAsDictionary(i - 1).getAsArray(PdfName.Limits).getAsString(1).getValueBytes(), "ISO-8859-1");
+            String min = new String(kids.getAsDictionary(i).getAsArray(PdfName.Limits).getAsString(0).getValueBytes(), "ISO-8859-1");
+            Assert.assertTrue(previousMax.compareTo(min) < 0);
+        }
+        Assert.assertEquals(200, destsTree.getNames().size());
+        pdfDoc.close();
+    }
+
+    @Test
+    public void appendPageLabelsTest() throws IOException {
+        String src = destinationFolder + "appendPageLabelsTestSrc.pdf";
+        String filename = destinationFolder + "appendPageLabelsTest.pdf";
+
+        PdfDocument pdfDoc = new PdfDocument(new PdfWriter(src));
+        for (int i = 0; i < 200; i++) {
+            PdfPage page = pdfDoc.addNewPage();
+            if (i % 2 == 0) {
+                page.setPageLabel(PageLabelNumberingStyleConstants.DECIMAL_ARABIC_NUMERALS, "P" + i + "-");
+            }
+        }
+        pdfDoc.close();
+
+        pdfDoc = new PdfDocument(new PdfReader(src), new PdfWriter(filename), new StampingProperties().useAppendMode());
+        pdfDoc.getPage(100).setPageLabel(PageLabelNumberingStyleConstants.UPPERCASE_ROMAN_NUMERALS, "R-");
+        pdfDoc.close();
+
+        pdfDoc = new PdfDocument(new PdfReader(filename));
+        PdfNumTree pageLabelsTree = pdfDoc.getCatalog().getPageLabelsTree(false);
+        Assert.assertNotNull(pageLabelsTree.getEntry(0));
+        Assert.assertNotNull(pageLabelsTree.getEntry(198));
+        Assert.assertNull(pageLabelsTree.getEntry(1));
+        Assert.assertEquals(new PdfString("R-"), ((PdfDictionary) pageLabelsTree.getEntry(99)).getAsString(PdfName.P));
+        Assert.assertEquals(101, pageLabelsTree.getNumbers().size());
+        String[] pageLabels = pdfDoc.getPageLabels();
+        Assert.assertEquals("P0-1", pageLabels[0]);
+        Assert.assertEquals("R-I", pageLabels[99]);
+        Assert.assertEquals("P198-1", pageLabels[198]);
+        pdfDoc.close();
+    }
+
+    private static void createDocumentWithNamedDestinations(String filename) throws IOException {
+        PdfDocument pdfDoc = new PdfDocument(new PdfWriter(filename));
+        for (int i = 0; i < 10; i++) {
+            pdfDoc.addNewPage();
+        }
+        for (int i = 0; i < NAMES_COUNT; i++) {
+            pdfDoc.addNamedDestination(getName(i), createDestination(pdfDoc, pdfDoc.getPage(i % 10 + 1)));
+        }
+        pdfDoc.close();
+    }
+
+    private static PdfArray createDestination(PdfDocument pdfDoc, PdfPage page) {
+        PdfArray array = new PdfArray();
+        array.add(page.getPdfObject());
+        array.add(PdfName.Fit);
+        return array.makeIndirect(pdfDoc);
+    }
+
+    private static String getName(int i) {
+        return String.format("dest%04d", i);
+    }
+}
@@ -2,6 +2,9 @@ package com.itextpdf.kernel.pdf;
 
 import com.itextpdf.io.LogMessageConstant;
 import com.itextpdf.kernel.PdfException;
+import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.kernel.pdf.action.PdfAction;
+import com.itextpdf.kernel.pdf.annot.PdfLinkAnnotation;
 import com.itextpdf.kernel.pdf.extgstate.PdfExtGState;
 import com.itextpdf.kernel.utils.CompareTool;
 import com.itextpdf.test.ExtendedITextTest;
@@ -15,6 +18,7 @@ import org.junit.experimental.categories.Category;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 
@@ -254,6 +258,152 @@ public class PdfPagesTest extends ExtendedITextTest{
         verifyPagesOrder(destinationFolder + filename, pageCount - 1);
     }
 
+    @Test
+    public void balancedTreeTest() throws IOException {
+        String filename = "balancedTreeTest.pdf";
+        int pageCount = 2000;
+        int leafSize = 4;
+
+        PdfDocument pdfDoc = new PdfDocument(new PdfWriter(destinationFolder + filename,
+                new WriterProperties().setPagesTreeLeafSize(leafSize)));
+        // odd pages are appended, even pages are inserted in the middle of the document afterwards
+        for (int i = 1; i <= pageCount; i += 2) {
+            pdfDoc.addNewPage().getPdfObject().put(PageNum, new PdfNumber(i));
+        }
+        for (int i = pageCount; i >= 2; i -= 2) {
+            pdfDoc.addNewPage(i / 2 + 1).getPdfObject().put(PageNum, new PdfNumber(i));
+        }
+        PdfPage extraPage = pdfDoc.addNewPage(pageCount / 2);
+        Assert.assertEquals(pageCount / 2, pdfDoc.getPageNumber(extraPage));
+        pdfDoc.removePage(extraPage);
+        Assert.assertEquals(0, pdfDoc.getPageNumber(extraPage));
+
+        Assert.assertEquals(pageCount, pdfDoc.getNumberOfPages());
+        Assert.assertEquals(-1, verifyIntegrity(pdfDoc.getCatalog().getPageTree()));
+        for (int i = 1; i <= pageCount; i++) {
+            PdfPage page = pdfDoc.getPage(i);
+            Assert.assertEquals(i, page.getPdfObject().getAsNumber(PageNum).intValue());
+            Assert.assertEquals(i, pdfDoc.getPageNumber(page));
+        }
+        int depth = verifyBalance(pdfDoc.getCatalog().getPageTree().getRoot().getPdfObject(), leafSize);
+        Assert.assertTrue(depth <= 1 + (int) Math.ceil(Math.log(pageCount) / Math.log(leafSize / 2)));
+        pdfDoc.close();
+
+        verifyPagesOrder(destinationFolder + filename, pageCount);
+    }
+
+    @Test
+    public void removeHeavyTreeTest() throws IOException {
+        String filename = "removeHeavyTreeTest.pdf";
+        int leafSize = 6;
+        int pageCount = leafSize * leafSize * leafSize * leafSize;
+        int remainingCount = 100;
+
+        PdfDocument pdfDoc = new PdfDocument(new PdfWriter(destinationFolder + filename,
+                new WriterProperties().setPagesTreeLeafSize(leafSize)));
+        List<Integer> pageNumbers = new ArrayList<>();
+        for (int i = 1; i <= pageCount; i++) {
+            pdfDoc.addNewPage().getPdfObject().put(PageNum, new PdfNumber(i));
+            pageNumbers.add(i);
+        }
+        Random rnd = new Random(pageCount);
+        while (pageNumbers.size() > remainingCount) {
+            int index = rnd.nextInt(pageNumbers.size());
+            pdfDoc.removePage(index + 1);
+            pageNumbers.remove(index);
+            if (pageNumbers.size() % 50 == 0) {
+                verifyNodeSizes(pdfDoc.getCatalog().getPageTree().getRoot(), leafSize);
+            }
+        }
+
+        PdfPagesTree pagesTree = pdfDoc.getCatalog().getPageTree();
+        Assert.assertEquals(-1, verifyIntegrity(pagesTree));
+        for (int i = 1; i <= remainingCount; i++) {
+            PdfPage page = pdfDoc.getPage(i);
+            Assert.assertEquals((int) pageNumbers.get(i - 1), page.getPdfObject().getAsNumber(PageNum).intValue());
+            Assert.assertEquals(i, pdfDoc.getPageNumber(page));
+            page.getPdfObject().put(PageNum, new PdfNumber(i));
+        }
+        int depth = verifyBalance(pagesTree.getRoot().getPdfObject(), leafSize);
+        Assert.assertTrue(depth <= 1 + (int) Math.ceil(Math.log(remainingCount / 2) / Math.log(leafSize / 2)));
+        pdfDoc.close();
+
+        verifyPagesOrder(destinationFolder + filename, remainingCount);
+    }
+
+    @Test
+    public void insertNextToFlushedPagesTest() throws IOException {
+        String filename = "insertNextToFlushedPagesTest.pdf";
+        int leafSize = 6;
+
+        PdfDocument pdfDoc = new PdfDocument(new PdfWriter(destinationFolder + filename,
+                new WriterProperties().setPagesTreeLeafSize(leafSize)));
+        List<PdfIndirectReference> pageReferences = new ArrayList<>();
+        for (int i = 0; i < leafSize; i++) {
+            pageReferences.add(pdfDoc.addNewPage().getPdfObject().getIndirectReference());
+        }
+        // the flushed page can't be moved, the pages before and after it are moved to new nodes instead
+        PdfPage flushedPage = pdfDoc.getPage(leafSize / 2 + 1);
+        flushedPage.flush();
+        for (int i = 0; i < 10 * leafSize; i++) {
+            int index = i % 2 == 0 ? 2 : pdfDoc.getPageNumber(flushedPage) + 1;
+            pageReferences.add(index - 1, pdfDoc.addNewPage(index).getPdfObject().getIndirectReference());
+            verifyNodeSizes(pdfDoc.getCatalog().getPageTree().getRoot(), -1, leafSize);
+        }
+
+        for (int i = 1; i <= pageReferences.size(); i++) {
+            Assert.assertEquals(pageReferences.get(i - 1), pdfDoc.getPage(i).getPdfObject().getIndirectReference());
+        }
+        pdfDoc.close();
+
+        PdfDocument resultDoc = new PdfDocument(new PdfReader(destinationFolder + filename));
+        Assert.assertEquals(pageReferences.size(), resultDoc.getNumberOfPages());
+        verifyBalance(resultDoc.getCatalog().getPdfObject().getAsDictionary(PdfName.Pages), leafSize);
+        resultDoc.close();
+    }
+
+    @Test
+    public void streamingModeTest() throws IOException {
+        String filename = "streamingModeTest.pdf";
+        int pageCount = 100;
+
+        PdfDocument pdfDoc = new PdfDocument(new PdfWriter(destinationFolder + filename,
+                new WriterProperties().useStreamingMode()));
+        for (int i = 1; i <= pageCount; i++) {
+            PdfPage page = pdfDoc.addNewPage();
+            page.getPdfObject().put(PageNum, new PdfNumber(i));
+            PdfIndirectReference contentStream = page.getFirstContentStream().getIndirectReference();
+            PdfLinkAnnotation link = new PdfLinkAnnotation(new Rectangle(36, 700, 100, 20))
+                    .setAction(PdfAction.createURI("http://itextpdf.com/" + i));
+            page.addAnnotation(link);
+            page.flush();
+
+            Assert.assertNull(contentStream.getRefersTo(false));
+            Assert.assertTrue(link.getPdfObject().isFlushed());
+            Assert.assertNull(link.getPdfObject().getIndirectReference().getRefersTo(false));
+            PdfPage releasedPage = pdfDoc.getPage(i);
+            Assert.assertNotSame(page, releasedPage);
+            Assert.assertTrue(releasedPage.isFlushed());
+            Assert.assertEquals(page.getPdfObject(), releasedPage.getPdfObject());
+            Assert.assertEquals(i, pdfDoc.getPageNumber(page));
+            Assert.assertEquals(i, pdfDoc.getPageNumber(releasedPage));
+        }
+        PdfPage lastPage = pdfDoc.addNewPage();
+        lastPage.getPdfObject().put(PageNum, new PdfNumber(pageCount + 1));
+        Assert.assertSame(lastPage, pdfDoc.getPage(pageCount + 1));
+        pdfDoc.close();
+
+        verifyPagesOrder(destinationFolder + filename, pageCount + 1);
+
+        PdfDocument resultDoc = new PdfDocument(new PdfReader(destinationFolder + filename));
+        for (int i = 1; i <= pageCount; i++) {
+            PdfDictionary annotation = resultDoc.getPage(i).getPdfObject().getAsArray(PdfName.Annots).getAsDictionary(0);
+            Assert.assertEquals(new PdfString("http://itextpdf.com/" + i),
+                    annotation.getAsDictionary(PdfName.A).getAsString(PdfName.URI));
+        }
+        resultDoc.close();
+    }
+
     void verifyPagesOrder(String filename, int numOfPages) throws IOException {
         PdfReader reader = new PdfReader(filename);
         PdfDocument pdfDocument = new PdfDocument(reader);
@@ -281,6 +431,53 @@ public class PdfPagesTest extends ExtendedITextTest{
         return -1;
     }
 
+    /**
+     * Checks that the nodes of the page tree have at most {@code leafSize} kids and all pages have the same depth.
+     *
+     * @return depth of the pages.
+     */
+    int verifyBalance(PdfDictionary node, int leafSize) {
+        PdfArray kids = node.getAsArray(PdfName.Kids);
+        Assert.assertTrue(kids.size() <= leafSize);
+        int depth = -1;
+        int count = 0;
+        for (int i = 0; i < kids.size(); i++) {
+            PdfDictionary kid = kids.getAsDictionary(i);
+            Assert.assertEquals(node, kid.getAsDictionary(PdfName.Parent));
+            int kidDepth = 1;
+            if (PdfName.Pages.equals(kid.getAsName(PdfName.Type))) {
+                kidDepth += verifyBalance(kid, leafSize);
+                count += kid.getAsNumber(PdfName.Count).intValue();
+            } else {
+                count++;
+            }
+            Assert.assertTrue(depth == -1 || depth == kidDepth);
+            depth = kidDepth;
+        }
+        Assert.assertEquals(count, node.getAsNumber(PdfName.Count).intValue());
+        return depth;
+    }
+
+    /**
+     * Checks that the nodes of the page tree have at most {@code leafSize} kids, and the nodes except the root
+     * have at least half of that.
+     */
+    void verifyNodeSizes(PdfPages node, int leafSize) {
+        verifyNodeSizes(node, leafSize / 2, leafSize);
+    }
+
+    void verifyNodeSizes(PdfPages node, int minKidsCount, int maxKidsCount) {
+        Assert.assertTrue(node.getKidsCount() <= maxKidsCount);
+        if (node.getParent() != null) {
+            Assert.assertTrue(node.getKidsCount() >= minKidsCount);
+        }
+        if (!node.isLeaf()) {
+            for (int i = 0; i < node.getKidsCount(); i++) {
+                verifyNodeSizes(node.getNode(i), minKidsCount, maxKidsCount);
+            }
+        }
+    }
+
     @Test
     public void testInheritedResources() throws IOException {
         PdfDocument pdfDocument = new PdfDocument(new PdfReader(sourceFolder + "simpleInheritedResources.pdf"));
@@ -3,6 +3,7 @@ package com.itextpdf.kernel.pdf;
 import com.itextpdf.io.LogMessageConstant;
 import com.itextpdf.io.source.ByteArrayOutputStream;
 import com.itextpdf.io.source.ByteUtils;
+import com.itextpdf.io.util.StreamUtil;
 import com.itextpdf.kernel.PdfException;
 import com.itextpdf.test.ExtendedITextTest;
 import com.itextpdf.test.annotations.LogMessage;
@@ -14,12 +15,17 @@ import org.junit.Ignore;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.text.MessageFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Random;
+import java.util.zip.DeflaterOutputStream;
 
 @Category(IntegrationTest.class)
 public class PdfReaderTest extends ExtendedITextTest{
@@ -1126,6 +1132,64 @@ public class PdfReaderTest extends ExtendedITextTest{
         document.close();
     }
 
+    @Test
+    public void lazyXref() throws IOException {
+        checkLazyXref(sourceFolder + "1000PagesDocumentAppended.pdf");
+    }
+
+    @Test
+    public void lazyXrefWithCompression() throws IOException {
+        checkLazyXref(sourceFolder + "1000PagesDocumentWithFullCompressionAppended.pdf");
+    }
+
+    @Test
+    public void lazyXrefStamping() throws IOException {
+        String filename = sourceFolder + "1000PagesDocumentWithFullCompressionAppended.pdf";
+        String outFilename = destinationFolder + "lazyXrefStamping.pdf";
+
+        PdfReader reader = new PdfReader(filename, new ReaderProperties().setLazyXref(true));
+        PdfDocument document = new PdfDocument(reader, new PdfWriter(outFilename));
+        document.getPage(3).getPdfObject().put(PdfName.Rotate, new PdfNumber(90));
+        document.close();
+
+        document = new PdfDocument(new PdfReader(outFilename));
+        Assert.assertEquals(1000, document.getNumberOfPages());
+        Assert.assertEquals(90, document.getPage(3).getRotation());
+        for (int i = 1; i < document.getNumberOfPages() + 1; i++) {
+            String content = new String(document.getPage(i).getContentStream(1).getBytes());
+            Assert.assertTrue(content.contains("(" + i + ")"));
+        }
+        document.close();
+    }
+
+    @Test
+    public void nameInterning() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfDocument document = new PdfDocument(new PdfWriter(baos));
+        for (int i = 0; i < 3; i++) {
+            document.addNewPage().getPdfObject().put(new PdfName("CustomKey"), new PdfName("Custom Value"));
+        }
+        document.close();
+
+        document = new PdfDocument(new PdfReader(new ByteArrayInputStream(baos.toByteArray()),
+                new ReaderProperties().setNameInterning(true)));
+        PdfName value = document.getPage(1).getPdfObject().getAsName(new PdfName("CustomKey"));
+        Assert.assertEquals(new PdfName("Custom Value"), value);
+        for (int i = 2; i <= 3; i++) {
+            PdfDictionary page = document.getPage(i).getPdfObject();
+            Assert.assertSame(value, page.getAsName(new PdfName("CustomKey")));
+            Assert.assertSame(PdfName.Page, page.getAsName(PdfName.Type));
+        }
+        document.close();
+
+        document = new PdfDocument(new PdfReader(new ByteArrayInputStream(baos.toByteArray())));
+        value = document.getPage(1).getPdfObject().getAsName(new PdfName("CustomKey"));
+        Assert.assertEquals(value, document.getPage(2).getPdfObject().getAsName(new PdfName("CustomKey")));
+        Assert.assertNotSame(value, document.getPage(2).getPdfObject().getAsName(new PdfName("CustomKey")));
+        Assert.assertSame(PdfName.Page, document.getPage(2).getPdfObject().getAsName(PdfName.Type));
+        document.close();
+    }
+
     @Test
     public void appendModeWith10Pages() throws IOException {
         String filename = sourceFolder + "10PagesDocumentAppended.pdf";
@@ -1495,6 +1559,184 @@ public class PdfReaderTest extends ExtendedITextTest{
         }
     }
 
+    private static void checkLazyXref(String filename) throws IOException {
+        PdfReader lazyReader = new PdfReader(filename, new ReaderProperties().setLazyXref(true));
+        PdfDocument lazyDocument = new PdfDocument(lazyReader);
+        PdfDocument document = new PdfDocument(new PdfReader(filename));
+        Assert.assertEquals(document.getNumberOfPdfObjects(), lazyDocument.getNumberOfPdfObjects());
+
+        String content = new String(lazyDocument.getPage(3).getContentStream(1).getBytes());
+        Assert.assertTrue(content.contains("(3)"));
+        int lazyEntries = 0;
+        for (int i = 0; i < lazyDocument.getNumberOfPdfObjects(); i++) {
+            if (lazyDocument.getXref().hasLazyEntry(i)) {
+                lazyEntries++;
+            }
+        }
+        Assert.assertTrue("Indirect references shall be created on demand", lazyEntries > 1000);
+
+        for (int i = 0; i < document.getNumberOfPdfObjects(); i++) {
+            PdfIndirectReference reference = document.getXref().get(i);
+            PdfIndirectReference lazyReference = lazyDocument.getXref().get(i);
+            if (reference == null) {
+                Assert.assertNull(lazyReference);
+                continue;
+            }
+            Assert.assertEquals(reference.toString(), lazyReference.toString());
+            Assert.assertEquals(reference.getOffset(), lazyReference.getOffset());
+            Assert.assertEquals(reference.getObjStreamNumber(), lazyReference.getObjStreamNumber());
+            Assert.assertEquals(reference.getIndex(), lazyReference.getIndex());
+            if (!reference.isFree()) {
+                PdfObject object = reference.getRefersTo();
+                PdfObject lazyObject = lazyReference.getRefersTo();
+                if (object == null) {
+                    Assert.assertNull(lazyObject);
+                } else {
+                    Assert.assertEquals(object.getType(), lazyObject.getType());
+                }
+            }
+        }
+        Assert.assertFalse("No need in rebuildXref()", lazyReader.hasRebuiltXref());
+
+        document.close();
+        lazyDocument.close();
+    }
+
+    @Test
+    public void readStreamTest() throws IOException {
+        String filename = destinationFolder + "readStreamTest.pdf";
+        createFilteredStreamsDocument(new PdfWriter(filename));
+        checkFilteredStreams(new PdfReader(filename));
+    }
+
+    @Test
+    public void readEncryptedStreamTest() throws IOException {
+        String filename = destinationFolder + "readEncryptedStreamTest.pdf";
+        byte[] userPassword = "Hello".getBytes(StandardCharsets.ISO_8859_1);
+        WriterProperties properties = new WriterProperties().setStandardEncryption(userPassword, "World".getBytes(StandardCharsets.ISO_8859_1),
+                EncryptionConstants.ALLOW_PRINTING, EncryptionConstants.ENCRYPTION_AES_128);
+        createFilteredStreamsDocument(new PdfWriter(filename, properties));
+        checkFilteredStreams(new PdfReader(filename, new ReaderProperties().setPassword(userPassword)));
+    }
+
+    @Test
+    public void readStreamMatchesReadStreamBytesTest() throws IOException {
+        String filename = sourceFolder + "100PagesDocumentWithFlateFilter.pdf";
+        PdfReader reader = new PdfReader(filename);
+        PdfDocument document = new PdfDocument(reader);
+        int streams = 0;
+        for (int i = 1; i < document.getNumberOfPdfObjects(); i++) {
+            PdfObject object = document.getPdfObject(i);
+            if (object != null && object.isStream()) {
+                PdfStream stream = (PdfStream) object;
+                Assert.assertArrayEquals(reader.readStreamBytes(stream, true), readFully(reader.readStream(stream, true)));
+                Assert.assertArrayEquals(reader.readStreamBytes(stream, false), readFully(reader.readStream(stream, false)));
+                streams++;
+            }
+        }
+        Assert.assertTrue(streams >= 100);
+        document.close();
+    }
+
+    @Test
+    public void readStreamAfterReaderClosedTest() throws IOException {
+        String filename = sourceFolder + "100PagesDocumentWithFlateFilter.pdf";
+        PdfReader reader = new PdfReader(filename);
+        PdfDocument document = new PdfDocument(reader);
+        PdfStream stream = document.getPage(1).getContentStream(0);
+        byte[] expected = reader.readStreamBytes(stream, true);
+        InputStream completelyRead = reader.readStream(stream, true);
+        Assert.assertArrayEquals(expected, readFully(completelyRead));
+        byte[] expectedRaw = reader.readStreamBytes(stream, false);
+        InputStream partiallyRead = reader.readStream(stream, false);
+        Assert.assertEquals(expectedRaw[0] & 0xff, partiallyRead.read());
+        InputStream notRead = reader.readStream(stream, false);
+        document.close();
+
+        // the unread content isn't buffered on close, the streams are invalidated instead
+        try {
+            readFully(partiallyRead);
+            Assert.fail("The stream of the closed reader shall not be read");
+        } catch (IOException expectedException) {
+        }
+        try {
+            notRead.read();
+            Assert.fail("The stream of the closed reader shall not be read");
+        } catch (IOException expectedException) {
+        }
+        notRead.close();
+    }
+
+    private static final byte[] PREDICTED_ROWS = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12};
+
+    private static void createFilteredStreamsDocument(PdfWriter writer) throws IOException {
+        PdfDocument document = new PdfDocument(writer);
+        document.addNewPage();
+
+        addFilteredStream(document, "hex", ByteUtils.getIsoBytes("48 65 6c 6C6F7>"), PdfName.ASCIIHexDecode);
+        addFilteredStream(document, "a85", ByteUtils.getIsoBytes("87cURD]i,\"Ebo80~>"), PdfName.ASCII85Decode);
+        addFilteredStream(document, "rle", new byte[] {2, 'a', 'b', 'c', (byte) 0xfd, 'x', 0, 'y', (byte) 0x80, 'z'}, PdfName.RunLengthDecode);
+
+        // PNG "Up" predictor: each row is the difference with the previous one
+        java.io.ByteArrayOutputStream rows = new java.io.ByteArrayOutputStream();
+        for (int row = 0; row < 4; row++) {
+            rows.write(2);
+            for (int col = 0; col < 3; col++) {
+                rows.write(row == 0 ? PREDICTED_ROWS[col] : PREDICTED_ROWS[row * 3 + col] - PREDICTED_ROWS[row * 3 + col - 3]);
+            }
+        }
+        java.io.ByteArrayOutputStream deflated = new java.io.ByteArrayOutputStream();
+        DeflaterOutputStream zip = new DeflaterOutputStream(deflated);
+        zip.write(rows.toByteArray());
+        zip.close();
+        StringBuilder hexString = new StringBuilder();
+        for (byte b : deflated.toByteArray()) {
+            hexString.append(String.format("%02x", b & 0xff));
+        }
+        hexString.append('>');
+        PdfStream predicted = addFilteredStream(document, "png", ByteUtils.getIsoBytes(hexString.toString()), PdfName.ASCIIHexDecode, PdfName.FlateDecode);
+        PdfDictionary predictorParams = new PdfDictionary();
+        predictorParams.put(PdfName.Predictor, new PdfNumber(12));
+        predictorParams.put(PdfName.Columns, new PdfNumber(3));
+        predicted.put(PdfName.DecodeParms, new PdfArray(Arrays.<PdfObject>asList(PdfNull.PDF_NULL, predictorParams)));
+
+        document.close();
+    }
+
+    private static PdfStream addFilteredStream(PdfDocument document, String key, byte[] data, PdfName... filters) {
+        PdfStream stream = new PdfStream(data);
+        stream.setCompressionLevel(CompressionConstants.NO_COMPRESSION);
+        stream.put(PdfName.Filter, filters.length == 1 ? filters[0] : new PdfArray(Arrays.<PdfObject>asList(filters)));
+        stream.makeIndirect(document);
+        document.getCatalog().getPdfObject().put(new PdfName(key), stream);
+        return stream;
+    }
+
+    private static void checkFilteredStreams(PdfReader reader) throws IOException {
+        PdfDocument document = new PdfDocument(reader);
+        PdfDictionary catalog = document.getCatalog().getPdfObject();
+        Assert.assertEquals("Hellop", new String(checkStream(reader, catalog.getAsStream(new PdfName("hex"))), StandardCharsets.ISO_8859_1));
+        Assert.assertEquals("Hello World!", new String(checkStream(reader, catalog.getAsStream(new PdfName("a85"))), StandardCharsets.ISO_8859_1));
+        Assert.assertEquals("abcxxxxy", new String(checkStream(reader, catalog.getAsStream(new PdfName("rle"))), StandardCharsets.ISO_8859_1));
+        Assert.assertArrayEquals(PREDICTED_ROWS, checkStream(reader, catalog.getAsStream(new PdfName("png"))));
+        document.close();
+    }
+
+    private static byte[] checkStream(PdfReader reader, PdfStream stream) throws IOException {
+        byte[] decoded = readFully(reader.readStream(stream, true));
+        Assert.assertArrayEquals(reader.readStreamBytes(stream, true), decoded);
+        Assert.assertArrayEquals(reader.readStreamBytes(stream, false), readFully(reader.readStream(stream, false)));
+        return decoded;
+    }
+
+    private static byte[] readFully(InputStream stream) throws IOException {
+        try {
+            return StreamUtil.inputStreamToArray(stream);
+        } finally {
+            stream.close();
+        }
+    }
+
     private static PdfDictionary getTestPdfDictionary() {
         HashMap<PdfName, PdfObject> tmpMap = new HashMap<PdfName, PdfObject>();
         tmpMap.put(new PdfName("b"), new PdfName("c"));
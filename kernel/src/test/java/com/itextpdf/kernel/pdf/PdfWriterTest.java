@@ -584,4 +584,85 @@ public class PdfWriterTest extends ExtendedITextTest {
         Assert.assertArrayEquals("Stream by InputStream", streamContent.getBytes(), pdfStream.getBytes());
         document.close();
     }
+
+    @Test
+    public void parallelCompression01() throws IOException {
+        checkParallelCompression("parallelCompression01.pdf", new WriterProperties().useParallelCompression(4), null);
+    }
+
+    @Test
+    public void parallelCompressionFullCompression() throws IOException {
+        checkParallelCompression("parallelCompressionFullCompression.pdf",
+                new WriterProperties().useParallelCompression(4).setFullCompressionMode(true), null);
+    }
+
+    @Test
+    public void parallelCompressionEncrypted() throws IOException {
+        byte[] password = "password".getBytes();
+        checkParallelCompression("parallelCompressionEncrypted.pdf", new WriterProperties().useParallelCompression(4)
+                .setStandardEncryption(password, password, EncryptionConstants.ALLOW_PRINTING, EncryptionConstants.ENCRYPTION_AES_128),
+                new ReaderProperties().setPassword(password));
+    }
+
+    @Test
+    public void parallelCompressionEncryptedRc4() throws IOException {
+        byte[] password = "password".getBytes();
+        checkParallelCompression("parallelCompressionEncryptedRc4.pdf", new WriterProperties().useParallelCompression(4)
+                        .setStandardEncryption(password, password, EncryptionConstants.ALLOW_PRINTING, EncryptionConstants.STANDARD_ENCRYPTION_128),
+                new ReaderProperties().setPassword(password));
+    }
+
+    private void checkParallelCompression(String filename, WriterProperties writerProperties, ReaderProperties readerProperties) throws IOException {
+        int pageCount = 300;
+        CountingCompressionWriter writer = new CountingCompressionWriter(destinationFolder + filename, writerProperties);
+        PdfDocument pdfDoc = new PdfDocument(writer);
+        for (int i = 1; i <= pageCount; i++) {
+            PdfPage page = pdfDoc.addNewPage();
+            page.getFirstContentStream().getOutputStream().writeString(getPageContent(i));
+            page.getResources().addForm(new PdfStream(getPageContent(i).getBytes()).makeIndirect(pdfDoc));
+            if (i % 3 == 0) {
+                page.flush();
+            }
+        }
+        pdfDoc.close();
+        // Page contents and forms shall be compressed by the worker threads, not by the writer itself
+        Assert.assertNotNull(writer.compressionQueue);
+        Assert.assertTrue(writer.compressionQueue.getCompressedStreamsCount() >= 2 * pageCount);
+
+        PdfReader reader = readerProperties == null ? new PdfReader(destinationFolder + filename)
+                : new PdfReader(destinationFolder + filename, readerProperties);
+        PdfDocument pdfDocument = new PdfDocument(reader);
+        Assert.assertEquals("Rebuilt", false, reader.hasRebuiltXref());
+        Assert.assertEquals("Fixed", false, reader.hasFixedXref());
+        Assert.assertEquals(pageCount, pdfDocument.getNumberOfPages());
+        for (int i = 1; i <= pageCount; i++) {
+            PdfStream contentStream = pdfDocument.getPage(i).getFirstContentStream();
+            Assert.assertEquals(PdfName.FlateDecode, contentStream.getAsName(PdfName.Filter));
+            Assert.assertArrayEquals(getPageContent(i).getBytes(), pdfDocument.getPage(i).getContentBytes());
+        }
+        pdfDocument.close();
+    }
+
+    private static class CountingCompressionWriter extends PdfWriter {
+        StreamCompressionQueue compressionQueue;
+
+        CountingCompressionWriter(String filename, WriterProperties properties) throws IOException {
+            super(filename, properties);
+        }
+
+        @Override
+        StreamCompressionQueue createCompressionQueue(int threadsCount) {
+            Assert.assertNull(compressionQueue);
+            compressionQueue = super.createCompressionQueue(threadsCount);
+            return compressionQueue;
+        }
+    }
+
+    private static String getPageContent(int pageNumber) {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            content.append(pageNumber).append(' ').append(i).append(" m ").append(i).append(' ').append(pageNumber).append(" l S\n");
+        }
+        return content.toString();
+    }
 }
@@ -10,6 +10,7 @@ import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
 import com.itextpdf.kernel.pdf.layer.PdfLayer;
 import com.itextpdf.kernel.pdf.xobject.PdfFormXObject;
 import com.itextpdf.kernel.pdf.xobject.PdfImageXObject;
+import com.itextpdf.kernel.pdf.xobject.PdfXObject;
 import com.itextpdf.kernel.utils.CompareTool;
 import com.itextpdf.test.ExtendedITextTest;
 import com.itextpdf.test.annotations.LogMessage;
@@ -20,6 +21,7 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
@@ -141,4 +143,71 @@ public class PdfXObjectTest extends ExtendedITextTest{
 
     }
 
+    @Test
+    public void imageDeduplication() throws IOException {
+        final String destinationDocument = destinationFolder + "imageDeduplication.pdf";
+        PdfDocument document = new PdfDocument(new PdfWriter(destinationDocument, new WriterProperties().useImageDeduplication()));
+        PdfXObject firstLogo = null;
+        for (int i = 0; i < 10; i++) {
+            PdfCanvas canvas = new PdfCanvas(document.addNewPage());
+            // Image data is created anew for every page, as it happens when a logo is added by a page event handler
+            PdfXObject logo = canvas.addImage(createRawImage(0x40), 36, 700, false);
+            if (firstLogo == null) {
+                firstLogo = logo;
+            }
+            // the image actually drawn is returned, not the discarded duplicate
+            Assert.assertSame(firstLogo, logo);
+            Assert.assertSame(firstLogo, canvas.addImage(createRawImage(0x40), 136, 700, false));
+            if (i == 5) {
+                canvas.addImage(createRawImage(0x80), 236, 700, false);
+            }
+            canvas.release();
+            document.getPage(i + 1).flush();
+        }
+        ImageXObjectCache imageCache = document.getImageXObjectCache();
+        Assert.assertEquals(2, imageCache.size());
+        Assert.assertEquals(2, imageCache.getMissCount());
+        Assert.assertEquals(19, imageCache.getHitCount());
+        document.close();
+
+        document = new PdfDocument(new PdfReader(destinationDocument));
+        PdfIndirectReference logo = null;
+        int imagesCount = 0;
+        for (int i = 1; i <= document.getNumberOfPages(); i++) {
+            PdfDictionary xObjects = document.getPage(i).getResources().getResource(PdfName.XObject);
+            Assert.assertEquals(i == 6 ? 2 : 1, xObjects.size());
+            for (PdfName name : xObjects.keySet()) {
+                PdfIndirectReference image = (PdfIndirectReference) xObjects.get(name, false);
+                if (logo == null) {
+                    logo = image;
+                }
+                if (!image.equals(logo)) {
+                    imagesCount++;
+                }
+            }
+        }
+        Assert.assertEquals(1, imagesCount);
+        document.close();
+    }
+
+    @Test
+    public void imageDeduplicationDisabledByDefault() throws IOException {
+        PdfDocument document = new PdfDocument(new PdfWriter(new ByteArrayOutputStream()));
+        PdfCanvas canvas = new PdfCanvas(document.addNewPage());
+        canvas.addImage(createRawImage(0x40), 36, 700, false);
+        canvas.addImage(createRawImage(0x40), 136, 700, false);
+        canvas.release();
+        Assert.assertNull(document.getImageXObjectCache());
+        Assert.assertEquals(2, document.getPage(1).getResources().getResource(PdfName.XObject).size());
+        document.close();
+    }
+
+    private static ImageData createRawImage(int value) {
+        byte[] data = new byte[16 * 16 * 3];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (value + i % 16);
+        }
+        return ImageDataFactory.create(16, 16, 3, 8, data, null);
+    }
+
 }
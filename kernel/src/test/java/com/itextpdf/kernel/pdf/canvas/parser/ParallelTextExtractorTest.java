@@ -0,0 +1,115 @@
+package com.itextpdf.kernel.pdf.canvas.parser;
+
+import com.itextpdf.io.font.FontConstants;
+import com.itextpdf.io.source.ByteArrayOutputStream;
+import com.itextpdf.io.source.RandomAccessSourceFactory;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.ReaderProperties;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
+import com.itextpdf.kernel.pdf.canvas.parser.listener.ITextExtractionStrategy;
+import com.itextpdf.kernel.pdf.canvas.parser.listener.SimpleTextExtractionStrategy;
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.type.IntegrationTest;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(IntegrationTest.class)
+public class ParallelTextExtractorTest extends ExtendedITextTest {
+
+    public static final String destinationFolder = "./target/test/com/itextpdf/kernel/parser/ParallelTextExtractorTest/";
+
+    private static final int NUMBER_OF_PAGES = 57;
+
+    @BeforeClass
+    public static void beforeClass() {
+        createDestinationFolder(destinationFolder);
+    }
+
+    @Test
+    public void extractFromBytesTest() throws IOException {
+        byte[] bytes = createDocument();
+        List<String> text = new ParallelTextExtractor(new RandomAccessSourceFactory().createSource(bytes))
+                .setParallelism(3)
+                .setPagesPerTask(5)
+                .extractText();
+        Assert.assertEquals(NUMBER_OF_PAGES, text.size());
+        Assert.assertEquals(extractSequentially(bytes, 1, NUMBER_OF_PAGES), text);
+    }
+
+    @Test
+    public void extractFromFileTest() throws IOException {
+        byte[] bytes = createDocument();
+        String filename = destinationFolder + "extractFromFileTest.pdf";
+        FileOutputStream fos = new FileOutputStream(filename);
+        fos.write(bytes);
+        fos.close();
+
+        List<String> text = new ParallelTextExtractor(filename)
+                .setParallelism(4)
+                .extractText(10, 40);
+        Assert.assertEquals(31, text.size());
+        Assert.assertEquals(extractSequentially(bytes, 10, 40), text);
+    }
+
+    @Test
+    public void customStrategyTest() throws IOException {
+        byte[] bytes = createDocument();
+        List<String> text = new ParallelTextExtractor(new RandomAccessSourceFactory().createSource(bytes))
+                .setStrategyFactory(new ParallelTextExtractor.ITextExtractionStrategyFactory() {
+                    @Override
+                    public ITextExtractionStrategy createStrategy() {
+                        return new SimpleTextExtractionStrategy();
+                    }
+                })
+                .extractText(NUMBER_OF_PAGES, NUMBER_OF_PAGES);
+        Assert.assertEquals(1, text.size());
+        Assert.assertEquals("Page " + NUMBER_OF_PAGES + "\nSecond line", text.get(0));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void pageOutOfRangeTest() throws IOException {
+        byte[] bytes = createDocument();
+        new ParallelTextExtractor(new RandomAccessSourceFactory().createSource(bytes))
+                .extractText(NUMBER_OF_PAGES - 1, NUMBER_OF_PAGES + 1);
+    }
+
+    private static byte[] createDocument() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfDocument document = new PdfDocument(new PdfWriter(baos));
+        PdfFont font = PdfFontFactory.createFont(FontConstants.HELVETICA);
+        for (int i = 1; i <= NUMBER_OF_PAGES; i++) {
+            new PdfCanvas(document.addNewPage())
+                    .beginText()
+                    .setFontAndSize(font, 12)
+                    .moveText(36, 750)
+                    .showText("Page " + i)
+                    .moveText(0, -20)
+                    .showText("Second line")
+                    .endText();
+        }
+        document.close();
+        return baos.toByteArray();
+    }
+
+    private static List<String> extractSequentially(byte[] bytes, int fromPage, int toPage) throws IOException {
+        PdfDocument document = new PdfDocument(new PdfReader(new RandomAccessSourceFactory().createSource(bytes), new ReaderProperties()));
+        List<String> text = new ArrayList<>();
+        for (int i = fromPage; i <= toPage; i++) {
+            text.add(PdfTextExtractor.getTextFromPage(document.getPage(i)));
+        }
+        document.close();
+        return text;
+    }
+}
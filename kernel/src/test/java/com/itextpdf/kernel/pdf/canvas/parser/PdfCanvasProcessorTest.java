@@ -2,6 +2,12 @@ package com.itextpdf.kernel.pdf.canvas.parser;
 
 import com.itextpdf.io.LogMessageConstant;
 import com.itextpdf.io.source.ByteArrayOutputStream;
+import com.itextpdf.kernel.geom.IShape;
+import com.itextpdf.kernel.geom.Matrix;
+import com.itextpdf.kernel.geom.Path;
+import com.itextpdf.kernel.geom.Point;
+import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.kernel.geom.Subpath;
 import com.itextpdf.kernel.pdf.canvas.parser.data.ClippingPathInfo;
 import com.itextpdf.kernel.pdf.canvas.parser.data.IEventData;
 import com.itextpdf.kernel.pdf.canvas.parser.data.ImageRenderInfo;
@@ -9,8 +15,12 @@ import com.itextpdf.kernel.pdf.canvas.parser.data.PathRenderInfo;
 import com.itextpdf.kernel.pdf.canvas.parser.data.TextRenderInfo;
 import com.itextpdf.kernel.pdf.canvas.parser.listener.IEventListener;
 import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfLiteral;
+import com.itextpdf.kernel.pdf.PdfNumber;
+import com.itextpdf.kernel.pdf.PdfObject;
 import com.itextpdf.kernel.pdf.PdfPage;
 import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfResources;
 import com.itextpdf.kernel.pdf.PdfWriter;
 import com.itextpdf.test.annotations.LogMessage;
 import com.itextpdf.test.annotations.LogMessages;
@@ -18,8 +28,13 @@ import com.itextpdf.test.annotations.type.IntegrationTest;
 import com.itextpdf.test.ExtendedITextTest;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Set;
 
+import org.junit.Assert;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
 
@@ -98,4 +113,127 @@ public class PdfCanvasProcessorTest extends ExtendedITextTest {
         }
     }
 
+    @Test
+    public void reuseOperandsTest() {
+        byte[] content = ("2 0 0 2 10 10 cm [3 1] 1.5 d 0.5 w 1 2 m 3 4 l 5 6 7 8 9 10 c 11 12 13 14 re S " +
+                "100 200 m 300 400 l -.25 0.125 l f").getBytes();
+
+        List<String> reusedEvents = new ArrayList<>();
+        List<List<PdfObject>> reusedLineToOperands = new ArrayList<>();
+        PdfCanvasProcessor processor = createPathRecordingProcessor(reusedEvents, reusedLineToOperands, false);
+        processor.processContent(content, new PdfResources());
+        Assert.assertEquals(1.5, processor.getGraphicsState().getDashPattern().getAsNumber(1).doubleValue(), 0);
+
+        List<String> events = new ArrayList<>();
+        List<List<PdfObject>> lineToOperands = new ArrayList<>();
+        createPathRecordingProcessor(events, lineToOperands, true).processContent(content, new PdfResources());
+
+        Assert.assertEquals(2, reusedEvents.size());
+        Assert.assertEquals(events, reusedEvents);
+        Assert.assertEquals(toValues(lineToOperands), toValues(reusedLineToOperands));
+        Assert.assertEquals("[3.0, 4.0, l, 300.0, 400.0, l, -0.25, 0.125, l]", toValues(reusedLineToOperands));
+    }
+
+    private static String toValues(List<List<PdfObject>> operands) {
+        List<Object> values = new ArrayList<>();
+        for (List<PdfObject> command : operands) {
+            for (PdfObject operand : command) {
+                values.add(operand.isNumber() ? (Object) ((PdfNumber) operand).doubleValue() : operand);
+            }
+        }
+        return values.toString();
+    }
+
+    /**
+     * Creates a processor, which records the painted paths and the operands of the custom line to operator.
+     * A subclass of PdfCanvasProcessor doesn't reuse the operands by default.
+     */
+    private static PdfCanvasProcessor createPathRecordingProcessor(final List<String> events,
+                                                                   final List<List<PdfObject>> lineToOperands,
+                                                                   boolean subclass) {
+        IEventListener listener = new IEventListener() {
+            public void eventOccurred(IEventData data, EventType type) {
+                PathRenderInfo renderInfo = (PathRenderInfo) data;
+                StringBuilder path = new StringBuilder().append(renderInfo.getCtm()).append(renderInfo.getLineWidth());
+                for (Subpath subpath : renderInfo.getPath().getSubpaths()) {
+                    for (IShape segment : subpath.getSegments()) {
+                        path.append(segment.getBasePoints());
+                    }
+                }
+                events.add(path.toString());
+            }
+
+            public Set<EventType> getSupportedEvents() {
+                return Collections.singleton(EventType.RENDER_PATH);
+            }
+        };
+        PdfCanvasProcessor processor = subclass ? new PdfCanvasProcessor(listener) {} : new PdfCanvasProcessor(listener);
+        final IContentOperator lineTo = processor.registerContentOperator("l", null);
+        processor.registerContentOperator("l", new IContentOperator() {
+            public void invoke(PdfCanvasProcessor processor, PdfLiteral operator, List<PdfObject> operands) {
+                lineToOperands.add(new ArrayList<>(operands));
+                lineTo.invoke(processor, operator, operands);
+            }
+        });
+        return processor;
+    }
+
+    @Test
+    public void lazyClippingPathTest() {
+        byte[] content = ("q 2 0 0 2 0 0 cm 10 10 100 100 re W n q 1 0 0 1 5 5 cm 20 20 30 30 re 0 0 40 40 re W* n Q " +
+                "0 0 1 1 re f Q").getBytes();
+        final List<ClippingPathInfo> clippingPaths = new ArrayList<>();
+        PdfCanvasProcessor processor = new PdfCanvasProcessor(new IEventListener() {
+            public void eventOccurred(IEventData data, EventType type) {
+                clippingPaths.add((ClippingPathInfo) data);
+            }
+
+            public Set<EventType> getSupportedEvents() {
+                return Collections.singleton(EventType.CLIP_PATH_CHANGED);
+            }
+        });
+        Path pageBox = new Path();
+        pageBox.rectangle(new Rectangle(0, 0, 595, 842));
+        processor.getGraphicsState().setClippingPath(pageBox);
+        processor.processContent(content, new PdfResources());
+
+        // the paths are computed only now, after all the clipping operations are processed
+        Assert.assertEquals(4, clippingPaths.size());
+        Assert.assertEquals("[10.0, 10.0, 110.0, 110.0]", getBounds(clippingPaths.get(0).getClippingPath()));
+        Assert.assertEquals("[5.0, 5.0, 50.0, 50.0]", getBounds(clippingPaths.get(1).getClippingPath()));
+        Assert.assertEquals("[10.0, 10.0, 110.0, 110.0]", getBounds(clippingPaths.get(2).getClippingPath()));
+        Assert.assertEquals("[0.0, 0.0, 595.0, 842.0]", getBounds(clippingPaths.get(3).getClippingPath()));
+        Assert.assertEquals(new Matrix(1, 0, 0, 1, 5, 5).multiply(new Matrix(2, 0, 0, 2, 0, 0)),
+                clippingPaths.get(1).getCtm());
+
+        for (int i = 0; i < 2; i++) {
+            boolean skip = i == 1;
+            List<String> events = new ArrayList<>();
+            processor = createPathRecordingProcessor(events, new ArrayList<List<PdfObject>>(), false);
+            processor.setSkipUnusedClippingPath(skip);
+            processor.getGraphicsState().setClippingPath(pageBox);
+            processor.processContent("10 10 100 100 re W n".getBytes(), new PdfResources());
+            Assert.assertEquals(1, events.size());
+            Assert.assertEquals(skip ? "[0.0, 0.0, 595.0, 842.0]" : "[10.0, 10.0, 110.0, 110.0]",
+                    getBounds(processor.getGraphicsState().getClippingPath()));
+        }
+    }
+
+    private static String getBounds(Path path) {
+        if (path == null) {
+            return "null";
+        }
+        float[] bounds = {Float.MAX_VALUE, Float.MAX_VALUE, -Float.MAX_VALUE, -Float.MAX_VALUE};
+        for (Subpath subpath : path.getSubpaths()) {
+            for (IShape segment : subpath.getSegments()) {
+                for (Point point : segment.getBasePoints()) {
+                    bounds[0] = Math.min(bounds[0], (float) point.getX());
+                    bounds[1] = Math.min(bounds[1], (float) point.getY());
+                    bounds[2] = Math.max(bounds[2], (float) point.getX());
+                    bounds[3] = Math.max(bounds[3], (float) point.getY());
+                }
+            }
+        }
+        return Arrays.toString(bounds);
+    }
 }
@@ -1,6 +1,7 @@
 package com.itextpdf.kernel.utils;
 
 import com.itextpdf.io.LogMessageConstant;
+import com.itextpdf.kernel.PdfException;
 import com.itextpdf.kernel.pdf.PdfDocument;
 import com.itextpdf.kernel.pdf.PdfReader;
 import com.itextpdf.kernel.pdf.PdfWriter;
@@ -178,4 +179,65 @@ public class PdfMergerTest extends ExtendedITextTest {
             Assert.fail(errorMessage);
         }
     }
+
+    @Test
+    public void mergeFilesTest01() throws IOException, InterruptedException {
+        String resultFile = destinationFolder + "mergedResult05.pdf";
+        List<String> sourceFiles = new ArrayList<>();
+        sourceFiles.add(sourceFolder + "doc1.pdf");
+        sourceFiles.add(sourceFolder + "doc2.pdf");
+        sourceFiles.add(sourceFolder + "doc3.pdf");
+
+        PdfDocument pdfDoc = new PdfDocument(new PdfWriter(resultFile));
+        new PdfMerger(pdfDoc)
+                .setReadingThreadsCount(2)
+                .mergeFiles(sourceFiles)
+                .close();
+
+        CompareTool compareTool = new CompareTool();
+        String errorMessage = compareTool.compareByContent(resultFile, sourceFolder + "cmp_mergedResult02.pdf", destinationFolder, "diff_");
+        if (errorMessage != null) {
+            Assert.fail(errorMessage);
+        }
+    }
+
+    @Test
+    public void mergeFilesTest02() throws IOException {
+        String resultFile = destinationFolder + "mergedResult06.pdf";
+        String[] docs = {"doc1.pdf", "doc2.pdf", "doc3.pdf"};
+        List<String> sourceFiles = new ArrayList<>();
+        for (int i = 0; i < 15; i++) {
+            sourceFiles.add(sourceFolder + docs[i % docs.length]);
+        }
+
+        PdfDocument pdfDoc = new PdfDocument(new PdfWriter(resultFile));
+        new PdfMerger(pdfDoc)
+                .setReadingThreadsCount(1)
+                .mergeFiles(sourceFiles)
+                .close();
+
+        byte[][] contents = new byte[docs.length][];
+        for (int i = 0; i < docs.length; i++) {
+            PdfDocument srcDoc = new PdfDocument(new PdfReader(sourceFolder + docs[i]));
+            contents[i] = srcDoc.getPage(1).getContentBytes();
+            srcDoc.close();
+        }
+        PdfDocument resultDoc = new PdfDocument(new PdfReader(resultFile));
+        Assert.assertEquals(sourceFiles.size(), resultDoc.getNumberOfPages());
+        for (int i = 0; i < sourceFiles.size(); i++) {
+            Assert.assertArrayEquals(contents[i % docs.length], resultDoc.getPage(i + 1).getContentBytes());
+        }
+        resultDoc.close();
+
+        sourceFiles.add(5, sourceFolder + "notExisting.pdf");
+        PdfDocument failedDoc = new PdfDocument(new PdfWriter(destinationFolder + "mergedResult07.pdf"));
+        try {
+            new PdfMerger(failedDoc).setReadingThreadsCount(2).mergeFiles(sourceFiles);
+            Assert.fail("PdfException expected");
+        } catch (PdfException e) {
+            Assert.assertTrue(e.getCause() instanceof IOException);
+        }
+        Assert.assertEquals(5, failedDoc.getNumberOfPages());
+        failedDoc.close();
+    }
 }
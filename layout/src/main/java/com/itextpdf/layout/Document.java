@@ -136,7 +136,13 @@ public class Document extends RootElement<Document> {
     @Override
     public <T extends IElement> Document add(BlockElement<T> element) {
         checkClosingStatus();
+        // Large elements are added again on every flush, there is no need to keep them in the list more than once
+        boolean alreadyAdded = element instanceof ILargeElement && !childElements.isEmpty()
+                && childElements.get(childElements.size() - 1) == element;
         super.add(element);
+        if (alreadyAdded) {
+            childElements.remove(childElements.size() - 1);
+        }
         if (element instanceof ILargeElement) {
             ((ILargeElement) element).setDocument(this);
             ((ILargeElement) element).flushContent();
@@ -86,6 +86,7 @@ public class Table extends BlockElement<Table> implements ILargeElement {
     private int rowWindowStart = 0;
     private Document document;
     private Cell[] lastAddedRow;
+    private int autoFlushRowsCount;
 
     /**
      * Constructs a {@code Table} with the relative column widths.
@@ -359,7 +360,7 @@ public class Table extends BlockElement<Table> implements ILargeElement {
     public Table startNewRow() {
         currentColumn = 0;
         currentRow++;
-        if (currentRow >= rows.size()) {
+        if (currentRow - rowWindowStart >= rows.size()) {
             rows.add(new Cell[columnWidths.length]);
         }
         return this;
@@ -404,6 +405,10 @@ public class Table extends BlockElement<Table> implements ILargeElement {
             }
         }
         currentColumn += cell.getColspan();
+        if (autoFlushRowsCount > 0 && document != null && !isComplete && currentColumn >= columnWidths.length
+                && currentRow - rowWindowStart + 1 >= autoFlushRowsCount) {
+            flush();
+        }
         return this;
     }
 
@@ -526,6 +531,28 @@ public class Table extends BlockElement<Table> implements ILargeElement {
         flush();
     }
 
+    /**
+     * Makes a large table flush itself each time the given number of rows has been completed,
+     * so that there is no need to call {@link #flush()} manually.
+     * Rows are released as soon as they are laid out and drawn, so the memory consumption
+     * does not depend on the total number of rows in the table.
+     * Each flush lays out the completed rows, just as {@link #flush()} does, right below the rows flushed before,
+     * so the rows are placed on the same positions and pages as the rows of a table laid out at once.
+     * The border below the flushed rows is drawn as the bottom border of the table though, as it isn't known yet
+     * whether more rows follow.
+     * Flushing every row is not recommended, because each flush starts a new layout pass;
+     * a number of rows which approximately fits on a page is a good choice.
+     * The setting takes effect after the table is added to the document and has no effect for tables
+     * which were not created as large ones.
+     *
+     * @param rowsCount the number of rows after which the table is flushed. Zero disables automatic flushing.
+     * @return this element
+     */
+    public Table setAutoFlush(int rowsCount) {
+        this.autoFlushRowsCount = Math.max(rowsCount, 0);
+        return this;
+    }
+
     /**
      * Writes the newly added content to the document.
      */
@@ -156,6 +156,13 @@ public class TableRenderer extends AbstractRenderer {
         heights.clear();
         childRenderers.clear();
 
+        if (rows.isEmpty() && !((Table) modelElement).isComplete()) {
+            // no rows of the large table are ready to be flushed yet, so it takes no space
+            occupiedArea = new LayoutArea(area.getPageNumber(),
+                    new Rectangle(layoutBox.getX(), layoutBox.getY() + layoutBox.getHeight(), layoutBox.getWidth(), 0));
+            return new LayoutResult(LayoutResult.FULL, occupiedArea, null, null);
+        }
+
         // Cells' up moves occured while split processing
         // key is column number (there can be only one move during one split)
         // value is the previous row number of the cell
@@ -213,6 +220,13 @@ public class TableRenderer extends AbstractRenderer {
         }
 
         Table tableModel = (Table) getModelElement();
+        // The rows of a large table are laid out in parts, each time the table is flushed. A part, which continues
+        // the flushed rows, is placed right below them, and neither the flushed part nor this one takes the space
+        // of the table's bottom or top border, so the rows are placed just as the rows of a table laid out at once.
+        boolean continuesFlushedRows = rowRange.getStartRow() != 0 && isOriginalNonSplitRenderer;
+        if (continuesFlushedRows) {
+            topTableBorderWidth = 0;
+        }
 
         Float tableWidth = retrieveWidth(layoutBox.getWidth());
         if (tableWidth == null || tableWidth == 0) {
@@ -331,7 +345,7 @@ public class TableRenderer extends AbstractRenderer {
                 // collapse boundary borders if necessary
                 // notice that bottom border collapse is handled afterwards
                 Border[] cellBorders = cell.getBorders();
-                if (0 == row - rowspan + 1) {
+                if (0 == row - rowspan + 1 && !continuesFlushedRows) {
                     cell.setProperty(Property.BORDER_TOP, getCollapsedBorder(cellBorders[0], borders[0]));
                 }
                 if (0 == col) {
@@ -540,7 +554,10 @@ public class TableRenderer extends AbstractRenderer {
                             }
                         }
                     }
-                    heights.set(heights.size() - 1, heights.get(heights.size()-1)+bottomBorderWidthDifference);
+                    // the last row of the flushed part isn't enlarged, as the next rows will be placed right below it
+                    if (split || tableModel.isComplete()) {
+                        heights.set(heights.size() - 1, heights.get(heights.size() - 1) + bottomBorderWidthDifference);
+                    }
                 }
 
                 // Correct occupied areas of all added cells
@@ -714,6 +731,17 @@ public class TableRenderer extends AbstractRenderer {
             move(0, relativeY + y - occupiedArea.getBBox().getY());
         }
 
+        if (!tableModel.isComplete()) {
+            bottomTableBorderWidth = 0;
+        } else if (rows.isEmpty() && continuesFlushedRows) {
+            // all the rows have been flushed, the bottom border of the table below them still takes its space
+            for (Border border : tableModel.getLastRowBottomBorder()) {
+                Border collapsedBorder = getCollapsedBorder(border, borders[2]);
+                if (collapsedBorder != null) {
+                    bottomTableBorderWidth = Math.max(bottomTableBorderWidth, collapsedBorder.getWidth());
+                }
+            }
+        }
         // Apply bottom and top border
         applyMargins(occupiedArea.getBBox(), new float[] {topTableBorderWidth / 2, 0, bottomTableBorderWidth / 2, 0}, true);
 
@@ -2,7 +2,9 @@ package com.itextpdf.layout;
 
 import com.itextpdf.kernel.geom.PageSize;
 import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
 import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.canvas.parser.PdfTextExtractor;
 import com.itextpdf.kernel.utils.CompareTool;
 import com.itextpdf.layout.element.Cell;
 import com.itextpdf.layout.element.Paragraph;
@@ -247,4 +249,73 @@ public class LargeElementTest extends ExtendedITextTest {
         Assert.assertNull(new CompareTool().compareByContent(outFileName, cmpFileName, destinationFolder, testName + "_diff"));
     }
 
+    @Test
+    public void largeTableAutoFlushTest01() throws IOException, InterruptedException {
+        String testName = "largeTableAutoFlushTest01.pdf";
+        String outFileName = destinationFolder + testName;
+        String cmpFileName = sourceFolder + "cmp_" + testName;
+
+        PdfDocument pdfDoc = new PdfDocument(new PdfWriter(outFileName));
+        Document doc = new Document(pdfDoc);
+        Table table = new Table(3, true).setAutoFlush(10);
+        doc.add(table);
+        for (int i = 0; i < 200; i++) {
+            for (int j = 0; j < 3; j++) {
+                table.addCell(new Cell().add(new Paragraph(MessageFormat.format("Cell {0}, {1}", i + 1, j + 1))));
+            }
+            Assert.assertTrue(table.getNumberOfRows() <= 10);
+        }
+        table.complete();
+        doc.close();
+
+        Assert.assertNull(new CompareTool().compareByContent(outFileName, cmpFileName, destinationFolder, testName + "_diff"));
+    }
+
+    @Test
+    public void largeTableAutoFlushTest02() throws IOException, InterruptedException {
+        String testName = "largeTableAutoFlushTest02.pdf";
+        String outFileName = destinationFolder + testName;
+        String cmpFileName = sourceFolder + "cmp_" + testName;
+
+        // the rows are placed just as the rows of the table laid out at once, which fits 34 rows on the first page
+        Document doc = new Document(new PdfDocument(new PdfWriter(outFileName)));
+        Table table = new Table(3, true).setAutoFlush(1);
+        doc.add(table);
+        for (int i = 0; i < 100; i++) {
+            for (int j = 0; j < 3; j++) {
+                table.addCell(new Cell().add(new Paragraph(MessageFormat.format("Cell {0}, {1}", i + 1, j + 1))));
+            }
+        }
+        table.complete();
+        doc.close();
+
+        PdfDocument pdfDoc = new PdfDocument(new PdfReader(outFileName));
+        Assert.assertTrue(PdfTextExtractor.getTextFromPage(pdfDoc.getPage(1)).endsWith("Cell 34, 3"));
+        Assert.assertTrue(PdfTextExtractor.getTextFromPage(pdfDoc.getPage(2)).startsWith("Cell 35, 1"));
+        pdfDoc.close();
+
+        Assert.assertNull(new CompareTool().compareByContent(outFileName, cmpFileName, destinationFolder, testName + "_diff"));
+    }
+
+    @Test
+    public void largeTableRowspanAfterFlushTest01() throws IOException, InterruptedException {
+        PdfDocument pdfDoc = new PdfDocument(new PdfWriter(destinationFolder + "largeTableRowspanAfterFlushTest01.pdf"));
+        Document doc = new Document(pdfDoc);
+
+        Table table = new Table(3, true);
+        doc.add(table);
+        for (int j = 0; j < 3; j++) {
+            table.addCell(new Cell().add(new Paragraph("Row 1")));
+        }
+        table.flush();
+
+        table.addCell(new Cell(2, 1).add(new Paragraph("Rowspan")));
+        for (int j = 0; j < 4; j++) {
+            table.addCell(new Cell().add(new Paragraph("Row 2-3")));
+        }
+        Assert.assertEquals(2, table.getNumberOfRows());
+
+        table.complete();
+        doc.close();
+    }
 }
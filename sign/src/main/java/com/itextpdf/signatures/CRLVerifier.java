@@ -67,6 +67,9 @@ public class CRLVerifier extends RootStoreVerifier {
     /** The list of CRLs to check for revocation date. */
     List<X509CRL> crls;
 
+    /** The cache of the CRLs fetched online, or null if they are fetched on each verification. */
+    protected RevocationDataCache revocationDataCache;
+
     /**
      * Creates a CRLVerifier instance.
      * @param verifier	the next verifier in the chain
@@ -77,6 +80,14 @@ public class CRLVerifier extends RootStoreVerifier {
         this.crls = crls;
     }
 
+    /**
+     * Sets the cache of the CRLs fetched online, which is shared by the verifiers.
+     * @param revocationDataCache	the cache, or null to fetch the CRLs on each verification
+     */
+    public void setRevocationDataCache(RevocationDataCache revocationDataCache) {
+        this.revocationDataCache = revocationDataCache;
+    }
+
     /**
      * Verifies if a a valid CRL is found for the certificate.
      * If this method returns false, it doesn't mean the certificate isn't valid.
@@ -150,6 +161,10 @@ public class CRLVerifier extends RootStoreVerifier {
     public X509CRL getCRL(X509Certificate signCert, X509Certificate issuerCert) {
         if (issuerCert == null)
             issuerCert = signCert;
+        if (revocationDataCache != null) {
+            List<X509CRL> cachedCrls = revocationDataCache.getCrls(signCert, null);
+            return cachedCrls.isEmpty() ? null : cachedCrls.get(0);
+        }
         try {
             // gets the URL from the certificate
             String crlurl = CertificateUtil.getCRLURL(signCert);
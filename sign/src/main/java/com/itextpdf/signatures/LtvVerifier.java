@@ -92,6 +92,8 @@ public class LtvVerifier extends RootStoreVerifier {
     protected boolean latestRevision = true;
     /** The document security store for the revision that is being verified */
     protected PdfDictionary dss;
+    /** The cache of the revocation data fetched online. */
+    protected RevocationDataCache revocationDataCache;
 
     private SignatureUtil sgnUtil;
 
@@ -128,6 +130,14 @@ public class LtvVerifier extends RootStoreVerifier {
         this.option = option;
     }
 
+    /**
+     * Sets the cache of the revocation data fetched online.
+     * @param revocationDataCache the cache, or null to fetch the revocation data on each verification
+     */
+    public void setRevocationDataCache(RevocationDataCache revocationDataCache) {
+        this.revocationDataCache = revocationDataCache;
+    }
+
     /**
      * Set the verifyRootCertificate to false if you can't verify the root certificate.
      */
@@ -262,10 +272,12 @@ public class LtvVerifier extends RootStoreVerifier {
         CRLVerifier crlVerifier = new CRLVerifier(rootStoreVerifier, getCRLsFromDSS());
         crlVerifier.setRootStore(rootStore);
         crlVerifier.setOnlineCheckingAllowed(latestRevision || onlineCheckingAllowed);
+        crlVerifier.setRevocationDataCache(revocationDataCache);
         // We'll verify against a list of OCSPs
         OCSPVerifier ocspVerifier = new OCSPVerifier(crlVerifier, getOCSPResponsesFromDSS());
         ocspVerifier.setRootStore(rootStore);
         ocspVerifier.setOnlineCheckingAllowed(latestRevision || onlineCheckingAllowed);
+        ocspVerifier.setRevocationDataCache(revocationDataCache);
         // We verify the chain
         return ocspVerifier.verify(signCert, issuerCert, signDate);
     }
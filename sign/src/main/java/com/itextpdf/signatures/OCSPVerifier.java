@@ -76,6 +76,9 @@ public class OCSPVerifier extends RootStoreVerifier {
     /** The list of OCSP responses. */
     protected List<BasicOCSPResp> ocsps;
 
+    /** The cache of the OCSP responses and the CRLs fetched online, or null if they are fetched on each verification. */
+    protected RevocationDataCache revocationDataCache;
+
     /**
      * Creates an OCSPVerifier instance.
      * @param verifier	the next verifier in the chain
@@ -86,6 +89,14 @@ public class OCSPVerifier extends RootStoreVerifier {
         this.ocsps = ocsps;
     }
 
+    /**
+     * Sets the cache of the OCSP responses and the CRLs fetched online, which is shared by the verifiers.
+     * @param revocationDataCache the cache, or null to fetch the revocation data on each verification
+     */
+    public void setRevocationDataCache(RevocationDataCache revocationDataCache) {
+        this.revocationDataCache = revocationDataCache;
+    }
+
     /**
      * Verifies if a a valid OCSP response is found for the certificate.
      * If this method returns false, it doesn't mean the certificate isn't valid.
@@ -256,14 +267,20 @@ public class OCSPVerifier extends RootStoreVerifier {
         // in which case we do not validate (perform revocation check on) ocsp certs for lifetime of certificate
         if (responderCert.getExtensionValue(OCSPObjectIdentifiers.id_pkix_ocsp_nocheck.getId()) == null) {
             CRL crl;
-            try {
-                crl = CertificateUtil.getCRL(responderCert);
-            } catch (Exception ignored) {
-                crl = (CRL) null;
+            if (revocationDataCache != null) {
+                List<X509CRL> cachedCrls = revocationDataCache.getCrls(responderCert, null);
+                crl = cachedCrls.isEmpty() ? null : cachedCrls.get(0);
+            } else {
+                try {
+                    crl = CertificateUtil.getCRL(responderCert);
+                } catch (Exception ignored) {
+                    crl = (CRL) null;
+                }
             }
             if (crl != null && crl instanceof X509CRL) {
                 CRLVerifier crlVerifier = new CRLVerifier(null, null);
                 crlVerifier.setRootStore(rootStore);
+                crlVerifier.setRevocationDataCache(revocationDataCache);
                 crlVerifier.setOnlineCheckingAllowed(onlineCheckingAllowed);
                 crlVerifier.verify((X509CRL)crl, responderCert, issuerCert, DateTimeUtil.getCurrentTimeDate());
                 return;
@@ -318,8 +335,13 @@ public class OCSPVerifier extends RootStoreVerifier {
         if (signCert == null && issuerCert == null) {
             return null;
         }
-        OcspClientBouncyCastle ocsp = new OcspClientBouncyCastle(null);
-        BasicOCSPResp ocspResp = ocsp.getBasicOCSPResp(signCert, issuerCert, null);
+        BasicOCSPResp ocspResp;
+        if (revocationDataCache != null) {
+            ocspResp = revocationDataCache.getOcspResponse(signCert, issuerCert, null);
+        } else {
+            OcspClientBouncyCastle ocsp = new OcspClientBouncyCastle(null);
+            ocspResp = ocsp.getBasicOCSPResp(signCert, issuerCert, null);
+        }
         if (ocspResp == null) {
             return null;
         }
@@ -0,0 +1,288 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2016 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.signatures;
+
+import com.itextpdf.kernel.PdfException;
+import org.bouncycastle.asn1.esf.SignaturePolicyIdentifier;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.security.cert.Certificate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Signs many documents with the same certificate chain in the detached mode, see
+ * {@link PdfSigner#signDetached(IExternalDigest, IExternalSignature, Certificate[], Collection, IOcspClient, ITSAClient, int, PdfSigner.CryptoStandard, SignaturePolicyIdentifier)}.
+ * <br><br>
+ * The documents are pre-closed, hashed, signed and time-stamped by a pool of worker threads, so the
+ * round-trips to the OCSP responder and the TSA of one document overlap with the work on the other documents.
+ * The OCSP responses and the CRLs of the chain are retrieved once and reused for all the documents of the batch:
+ * the CRL and OCSP clients are wrapped into {@link RevocationDataCache}s, unless they are revocation data caches
+ * already, which are then used as is and can be shared with other signers and verifiers.
+ * <br><br>
+ * The {@link IExternalDigest}, {@link IExternalSignature} and {@link ITSAClient} implementations are used by several
+ * threads at once, so they shall be thread-safe. {@link BouncyCastleDigest}, {@link PrivateKeySignature} and
+ * {@link TSAClientBouncyCastle} are.
+ */
+public class PdfBatchSigner {
+
+    private static final AtomicInteger poolNumber = new AtomicInteger();
+    private static final long DEFAULT_REVOCATION_DATA_VALIDITY = 10 * 60 * 1000;
+
+    private final IExternalDigest externalDigest;
+    private final IExternalSignature externalSignature;
+    private final Certificate[] chain;
+    private final Collection<ICrlClient> crlList;
+    private final IOcspClient ocspClient;
+    private final ITSAClient tsaClient;
+    private final PdfSigner.CryptoStandard sigtype;
+    private final ThreadPoolExecutor executor;
+
+    private int estimatedSize;
+    private SignaturePolicyIdentifier signaturePolicy;
+    private final List<RevocationDataCache> revocationDataCaches = new ArrayList<>();
+
+    /**
+     * Creates a batch signer.
+     *
+     * @param externalDigest    an implementation that provides the digest
+     * @param externalSignature the interface providing the actual signing
+     * @param chain             the certificate chain
+     * @param crlList           the CRL list, the clients which aren't {@link RevocationDataCache}s are wrapped into ones
+     * @param ocspClient        the OCSP client, it is wrapped into a {@link RevocationDataCache} if it isn't one
+     * @param tsaClient         the Timestamp client
+     * @param sigtype           Either Signature.CMS or Signature.CADES
+     * @param threadsCount      the number of documents signed at once
+     */
+    public PdfBatchSigner(IExternalDigest externalDigest, IExternalSignature externalSignature, Certificate[] chain, Collection<ICrlClient> crlList,
+                          IOcspClient ocspClient, ITSAClient tsaClient, PdfSigner.CryptoStandard sigtype, int threadsCount) {
+        this.externalDigest = externalDigest;
+        this.externalSignature = externalSignature;
+        this.chain = chain;
+        if (crlList != null) {
+            this.crlList = new ArrayList<>(crlList.size());
+            for (ICrlClient crlClient : crlList) {
+                if (crlClient != null) {
+                    this.crlList.add(crlClient instanceof RevocationDataCache ? crlClient : createRevocationDataCache(crlClient, null));
+                }
+            }
+        } else {
+            this.crlList = null;
+        }
+        if (ocspClient != null) {
+            this.ocspClient = ocspClient instanceof RevocationDataCache ? ocspClient : createRevocationDataCache(null, ocspClient);
+        } else {
+            this.ocspClient = null;
+        }
+        this.tsaClient = tsaClient;
+        this.sigtype = sigtype;
+        threadsCount = Math.max(threadsCount, 1);
+        this.executor = new ThreadPoolExecutor(threadsCount, threadsCount, 1, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new SigningThreadFactory());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Sets the reserved size for the signatures. It will be estimated for each document if 0, which is the default value.
+     *
+     * @param estimatedSize the reserved size for the signature
+     * @return this {@code PdfBatchSigner} instance
+     */
+    public PdfBatchSigner setEstimatedSize(int estimatedSize) {
+        this.estimatedSize = estimatedSize;
+        return this;
+    }
+
+    /**
+     * Sets the signature policy for EPES signatures.
+     *
+     * @param signaturePolicy the signature policy
+     * @return this {@code PdfBatchSigner} instance
+     */
+    public PdfBatchSigner setSignaturePolicy(SignaturePolicyIdentifier signaturePolicy) {
+        this.signaturePolicy = signaturePolicy;
+        return this;
+    }
+
+    /**
+     * Sets the signature policy for EPES signatures.
+     *
+     * @param signaturePolicy the signature policy
+     * @return this {@code PdfBatchSigner} instance
+     */
+    public PdfBatchSigner setSignaturePolicy(SignaturePolicyInfo signaturePolicy) {
+        return setSignaturePolicy(signaturePolicy.toSignaturePolicyIdentifier());
+    }
+
+    /**
+     * Sets how long the retrieved OCSP responses and CRLs are reused after their this update, in milliseconds,
+     * see {@link RevocationDataCache#setMaxAge(long)}. Default value is 10 minutes. The revocation data is never
+     * reused after its next update. The validity is applied only to the caches created by the batch signer,
+     * the {@link RevocationDataCache}s passed to the constructor keep their own settings.
+     *
+     * @param revocationDataValidity the time in milliseconds, 0 to retrieve the revocation data for each document
+     * @return this {@code PdfBatchSigner} instance
+     */
+    public PdfBatchSigner setRevocationDataValidity(long revocationDataValidity) {
+        for (RevocationDataCache revocationDataCache : revocationDataCaches) {
+            revocationDataCache.setMaxAge(revocationDataValidity);
+        }
+        return this;
+    }
+
+    /**
+     * Schedules signing of a document. The signer of the document is created by the worker thread,
+     * which then signs the document and closes the signer.
+     *
+     * @param signerFactory creates the {@link PdfSigner} of the document, with the field name and the appearance
+     *                      of the signature set
+     * @return the {@link Future} of the signing, which can be used to wait for the signing and to get its failure.
+     */
+    public Future<Void> submit(ISignerFactory signerFactory) {
+        return executor.submit(new SigningTask(signerFactory));
+    }
+
+    /**
+     * Signs the documents and waits until all of them are signed.
+     *
+     * @param signerFactories create the {@link PdfSigner}s of the documents, see {@link #submit(ISignerFactory)}
+     * @throws IOException              the first failure of the signing of the documents
+     * @throws GeneralSecurityException the first failure of the signing of the documents
+     */
+    public void signDetached(Collection<? extends ISignerFactory> signerFactories) throws IOException, GeneralSecurityException {
+        List<Future<Void>> results = new ArrayList<>(signerFactories.size());
+        for (ISignerFactory signerFactory : signerFactories) {
+            results.add(submit(signerFactory));
+        }
+        Throwable failure = null;
+        for (Future<Void> result : results) {
+            try {
+                result.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                for (Future<Void> pendingResult : results) {
+                    pendingResult.cancel(true);
+                }
+                throw new PdfException(PdfException.DocumentSigningFailed, e);
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause();
+                }
+            }
+        }
+        if (failure instanceof IOException) {
+            throw (IOException) failure;
+        } else if (failure instanceof GeneralSecurityException) {
+            throw (GeneralSecurityException) failure;
+        } else if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        } else if (failure != null) {
+            throw new PdfException(PdfException.DocumentSigningFailed, failure);
+        }
+    }
+
+    /**
+     * Stops the worker threads after the documents, which have been already submitted, are signed.
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private RevocationDataCache createRevocationDataCache(ICrlClient crlClient, IOcspClient ocspClient) {
+        RevocationDataCache revocationDataCache = new RevocationDataCache(crlClient, ocspClient).setMaxAge(DEFAULT_REVOCATION_DATA_VALIDITY);
+        revocationDataCaches.add(revocationDataCache);
+        return revocationDataCache;
+    }
+
+    /**
+     * Creates the {@link PdfSigner} of a document of the batch.
+     */
+    public interface ISignerFactory {
+        /**
+         * Creates the {@link PdfSigner} of the document. It is called by a worker thread of the batch.
+         *
+         * @return the signer of the document.
+         * @throws IOException
+         * @throws GeneralSecurityException
+         */
+        PdfSigner createSigner() throws IOException, GeneralSecurityException;
+    }
+
+    private class SigningTask implements Callable<Void> {
+        private final ISignerFactory signerFactory;
+
+        SigningTask(ISignerFactory signerFactory) {
+            this.signerFactory = signerFactory;
+        }
+
+        @Override
+        public Void call() throws IOException, GeneralSecurityException {
+            PdfSigner signer = signerFactory.createSigner();
+            signer.signDetached(externalDigest, externalSignature, chain, crlList, ocspClient, tsaClient, estimatedSize, sigtype, signaturePolicy);
+            return null;
+        }
+    }
+
+    private static class SigningThreadFactory implements ThreadFactory {
+        private final String namePrefix = "itext-batch-signing-" + poolNumber.incrementAndGet() + "-";
+        private final AtomicInteger threadNumber = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, namePrefix + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,396 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2016 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.signatures;
+
+import com.itextpdf.io.util.DateTimeUtil;
+import com.itextpdf.kernel.PdfException;
+import com.itextpdf.kernel.pdf.PdfArray;
+import com.itextpdf.kernel.pdf.PdfDictionary;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfStream;
+import org.bouncycastle.cert.ocsp.BasicOCSPResp;
+import org.bouncycastle.cert.ocsp.OCSPException;
+import org.bouncycastle.cert.ocsp.OCSPResp;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.security.cert.CRL;
+import java.security.cert.Certificate;
+import java.security.cert.X509CRL;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.itextpdf.signatures.LtvVerification.CertificateOption;
+
+/**
+ * Verifies all the signatures of a document at once.
+ * <br><br>
+ * The signed byte ranges of all the signatures are digested in a single pass over the document,
+ * see {@link SignatureUtil#verifySignatures(String)}. Then the signatures are checked by a pool of worker threads:
+ * the integrity of the signed bytes, the timestamp imprint, the validity of the certificate chain and the revocation
+ * status of the certificates against the root store, the CRLs and the OCSP responses. The CRLs and the OCSP responses
+ * embedded in the signature and stored in the Document Security Store are used, and they are requested online
+ * if allowed and none of them is valid for a certificate.
+ * <br><br>
+ * The certificates are checked on the date of the timestamp of the signature if it has one, otherwise on the signing date.
+ * In contrast to {@link LtvVerifier}, the revisions are not extracted and the revocation data of the latest revision
+ * is used for all the signatures.
+ * <br><br>
+ * The extra {@link CertificateVerifier} set by {@link #setVerifier(CertificateVerifier)} is used by several threads
+ * at once, so it shall be thread-safe.
+ */
+public class PdfSignaturesVerifier {
+
+    private static final AtomicInteger poolNumber = new AtomicInteger();
+
+    private final PdfDocument document;
+    private final int threadsCount;
+
+    private String provider;
+    private KeyStore rootStore;
+    private CertificateVerifier verifier;
+    private CertificateOption option = CertificateOption.SIGNING_CERTIFICATE;
+    private boolean onlineCheckingAllowed = true;
+    private RevocationDataCache revocationDataCache;
+
+    /**
+     * Creates a PdfSignaturesVerifier instance.
+     *
+     * @param document     the document, which signatures are verified
+     * @param threadsCount the number of signatures checked at once
+     */
+    public PdfSignaturesVerifier(PdfDocument document, int threadsCount) {
+        this.document = document;
+        this.threadsCount = Math.max(threadsCount, 1);
+    }
+
+    /**
+     * Sets the provider used by the {@link PdfPKCS7} objects.
+     *
+     * @param provider the provider or null for the default provider
+     * @return this {@code PdfSignaturesVerifier} instance
+     */
+    public PdfSignaturesVerifier setProvider(String provider) {
+        this.provider = provider;
+        return this;
+    }
+
+    /**
+     * Sets the Key Store against which the certificates are checked.
+     *
+     * @param rootStore a root store
+     * @return this {@code PdfSignaturesVerifier} instance
+     */
+    public PdfSignaturesVerifier setRootStore(KeyStore rootStore) {
+        this.rootStore = rootStore;
+        return this;
+    }
+
+    /**
+     * Sets an extra verifier.
+     *
+     * @param verifier the verifier to set
+     * @return this {@code PdfSignaturesVerifier} instance
+     */
+    public PdfSignaturesVerifier setVerifier(CertificateVerifier verifier) {
+        this.verifier = verifier;
+        return this;
+    }
+
+    /**
+     * Sets the certificate option.
+     *
+     * @param option Either CertificateOption.SIGNING_CERTIFICATE (default) or CertificateOption.WHOLE_CHAIN
+     * @return this {@code PdfSignaturesVerifier} instance
+     */
+    public PdfSignaturesVerifier setCertificateOption(CertificateOption option) {
+        this.option = option;
+        return this;
+    }
+
+    /**
+     * Decide whether or not to allow online checking of the revocation status of the certificates.
+     *
+     * @param onlineCheckingAllowed true by default
+     * @return this {@code PdfSignaturesVerifier} instance
+     */
+    public PdfSignaturesVerifier setOnlineCheckingAllowed(boolean onlineCheckingAllowed) {
+        this.onlineCheckingAllowed = onlineCheckingAllowed;
+        return this;
+    }
+
+    /**
+     * Sets the cache of the revocation data fetched online, so the CRLs and the OCSP responses are reused
+     * for the signatures by the certificates of the same CA.
+     *
+     * @param revocationDataCache the cache, or null to fetch the revocation data for each signature
+     * @return this {@code PdfSignaturesVerifier} instance
+     */
+    public PdfSignaturesVerifier setRevocationDataCache(RevocationDataCache revocationDataCache) {
+        this.revocationDataCache = revocationDataCache;
+        return this;
+    }
+
+    /**
+     * Verifies all the signatures of the document.
+     *
+     * @return the results of the verification of the signatures, in the order of the revisions
+     * @throws IOException              if the Document Security Store can't be read
+     * @throws GeneralSecurityException if the Document Security Store can't be read
+     */
+    public List<SignatureVerificationResult> verify() throws IOException, GeneralSecurityException {
+        // the document is only accessed by the calling thread
+        SignatureUtil sgnUtil = new SignatureUtil(document);
+        Map<String, PdfPKCS7> signatures = sgnUtil.verifySignatures(provider);
+        PdfDictionary dss = document.getCatalog().getPdfObject().getAsDictionary(PdfName.DSS);
+        List<X509CRL> dssCrls = getCRLsFromDSS(dss);
+        List<BasicOCSPResp> dssOcsps = getOCSPResponsesFromDSS(dss);
+        List<SignatureVerificationResult> results = new ArrayList<>(signatures.size());
+        for (Map.Entry<String, PdfPKCS7> entry : signatures.entrySet()) {
+            SignatureVerificationResult result = new SignatureVerificationResult(entry.getKey(), sgnUtil.getRevision(entry.getKey()), entry.getValue());
+            result.coversWholeDocument = sgnUtil.signatureCoversWholeDocument(entry.getKey());
+            results.add(result);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threadsCount, Math.max(results.size(), 1)), new VerificationThreadFactory());
+        try {
+            List<Future<Void>> futures = new ArrayList<>(results.size());
+            for (SignatureVerificationResult result : results) {
+                futures.add(executor.submit(new VerificationTask(result, dssCrls, dssOcsps)));
+            }
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PdfException(PdfException.SignatureVerificationFailed, e);
+        } catch (ExecutionException e) {
+            throw new PdfException(PdfException.SignatureVerificationFailed, e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        return results;
+    }
+
+    /**
+     * Checks a signature. The failures of the checks are added to the result.
+     *
+     * @param result   the result of the verification of the signature
+     * @param dssCrls  the CRLs from the Document Security Store
+     * @param dssOcsps the OCSP responses from the Document Security Store
+     */
+    protected void verifySignature(SignatureVerificationResult result, List<X509CRL> dssCrls, List<BasicOCSPResp> dssOcsps) {
+        PdfPKCS7 pkcs7 = result.pkcs7;
+        try {
+            result.integrityValid = pkcs7.verify();
+            if (pkcs7.getTimeStampToken() != null) {
+                result.timestampImprintValid = pkcs7.verifyTimestampImprint();
+            }
+        } catch (GeneralSecurityException e) {
+            result.errors.add(e);
+            return;
+        }
+        Calendar cal = pkcs7.getSignDate();
+        result.verificationDate = cal != null ? cal : DateTimeUtil.getCurrentTimeCalendar();
+        Date verificationDate = result.verificationDate.getTime();
+        Certificate[] chain = pkcs7.getSignCertificateChain();
+        try {
+            verifyChain(chain, verificationDate);
+        } catch (GeneralSecurityException e) {
+            result.errors.add(e);
+            return;
+        }
+
+        List<X509CRL> crls = new ArrayList<>(dssCrls);
+        if (pkcs7.getCRLs() != null) {
+            for (CRL crl : pkcs7.getCRLs()) {
+                if (crl instanceof X509CRL) {
+                    crls.add((X509CRL) crl);
+                }
+            }
+        }
+        List<BasicOCSPResp> ocsps = new ArrayList<>(dssOcsps);
+        if (pkcs7.getOcsp() != null) {
+            ocsps.add(pkcs7.getOcsp());
+        }
+        int total = CertificateOption.WHOLE_CHAIN.equals(option) ? chain.length : 1;
+        for (int i = 0; i < total; ) {
+            X509Certificate signCert = (X509Certificate) chain[i++];
+            X509Certificate issuerCert = i < chain.length ? (X509Certificate) chain[i] : null;
+            try {
+                List<VerificationOK> list = verify(signCert, issuerCert, verificationDate, crls, ocsps);
+                if (list.size() == 0) {
+                    throw new VerificationException(signCert, "Couldn't verify with CRL or OCSP or trusted anchor");
+                }
+                result.certificateVerifications.addAll(list);
+            } catch (GeneralSecurityException e) {
+                result.errors.add(e);
+            } catch (IOException e) {
+                result.errors.add(e);
+            }
+        }
+    }
+
+    /**
+     * Checks the certificates in a certificate chain:
+     * are they valid on a specific date, and
+     * do they chain up correctly?
+     *
+     * @param chain            the certificate chain
+     * @param verificationDate the date
+     * @throws GeneralSecurityException
+     */
+    protected void verifyChain(Certificate[] chain, Date verificationDate) throws GeneralSecurityException {
+        for (int i = 0; i < chain.length; i++) {
+            X509Certificate cert = (X509Certificate) chain[i];
+            // check if the certificate was/is valid
+            cert.checkValidity(verificationDate);
+            // check if the previous certificate was issued by this certificate
+            if (i > 0)
+                chain[i - 1].verify(chain[i].getPublicKey());
+        }
+    }
+
+    /**
+     * Verifies a certificate against the root store, a list of CRLs and a list of OCSP responses.
+     *
+     * @param signCert         the certificate
+     * @param issuerCert       the issuer's certificate
+     * @param verificationDate the date
+     * @param crls             the CRLs
+     * @param ocsps            the OCSP responses
+     * @return a list of <code>VerificationOK</code> objects.
+     * The list will be empty if the certificate couldn't be verified.
+     * @throws GeneralSecurityException
+     * @throws IOException
+     */
+    protected List<VerificationOK> verify(X509Certificate signCert, X509Certificate issuerCert, Date verificationDate,
+                                          List<X509CRL> crls, List<BasicOCSPResp> ocsps) throws GeneralSecurityException, IOException {
+        RootStoreVerifier rootStoreVerifier = new RootStoreVerifier(verifier);
+        rootStoreVerifier.setRootStore(rootStore);
+        CRLVerifier crlVerifier = new CRLVerifier(rootStoreVerifier, crls);
+        crlVerifier.setRootStore(rootStore);
+        crlVerifier.setOnlineCheckingAllowed(onlineCheckingAllowed);
+        crlVerifier.setRevocationDataCache(revocationDataCache);
+        OCSPVerifier ocspVerifier = new OCSPVerifier(crlVerifier, ocsps);
+        ocspVerifier.setRootStore(rootStore);
+        ocspVerifier.setOnlineCheckingAllowed(onlineCheckingAllowed);
+        ocspVerifier.setRevocationDataCache(revocationDataCache);
+        return ocspVerifier.verify(signCert, issuerCert, verificationDate);
+    }
+
+    private static List<X509CRL> getCRLsFromDSS(PdfDictionary dss) throws GeneralSecurityException, IOException {
+        List<X509CRL> crls = new ArrayList<>();
+        PdfArray crlarray = dss != null ? dss.getAsArray(PdfName.CRLs) : null;
+        if (crlarray == null)
+            return crls;
+        for (int i = 0; i < crlarray.size(); i++) {
+            PdfStream stream = crlarray.getAsStream(i);
+            crls.add((X509CRL) SignUtils.parseCrlFromStream(new ByteArrayInputStream(stream.getBytes())));
+        }
+        return crls;
+    }
+
+    private static List<BasicOCSPResp> getOCSPResponsesFromDSS(PdfDictionary dss) throws IOException, GeneralSecurityException {
+        List<BasicOCSPResp> ocsps = new ArrayList<>();
+        PdfArray ocsparray = dss != null ? dss.getAsArray(PdfName.OCSPs) : null;
+        if (ocsparray == null)
+            return ocsps;
+        for (int i = 0; i < ocsparray.size(); i++) {
+            PdfStream stream = ocsparray.getAsStream(i);
+            OCSPResp ocspResponse = new OCSPResp(stream.getBytes());
+            if (ocspResponse.getStatus() == 0)
+                try {
+                    ocsps.add((BasicOCSPResp) ocspResponse.getResponseObject());
+                } catch (OCSPException e) {
+                    throw new GeneralSecurityException(e.toString());
+                }
+        }
+        return ocsps;
+    }
+
+    private class VerificationTask implements Callable<Void> {
+        private final SignatureVerificationResult result;
+        private final List<X509CRL> dssCrls;
+        private final List<BasicOCSPResp> dssOcsps;
+
+        VerificationTask(SignatureVerificationResult result, List<X509CRL> dssCrls, List<BasicOCSPResp> dssOcsps) {
+            this.result = result;
+            this.dssCrls = dssCrls;
+            this.dssOcsps = dssOcsps;
+        }
+
+        @Override
+        public Void call() {
+            verifySignature(result, dssCrls, dssOcsps);
+            return null;
+        }
+    }
+
+    private static class VerificationThreadFactory implements ThreadFactory {
+        private final String namePrefix = "itext-signatures-verification-" + poolNumber.incrementAndGet() + "-";
+        private final AtomicInteger threadNumber = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, namePrefix + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -47,7 +47,9 @@ import com.itextpdf.forms.PdfAcroForm;
 import com.itextpdf.forms.PdfSigFieldLockDictionary;
 import com.itextpdf.forms.fields.PdfFormField;
 import com.itextpdf.forms.fields.PdfSignatureFormField;
+import com.itextpdf.io.LogMessageConstant;
 import com.itextpdf.io.source.ByteBuffer;
+import com.itextpdf.io.source.IDirectRandomAccessSource;
 import com.itextpdf.io.source.IRandomAccessSource;
 import com.itextpdf.io.source.RASInputStream;
 import com.itextpdf.io.source.RandomAccessSourceFactory;
@@ -75,19 +77,26 @@ import com.itextpdf.kernel.pdf.StampingProperties;
 import com.itextpdf.kernel.pdf.annot.PdfAnnotation;
 import com.itextpdf.kernel.pdf.annot.PdfWidgetAnnotation;
 import org.bouncycastle.asn1.esf.SignaturePolicyIdentifier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.ByteArrayOutputStream;
 import java.io.EOFException;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.RandomAccessFile;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.security.GeneralSecurityException;
 import java.security.MessageDigest;
 import java.security.PrivateKey;
 import java.security.cert.Certificate;
 import java.security.cert.X509Certificate;
+import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
@@ -136,6 +145,11 @@ public class PdfSigner {
      */
     public static final int CERTIFIED_FORM_FILLING_AND_ANNOTATIONS = 3;
 
+    /**
+     * The maximum size of a region of the temporary file, which is memory mapped at once while digesting.
+     */
+    private static final long MAPPED_REGION_SIZE = 64 * 1024 * 1024;
+
     /**
      * The certification level.
      */
@@ -234,7 +248,9 @@ public class PdfSigner {
     }
 
     /**
-     * Creates a PdfSigner instance. Uses a {@link java.io.ByteArrayOutputStream} instead of a temporary file.
+     * Creates a PdfSigner instance. Uses a {@link java.io.ByteArrayOutputStream} instead of a temporary file
+     * if the path is null. The bytes to be signed are digested from the memory mapped temporary file,
+     * which suits large documents.
      *
      * @param reader       PdfReader that reads the PDF file
      * @param outputStream OutputStream to write the signed PDF file
@@ -574,8 +590,7 @@ public class PdfSigner {
         if (signaturePolicy != null) {
             sgn.setSignaturePolicy(signaturePolicy);
         }
-        InputStream data = getRangeStream();
-        byte[] hash = DigestAlgorithms.digest(data, SignUtils.getMessageDigest(hashAlgorithm, externalDigest));
+        byte[] hash = digestRangeBytes(SignUtils.getMessageDigest(hashAlgorithm, externalDigest));
         byte[] ocsp = null;
         if (chain.length >= 2 && ocspClient != null) {
             ocsp = ocspClient.getEncoded((X509Certificate) chain[0], (X509Certificate) chain[1], null);
@@ -674,14 +689,7 @@ public class PdfSigner {
         Map<PdfName, Integer> exc = new HashMap<>();
         exc.put(PdfName.Contents, contentEstimated * 2 + 2);
         preClose(exc);
-        InputStream data = getRangeStream();
-        MessageDigest messageDigest = tsa.getMessageDigest();
-        byte[] buf = new byte[4096];
-        int n;
-        while ((n = data.read(buf)) > 0) {
-            messageDigest.update(buf, 0, n);
-        }
-        byte[] tsImprint = messageDigest.digest();
+        byte[] tsImprint = digestRangeBytes(tsa.getMessageDigest());
         byte[] tsToken;
         try {
             tsToken = tsa.getTimeStampToken(tsImprint);
@@ -983,6 +991,70 @@ public class PdfSigner {
         return new RASInputStream(fac.createRanged(getUnderlyingSource(), range));
     }
 
+    /**
+     * Digests the document bytes that are hashable, i.e. the bytes of {@link #getRangeStream()}.
+     * The bytes are fed to the digest without copying: straight from the document buffer, or from memory mapped
+     * regions of the temporary file if the document is written to a temporary file. If {@link #getRangeStream()}
+     * is overridden, the bytes of the returned stream are digested instead.
+     *
+     * @param messageDigest the digest
+     * @return the digest of the bytes to be signed
+     * @throws IOException on error
+     */
+    protected byte[] digestRangeBytes(MessageDigest messageDigest) throws IOException {
+        if (!preClosed)
+            throw new PdfException(PdfException.DocumentMustBePreClosed);
+        if (isRangeStreamOverridden()) {
+            InputStream data = getRangeStream();
+            byte[] buf = new byte[8192];
+            int n;
+            while ((n = data.read(buf)) > 0) {
+                messageDigest.update(buf, 0, n);
+            }
+        } else if (tempFile == null) {
+            for (int k = 0; k < range.length; k += 2) {
+                messageDigest.update(bout, (int) range[k], (int) range[k + 1]);
+            }
+        } else {
+            RandomAccessSourceFactory fac = new RandomAccessSourceFactory();
+            FileChannel channel = raf.getChannel();
+            for (int k = 0; k < range.length; k += 2) {
+                long position = range[k];
+                long end = range[k] + range[k + 1];
+                while (position < end) {
+                    long size = Math.min(end - position, MAPPED_REGION_SIZE);
+                    // the regions are mapped one by one, so the address space needed doesn't depend on the document size
+                    IDirectRandomAccessSource region = fac.createMappedSource(channel, position, size);
+                    try {
+                        messageDigest.update(region.getDirectBuffer(0));
+                    } finally {
+                        // the region is unmapped at once, otherwise the temporary file can't be deleted on some systems
+                        region.close();
+                    }
+                    position += size;
+                }
+            }
+        }
+        return messageDigest.digest();
+    }
+
+    /**
+     * Checks if {@link #getRangeStream()} is overridden by a subclass, so that the bytes to be signed
+     * shall be obtained from it.
+     *
+     * @return true if the method is overridden, otherwise false.
+     */
+    private boolean isRangeStreamOverridden() {
+        for (Class<?> cls = getClass(); cls != PdfSigner.class; cls = cls.getSuperclass()) {
+            try {
+                cls.getDeclaredMethod("getRangeStream");
+                return true;
+            } catch (NoSuchMethodException ignored) {
+            }
+        }
+        return false;
+    }
+
     /**
      * This is the last method to be called when using external signatures. The general sequence is:
      * preClose(), getDocumentBytes() and close().
@@ -1023,15 +1095,17 @@ public class PdfSigner {
                 originalOS.write(bout, 0, bout.length);
             } else {
                 if (originalOS != null) {
-                    raf.seek(0);
+                    FileChannel channel = raf.getChannel();
                     long length = raf.length();
-                    byte[] buf = new byte[8192];
-                    while (length > 0) {
-                        int r = raf.read(buf, 0, (int) Math.min((long) buf.length, length));
-                        if (r < 0)
+                    // the file is copied by the system when possible, without passing through the java heap
+                    WritableByteChannel target = originalOS instanceof FileOutputStream
+                            ? ((FileOutputStream) originalOS).getChannel() : Channels.newChannel(originalOS);
+                    long position = 0;
+                    while (position < length) {
+                        long transferred = channel.transferTo(position, length - position, target);
+                        if (transferred <= 0)
                             throw new EOFException("unexpected eof");
-                        originalOS.write(buf, 0, r);
-                        length -= r;
+                        position += transferred;
                     }
                 }
             }
@@ -1039,8 +1113,9 @@ public class PdfSigner {
             if (tempFile != null) {
                 raf.close();
 
-                if (originalOS != null) {
-                    tempFile.delete();
+                if (originalOS != null && !tempFile.delete()) {
+                    Logger logger = LoggerFactory.getLogger(PdfSigner.class);
+                    logger.warn(MessageFormat.format(LogMessageConstant.TEMPORARY_FILE_DELETION_FAILED, tempFile.getPath()));
                 }
             }
 
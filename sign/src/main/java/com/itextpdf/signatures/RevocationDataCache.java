@@ -0,0 +1,523 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2016 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.signatures;
+
+import com.itextpdf.io.util.StreamUtil;
+import org.bouncycastle.cert.ocsp.BasicOCSPResp;
+import org.bouncycastle.cert.ocsp.SingleResp;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.cert.CRL;
+import java.security.cert.X509CRL;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Keeps the CRLs and the OCSP responses retrieved online, so they are retrieved and parsed once
+ * and reused while they are up to date, e.g. for all the documents signed by the certificates of the same CA.
+ * <br><br>
+ * The CRLs are kept by the issuer of the checked certificate and the URL of the CRL, the OCSP responses are kept
+ * by the issuer and the serial number of the checked certificate. The revocation data is reused until its
+ * next update, and at most for the maximum age set by {@link #setMaxAge(long)} after its this update.
+ * An OCSP response without next update is reused for 180 seconds after its this update, see
+ * {@link OCSPVerifier#verify(BasicOCSPResp, X509Certificate, X509Certificate, Date)}, a CRL without next update
+ * isn't reused. At most {@link #setMaxEntries(int) maxEntries} entries are kept in memory, the least recently used
+ * ones are evicted first. If a store directory is set, the revocation data is also stored on disk and
+ * reused by other instances of the cache, e.g. after a restart of the application.
+ * <br><br>
+ * The revocation data is retrieved by an {@link ICrlClient} and an {@link IOcspClient}, which can be replaced
+ * e.g. by local responders. The cache is an {@link ICrlClient} and an {@link IOcspClient} itself, so it can be used
+ * both for signing, see {@link PdfSigner} and {@link PdfBatchSigner}, and for verification, see
+ * {@link CRLVerifier#setRevocationDataCache(RevocationDataCache)} and {@link OCSPVerifier#setRevocationDataCache(RevocationDataCache)}.
+ * <br><br>
+ * The cache is thread-safe. The revocation data is retrieved outside of any lock, the threads requesting
+ * the same data at once wait for a single retrieval, while the requests for other data aren't blocked.
+ */
+public class RevocationDataCache implements ICrlClient, IOcspClient {
+
+    /** The default maximum number of entries kept in memory. */
+    public static final int DEFAULT_MAX_ENTRIES = 256;
+
+    /** The Logger instance. */
+    private static final Logger LOGGER = LoggerFactory.getLogger(RevocationDataCache.class);
+
+    private static final String CRL_EXTENSION = ".crl";
+    private static final String OCSP_EXTENSION = ".ocsp";
+
+    private final ICrlClient crlClient;
+    private final IOcspClient ocspClient;
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final ConcurrentMap<String, FutureTask<Entry>> pendingRetrievals = new ConcurrentHashMap<>();
+
+    private int maxEntries = DEFAULT_MAX_ENTRIES;
+    private volatile long maxAge = Long.MAX_VALUE;
+    private File storeDirectory;
+
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    /**
+     * Creates a RevocationDataCache, which retrieves the CRLs by {@link CrlClientOnline}
+     * and the OCSP responses by {@link OcspClientBouncyCastle}.
+     */
+    public RevocationDataCache() {
+        this(new CrlClientOnline(), new OcspClientBouncyCastle(null));
+    }
+
+    /**
+     * Creates a RevocationDataCache.
+     *
+     * @param crlClient  the client retrieving the CRLs, or null if the CRLs shall not be retrieved
+     * @param ocspClient the client retrieving the OCSP responses, or null if the OCSP responses shall not be retrieved
+     */
+    public RevocationDataCache(ICrlClient crlClient, IOcspClient ocspClient) {
+        this.crlClient = crlClient;
+        this.ocspClient = ocspClient;
+    }
+
+    /**
+     * Sets the maximum number of entries kept in memory. Default value is {@link #DEFAULT_MAX_ENTRIES}.
+     *
+     * @param maxEntries the maximum number of entries
+     * @return this {@code RevocationDataCache} instance
+     */
+    public RevocationDataCache setMaxEntries(int maxEntries) {
+        synchronized (entries) {
+            this.maxEntries = Math.max(maxEntries, 0);
+            evictEldestEntries();
+        }
+        return this;
+    }
+
+    /**
+     * Sets how long the revocation data is reused after its this update, in milliseconds.
+     * By default it is reused until its next update.
+     *
+     * @param maxAge the time in milliseconds
+     * @return this {@code RevocationDataCache} instance
+     */
+    public RevocationDataCache setMaxAge(long maxAge) {
+        this.maxAge = maxAge;
+        return this;
+    }
+
+    /**
+     * Sets the directory, in which the revocation data is stored. The data, which isn't found in memory,
+     * is looked up in the directory before it is retrieved. By default the data is kept only in memory.
+     *
+     * @param storeDirectory an existing directory, or null to keep the data only in memory
+     * @return this {@code RevocationDataCache} instance
+     */
+    public RevocationDataCache setStoreDirectory(File storeDirectory) {
+        this.storeDirectory = storeDirectory;
+        return this;
+    }
+
+    /**
+     * Gets the up to date CRLs of a certificate.
+     *
+     * @param checkCert the certificate to check
+     * @param url       the URL of the CRL, or null to use the one from the certificate
+     * @return the list of CRLs, empty if none could be retrieved
+     */
+    public List<X509CRL> getCrls(X509Certificate checkCert, String url) {
+        Entry entry = getCrlEntry(checkCert, url);
+        return entry != null ? entry.crls : Collections.<X509CRL>emptyList();
+    }
+
+    /**
+     * Gets the up to date OCSP response of a certificate.
+     *
+     * @param checkCert  the certificate to check
+     * @param issuerCert the issuer's certificate
+     * @param url        the URL of the OCSP responder, or null to use the one from the certificate
+     * @return the OCSP response, or null if it couldn't be retrieved
+     */
+    public BasicOCSPResp getOcspResponse(X509Certificate checkCert, X509Certificate issuerCert, String url) {
+        Entry entry = getOcspEntry(checkCert, issuerCert, url);
+        return entry != null ? entry.ocspResponse : null;
+    }
+
+    /**
+     * Gets the encoded up to date CRLs of a certificate.
+     *
+     * @see ICrlClient#getEncoded(X509Certificate, String)
+     */
+    @Override
+    public Collection<byte[]> getEncoded(X509Certificate checkCert, String url) {
+        Entry entry = getCrlEntry(checkCert, url);
+        return entry != null ? new ArrayList<>(entry.encoded) : null;
+    }
+
+    /**
+     * Gets the encoded up to date OCSP response of a certificate.
+     *
+     * @see IOcspClient#getEncoded(X509Certificate, X509Certificate, String)
+     */
+    @Override
+    public byte[] getEncoded(X509Certificate checkCert, X509Certificate issuerCert, String url) {
+        Entry entry = getOcspEntry(checkCert, issuerCert, url);
+        return entry != null ? entry.encoded.get(0) : null;
+    }
+
+    /**
+     * Gets the number of requests, which were served by the revocation data kept in memory or on disk.
+     *
+     * @return the number of hits
+     */
+    public long getHitCount() {
+        synchronized (entries) {
+            return hitCount;
+        }
+    }
+
+    /**
+     * Gets the number of requests, for which the revocation data was retrieved.
+     *
+     * @return the number of misses
+     */
+    public long getMissCount() {
+        synchronized (entries) {
+            return missCount;
+        }
+    }
+
+    /**
+     * Gets the number of entries, which were evicted from memory because of the size bound.
+     *
+     * @return the number of evictions
+     */
+    public long getEvictionCount() {
+        synchronized (entries) {
+            return evictionCount;
+        }
+    }
+
+    /**
+     * Gets the number of entries kept in memory.
+     *
+     * @return the number of entries
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Removes all the entries kept in memory. The revocation data stored on disk is kept.
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    private Entry getCrlEntry(final X509Certificate checkCert, final String url) {
+        if (checkCert == null || crlClient == null)
+            return null;
+        String crlUrl = url;
+        if (crlUrl == null) {
+            try {
+                crlUrl = CertificateUtil.getCRLURL(checkCert);
+            } catch (GeneralSecurityException e) {
+                crlUrl = null;
+            }
+        }
+        String key = "crl#" + checkCert.getIssuerX500Principal().getName() + '#' + crlUrl;
+        Entry entry = lookup(key, CRL_EXTENSION);
+        if (entry != null)
+            return entry;
+        return retrieve(key, CRL_EXTENSION, new Callable<Entry>() {
+            @Override
+            public Entry call() {
+                return createCrlEntry(crlClient.getEncoded(checkCert, url));
+            }
+        });
+    }
+
+    private Entry getOcspEntry(final X509Certificate checkCert, final X509Certificate issuerCert, final String url) {
+        if (checkCert == null || ocspClient == null)
+            return null;
+        String key = "ocsp#" + checkCert.getIssuerX500Principal().getName() + '#' + checkCert.getSerialNumber().toString(16);
+        Entry entry = lookup(key, OCSP_EXTENSION);
+        if (entry != null)
+            return entry;
+        return retrieve(key, OCSP_EXTENSION, new Callable<Entry>() {
+            @Override
+            public Entry call() {
+                return createOcspEntry(ocspClient.getEncoded(checkCert, issuerCert, url));
+            }
+        });
+    }
+
+    /* Retrieves the entry, or waits for the entry being retrieved by another thread */
+    private Entry retrieve(String key, String extension, Callable<Entry> retrieval) {
+        FutureTask<Entry> task = new FutureTask<>(retrieval);
+        FutureTask<Entry> pendingTask = pendingRetrievals.putIfAbsent(key, task);
+        if (pendingTask != null)
+            return getRetrievedEntry(pendingTask);
+        try {
+            task.run();
+            Entry entry = getRetrievedEntry(task);
+            store(key, extension, entry);
+            return entry;
+        } finally {
+            pendingRetrievals.remove(key, task);
+        }
+    }
+
+    private static Entry getRetrievedEntry(FutureTask<Entry> task) {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Error)
+                throw (Error) e.getCause();
+            throw (RuntimeException) e.getCause();
+        }
+    }
+
+    /* Looks up the up to date entry in memory and on disk */
+    private Entry lookup(String key, String extension) {
+        long now = System.currentTimeMillis();
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                if (entry.isUpToDate(now)) {
+                    ++hitCount;
+                    return entry;
+                }
+                entries.remove(key);
+            }
+        }
+        Entry entry = load(key, extension);
+        synchronized (entries) {
+            if (entry != null && entry.isUpToDate(now)) {
+                ++hitCount;
+                put(key, entry);
+                return entry;
+            }
+            ++missCount;
+        }
+        return null;
+    }
+
+    /* Keeps the retrieved entry in memory and on disk, if it is up to date */
+    private void store(String key, String extension, Entry entry) {
+        if (entry == null || !entry.isUpToDate(System.currentTimeMillis()))
+            return;
+        synchronized (entries) {
+            put(key, entry);
+        }
+        File file = getStoreFile(key, extension);
+        if (file == null)
+            return;
+        File tempFile = new File(file.getPath() + ".tmp");
+        OutputStream out = null;
+        try {
+            out = new FileOutputStream(tempFile);
+            for (byte[] encoded : entry.encoded) {
+                out.write(encoded);
+            }
+            out.close();
+            out = null;
+            if (!tempFile.renameTo(file) && !(file.delete() && tempFile.renameTo(file))) {
+                throw new IOException(file.getPath());
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Revocation data couldn't be stored: " + e.getMessage());
+            tempFile.delete();
+        } finally {
+            if (out != null) {
+                try {
+                    out.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    private Entry load(String key, String extension) {
+        File file = getStoreFile(key, extension);
+        if (file == null || !file.isFile())
+            return null;
+        InputStream in = null;
+        try {
+            in = new FileInputStream(file);
+            byte[] bytes = StreamUtil.inputStreamToArray(in);
+            if (CRL_EXTENSION.equals(extension)) {
+                List<byte[]> encoded = new ArrayList<>();
+                for (CRL crl : SignUtils.parseCrlsFromStream(new ByteArrayInputStream(bytes))) {
+                    encoded.add(((X509CRL) crl).getEncoded());
+                }
+                return createCrlEntry(encoded);
+            } else {
+                return createOcspEntry(bytes);
+            }
+        } catch (Exception e) {
+            LOGGER.warn("Stored revocation data couldn't be read: " + e.getMessage());
+            return null;
+        } finally {
+            if (in != null) {
+                try {
+                    in.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    private File getStoreFile(String key, String extension) {
+        File directory = storeDirectory;
+        if (directory == null)
+            return null;
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA1").digest(key.getBytes(StandardCharsets.UTF_8));
+            return new File(directory, LtvVerification.convertToHex(digest) + extension);
+        } catch (GeneralSecurityException e) {
+            return null;
+        }
+    }
+
+    private void put(String key, Entry entry) {
+        entries.put(key, entry);
+        evictEldestEntries();
+    }
+
+    private void evictEldestEntries() {
+        while (entries.size() > maxEntries) {
+            entries.remove(entries.keySet().iterator().next());
+            ++evictionCount;
+        }
+    }
+
+    private Entry createCrlEntry(Collection<byte[]> encoded) {
+        if (encoded == null || encoded.isEmpty())
+            return null;
+        Entry entry = new Entry();
+        entry.crls = new ArrayList<>(encoded.size());
+        entry.encoded = new ArrayList<>(encoded.size());
+        entry.expirationTime = Long.MAX_VALUE;
+        for (byte[] bytes : encoded) {
+            try {
+                X509CRL crl = (X509CRL) SignUtils.parseCrlFromStream(new ByteArrayInputStream(bytes));
+                entry.crls.add(crl);
+                entry.encoded.add(bytes);
+                entry.expirationTime = Math.min(entry.expirationTime, getExpirationTime(crl.getThisUpdate(), crl.getNextUpdate()));
+            } catch (Exception e) {
+                LOGGER.info("Skipped CRL: " + e.getMessage());
+            }
+        }
+        return entry.crls.isEmpty() ? null : entry;
+    }
+
+    private Entry createOcspEntry(byte[] encoded) {
+        if (encoded == null)
+            return null;
+        Entry entry = new Entry();
+        try {
+            entry.ocspResponse = SignUtils.parseBasicOcspResp(encoded);
+        } catch (Exception e) {
+            LOGGER.info("Skipped OCSP response: " + e.getMessage());
+            return null;
+        }
+        entry.encoded = Collections.singletonList(encoded);
+        entry.expirationTime = Long.MAX_VALUE;
+        for (SingleResp resp : entry.ocspResponse.getResponses()) {
+            Date nextUpdate = resp.getNextUpdate();
+            if (nextUpdate == null) {
+                nextUpdate = SignUtils.add180Sec(resp.getThisUpdate());
+            }
+            entry.expirationTime = Math.min(entry.expirationTime, getExpirationTime(resp.getThisUpdate(), nextUpdate));
+        }
+        return entry;
+    }
+
+    /* The revocation data from the future isn't reused, e.g. if the clocks aren't synchronized */
+    private long getExpirationTime(Date thisUpdate, Date nextUpdate) {
+        if (thisUpdate == null || nextUpdate == null || thisUpdate.getTime() > System.currentTimeMillis())
+            return Long.MIN_VALUE;
+        long expirationTime = nextUpdate.getTime();
+        if (maxAge < expirationTime - thisUpdate.getTime())
+            expirationTime = thisUpdate.getTime() + maxAge;
+        return expirationTime;
+    }
+
+    private static class Entry {
+        List<X509CRL> crls;
+        BasicOCSPResp ocspResponse;
+        List<byte[]> encoded;
+        long expirationTime;
+
+        boolean isUpToDate(long now) {
+            return now < expirationTime;
+        }
+    }
+}
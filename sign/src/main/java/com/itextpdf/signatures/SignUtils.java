@@ -83,11 +83,13 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
 import org.bouncycastle.asn1.ASN1ObjectIdentifier;
+import org.bouncycastle.asn1.ASN1Primitive;
 import org.bouncycastle.asn1.ASN1Sequence;
 import org.bouncycastle.asn1.DERNull;
 import org.bouncycastle.asn1.DEROctetString;
 import org.bouncycastle.asn1.esf.SigPolicyQualifierInfo;
 import org.bouncycastle.asn1.esf.SigPolicyQualifiers;
+import org.bouncycastle.asn1.ocsp.BasicOCSPResponse;
 import org.bouncycastle.asn1.ocsp.OCSPObjectIdentifiers;
 import org.bouncycastle.asn1.x509.AlgorithmIdentifier;
 import org.bouncycastle.asn1.x509.Extension;
@@ -118,6 +120,14 @@ class SignUtils {
         return CertificateFactory.getInstance("X.509").generateCRL(input);
     }
 
+    static Collection<? extends CRL> parseCrlsFromStream(InputStream input) throws CertificateException, CRLException {
+        return CertificateFactory.getInstance("X.509").generateCRLs(input);
+    }
+
+    static BasicOCSPResp parseBasicOcspResp(byte[] encoded) throws IOException {
+        return new BasicOCSPResp(BasicOCSPResponse.getInstance(ASN1Primitive.fromByteArray(encoded)));
+    }
+
     static byte[] getExtensionValueByOid(X509Certificate certificate, String oid) {
         return certificate.getExtensionValue(oid);
     }
@@ -64,8 +64,11 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 
 
 /**
@@ -114,6 +117,56 @@ public class SignatureUtil {
         PdfDictionary v = getSignatureDictionary(name);
         if (v == null)
             return null;
+        PdfPKCS7 pk = readSignature(v, provider);
+        updateByteRange(pk, v);
+        return pk;
+    }
+
+    /**
+     * Verifies all the signatures of the document. Further verification can be done on the returned
+     * {@link PdfPKCS7} objects.
+     *
+     * @return the map of the signature field names to the PdfPKCS7 objects, in the order of the revisions
+     */
+    public Map<String, PdfPKCS7> verifySignatures() {
+        return verifySignatures(null);
+    }
+
+    /**
+     * Verifies all the signatures of the document. Further verification can be done on the returned
+     * {@link PdfPKCS7} objects.
+     * <br><br>
+     * The byte ranges of the signatures overlap, as each signature covers the revisions signed before it. They are read
+     * in a single pass over the document: each part of the document is read once and the bytes are passed to the digests
+     * of all the signatures which cover this part.
+     *
+     * @param provider the provider or null for the default provider
+     * @return the map of the signature field names to the PdfPKCS7 objects, in the order of the revisions
+     */
+    public Map<String, PdfPKCS7> verifySignatures(String provider) {
+        Map<String, PdfPKCS7> signatures = new LinkedHashMap<>();
+        List<PdfPKCS7> pkcs7s = new ArrayList<>();
+        List<long[]> ranges = new ArrayList<>();
+        for (String name : getSignatureNames()) {
+            PdfDictionary v = getSignatureDictionary(name);
+            PdfPKCS7 pk = readSignature(v, provider);
+            long[] range = asLongArray(v.getAsArray(PdfName.ByteRange));
+            if (isAscending(range)) {
+                pkcs7s.add(pk);
+                ranges.add(range);
+            } else {
+                updateByteRange(pk, v);
+            }
+            signatures.put(name, pk);
+        }
+        if (pkcs7s.size() > 0) {
+            updateByteRanges(pkcs7s, ranges);
+        }
+        return signatures;
+    }
+
+    /* Creates the PdfPKCS7 object for the signature dictionary, without digesting the /ByteRange */
+    private PdfPKCS7 readSignature(PdfDictionary v, String provider) {
         try {
             PdfName sub = v.getAsName(PdfName.SubFilter);
             PdfString contents = v.getAsString(PdfName.Contents);
@@ -126,7 +179,6 @@ public class SignatureUtil {
             }
             else
                 pk = new PdfPKCS7(PdfEncodings.convertToBytes(contents.getValue(), null), sub, provider);
-            updateByteRange(pk, v);
             PdfString str = v.getAsString(PdfName.M);
             if (str != null)
                 pk.setSignDate(PdfDate.decode(str.toString()));
@@ -191,6 +243,73 @@ public class SignatureUtil {
         }
     }
 
+    /* Updates the PdfPKCS7 objects with their /ByteRanges, reading each byte of the document at most once */
+    private void updateByteRanges(List<PdfPKCS7> pkcs7s, List<long[]> ranges) {
+        // the bounds of all the ranges split the document into parts, each of which is either
+        // entirely covered by a range of a signature or is entirely out of its ranges
+        Set<Long> boundSet = new TreeSet<>();
+        for (long[] range : ranges) {
+            for (int k = 0; k < range.length; k += 2) {
+                boundSet.add(range[k]);
+                boundSet.add(range[k] + range[k + 1]);
+            }
+        }
+        long[] bounds = new long[boundSet.size()];
+        int i = 0;
+        for (Long bound : boundSet) {
+            bounds[i++] = (long) bound;
+        }
+        // the index of the current range of each signature
+        int[] current = new int[pkcs7s.size()];
+        List<PdfPKCS7> covering = new ArrayList<>(pkcs7s.size());
+        RandomAccessFileOrArray rf = document.getReader().getSafeFile();
+        byte[] buf = new byte[8192];
+        try {
+            for (i = 0; i + 1 < bounds.length; ++i) {
+                long from = bounds[i];
+                covering.clear();
+                for (int j = 0; j < current.length; ++j) {
+                    long[] range = ranges.get(j);
+                    while (current[j] < range.length && range[current[j]] + range[current[j] + 1] <= from) {
+                        current[j] += 2;
+                    }
+                    if (current[j] < range.length && range[current[j]] <= from) {
+                        covering.add(pkcs7s.get(j));
+                    }
+                }
+                if (covering.isEmpty())
+                    continue;
+                long remaining = bounds[i + 1] - from;
+                rf.seek(from);
+                while (remaining > 0) {
+                    int rd = rf.read(buf, 0, (int) Math.min(buf.length, remaining));
+                    if (rd <= 0)
+                        return;
+                    for (PdfPKCS7 pkcs7 : covering) {
+                        pkcs7.update(buf, 0, rd);
+                    }
+                    remaining -= rd;
+                }
+            }
+        }
+        catch (Exception e) {
+            throw new PdfException(e);
+        }
+    }
+
+    /* Checks that the ranges are in the order of the document and don't overlap, so they can be digested in a single pass */
+    private static boolean isAscending(long[] range) {
+        if (range.length % 2 != 0)
+            return false;
+        long end = 0;
+        for (int k = 0; k < range.length; k += 2) {
+            if (range[k] < end || range[k + 1] < 0)
+                return false;
+            end = range[k] + range[k + 1];
+        }
+        return true;
+    }
+
     /**
      * Gets the field names that have signatures and are signed.
      *
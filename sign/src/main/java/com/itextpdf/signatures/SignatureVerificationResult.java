@@ -0,0 +1,226 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2016 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.signatures;
+
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The result of the verification of a signature of a document by {@link PdfSignaturesVerifier}.
+ * <br><br>
+ * The signature is valid if the document wasn't altered after it was signed, the timestamp imprint (if any)
+ * is valid, and the certificate checks succeeded, see {@link #isValid()}.
+ */
+public class SignatureVerificationResult {
+
+    /** The name of the signature field. */
+    protected String signatureName;
+    /** The revision covered by the signature. */
+    protected int revision;
+    /** The PdfPKCS7 object of the signature. */
+    protected PdfPKCS7 pkcs7;
+    /** Indicates if the signature covers the whole document. */
+    protected boolean coversWholeDocument;
+    /** Indicates if the signed bytes weren't altered. */
+    protected boolean integrityValid;
+    /** Indicates if the timestamp imprint matches the signature, true if the signature has no timestamp. */
+    protected boolean timestampImprintValid = true;
+    /** The date, on which the certificates were checked. */
+    protected Calendar verificationDate;
+    /** The successful checks of the certificates. */
+    protected List<VerificationOK> certificateVerifications = new ArrayList<>();
+    /** The failures of the verification. */
+    protected List<Exception> errors = new ArrayList<>();
+
+    /**
+     * Creates a SignatureVerificationResult object.
+     *
+     * @param signatureName the name of the signature field
+     * @param revision      the revision covered by the signature
+     * @param pkcs7         the PdfPKCS7 object of the signature
+     */
+    public SignatureVerificationResult(String signatureName, int revision, PdfPKCS7 pkcs7) {
+        this.signatureName = signatureName;
+        this.revision = revision;
+        this.pkcs7 = pkcs7;
+    }
+
+    /**
+     * Gets the name of the signature field.
+     *
+     * @return the name of the signature field
+     */
+    public String getSignatureName() {
+        return signatureName;
+    }
+
+    /**
+     * Gets the revision covered by the signature, see {@link SignatureUtil#getRevision(String)}.
+     *
+     * @return the revision number
+     */
+    public int getRevision() {
+        return revision;
+    }
+
+    /**
+     * Gets the PdfPKCS7 object of the signature, which can be used for further verification.
+     *
+     * @return the PdfPKCS7 object
+     */
+    public PdfPKCS7 getPkcs7() {
+        return pkcs7;
+    }
+
+    /**
+     * Checks if the signature is a document-level timestamp.
+     *
+     * @return true if the signature is a document-level timestamp
+     */
+    public boolean isDocumentTimestamp() {
+        return pkcs7.isTsp();
+    }
+
+    /**
+     * Gets the signing certificate.
+     *
+     * @return the signing certificate
+     */
+    public X509Certificate getSigningCertificate() {
+        return pkcs7.getSigningCertificate();
+    }
+
+    /**
+     * Checks if the signature covers the whole document.
+     *
+     * @return true if the signature covers the whole document, false if the document was updated after it was signed
+     */
+    public boolean isCoversWholeDocument() {
+        return coversWholeDocument;
+    }
+
+    /**
+     * Checks if the signed bytes of the document weren't altered, see {@link PdfPKCS7#verify()}.
+     *
+     * @return true if the signed bytes weren't altered
+     */
+    public boolean isIntegrityValid() {
+        return integrityValid;
+    }
+
+    /**
+     * Checks if the imprint of the timestamp matches the signature, see {@link PdfPKCS7#verifyTimestampImprint()}.
+     *
+     * @return true if the imprint matches or the signature has no timestamp
+     */
+    public boolean isTimestampImprintValid() {
+        return timestampImprintValid;
+    }
+
+    /**
+     * Gets the date, on which the certificates were checked: the date of the timestamp if the signature has one,
+     * otherwise the signing date.
+     *
+     * @return the date of the verification of the certificates
+     */
+    public Calendar getVerificationDate() {
+        return verificationDate;
+    }
+
+    /**
+     * Gets the successful checks of the certificates against the root store, the CRLs and the OCSP responses.
+     *
+     * @return the list of {@link VerificationOK} objects
+     */
+    public List<VerificationOK> getCertificateVerifications() {
+        return Collections.unmodifiableList(certificateVerifications);
+    }
+
+    /**
+     * Gets the failures of the verification, e.g. an expired or revoked certificate or a broken certificate chain.
+     *
+     * @return the list of the exceptions
+     */
+    public List<Exception> getErrors() {
+        return Collections.unmodifiableList(errors);
+    }
+
+    /**
+     * Checks if the signature is valid: the signed bytes and the timestamp imprint are valid
+     * and there were no failures of the certificate checks.
+     *
+     * @return true if the signature is valid
+     */
+    public boolean isValid() {
+        return integrityValid && timestampImprintValid && errors.isEmpty();
+    }
+
+    /**
+     * Return a single String explaining the result of the verification of the signature.
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(signatureName);
+        sb.append(" (revision ").append(revision).append("): ");
+        sb.append(isValid() ? "valid" : "invalid");
+        if (!coversWholeDocument) {
+            sb.append(", doesn't cover whole document");
+        }
+        if (!integrityValid) {
+            sb.append(", document was altered");
+        }
+        if (!timestampImprintValid) {
+            sb.append(", timestamp imprint doesn't match");
+        }
+        for (Exception error : errors) {
+            sb.append(", ").append(error.getMessage());
+        }
+        return sb.toString();
+    }
+}
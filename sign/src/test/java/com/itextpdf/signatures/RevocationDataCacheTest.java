@@ -0,0 +1,290 @@
+package com.itextpdf.signatures;
+
+import com.itextpdf.test.annotations.type.IntegrationTest;
+
+import java.io.File;
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.Security;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.cert.X509v2CRLBuilder;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateHolder;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.cert.ocsp.BasicOCSPRespBuilder;
+import org.bouncycastle.cert.ocsp.CertificateID;
+import org.bouncycastle.cert.ocsp.CertificateStatus;
+import org.bouncycastle.cert.ocsp.RespID;
+import org.bouncycastle.cert.ocsp.jcajce.JcaCertificateID;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.bouncycastle.operator.ContentSigner;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.bouncycastle.operator.jcajce.JcaDigestCalculatorProviderBuilder;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(IntegrationTest.class)
+public class RevocationDataCacheTest {
+
+    public static final String destinationFolder = "./target/test/com/itextpdf/signatures/RevocationDataCacheTest/";
+
+    private static final long HOUR = 60 * 60 * 1000;
+
+    private static KeyPair caKeyPair;
+    private static X509Certificate caCert;
+    private static X509Certificate signCert1;
+    private static X509Certificate signCert2;
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        Security.addProvider(new BouncyCastleProvider());
+        KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
+        keyPairGenerator.initialize(1024);
+        caKeyPair = keyPairGenerator.generateKeyPair();
+        KeyPair signKeyPair = keyPairGenerator.generateKeyPair();
+        X500Name caName = new X500Name("CN=iText revocation test CA");
+        caCert = createCertificate(caName, caName, BigInteger.ONE, caKeyPair, caKeyPair.getPrivate());
+        signCert1 = createCertificate(caName, new X500Name("CN=iText revocation test 1"), BigInteger.valueOf(2), signKeyPair, caKeyPair.getPrivate());
+        signCert2 = createCertificate(caName, new X500Name("CN=iText revocation test 2"), BigInteger.valueOf(3), signKeyPair, caKeyPair.getPrivate());
+    }
+
+    @Before
+    public void before() {
+        File folder = new File(destinationFolder);
+        folder.mkdirs();
+        for (File file : folder.listFiles()) {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void crlIsRetrievedOnceTest() throws Exception {
+        CountingCrlClient crlClient = new CountingCrlClient(createCrl(new Date(System.currentTimeMillis() + HOUR)));
+        RevocationDataCache cache = new RevocationDataCache(crlClient, null);
+
+        Assert.assertEquals(1, cache.getCrls(signCert1, "http://localhost/ca.crl").size());
+        Assert.assertEquals(1, cache.getCrls(signCert2, "http://localhost/ca.crl").size());
+        Assert.assertEquals(1, cache.getEncoded(signCert1, "http://localhost/ca.crl").size());
+
+        Assert.assertEquals(1, crlClient.count.get());
+        Assert.assertEquals(2, cache.getHitCount());
+        Assert.assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void outdatedCrlIsNotReusedTest() throws Exception {
+        CountingCrlClient crlClient = new CountingCrlClient(createCrl(new Date(System.currentTimeMillis() - 1000)));
+        RevocationDataCache cache = new RevocationDataCache(crlClient, null);
+
+        cache.getCrls(signCert1, "http://localhost/ca.crl");
+        cache.getCrls(signCert1, "http://localhost/ca.crl");
+
+        Assert.assertEquals(2, crlClient.count.get());
+        Assert.assertEquals(0, cache.getHitCount());
+        Assert.assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void maxAgeTest() throws Exception {
+        CountingCrlClient crlClient = new CountingCrlClient(createCrl(new Date(System.currentTimeMillis() + HOUR)));
+        RevocationDataCache cache = new RevocationDataCache(crlClient, null).setMaxAge(0);
+
+        cache.getCrls(signCert1, "http://localhost/ca.crl");
+        cache.getCrls(signCert1, "http://localhost/ca.crl");
+
+        Assert.assertEquals(2, crlClient.count.get());
+    }
+
+    @Test
+    public void ocspResponseIsKeptBySerialNumberTest() throws Exception {
+        CountingOcspClient ocspClient = new CountingOcspClient(new Date(System.currentTimeMillis() + HOUR));
+        RevocationDataCache cache = new RevocationDataCache(null, ocspClient);
+
+        Assert.assertNotNull(cache.getOcspResponse(signCert1, caCert, null));
+        Assert.assertNotNull(cache.getOcspResponse(signCert1, caCert, null));
+        Assert.assertNotNull(cache.getEncoded(signCert2, caCert, null));
+
+        Assert.assertEquals(2, ocspClient.count.get());
+        Assert.assertEquals(1, cache.getHitCount());
+        Assert.assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    public void concurrentRequestsRetrieveOnceTest() throws Exception {
+        final CountDownLatch retrievalStarted = new CountDownLatch(1);
+        final CountDownLatch retrievalReleased = new CountDownLatch(1);
+        final CountingCrlClient crlClient = new CountingCrlClient(createCrl(new Date(System.currentTimeMillis() + HOUR))) {
+            @Override
+            public Collection<byte[]> getEncoded(X509Certificate checkCert, String url) {
+                retrievalStarted.countDown();
+                try {
+                    retrievalReleased.await();
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+                return super.getEncoded(checkCert, url);
+            }
+        };
+        CountingOcspClient ocspClient = new CountingOcspClient(new Date(System.currentTimeMillis() + HOUR));
+        final RevocationDataCache cache = new RevocationDataCache(crlClient, ocspClient);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Collection<byte[]>>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                results.add(executor.submit(new Callable<Collection<byte[]>>() {
+                    @Override
+                    public Collection<byte[]> call() {
+                        return cache.getEncoded(signCert1, "http://localhost/ca.crl");
+                    }
+                }));
+            }
+            Assert.assertTrue(retrievalStarted.await(10, TimeUnit.SECONDS));
+            // the pending CRL retrieval doesn't block the requests for other revocation data
+            Assert.assertNotNull(cache.getOcspResponse(signCert1, caCert, null));
+            retrievalReleased.countDown();
+            for (Future<Collection<byte[]>> result : results) {
+                Assert.assertEquals(1, result.get(10, TimeUnit.SECONDS).size());
+            }
+        } finally {
+            retrievalReleased.countDown();
+            executor.shutdownNow();
+        }
+
+        Assert.assertEquals(1, crlClient.count.get());
+    }
+
+    @Test
+    public void sizeBoundTest() throws Exception {
+        CountingOcspClient ocspClient = new CountingOcspClient(new Date(System.currentTimeMillis() + HOUR));
+        RevocationDataCache cache = new RevocationDataCache(null, ocspClient).setMaxEntries(1);
+
+        cache.getOcspResponse(signCert1, caCert, null);
+        cache.getOcspResponse(signCert2, caCert, null);
+        cache.getOcspResponse(signCert1, caCert, null);
+
+        Assert.assertEquals(3, ocspClient.count.get());
+        Assert.assertEquals(2, cache.getEvictionCount());
+        Assert.assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void storeDirectoryTest() throws Exception {
+        CountingCrlClient crlClient = new CountingCrlClient(createCrl(new Date(System.currentTimeMillis() + HOUR)));
+        CountingOcspClient ocspClient = new CountingOcspClient(new Date(System.currentTimeMillis() + HOUR));
+        new RevocationDataCache(crlClient, ocspClient).setStoreDirectory(new File(destinationFolder))
+                .getCrls(signCert1, "http://localhost/ca.crl");
+        new RevocationDataCache(crlClient, ocspClient).setStoreDirectory(new File(destinationFolder))
+                .getOcspResponse(signCert1, caCert, null);
+
+        RevocationDataCache cache = new RevocationDataCache(crlClient, ocspClient).setStoreDirectory(new File(destinationFolder));
+        Assert.assertEquals(1, cache.getCrls(signCert2, "http://localhost/ca.crl").size());
+        Assert.assertNotNull(cache.getOcspResponse(signCert1, caCert, null));
+
+        Assert.assertEquals(1, crlClient.count.get());
+        Assert.assertEquals(1, ocspClient.count.get());
+        Assert.assertEquals(2, cache.getHitCount());
+        Assert.assertEquals(0, cache.getMissCount());
+    }
+
+    @Test
+    public void verifiersShareCacheTest() throws Exception {
+        CountingCrlClient crlClient = new CountingCrlClient(createCrl(new Date(System.currentTimeMillis() + HOUR)));
+        CountingOcspClient ocspClient = new CountingOcspClient(new Date(System.currentTimeMillis() + HOUR));
+        RevocationDataCache cache = new RevocationDataCache(crlClient, ocspClient);
+        Date signDate = new Date();
+
+        for (X509Certificate signCert : new X509Certificate[] {signCert1, signCert2}) {
+            CRLVerifier crlVerifier = new CRLVerifier(null, null);
+            crlVerifier.setRevocationDataCache(cache);
+            List<VerificationOK> crlResult = crlVerifier.verify(signCert, caCert, signDate);
+            Assert.assertEquals(1, crlResult.size());
+
+            OCSPVerifier ocspVerifier = new OCSPVerifier(null, null);
+            ocspVerifier.setRevocationDataCache(cache);
+            List<VerificationOK> ocspResult = ocspVerifier.verify(signCert, caCert, signDate);
+            Assert.assertEquals(1, ocspResult.size());
+        }
+
+        Assert.assertEquals(1, crlClient.count.get());
+        Assert.assertEquals(2, ocspClient.count.get());
+    }
+
+    private static X509Certificate createCertificate(X500Name issuer, X500Name subject, BigInteger serial, KeyPair keyPair,
+                                                     PrivateKey issuerKey) throws Exception {
+        long now = System.currentTimeMillis();
+        JcaX509v3CertificateBuilder builder = new JcaX509v3CertificateBuilder(issuer, serial,
+                new Date(now - 24 * HOUR), new Date(now + 24 * HOUR), subject, keyPair.getPublic());
+        return new JcaX509CertificateConverter().getCertificate(builder.build(createSigner(issuerKey)));
+    }
+
+    private static byte[] createCrl(Date nextUpdate) throws Exception {
+        X509v2CRLBuilder crlBuilder = new X509v2CRLBuilder(new JcaX509CertificateHolder(caCert).getSubject(),
+                new Date(System.currentTimeMillis() - HOUR));
+        crlBuilder.setNextUpdate(nextUpdate);
+        return crlBuilder.build(createSigner(caKeyPair.getPrivate())).getEncoded();
+    }
+
+    private static ContentSigner createSigner(PrivateKey key) throws Exception {
+        return new JcaContentSignerBuilder("SHA256withRSA").build(key);
+    }
+
+    /* A local stand-in for an online CRL distribution point */
+    private static class CountingCrlClient implements ICrlClient {
+        final AtomicInteger count = new AtomicInteger();
+        private final byte[] crl;
+
+        CountingCrlClient(byte[] crl) {
+            this.crl = crl;
+        }
+
+        @Override
+        public Collection<byte[]> getEncoded(X509Certificate checkCert, String url) {
+            count.incrementAndGet();
+            return Collections.singletonList(crl);
+        }
+    }
+
+    /* A local stand-in for an OCSP responder, which responds that the certificate is good */
+    private static class CountingOcspClient implements IOcspClient {
+        final AtomicInteger count = new AtomicInteger();
+        private final Date nextUpdate;
+
+        CountingOcspClient(Date nextUpdate) {
+            this.nextUpdate = nextUpdate;
+        }
+
+        @Override
+        public byte[] getEncoded(X509Certificate checkCert, X509Certificate issuerCert, String url) {
+            count.incrementAndGet();
+            try {
+                CertificateID id = new JcaCertificateID(new JcaDigestCalculatorProviderBuilder().build().get(CertificateID.HASH_SHA1),
+                        issuerCert, checkCert.getSerialNumber());
+                BasicOCSPRespBuilder builder = new BasicOCSPRespBuilder(new RespID(new JcaX509CertificateHolder(issuerCert).getSubject()));
+                builder.addResponse(id, CertificateStatus.GOOD, new Date(System.currentTimeMillis() - HOUR), nextUpdate, null);
+                return builder.build(createSigner(caKeyPair.getPrivate()), null, new Date()).getEncoded();
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+}
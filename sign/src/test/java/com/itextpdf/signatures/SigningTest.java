@@ -1,6 +1,7 @@
 package com.itextpdf.signatures;
 
 import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.kernel.pdf.PdfDocument;
 import com.itextpdf.kernel.pdf.PdfReader;
 import com.itextpdf.kernel.utils.CompareTool;
 import com.itextpdf.test.annotations.type.IntegrationTest;
@@ -9,7 +10,11 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
 import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
 import java.security.KeyStore;
 import java.security.KeyStoreException;
 import java.security.NoSuchAlgorithmException;
@@ -18,12 +23,24 @@ import java.security.Security;
 import java.security.UnrecoverableKeyException;
 import java.security.cert.Certificate;
 import java.security.cert.CertificateException;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.cert.X509v2CRLBuilder;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
 import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.bouncycastle.operator.OperatorCreationException;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -118,6 +135,158 @@ public class SigningTest {
                 PdfSigner.CryptoStandard.CADES, "Test 1", "TestCity", null, true);
     }
 
+    @Test
+    public void signingWithTemporaryFileTest() throws GeneralSecurityException, IOException {
+        String src = sourceFolder + "simpleDocument.pdf";
+        String dest = destinationFolder + "signatureWithTemporaryFile.pdf";
+
+        File tempFolder = new File(destinationFolder, "temp");
+        tempFolder.mkdirs();
+
+        PdfSigner signer = new PdfSigner(new PdfReader(src), new FileOutputStream(dest), tempFolder.getPath(), false);
+        signer.getSignatureAppearance().setReason("Test 1").setLocation("TestCity")
+                .setPageRect(new Rectangle(36, 648, 200, 100));
+        signer.setFieldName("Signature1");
+        IExternalSignature pks = new PrivateKeySignature(pk, DigestAlgorithms.SHA256, provider.getName());
+        signer.signDetached(new BouncyCastleDigest(), pks, chain, null, null, null, 0, PdfSigner.CryptoStandard.CADES);
+        // the temporary file is deleted, the regions mapped for the digest don't keep it open
+        Assert.assertEquals(0, tempFolder.list().length);
+
+        PdfDocument pdfDocument = new PdfDocument(new PdfReader(dest));
+        SignatureUtil signatureUtil = new SignatureUtil(pdfDocument);
+        Assert.assertTrue(signatureUtil.signatureCoversWholeDocument("Signature1"));
+        Assert.assertTrue(signatureUtil.verifySignature("Signature1").verify());
+        pdfDocument.close();
+    }
+
+    @Test
+    public void signingWithOverriddenRangeStreamTest() throws GeneralSecurityException, IOException {
+        String src = sourceFolder + "simpleDocument.pdf";
+        String dest = destinationFolder + "signatureWithOverriddenRangeStream.pdf";
+
+        final AtomicInteger rangeStreamRequests = new AtomicInteger();
+        PdfSigner signer = new PdfSigner(new PdfReader(src), new FileOutputStream(dest), false) {
+            @Override
+            protected InputStream getRangeStream() throws IOException {
+                rangeStreamRequests.incrementAndGet();
+                return super.getRangeStream();
+            }
+        };
+        signer.setFieldName("Signature1");
+        IExternalSignature pks = new PrivateKeySignature(pk, DigestAlgorithms.SHA256, provider.getName());
+        signer.signDetached(new BouncyCastleDigest(), pks, chain, null, null, null, 0, PdfSigner.CryptoStandard.CADES);
+        // the bytes to be signed are taken from the overridden method, not straight from the document buffer
+        Assert.assertEquals(1, rangeStreamRequests.get());
+
+        PdfDocument pdfDocument = new PdfDocument(new PdfReader(dest));
+        SignatureUtil signatureUtil = new SignatureUtil(pdfDocument);
+        Assert.assertTrue(signatureUtil.verifySignature("Signature1").verify());
+        pdfDocument.close();
+    }
+
+    @Test
+    public void batchSigningTest() throws GeneralSecurityException, IOException, OperatorCreationException {
+        final String src = sourceFolder + "simpleDocument.pdf";
+        int documentsCount = 10;
+
+        X509Certificate signCert = (X509Certificate) chain[0];
+        X509v2CRLBuilder crlBuilder = new X509v2CRLBuilder(new X500Name(signCert.getIssuerX500Principal().getName()), new Date());
+        // the CRL without next update wouldn't be reused
+        crlBuilder.setNextUpdate(new Date(System.currentTimeMillis() + 60 * 60 * 1000));
+        final byte[] crl = crlBuilder.build(new JcaContentSignerBuilder("SHA256withRSA").build(pk)).getEncoded();
+        final AtomicInteger crlRequests = new AtomicInteger();
+        ICrlClient crlClient = new ICrlClient() {
+            @Override
+            public Collection<byte[]> getEncoded(X509Certificate checkCert, String url) {
+                crlRequests.incrementAndGet();
+                return Collections.singletonList(crl);
+            }
+        };
+
+        PdfBatchSigner batchSigner = new PdfBatchSigner(new BouncyCastleDigest(),
+                new PrivateKeySignature(pk, DigestAlgorithms.SHA256, provider.getName()), chain,
+                Collections.singletonList(crlClient), null, null, PdfSigner.CryptoStandard.CADES, 4);
+        List<PdfBatchSigner.ISignerFactory> signerFactories = new ArrayList<>();
+        for (int i = 0; i < documentsCount; i++) {
+            final String dest = destinationFolder + "batchSignature" + i + ".pdf";
+            signerFactories.add(new PdfBatchSigner.ISignerFactory() {
+                @Override
+                public PdfSigner createSigner() throws IOException {
+                    PdfSigner signer = new PdfSigner(new PdfReader(src), new FileOutputStream(dest), false);
+                    signer.getSignatureAppearance().setReason("Test 1").setLocation("TestCity")
+                            .setPageRect(new Rectangle(36, 648, 200, 100));
+                    signer.setFieldName("Signature1");
+                    return signer;
+                }
+            });
+        }
+        batchSigner.signDetached(signerFactories);
+        batchSigner.shutdown();
+
+        Assert.assertEquals(1, crlRequests.get());
+        for (int i = 0; i < documentsCount; i++) {
+            PdfDocument pdfDocument = new PdfDocument(new PdfReader(destinationFolder + "batchSignature" + i + ".pdf"));
+            PdfPKCS7 pkcs7 = new SignatureUtil(pdfDocument).verifySignature("Signature1");
+            Assert.assertTrue(pkcs7.verify());
+            Assert.assertEquals(1, pkcs7.getCRLs().size());
+            pdfDocument.close();
+        }
+    }
+
+    @Test
+    public void multipleSignaturesVerificationTest() throws GeneralSecurityException, IOException {
+        String src = sourceFolder + "simpleDocument.pdf";
+        String dest = destinationFolder + "multipleSignatures";
+        // the certificate of the test key store has expired, so a valid one is issued
+        KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
+        keyPairGenerator.initialize(2048);
+        KeyPair keyPair = keyPairGenerator.generateKeyPair();
+        X500Name name = new X500Name("CN=iText signatures verification test");
+        long now = System.currentTimeMillis();
+        X509Certificate certificate;
+        try {
+            certificate = new JcaX509CertificateConverter().getCertificate(new JcaX509v3CertificateBuilder(name, BigInteger.ONE,
+                    new Date(now - 24 * 60 * 60 * 1000), new Date(now + 24 * 60 * 60 * 1000), name, keyPair.getPublic())
+                    .build(new JcaContentSignerBuilder("SHA256withRSA").build(keyPair.getPrivate())));
+        } catch (OperatorCreationException e) {
+            throw new GeneralSecurityException(e);
+        }
+        Certificate[] chain = {certificate};
+        IExternalSignature pks = new PrivateKeySignature(keyPair.getPrivate(), DigestAlgorithms.SHA256, provider.getName());
+        for (int i = 1; i <= 3; i++) {
+            PdfSigner signer = new PdfSigner(new PdfReader(i == 1 ? src : dest + (i - 1) + ".pdf"), new FileOutputStream(dest + i + ".pdf"), true);
+            signer.getSignatureAppearance().setPageRect(new Rectangle(36, 648 - 110 * i, 200, 100));
+            signer.setFieldName("Signature" + i);
+            signer.signDetached(new BouncyCastleDigest(), pks, chain, null, null, null, 0, PdfSigner.CryptoStandard.CADES);
+        }
+
+        PdfDocument pdfDocument = new PdfDocument(new PdfReader(dest + "3.pdf"));
+        Map<String, PdfPKCS7> signatures = new SignatureUtil(pdfDocument).verifySignatures();
+        Assert.assertEquals(Arrays.asList("Signature1", "Signature2", "Signature3"), new ArrayList<>(signatures.keySet()));
+        for (PdfPKCS7 pkcs7 : signatures.values()) {
+            Assert.assertTrue(pkcs7.verify());
+        }
+
+        KeyStore rootStore = KeyStore.getInstance(KeyStore.getDefaultType());
+        rootStore.load(null, null);
+        rootStore.setCertificateEntry("root", certificate);
+        List<SignatureVerificationResult> results = new PdfSignaturesVerifier(pdfDocument, 3)
+                .setRootStore(rootStore)
+                .setOnlineCheckingAllowed(false)
+                .verify();
+        pdfDocument.close();
+
+        Assert.assertEquals(3, results.size());
+        for (int i = 0; i < results.size(); i++) {
+            SignatureVerificationResult result = results.get(i);
+            Assert.assertEquals("Signature" + (i + 1), result.getSignatureName());
+            Assert.assertEquals(i + 1, result.getRevision());
+            Assert.assertEquals(i == 2, result.isCoversWholeDocument());
+            Assert.assertTrue(result.toString(), result.isValid());
+            Assert.assertFalse(result.getCertificateVerifications().isEmpty());
+        }
+    }
+
     protected void sign(String src, String name, String dest,
                      Certificate[] chain, PrivateKey pk,
                      String digestAlgorithm, String provider, PdfSigner.CryptoStandard subfilter,